@@ -32,6 +32,75 @@ public class Config {
             .comment("The display name for the marketplace GUI")
             .define("marketplaceName", "Free Market");
 
+    public static final ModConfigSpec.IntValue TRADE_TICK_BUDGET_MS = BUILDER
+            .comment("Maximum milliseconds per server tick spent processing queued buy/sell requests. Requests left over carry to the next tick.")
+            .defineInRange("tradeTickBudgetMs", 5, 1, 50);
+
+    public static final ModConfigSpec.IntValue TRADE_VALIDATION_THREADS = BUILDER
+            .comment("Number of worker threads that validate buy/sell requests before they are committed on the server thread.")
+            .defineInRange("tradeValidationThreads", 2, 1, 8);
+
+    public static final ModConfigSpec.IntValue LEDGER_SEGMENT_MAX_KB = BUILDER
+            .comment("Size in kilobytes after which the transaction ledger starts a new segment file.")
+            .defineInRange("ledgerSegmentMaxKb", 1024, 16, 1048576);
+
+    public static final ModConfigSpec.IntValue LEDGER_SEGMENT_MAX_MINUTES = BUILDER
+            .comment("Age in minutes after which the transaction ledger starts a new segment file.")
+            .defineInRange("ledgerSegmentMaxMinutes", 60, 1, 10080);
+
+    public static final ModConfigSpec.IntValue ORDER_MATCH_MAX_FILLS_PER_TICK = BUILDER
+            .comment("Maximum number of player order fills matched per server tick. Books that still cross are matched on the next tick.")
+            .defineInRange("orderMatchMaxFillsPerTick", 256, 1, 100000);
+
+    public static final ModConfigSpec.IntValue AUCTION_MAX_DURATION_MINUTES = BUILDER
+            .comment("Longest duration in minutes a player can run an auction for.")
+            .defineInRange("auctionMaxDurationMinutes", 10080, 1, 43200);
+
+    public static final ModConfigSpec.IntValue AUCTION_MIN_INCREMENT_PERCENT = BUILDER
+            .comment("How much higher than the current bid, in percent, a new bid must be (at least 1 coin).")
+            .defineInRange("auctionMinIncrementPercent", 5, 0, 100);
+
+    public static final ModConfigSpec.BooleanValue DYNAMIC_PRICING_ENABLED = BUILDER
+            .comment("Whether listing prices follow supply and demand. The prices set with /fm list become base prices.")
+            .define("dynamicPricingEnabled", false);
+
+    public static final ModConfigSpec.IntValue DYNAMIC_PRICING_INTERVAL_SECONDS = BUILDER
+            .comment("Seconds between dynamic pricing batches.")
+            .defineInRange("dynamicPricingIntervalSeconds", 300, 10, 86400);
+
+    public static final ModConfigSpec.DoubleValue DYNAMIC_PRICING_SMOOTHING = BUILDER
+            .comment("Weight of the latest interval in the trade volume moving averages (0-1). Higher reacts faster.")
+            .defineInRange("dynamicPricingSmoothing", 0.3, 0.01, 1.0);
+
+    public static final ModConfigSpec.DoubleValue DYNAMIC_PRICING_SENSITIVITY = BUILDER
+            .comment("How far prices move for a fully one-sided market, as a fraction of the base price.")
+            .defineInRange("dynamicPricingSensitivity", 0.5, 0.0, 10.0);
+
+    public static final ModConfigSpec.IntValue DYNAMIC_PRICING_FLOOR_PERCENT = BUILDER
+            .comment("Lowest dynamic price as a percentage of the base price.")
+            .defineInRange("dynamicPricingFloorPercent", 50, 1, 100);
+
+    public static final ModConfigSpec.IntValue DYNAMIC_PRICING_CEILING_PERCENT = BUILDER
+            .comment("Highest dynamic price as a percentage of the base price.")
+            .defineInRange("dynamicPricingCeilingPercent", 200, 100, 10000);
+
+    public static final ModConfigSpec.IntValue ANALYTICS_EXPORT_MINUTES = BUILDER
+            .comment("Minutes between market analytics exports to world/data/freemarket_analytics.ndjson. 0 disables the export.")
+            .defineInRange("analyticsExportMinutes", 0, 0, 10080);
+
+    public static final ModConfigSpec.IntValue LISTING_SCHEDULE_MAX_EVENTS_PER_TICK = BUILDER
+            .comment("Most listing restocks and expiries applied per server tick. Further due events wait for the next tick.")
+            .defineInRange("listingScheduleMaxEventsPerTick", 256, 1, 100000);
+
+    public static final ModConfigSpec.IntValue PLAYER_LISTING_MAX_PER_PLAYER = BUILDER
+            .comment("Most marketplace listings one player can have open at a time.")
+            .defineInRange("playerListingMaxPerPlayer", 10, 0, 1000);
+
+    public static final ModConfigSpec.BooleanValue ICON_ATLAS_ENABLED = BUILDER
+            .comment("Client only. Whether the marketplace draws item icons from a cached texture instead of rendering each item every frame.",
+                    "Enchanted and animated items are still rendered live.")
+            .define("iconAtlasEnabled", false);
+
     static final ModConfigSpec SPEC = BUILDER.build();
 
     private static boolean validateItemName(final Object obj) {
@@ -40,6 +40,16 @@ import com.freemarket.common.network.AdminModeNetworkHandler;
 import com.freemarket.common.network.SellItemNetworkHandler;
 import com.freemarket.server.events.ServerEventHandler;
 import com.freemarket.server.events.ServerMarketplaceEventHandler;
+import com.freemarket.server.analytics.MarketAnalytics;
+import com.freemarket.server.auction.AuctionHouse;
+import com.freemarket.server.history.PriceHistoryStore;
+import com.freemarket.server.ledger.TransactionLedger;
+import com.freemarket.server.mailbox.MailboxStore;
+import com.freemarket.server.orderbook.OrderMatchingEngine;
+import com.freemarket.server.pricing.DynamicPricingEngine;
+import com.freemarket.server.schedule.ListingScheduler;
+import com.freemarket.server.trade.TradeBatchProcessor;
+import com.freemarket.server.trade.TradeListeners;
 
 // The value here should match an entry in the META-INF/neoforge.mods.toml file
 @Mod(FreeMarket.MODID)
@@ -105,6 +115,36 @@ public class FreeMarket {
         
         // Register marketplace event handler for marketplace sync
         NeoForge.EVENT_BUS.register(ServerMarketplaceEventHandler.class);
+        
+        // Register per-tick trade batch processor for buy/sell requests
+        NeoForge.EVENT_BUS.register(TradeBatchProcessor.class);
+        
+        // Register transaction ledger so its writer follows the server lifecycle
+        NeoForge.EVENT_BUS.register(TransactionLedger.class);
+        
+        // Register player order matching, run at the end of each server tick
+        NeoForge.EVENT_BUS.register(OrderMatchingEngine.class);
+        
+        // Register auction house so auctions expire on time
+        NeoForge.EVENT_BUS.register(AuctionHouse.class);
+        
+        // Register dynamic pricing batches and feed them committed trades
+        NeoForge.EVENT_BUS.register(DynamicPricingEngine.class);
+        TradeListeners.register(DynamicPricingEngine::onTrade);
+        
+        // Register price history so it loads and saves with the world, and record every trade into it
+        NeoForge.EVENT_BUS.register(PriceHistoryStore.class);
+        TradeListeners.register(PriceHistoryStore::onTrade);
+        
+        // Register market analytics exports and feed them committed trades
+        NeoForge.EVENT_BUS.register(MarketAnalytics.class);
+        TradeListeners.register(MarketAnalytics::onTrade);
+        
+        // Register listing scheduler so restocks and expiries are applied when due
+        NeoForge.EVENT_BUS.register(ListingScheduler.class);
+
+        // Register mailboxes so they are saved with the world
+        NeoForge.EVENT_BUS.register(MailboxStore.class);
 
         // Register the item to a creative tab
         modEventBus.addListener(this::addCreative);
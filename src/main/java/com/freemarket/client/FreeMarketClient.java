@@ -2,6 +2,7 @@ package com.freemarket.client;
 
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.Minecraft;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.bus.api.SubscribeEvent;
@@ -9,6 +10,8 @@ import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.event.lifecycle.FMLClientSetupEvent;
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
+import net.neoforged.neoforge.client.event.RegisterClientReloadListenersEvent;
 import net.neoforged.neoforge.client.event.RegisterKeyMappingsEvent;
 import net.neoforged.neoforge.client.gui.ConfigurationScreen;
 import net.neoforged.neoforge.client.gui.IConfigScreenFactory;
@@ -17,6 +20,11 @@ import org.lwjgl.glfw.GLFW;
 
 import com.freemarket.FreeMarket;
 import com.freemarket.client.gui.FreeMarketGuiScreen;
+import com.freemarket.client.gui.ItemIconAtlas;
+import com.freemarket.client.data.ClientInventoryIndex;
+import com.freemarket.client.data.ClientMailboxCache;
+import com.freemarket.client.data.ClientMarketplaceCache;
+import com.freemarket.client.data.ClientPriceHistoryCache;
 import com.freemarket.client.data.ClientWalletCache;
 
 // This class will not load on dedicated servers. Accessing client side code from here is safe.
@@ -61,6 +69,22 @@ public class FreeMarketClient {
         event.register(OPEN_SHOP_KEY);
     }
     
+    @SubscribeEvent
+    public static void registerReloadListeners(RegisterClientReloadListenersEvent event) {
+        // Cached marketplace icons go stale when models or textures reload
+        event.registerReloadListener((ResourceManagerReloadListener) resourceManager -> ItemIconAtlas.invalidate());
+    }
+    
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        // Listings, stock, search results, price history, inventory counts and the mailbox size
+        // belong to the world being left
+        ClientMarketplaceCache.clearCache();
+        ClientPriceHistoryCache.clearCache();
+        ClientInventoryIndex.clearCache();
+        ClientMailboxCache.clearCache();
+    }
+    
     @SubscribeEvent
     public static void onKeyInput(InputEvent.Key event) {
         Minecraft minecraft = Minecraft.getInstance();
@@ -0,0 +1,95 @@
+package com.freemarket.client.data;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Client-side count of the local player's items by fingerprint, for telling which listings can be sold.
+ *
+ * <p>A fingerprint is an item with its component changes, the same thing
+ * {@link ItemStack#isSameItemSameComponents} compares. The counts are rebuilt from the inventory
+ * only when it changes, which {@link Inventory#getTimesChanged()} tells, so checking whether the
+ * player holds enough of a listing's item is one hash lookup. Used only from the render thread.</p>
+ */
+public class ClientInventoryIndex {
+
+    /**
+     * An item and its component patch, with the hash computed once.
+     */
+    public static final class Fingerprint {
+        private final Item item;
+        private final DataComponentPatch patch;
+        private final int hash;
+
+        private Fingerprint(Item item, DataComponentPatch patch) {
+            this.item = item;
+            this.patch = patch;
+            this.hash = 31 * item.hashCode() + patch.hashCode();
+        }
+
+        public static Fingerprint of(ItemStack stack) {
+            return new Fingerprint(stack.getItem(), stack.getComponentsPatch());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || other instanceof Fingerprint fingerprint
+                && hash == fingerprint.hash && item == fingerprint.item && patch.equals(fingerprint.patch);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final Object2IntOpenHashMap<Fingerprint> counts = new Object2IntOpenHashMap<>();
+    // What the counts were built from
+    private static Inventory indexedInventory = null;
+    private static int indexedChanges = -1;
+
+    /**
+     * Rebuilds the counts if the player's inventory changed since the last call.
+     * @return true if the counts changed
+     */
+    public static boolean refresh(Player player) {
+        Inventory inventory = player != null ? player.getInventory() : null;
+        int changes = inventory != null ? inventory.getTimesChanged() : -1;
+        if (inventory == indexedInventory && changes == indexedChanges) {
+            return false;
+        }
+        indexedInventory = inventory;
+        indexedChanges = changes;
+
+        counts.clear();
+        if (inventory != null) {
+            for (int i = 0; i < inventory.getContainerSize(); i++) {
+                ItemStack stack = inventory.getItem(i);
+                if (!stack.isEmpty()) {
+                    counts.addTo(Fingerprint.of(stack), stack.getCount());
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets how many items with the fingerprint the player holds, as of the last {@link #refresh}.
+     */
+    public static int count(Fingerprint fingerprint) {
+        return counts.getInt(fingerprint);
+    }
+
+    /**
+     * Clears the counts. Called when the player leaves a world.
+     */
+    public static void clearCache() {
+        counts.clear();
+        indexedInventory = null;
+        indexedChanges = -1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.freemarket.client.data;
+
+/**
+ * Client-side cache for the number of items waiting in the player's mailbox.
+ * Updated by the server whenever the mailbox changes.
+ */
+public class ClientMailboxCache {
+    
+    private static int itemCount = 0;
+    
+    /**
+     * Updates the number of waiting items.
+     * @param count the item count sent by the server
+     */
+    public static void setItemCount(int count) {
+        itemCount = count;
+    }
+    
+    /**
+     * Gets the number of waiting items.
+     * @return the item count, or 0 before the server sent one
+     */
+    public static int getItemCount() {
+        return itemCount;
+    }
+    
+    /**
+     * Clears the cache. Called when the player leaves a world.
+     */
+    public static void clearCache() {
+        itemCount = 0;
+    }
+}
@@ -1,27 +1,163 @@
 package com.freemarket.client.data;
 
+import com.freemarket.FreeMarket;
 import com.freemarket.common.data.FreeMarketItem;
+import net.minecraft.Util;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Client-side cache for marketplace data received from server via networking.
  * This ensures the GUI can display marketplace data even when not connected to a local server.
+ *
+ * <p>The listings and their stock form an immutable {@link Snapshot}. Incoming syncs and deltas are
+ * applied by {@link #submit} on a background worker, one after the other in arrival order, and each
+ * result replaces the snapshot in a single volatile write. Decoding a full sync, which parses JSON and
+ * builds item stacks, thus never runs on the render thread; the open marketplace screen notices the
+ * new snapshot on its next frame.</p>
  */
 public class ClientMarketplaceCache {
     
-    private static List<FreeMarketItem> cachedItems = new ArrayList<>();
-    private static long lastCacheUpdate = 0;
-    private static boolean hasCachedData = false;
+    /**
+     * The marketplace as of one update: listings in order and the stock of listings with limited stock
+     * (listings not in the map have unlimited stock). Never modified once published.
+     * @param version increases with every published update; 0 before the first sync
+     */
+    public record Snapshot(List<FreeMarketItem> items, Map<String, Integer> stock, long version) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), 0);
+    }
+    
+    private static volatile Snapshot snapshot = Snapshot.EMPTY;
+    private static volatile long lastCacheUpdate = 0;
+    
+    // Tail of the queue of updates waiting for the worker
+    private static CompletableFuture<Void> pendingUpdates = CompletableFuture.completedFuture(null);
+    
+    // Search index over the listings shown in the marketplace screen; kept across screens
+    private static ListingSearchIndex searchIndex = new ListingSearchIndex();
+    
+    /**
+     * Queues an update of the cached data on the background worker, after every update queued before it.
+     * Safe to call from the network thread.
+     * @param update work that ends in one of the update methods below
+     */
+    public static synchronized void submit(Runnable update) {
+        pendingUpdates = pendingUpdates
+            .thenRunAsync(update, Util.backgroundExecutor())
+            .exceptionally(e -> {
+                FreeMarket.LOGGER.error("Failed to apply marketplace update", e);
+                return null;
+            });
+    }
     
     /**
      * Updates the cached marketplace data from server sync.
+     * Runs on the update worker, see {@link #submit}.
      * @param items the marketplace items from server
      */
     public static void updateCache(List<FreeMarketItem> items) {
-        cachedItems = new ArrayList<>(items);
+        Snapshot current = snapshot;
+        publish(List.copyOf(items), current.stock(), current);
+    }
+    
+    /**
+     * Replaces the prices of the given listings, leaving everything else as it was.
+     * Runs on the update worker, see {@link #submit}.
+     * @param guids listing GUIDs
+     * @param buyPrices new buy prices, parallel to {@code guids}
+     * @param sellPrices new sell prices, parallel to {@code guids}
+     */
+    public static void applyPriceChanges(List<String> guids, List<Long> buyPrices, List<Long> sellPrices) {
+        Map<String, Integer> indexByGuid = new HashMap<>();
+        for (int i = 0; i < guids.size(); i++) {
+            indexByGuid.put(guids.get(i), i);
+        }
+        
+        Snapshot current = snapshot;
+        List<FreeMarketItem> updated = new ArrayList<>(current.items().size());
+        for (FreeMarketItem item : current.items()) {
+            Integer index = indexByGuid.get(item.getGuid());
+            if (index == null) {
+                updated.add(item);
+            } else {
+                updated.add(new FreeMarketItem(item.getItemStack(), buyPrices.get(index), sellPrices.get(index),
+                    item.getQuantity(), item.getSeller(), item.getGuid(), item.getComponentData()));
+            }
+        }
+        
+        publish(Collections.unmodifiableList(updated), current.stock(), current);
+    }
+    
+    /**
+     * Removes expired listings and updates stock levels, leaving everything else as it was.
+     * Runs on the update worker, see {@link #submit}.
+     * @param removedGuids listings that no longer exist
+     * @param stockGuids listings whose stock changed
+     * @param stock new stock levels, parallel to {@code stockGuids}; -1 for unlimited
+     */
+    public static void applyListingChanges(List<String> removedGuids, List<String> stockGuids, List<Integer> stock) {
+        Snapshot current = snapshot;
+        Map<String, Integer> stockByGuid = new HashMap<>(current.stock());
+        for (int i = 0; i < stockGuids.size(); i++) {
+            if (stock.get(i) < 0) {
+                stockByGuid.remove(stockGuids.get(i));
+            } else {
+                stockByGuid.put(stockGuids.get(i), stock.get(i));
+            }
+        }
+        
+        List<FreeMarketItem> items = current.items();
+        if (!removedGuids.isEmpty()) {
+            Set<String> removed = new HashSet<>(removedGuids);
+            List<FreeMarketItem> updated = new ArrayList<>(items.size());
+            for (FreeMarketItem item : items) {
+                if (!removed.contains(item.getGuid())) {
+                    updated.add(item);
+                }
+            }
+            items = Collections.unmodifiableList(updated);
+            removedGuids.forEach(stockByGuid::remove);
+        }
+        
+        publish(items, Collections.unmodifiableMap(stockByGuid), current);
+    }
+    
+    private static void publish(List<FreeMarketItem> items, Map<String, Integer> stock, Snapshot previous) {
         lastCacheUpdate = System.currentTimeMillis();
-        hasCachedData = true;
+        snapshot = new Snapshot(items, stock, previous.version() + 1);
+    }
+    
+    /**
+     * Gets the current snapshot. Callers compare it by identity to notice updates.
+     * @return the latest published snapshot
+     */
+    public static Snapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Gets a listing's stock.
+     * @param guid listing GUID
+     * @return items left to buy, or -1 for unlimited stock
+     */
+    public static int getStock(String guid) {
+        return snapshot.stock().getOrDefault(guid, -1);
+    }
+    
+    /**
+     * Gets the search index for the marketplace screen.
+     * The screen syncs it with the listings it shows.
+     * @return the search index
+     */
+    public static ListingSearchIndex getSearchIndex() {
+        return searchIndex;
     }
     
     /**
@@ -29,7 +165,7 @@ public class ClientMarketplaceCache {
      * @return list of cached marketplace items
      */
     public static List<FreeMarketItem> getCachedItems() {
-        return new ArrayList<>(cachedItems);
+        return new ArrayList<>(snapshot.items());
     }
     
     /**
@@ -37,7 +173,7 @@ public class ClientMarketplaceCache {
      * @return true if cached data is available
      */
     public static boolean hasCachedData() {
-        return hasCachedData;
+        return snapshot.version() > 0;
     }
     
     /**
@@ -49,11 +185,14 @@ public class ClientMarketplaceCache {
     }
     
     /**
-     * Clears the cached data.
+     * Clears the cached data. The listings are dropped once the updates queued before are done.
      */
     public static void clearCache() {
-        cachedItems.clear();
-        hasCachedData = false;
-        lastCacheUpdate = 0;
+        submit(() -> {
+            snapshot = Snapshot.EMPTY;
+            lastCacheUpdate = 0;
+        });
+        searchIndex = new ListingSearchIndex();
+        ListingSearch.clearCache();
     }
 }
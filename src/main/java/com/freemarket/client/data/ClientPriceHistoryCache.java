@@ -0,0 +1,78 @@
+package com.freemarket.client.data;
+
+import com.freemarket.common.network.PriceHistoryRequestPacket;
+import com.freemarket.common.network.PriceHistorySyncPacket;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client-side cache of listing price history for the card sparklines.
+ * Histories are requested when the grid builds a listing's card, at most once per listing per refresh
+ * interval; drawing only reads what has arrived.
+ */
+public class ClientPriceHistoryCache {
+
+    // The sparkline shows hourly buckets (last two days)
+    public static final int SPARKLINE_RESOLUTION = 1;
+
+    private static final long REFRESH_INTERVAL_MS = 60_000;
+
+    /**
+     * History of one listing, oldest bucket first. Arrays are empty if it has never traded.
+     */
+    public record History(long[] buyPrices, long[] sellPrices, int[] volumes) {
+
+        public boolean isEmpty() {
+            return buyPrices.length == 0;
+        }
+    }
+
+    private static final Map<String, History> histories = new HashMap<>();
+    private static final Map<String, Long> requestedAt = new HashMap<>();
+
+    /**
+     * Requests the history of a listing from the server if it is missing or old.
+     */
+    public static void requestIfStale(String itemGuid) {
+        long now = System.currentTimeMillis();
+        Long lastRequest = requestedAt.get(itemGuid);
+        if (lastRequest == null || now - lastRequest > REFRESH_INTERVAL_MS) {
+            requestedAt.put(itemGuid, now);
+            PacketDistributor.sendToServer(new PriceHistoryRequestPacket(itemGuid, SPARKLINE_RESOLUTION));
+        }
+    }
+
+    /**
+     * Gets the cached history of a listing without requesting it.
+     * @return the cached history, or null if none has arrived yet
+     */
+    public static History get(String itemGuid) {
+        return histories.get(itemGuid);
+    }
+
+    /**
+     * Stores a history received from the server.
+     */
+    public static void update(PriceHistorySyncPacket packet) {
+        int size = packet.volumes().size();
+        long[] buyPrices = new long[size];
+        long[] sellPrices = new long[size];
+        int[] volumes = new int[size];
+        for (int i = 0; i < size; i++) {
+            buyPrices[i] = packet.buyPrices().get(i);
+            sellPrices[i] = packet.sellPrices().get(i);
+            volumes[i] = packet.volumes().get(i);
+        }
+        histories.put(packet.itemGuid(), new History(buyPrices, sellPrices, volumes));
+    }
+
+    /**
+     * Clears the cached data.
+     */
+    public static void clearCache() {
+        histories.clear();
+        requestedAt.clear();
+    }
+}
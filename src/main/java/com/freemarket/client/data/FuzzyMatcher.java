@@ -0,0 +1,149 @@
+package com.freemarket.client.data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Scores how well a listing's searchable text matches the terms of a search query.
+ *
+ * <p>Every term has to match somewhere in the text. A term that is a whole word of the text scores
+ * highest, then a term that starts a word, then a term found inside a word. A term that is not in
+ * the text at all may still match the start of a word with a few typos: one edit (a wrong, missing,
+ * extra or swapped character) for terms of four to seven characters, two for longer terms, and none
+ * for shorter ones, so "diamnod" finds "diamond".</p>
+ *
+ * <p>Has no state and is safe to use from any thread.</p>
+ */
+public final class FuzzyMatcher {
+
+    private static final int EXACT_WORD_SCORE = 100;
+    private static final int WORD_PREFIX_SCORE = 80;
+    private static final int SUBSTRING_SCORE = 60;
+    private static final int FUZZY_SCORE = 40;
+    private static final int SCORE_PER_EDIT = 15;
+
+    private FuzzyMatcher() {
+    }
+
+    /**
+     * Number of typos tolerated in a term of the given length. Never decreases as terms get longer.
+     */
+    public static int maxEdits(int termLength) {
+        if (termLength < 4) {
+            return 0;
+        }
+        return termLength < 8 ? 1 : 2;
+    }
+
+    /**
+     * Fewest distinct trigrams a text must share with a term for the term to possibly match it.
+     *
+     * <p>An edit touches at most four of the term's trigram positions (a swap of neighbouring
+     * characters; a wrong, missing or extra character touches fewer), so a term within k edits of
+     * part of a text keeps at least {@code distinct - 4k} of its distinct trigrams in that text.
+     * Counting distinct trigrams keeps the bound valid for terms that repeat one.</p>
+     * @return the bound, 0 or less if it cannot exclude anything
+     */
+    public static int minSharedTrigrams(String term) {
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            distinct.add(term.substring(i, i + 3));
+        }
+        return distinct.size() - 4 * maxEdits(term.length());
+    }
+
+    /**
+     * Scores a lowercase text against lowercase query terms.
+     * @return the sum of the term scores, or -1 if any term does not match
+     */
+    public static int score(String text, String[] terms) {
+        int total = 0;
+        for (String term : terms) {
+            int termScore = scoreTerm(text, term);
+            if (termScore < 0) {
+                return -1;
+            }
+            total += termScore;
+        }
+        return total;
+    }
+
+    private static int scoreTerm(String text, String term) {
+        int best = -1;
+        for (int at = text.indexOf(term); at >= 0; at = text.indexOf(term, at + 1)) {
+            int end = at + term.length();
+            boolean startsWord = at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1));
+            boolean endsWord = end == text.length() || !Character.isLetterOrDigit(text.charAt(end));
+            if (startsWord && endsWord) {
+                return EXACT_WORD_SCORE;
+            }
+            best = Math.max(best, startsWord ? WORD_PREFIX_SCORE : SUBSTRING_SCORE);
+        }
+        if (best >= 0) {
+            return best;
+        }
+
+        int maxEdits = maxEdits(term.length());
+        if (maxEdits == 0) {
+            return -1;
+        }
+        int fewestEdits = maxEdits + 1;
+        int wordStart = -1;
+        for (int i = 0; i <= text.length() && fewestEdits > 1; i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && wordStart < 0) {
+                wordStart = i;
+            } else if (!inWord && wordStart >= 0) {
+                fewestEdits = Math.min(fewestEdits, prefixEdits(term, text, wordStart, i, fewestEdits - 1));
+                wordStart = -1;
+            }
+        }
+        return fewestEdits <= maxEdits ? FUZZY_SCORE - SCORE_PER_EDIT * (fewestEdits - 1) : -1;
+    }
+
+    /**
+     * Fewest edits (with swaps of neighbouring characters counting as one) that turn the term into
+     * any prefix of the word {@code text[from, to)}. Gives up once more than {@code maxEdits} are needed.
+     * @return the number of edits, or {@code maxEdits + 1} if there are more
+     */
+    static int prefixEdits(String term, String text, int from, int to, int maxEdits) {
+        int m = term.length();
+        int n = Math.min(to - from, m + maxEdits);
+        int[] previous2 = new int[n + 1];
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= m; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char termChar = term.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char wordChar = text.charAt(from + j - 1);
+                int cost = termChar == wordChar ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && termChar == text.charAt(from + j - 2) && term.charAt(i - 2) == wordChar) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        // The last row holds the edits against every prefix of the word
+        int fewest = maxEdits + 1;
+        for (int j = 0; j <= n; j++) {
+            fewest = Math.min(fewest, previous[j]);
+        }
+        return fewest;
+    }
+}
@@ -0,0 +1,190 @@
+package com.freemarket.client.data;
+
+import com.freemarket.common.data.FreeMarketItem;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The listing values structured search queries filter and the grid sorts on, stored by listing id alongside the
+ * {@link ListingSearchIndex}.
+ *
+ * <p>Prices and recent trade counts sit in primitive arrays, the mod an item comes from is an id into a small dictionary of
+ * namespaces, and every enchantment has a bitmap of the listings carrying it. A filter scans one
+ * column or intersects bitmaps over the set of listings still in the running, without touching
+ * item stacks. Used only from the render thread.</p>
+ */
+public class ListingColumns {
+
+    /**
+     * How a price filter compares listing prices with its value.
+     */
+    public enum Comparison {
+        LESS, LESS_OR_EQUAL, EQUAL, GREATER_OR_EQUAL, GREATER;
+
+        boolean test(long price, long value) {
+            return switch (this) {
+                case LESS -> price < value;
+                case LESS_OR_EQUAL -> price <= value;
+                case EQUAL -> price == value;
+                case GREATER_OR_EQUAL -> price >= value;
+                case GREATER -> price > value;
+            };
+        }
+    }
+
+    private final LongArrayList buyPrices = new LongArrayList();
+    private final LongArrayList sellPrices = new LongArrayList();
+    private final IntArrayList namespaceIds = new IntArrayList();
+    private final IntArrayList trades = new IntArrayList();
+    private final BitSet live = new BitSet();
+
+    // Namespace dictionary: id -> namespace and the lowercase mod name (empty if unknown)
+    private final Object2IntOpenHashMap<String> namespaceIdByName = new Object2IntOpenHashMap<>();
+    private final List<String> namespaces = new ArrayList<>();
+    private final List<String> modNames = new ArrayList<>();
+
+    // Enchantment dictionary: id -> enchantment id, lowercase translated name and listings carrying it
+    private final Object2IntOpenHashMap<String> enchantmentIdByKey = new Object2IntOpenHashMap<>();
+    private final List<String> enchantmentKeys = new ArrayList<>();
+    private final List<String> enchantmentNames = new ArrayList<>();
+    private final List<BitSet> listingsByEnchantment = new ArrayList<>();
+
+    public ListingColumns() {
+        namespaceIdByName.defaultReturnValue(-1);
+        enchantmentIdByKey.defaultReturnValue(-1);
+    }
+
+    /**
+     * Stores the values of a newly indexed listing. Listing ids are handed out in increasing order.
+     * @param tradeCount how often the listing traded recently, for the popularity order
+     * @param enchantments enchantment ids, parallel to {@code names}
+     * @param names translated enchantment names
+     */
+    void add(int doc, FreeMarketItem item, int tradeCount, String namespace, String modName, List<String> enchantments, List<String> names) {
+        buyPrices.add(item.getBuyPrice());
+        sellPrices.add(item.getSellPrice());
+        trades.add(tradeCount);
+        int namespaceId = namespaceIdByName.getInt(namespace);
+        if (namespaceId < 0) {
+            namespaceId = namespaces.size();
+            namespaceIdByName.put(namespace, namespaceId);
+            namespaces.add(namespace);
+            modNames.add(modName == null ? "" : modName.toLowerCase(Locale.ROOT));
+        }
+        namespaceIds.add(namespaceId);
+
+        for (int i = 0; i < enchantments.size(); i++) {
+            int enchantmentId = enchantmentIdByKey.getInt(enchantments.get(i));
+            if (enchantmentId < 0) {
+                enchantmentId = enchantmentKeys.size();
+                enchantmentIdByKey.put(enchantments.get(i), enchantmentId);
+                enchantmentKeys.add(enchantments.get(i));
+                enchantmentNames.add(names.get(i).toLowerCase(Locale.ROOT));
+                listingsByEnchantment.add(new BitSet());
+            }
+            listingsByEnchantment.get(enchantmentId).set(doc);
+        }
+        live.set(doc);
+    }
+
+    /**
+     * Replaces the prices of a listing that is already stored.
+     */
+    void updatePrices(int doc, FreeMarketItem item) {
+        buyPrices.set(doc, item.getBuyPrice());
+        sellPrices.set(doc, item.getSellPrice());
+    }
+
+    void setTrades(int doc, int tradeCount) {
+        trades.set(doc, tradeCount);
+    }
+
+    public long getBuyPrice(int doc) {
+        return buyPrices.getLong(doc);
+    }
+
+    public int getTrades(int doc) {
+        return trades.getInt(doc);
+    }
+
+    /**
+     * Drops a listing from every filter result. Its values stay until the next rebuild.
+     */
+    void remove(int doc) {
+        live.clear(doc);
+    }
+
+    void clear() {
+        buyPrices.clear();
+        sellPrices.clear();
+        namespaceIds.clear();
+        trades.clear();
+        live.clear();
+        namespaceIdByName.clear();
+        namespaces.clear();
+        modNames.clear();
+        enchantmentIdByKey.clear();
+        enchantmentKeys.clear();
+        enchantmentNames.clear();
+        listingsByEnchantment.clear();
+    }
+
+    /**
+     * The listings currently stored, as the starting point for filtering.
+     */
+    public BitSet liveListings() {
+        return (BitSet) live.clone();
+    }
+
+    /**
+     * Keeps only the listings whose buy price (or sell price) compares as asked with the value.
+     */
+    public void filterPrice(BitSet docs, boolean sellPrice, Comparison comparison, long value) {
+        LongArrayList prices = sellPrice ? sellPrices : buyPrices;
+        for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+            if (!comparison.test(prices.getLong(doc), value)) {
+                docs.clear(doc);
+            }
+        }
+    }
+
+    /**
+     * Keeps only the listings of items from mods whose namespace or name (without spaces) starts with the prefix.
+     */
+    public void filterMod(BitSet docs, String prefix) {
+        BitSet matchingNamespaces = new BitSet(namespaces.size());
+        for (int id = 0; id < namespaces.size(); id++) {
+            if (namespaces.get(id).startsWith(prefix) || modNames.get(id).replace(" ", "").startsWith(prefix)) {
+                matchingNamespaces.set(id);
+            }
+        }
+        for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+            if (!matchingNamespaces.get(namespaceIds.getInt(doc))) {
+                docs.clear(doc);
+            }
+        }
+    }
+
+    /**
+     * Keeps only the listings carrying an enchantment whose id path or name (with underscores for
+     * spaces) starts with the prefix, by intersecting with the union of those enchantments' bitmaps.
+     */
+    public void filterEnchantment(BitSet docs, String prefix) {
+        BitSet enchanted = new BitSet();
+        for (int id = 0; id < enchantmentKeys.size(); id++) {
+            String key = enchantmentKeys.get(id);
+            String path = key.substring(key.indexOf(':') + 1);
+            if (path.startsWith(prefix) || key.startsWith(prefix)
+                || enchantmentNames.get(id).replace(' ', '_').startsWith(prefix)) {
+                enchanted.or(listingsByEnchantment.get(id));
+            }
+        }
+        docs.and(enchanted);
+    }
+}
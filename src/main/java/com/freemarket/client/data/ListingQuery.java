@@ -0,0 +1,115 @@
+package com.freemarket.client.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A search box query split into filters and free text, e.g. {@code @create price<100 ench:sharpness sword}.
+ *
+ * <ul>
+ *   <li>{@code @mod}: items from a mod, by namespace or mod name prefix</li>
+ *   <li>{@code price<100}, {@code price>=20}, {@code sell=5} and the like: buy or sell price bounds,
+ *       with {@code <}, {@code <=}, {@code =}, {@code >=} or {@code >}</li>
+ *   <li>{@code ench:name}: items with an enchantment, by id or name prefix</li>
+ * </ul>
+ *
+ * <p>Everything else is free text for {@link ListingSearch}. Each filter compiles to a predicate
+ * over the {@link ListingColumns}, narrowing a bitmap of listings; tokens that look like a filter
+ * but do not parse, such as {@code price<abc}, are kept as text.</p>
+ */
+public class ListingQuery {
+
+    private static final Pattern PRICE_FILTER = Pattern.compile("(price|sell)(<=|>=|<|>|=)(\\d{1,18})");
+    private static final String MOD_PREFIX = "@";
+    private static final String ENCHANTMENT_PREFIX = "ench:";
+
+    public static final ListingQuery EMPTY = new ListingQuery("", List.of());
+
+    /**
+     * Narrows a set of listing ids to those a filter accepts.
+     */
+    @FunctionalInterface
+    public interface Predicate {
+        void narrow(ListingColumns columns, BitSet docs);
+    }
+
+    private final String text;
+    private final List<Predicate> predicates;
+
+    private ListingQuery(String text, List<Predicate> predicates) {
+        this.text = text;
+        this.predicates = predicates;
+    }
+
+    /**
+     * Parses a search box query. Never fails; anything that is not a filter is text.
+     */
+    public static ListingQuery parse(String query) {
+        List<String> text = new ArrayList<>();
+        List<Predicate> predicates = new ArrayList<>();
+        for (String token : ListingSearchIndex.terms(query)) {
+            Predicate predicate = compile(token);
+            if (predicate != null) {
+                predicates.add(predicate);
+            } else {
+                text.add(token);
+            }
+        }
+        return new ListingQuery(String.join(" ", text), List.copyOf(predicates));
+    }
+
+    private static Predicate compile(String token) {
+        if (token.startsWith(MOD_PREFIX) && token.length() > MOD_PREFIX.length()) {
+            String mod = token.substring(MOD_PREFIX.length());
+            return (columns, docs) -> columns.filterMod(docs, mod);
+        }
+        if (token.startsWith(ENCHANTMENT_PREFIX) && token.length() > ENCHANTMENT_PREFIX.length()) {
+            String enchantment = token.substring(ENCHANTMENT_PREFIX.length());
+            return (columns, docs) -> columns.filterEnchantment(docs, enchantment);
+        }
+        Matcher price = PRICE_FILTER.matcher(token);
+        if (price.matches()) {
+            boolean sellPrice = price.group(1).equals("sell");
+            ListingColumns.Comparison comparison = switch (price.group(2)) {
+                case "<" -> ListingColumns.Comparison.LESS;
+                case "<=" -> ListingColumns.Comparison.LESS_OR_EQUAL;
+                case ">=" -> ListingColumns.Comparison.GREATER_OR_EQUAL;
+                case ">" -> ListingColumns.Comparison.GREATER;
+                default -> ListingColumns.Comparison.EQUAL;
+            };
+            long value = Long.parseLong(price.group(3));
+            return (columns, docs) -> columns.filterPrice(docs, sellPrice, comparison, value);
+        }
+        return null;
+    }
+
+    /**
+     * The free text part of the query, terms separated by single spaces; empty if there is none.
+     */
+    public String getText() {
+        return text;
+    }
+
+    public boolean hasText() {
+        return !text.isEmpty();
+    }
+
+    public boolean hasFilters() {
+        return !predicates.isEmpty();
+    }
+
+    /**
+     * Narrows the listings to those every filter accepts.
+     */
+    public void narrow(ListingColumns columns, BitSet docs) {
+        for (Predicate predicate : predicates) {
+            if (docs.isEmpty()) {
+                return;
+            }
+            predicate.narrow(columns, docs);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.freemarket.client.data;
+
+import com.freemarket.common.data.FreeMarketItem;
+import net.minecraft.Util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked, typo-tolerant search over the marketplace listings for the search box.
+ *
+ * <p>Typing only records the query; once it has not changed for {@link #DEBOUNCE_MS} the search runs
+ * on the background executor, scoring the candidates from the {@link ListingSearchIndex} with the
+ * {@link FuzzyMatcher}. The finished result replaces the shown one in a single volatile write, so the
+ * render thread never sees a half-built list and keeps showing the previous result until then.</p>
+ *
+ * <p>Results are kept as listing GUIDs ranked best first and looked up again when shown, so price
+ * updates show up without searching again. The most recent results are kept in a small LRU cache,
+ * and a query that only extends the previous one (more characters or more terms) only re-scores the
+ * previous matches instead of the whole index. All results belong to one index version; adding or
+ * removing listings makes them stale and the current query is searched again.</p>
+ */
+public class ListingSearch {
+
+    private static final long DEBOUNCE_MS = 120;
+    private static final int CACHED_QUERIES = 32;
+
+    /**
+     * Listings matching a query, best first, with the text they were scored on for narrowing.
+     */
+    private record Result(String query, String[] terms, int version, String[] guids, String[] texts) {}
+
+    // Recent results by query, least recently used first; shared with the background executor
+    private static final Map<String, Result> recent = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+            return size() > CACHED_QUERIES;
+        }
+    };
+
+    // Newest finished result; replaced as a whole by the background executor
+    private static volatile Result shown;
+    private static volatile int generation = 0;
+    private static long requestSequence = 0;
+    private static long shownSequence = 0;
+
+    // Render thread only: the query waiting for the debounce to pass
+    private static String pendingQuery;
+    private static long pendingSince;
+
+    /**
+     * Records a change of the search box. The search itself starts from {@link #tick} once the query
+     * has stopped changing.
+     */
+    public static void queryChanged(String query) {
+        pendingQuery = normalize(query);
+        pendingSince = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts the pending search once the debounce has passed, and searches the current query again
+     * when the shown result belongs to an older index version. Called every frame.
+     */
+    public static void tick(String currentQuery) {
+        String query = normalize(currentQuery);
+        ListingSearchIndex index = ClientMarketplaceCache.getSearchIndex();
+        Result current = shown;
+        if (pendingQuery == null && !query.isEmpty() && current != null && current.version() != index.getVersion()) {
+            pendingQuery = query;
+            pendingSince = 0;
+        }
+        if (pendingQuery != null && System.currentTimeMillis() - pendingSince >= DEBOUNCE_MS) {
+            String searched = pendingQuery;
+            pendingQuery = null;
+            if (!searched.isEmpty()) {
+                start(searched, index);
+            }
+        }
+    }
+
+    /**
+     * Gets the listings to show for a query, best match first. Until the search for this query has
+     * finished this is the previous result, or on the very first search the exact matches.
+     */
+    public static List<FreeMarketItem> getResults(String query) {
+        ListingSearchIndex index = ClientMarketplaceCache.getSearchIndex();
+        Result current = shown;
+        if (current == null) {
+            return index.search(query);
+        }
+        return index.resolve(current.guids());
+    }
+
+    /**
+     * Changes whenever a new result is shown, so callers know to look again.
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Forgets all results, e.g. when the listings they refer to are gone.
+     */
+    public static synchronized void clearCache() {
+        recent.clear();
+        shown = null;
+        shownSequence = ++requestSequence;
+        pendingQuery = null;
+        generation++;
+    }
+
+    private static void start(String query, ListingSearchIndex index) {
+        int version = index.getVersion();
+        String[] terms = ListingSearchIndex.terms(query);
+        long sequence;
+        Result cached;
+        Result base;
+        synchronized (ListingSearch.class) {
+            sequence = ++requestSequence;
+            cached = recent.get(query);
+            base = shown;
+        }
+        if (cached != null && cached.version() == version) {
+            publish(cached, sequence);
+            return;
+        }
+
+        // Narrowing only re-scores what the previous query matched; otherwise ask the index
+        String[] guids;
+        String[] texts;
+        if (base != null && base.version() == version && narrows(base.terms(), terms)) {
+            guids = base.guids();
+            texts = base.texts();
+        } else {
+            ListingSearchIndex.Candidates candidates = index.fuzzyCandidates(terms);
+            guids = candidates.guids();
+            texts = candidates.texts();
+        }
+        Util.backgroundExecutor().execute(() -> publish(rank(query, terms, version, guids, texts), sequence));
+    }
+
+    /**
+     * Scores the candidates and keeps the matches, best first; equal scores keep index order.
+     */
+    private static Result rank(String query, String[] terms, int version, String[] guids, String[] texts) {
+        List<Integer> matches = new ArrayList<>();
+        int[] scores = new int[guids.length];
+        for (int i = 0; i < guids.length; i++) {
+            scores[i] = FuzzyMatcher.score(texts[i], terms);
+            if (scores[i] >= 0) {
+                matches.add(i);
+            }
+        }
+        matches.sort((a, b) -> Integer.compare(scores[b], scores[a]));
+
+        String[] rankedGuids = new String[matches.size()];
+        String[] rankedTexts = new String[matches.size()];
+        for (int i = 0; i < matches.size(); i++) {
+            rankedGuids[i] = guids[matches.get(i)];
+            rankedTexts[i] = texts[matches.get(i)];
+        }
+        return new Result(query, terms, version, rankedGuids, rankedTexts);
+    }
+
+    private static synchronized void publish(Result result, long sequence) {
+        recent.put(result.query(), result);
+        // A slower search for an older query must not replace a newer result
+        if (sequence > shownSequence) {
+            shownSequence = sequence;
+            shown = result;
+            generation++;
+        }
+    }
+
+    /**
+     * Checks whether every listing matching the new terms also matches the old ones: each old term
+     * is the start of the new term in its place, with the same number of typos allowed.
+     */
+    private static boolean narrows(String[] oldTerms, String[] newTerms) {
+        if (oldTerms.length == 0 || newTerms.length < oldTerms.length) {
+            return false;
+        }
+        for (int i = 0; i < oldTerms.length; i++) {
+            if (!newTerms[i].startsWith(oldTerms[i])
+                || FuzzyMatcher.maxEdits(newTerms[i].length()) != FuzzyMatcher.maxEdits(oldTerms[i].length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String query) {
+        return String.join(" ", ListingSearchIndex.terms(query));
+    }
+}
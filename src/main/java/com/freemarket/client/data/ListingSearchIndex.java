@@ -0,0 +1,469 @@
+package com.freemarket.client.data;
+
+import com.freemarket.common.data.FreeMarketItem;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.TagParser;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.fml.ModList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trigram index over the searchable text of marketplace listings, for the search box.
+ *
+ * <p>Each listing is indexed once, when it first shows up, under every three-character sequence of
+ * its display name, item id, mod, enchantment names and seller. A query looks up the trigrams of
+ * each search term and intersects their posting lists, starting with the shortest, so only the few
+ * listings that can match are checked against the full text. Terms shorter than three characters
+ * are only checked against the remaining candidates.</p>
+ *
+ * <p>Posting lists are sorted because listings get increasing ids. Removed listings are only marked
+ * as gone and skipped; the index is rebuilt once they outnumber the live ones, and when the game
+ * language changes, since display and enchantment names are translated. Used only from the render
+ * thread.</p>
+ *
+ * <p>For typo-tolerant search, {@link #fuzzyCandidates} uses the trigram counts to find listings that
+ * can be close enough to each term and copies their text out, so {@link ListingSearch} can score them
+ * on another thread. The version changes whenever listings are added or removed, telling it when
+ * earlier results are out of date.</p>
+ *
+ * <p>The values structured queries filter on are kept per listing id in {@link ListingColumns}, and
+ * the grid's sort orders in {@link ListingSortOrders}.</p>
+ */
+public class ListingSearchIndex {
+
+    // Removed listings tolerated before the posting lists are compacted
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+    // Posting list length ratio above which intersection uses binary search instead of a merge
+    private static final int GALLOP_RATIO = 8;
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final Long2ObjectOpenHashMap<IntArrayList> postings = new Long2ObjectOpenHashMap<>();
+    private final Object2IntOpenHashMap<String> docByGuid = new Object2IntOpenHashMap<>();
+    // Per listing id: the listing and its lowercase searchable text, both null once removed
+    private final List<FreeMarketItem> items = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final ListingColumns columns = new ListingColumns();
+    private final ListingSortOrders sortOrders = new ListingSortOrders(columns);
+    // Recent trade counts by listing GUID, also for listings that are not indexed yet
+    private final Object2IntOpenHashMap<String> tradesByGuid = new Object2IntOpenHashMap<>();
+    // Reused between calls to sort
+    private final IntArrayList sortDocs = new IntArrayList();
+    private int deadDocs = 0;
+    private String language;
+    private int version = 0;
+
+    public ListingSearchIndex() {
+        docByGuid.defaultReturnValue(-1);
+    }
+
+    /**
+     * Brings the index in line with the current listings. Listings already indexed only have their
+     * entry replaced, so prices can change without re-indexing; new listings are indexed and
+     * listings that are gone are dropped.
+     */
+    public void sync(List<FreeMarketItem> listings) {
+        if (!currentLanguage().equals(language)) {
+            rebuild(listings);
+            return;
+        }
+
+        BitSet seen = new BitSet(items.size());
+        for (FreeMarketItem item : listings) {
+            int doc = docByGuid.getInt(item.getGuid());
+            if (doc < 0) {
+                doc = add(item);
+                version++;
+            } else {
+                items.set(doc, item);
+                sortOrders.updatePrices(doc, item);
+            }
+            seen.set(doc);
+        }
+
+        for (int doc = 0; doc < items.size(); doc++) {
+            if (items.get(doc) != null && !seen.get(doc)) {
+                docByGuid.removeInt(items.get(doc).getGuid());
+                items.set(doc, null);
+                texts.set(doc, null);
+                columns.remove(doc);
+                deadDocs++;
+                version++;
+            }
+        }
+        if (deadDocs >= MIN_DEAD_TO_COMPACT && deadDocs > items.size() - deadDocs) {
+            rebuild(listings);
+        }
+    }
+
+    /**
+     * Finds the listings whose searchable text contains every whitespace-separated term of the query,
+     * ignoring case. Results are in the order the listings were indexed.
+     */
+    public List<FreeMarketItem> search(String query) {
+        checkLanguage();
+        String[] terms = terms(query);
+        IntArrayList candidates = null;
+        for (String term : terms) {
+            if (term.length() < 3) {
+                continue;
+            }
+            List<IntArrayList> lists = new ArrayList<>(term.length() - 2);
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                IntArrayList posting = postings.get(trigram(term, i));
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(posting);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            for (IntArrayList posting : lists) {
+                candidates = candidates == null ? new IntArrayList(posting) : intersect(candidates, posting);
+                if (candidates.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        }
+
+        // Trigram hits are only candidates; the full text decides, and also covers short terms
+        List<FreeMarketItem> results = new ArrayList<>();
+        int count = candidates == null ? items.size() : candidates.size();
+        for (int i = 0; i < count; i++) {
+            int doc = candidates == null ? i : candidates.getInt(i);
+            String text = texts.get(doc);
+            if (text != null && containsAll(text, terms)) {
+                results.add(items.get(doc));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Keeps the listings that pass every filter of a structured query, in their current order.
+     * The filters run over the {@link ListingColumns}; listings not in the index are dropped.
+     */
+    public List<FreeMarketItem> filter(ListingQuery query, List<FreeMarketItem> listings) {
+        checkLanguage();
+        BitSet accepted = columns.liveListings();
+        query.narrow(columns, accepted);
+        List<FreeMarketItem> filtered = new ArrayList<>(Math.min(listings.size(), accepted.cardinality()));
+        for (FreeMarketItem item : listings) {
+            int doc = docByGuid.getInt(item.getGuid());
+            if (doc >= 0 && accepted.get(doc)) {
+                filtered.add(item);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Fills {@code out} with the listings in a sort order. The default order keeps them as given,
+     * e.g. ranked by the search; the others walk a presorted permutation, so switching between them
+     * sorts nothing. Listings not in the index are dropped.
+     */
+    public void sort(ListingSortOrders.Order order, List<FreeMarketItem> listings, List<FreeMarketItem> out) {
+        if (order == ListingSortOrders.Order.DEFAULT) {
+            out.clear();
+            out.addAll(listings);
+            return;
+        }
+        sortDocs.clear();
+        for (FreeMarketItem item : listings) {
+            int doc = docByGuid.getInt(item.getGuid());
+            if (doc >= 0) {
+                sortDocs.add(doc);
+            }
+        }
+        sortOrders.sort(order, sortDocs, items, out);
+    }
+
+    /**
+     * Records how often a listing traded recently, for the popularity order.
+     */
+    public void setTrades(String guid, int trades) {
+        tradesByGuid.put(guid, trades);
+        int doc = docByGuid.getInt(guid);
+        if (doc >= 0) {
+            sortOrders.updateTrades(doc, trades);
+        }
+    }
+
+    /**
+     * Copies out the listings that can match every term with the typos {@link FuzzyMatcher} allows,
+     * together with their searchable text, in the order the listings were indexed.
+     *
+     * <p>A term within k edits of part of a text still shares a number of its distinct trigrams
+     * with that text ({@link FuzzyMatcher#minSharedTrigrams}), so listings sharing fewer are left out
+     * without looking at them. Terms too short for that bound to exclude anything do not narrow the
+     * candidates.</p>
+     */
+    public Candidates fuzzyCandidates(String[] terms) {
+        checkLanguage();
+        int[] shared = null;
+        boolean[] candidate = null;
+        for (String term : terms) {
+            int required = FuzzyMatcher.minSharedTrigrams(term);
+            if (required <= 0) {
+                continue;
+            }
+            if (shared == null) {
+                shared = new int[items.size()];
+            } else {
+                Arrays.fill(shared, 0);
+            }
+            LongOpenHashSet seen = new LongOpenHashSet();
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                long key = trigram(term, i);
+                IntArrayList posting = postings.get(key);
+                if (seen.add(key) && posting != null) {
+                    for (int j = 0; j < posting.size(); j++) {
+                        shared[posting.getInt(j)]++;
+                    }
+                }
+            }
+            if (candidate == null) {
+                candidate = new boolean[items.size()];
+                Arrays.fill(candidate, true);
+            }
+            for (int doc = 0; doc < shared.length; doc++) {
+                candidate[doc] &= shared[doc] >= required;
+            }
+        }
+
+        List<String> guids = new ArrayList<>();
+        List<String> candidateTexts = new ArrayList<>();
+        for (int doc = 0; doc < items.size(); doc++) {
+            if (texts.get(doc) != null && (candidate == null || candidate[doc])) {
+                guids.add(items.get(doc).getGuid());
+                candidateTexts.add(texts.get(doc));
+            }
+        }
+        return new Candidates(guids.toArray(new String[0]), candidateTexts.toArray(new String[0]));
+    }
+
+    /**
+     * Looks up the current listings for GUIDs, keeping their order and skipping listings that are gone.
+     */
+    public List<FreeMarketItem> resolve(String[] guids) {
+        List<FreeMarketItem> resolved = new ArrayList<>(guids.length);
+        for (String guid : guids) {
+            int doc = docByGuid.getInt(guid);
+            if (doc >= 0) {
+                resolved.add(items.get(doc));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Changes whenever a listing is added to or removed from the index, or the index is rebuilt.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Splits a query into lowercase search terms.
+     */
+    public static String[] terms(String query) {
+        String trimmed = query.toLowerCase(Locale.ROOT).trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+    }
+
+    /**
+     * Listings that may match a query and their searchable text, parallel arrays in index order.
+     */
+    public record Candidates(String[] guids, String[] texts) {}
+
+    private void checkLanguage() {
+        if (!currentLanguage().equals(language)) {
+            List<FreeMarketItem> live = new ArrayList<>(items.size() - deadDocs);
+            for (FreeMarketItem item : items) {
+                if (item != null) {
+                    live.add(item);
+                }
+            }
+            rebuild(live);
+        }
+    }
+
+    private void rebuild(List<FreeMarketItem> listings) {
+        version++;
+        postings.clear();
+        docByGuid.clear();
+        items.clear();
+        texts.clear();
+        columns.clear();
+        sortOrders.beginRebuild();
+        deadDocs = 0;
+        language = currentLanguage();
+        for (FreeMarketItem item : listings) {
+            if (!docByGuid.containsKey(item.getGuid())) {
+                add(item);
+            }
+        }
+        sortOrders.endRebuild(items.size());
+    }
+
+    private int add(FreeMarketItem item) {
+        int doc = items.size();
+        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(item.getItemStack().getItem());
+        String modName = ModList.get().getModContainerById(itemId.getNamespace())
+            .map(mod -> mod.getModInfo().getDisplayName()).orElse(null);
+        List<String> enchantments = enchantmentIds(item.getComponentData());
+        List<String> enchantmentNames = new ArrayList<>(enchantments.size());
+        for (String enchantment : enchantments) {
+            enchantmentNames.add(Component.translatable(
+                Util.makeDescriptionId("enchantment", ResourceLocation.parse(enchantment))).getString());
+        }
+
+        String text = searchableText(item, itemId, modName, enchantmentNames);
+        items.add(item);
+        texts.add(text);
+        docByGuid.put(item.getGuid(), doc);
+        columns.add(doc, item, tradesByGuid.getInt(item.getGuid()), itemId.getNamespace(), modName, enchantments, enchantmentNames);
+        sortOrders.add(doc, item);
+
+        int fieldStart = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == FIELD_SEPARATOR) {
+                for (int j = fieldStart; j + 3 <= i; j++) {
+                    long key = trigram(text, j);
+                    IntArrayList posting = postings.get(key);
+                    if (posting == null) {
+                        posting = new IntArrayList(4);
+                        postings.put(key, posting);
+                    }
+                    // A listing can contain the same trigram more than once
+                    if (posting.isEmpty() || posting.getInt(posting.size() - 1) != doc) {
+                        posting.add(doc);
+                    }
+                }
+                fieldStart = i + 1;
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * Builds the lowercase text a listing can be found by, one field per line.
+     */
+    private static String searchableText(FreeMarketItem item, ResourceLocation itemId, String modName, List<String> enchantmentNames) {
+        StringBuilder text = new StringBuilder();
+        text.append(item.getItemName());
+        String hoverName = item.getItemStack().getHoverName().getString();
+        if (!hoverName.equals(item.getItemName())) {
+            text.append(FIELD_SEPARATOR).append(hoverName);
+        }
+
+        text.append(FIELD_SEPARATOR).append(itemId);
+        if (modName != null) {
+            text.append(FIELD_SEPARATOR).append(modName);
+        }
+
+        for (String enchantment : enchantmentNames) {
+            text.append(FIELD_SEPARATOR).append(enchantment);
+        }
+        if (item.getSeller() != null && !item.getSeller().isEmpty()) {
+            text.append(FIELD_SEPARATOR).append(item.getSeller());
+        }
+        return text.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the ids of the enchantments in a listing's component data.
+     */
+    private static List<String> enchantmentIds(String componentData) {
+        if (componentData == null || !componentData.contains("minecraft:enchantments")) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>();
+        try {
+            CompoundTag enchantments = TagParser.parseTag(componentData)
+                .getCompound("minecraft:enchantments").getCompound("enchantments");
+            for (String key : enchantments.getAllKeys()) {
+                ResourceLocation id = ResourceLocation.tryParse(enchantments.getCompound(key).getString("id"));
+                if (id != null) {
+                    ids.add(id.toString());
+                }
+            }
+        } catch (Exception e) {
+            // Unreadable component data just leaves the enchantments out of the index
+        }
+        return ids;
+    }
+
+    private static boolean containsAll(String text, String[] terms) {
+        for (String term : terms) {
+            if (!term.isEmpty() && !text.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Intersects two sorted posting lists. Merges lists of similar length and binary-searches the
+     * longer one when the shorter list is much smaller.
+     */
+    private static IntArrayList intersect(IntArrayList shorter, IntArrayList longer) {
+        if (shorter.size() > longer.size()) {
+            IntArrayList swap = shorter;
+            shorter = longer;
+            longer = swap;
+        }
+        IntArrayList result = new IntArrayList(shorter.size());
+        if (longer.size() > shorter.size() * GALLOP_RATIO) {
+            int from = 0;
+            for (int i = 0; i < shorter.size(); i++) {
+                int doc = shorter.getInt(i);
+                int found = Arrays.binarySearch(longer.elements(), from, longer.size(), doc);
+                if (found >= 0) {
+                    result.add(doc);
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return result;
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < shorter.size() && j < longer.size()) {
+            int a = shorter.getInt(i);
+            int b = longer.getInt(j);
+            if (a == b) {
+                result.add(a);
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static String currentLanguage() {
+        return Minecraft.getInstance().getLanguageManager().getSelected();
+    }
+}
@@ -0,0 +1,226 @@
+package com.freemarket.client.data;
+
+import com.freemarket.common.data.FreeMarketItem;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.network.chat.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The sort orders of the marketplace grid, kept sorted as listings change instead of being sorted
+ * when shown.
+ *
+ * <p>Each order is a permutation of listing ids from the {@link ListingSearchIndex}. A new listing is
+ * inserted at its place with a binary search, and a listing whose price or popularity changes is
+ * taken out and put back; removed listings stay in the permutations and are skipped until the index
+ * is rebuilt. Newest first needs no permutation, since listing ids follow arrival order. Showing a
+ * sorted grid walks one permutation and keeps the listings in the filtered set.</p>
+ *
+ * <p>Used only from the render thread.</p>
+ */
+public class ListingSortOrders {
+
+    /**
+     * Sort orders offered in the marketplace screen.
+     */
+    public enum Order {
+        DEFAULT("default"),
+        PRICE_ASCENDING("price_ascending"),
+        PRICE_DESCENDING("price_descending"),
+        NAME("name"),
+        NEWEST("newest"),
+        POPULARITY("popularity");
+
+        private final Component label;
+
+        Order(String key) {
+            this.label = Component.translatable("gui.FreeMarket.marketplace.sort." + key);
+        }
+
+        public Component getLabel() {
+            return label;
+        }
+    }
+
+    private final ListingColumns columns;
+    // Lowercase item names by listing id, for the name order
+    private final List<String> names = new ArrayList<>();
+    private final Permutation byPrice;
+    private final Permutation byName;
+    private final Permutation byPopularity;
+    // Reused between calls to sort
+    private final BitSet selection = new BitSet();
+    // While the index is rebuilt, listings are only collected and sorted once at the end
+    private boolean rebuilding = false;
+
+    ListingSortOrders(ListingColumns columns) {
+        this.columns = columns;
+        this.byPrice = new Permutation((a, b) -> {
+            int compared = Long.compare(columns.getBuyPrice(a), columns.getBuyPrice(b));
+            return compared != 0 ? compared : Integer.compare(a, b);
+        });
+        this.byName = new Permutation((a, b) -> {
+            int compared = names.get(a).compareTo(names.get(b));
+            return compared != 0 ? compared : Integer.compare(a, b);
+        });
+        this.byPopularity = new Permutation((a, b) -> {
+            int compared = Integer.compare(columns.getTrades(b), columns.getTrades(a));
+            return compared != 0 ? compared : Integer.compare(a, b);
+        });
+    }
+
+    /**
+     * Inserts a listing that was just stored in the columns into every order.
+     */
+    void add(int doc, FreeMarketItem item) {
+        names.add(item.getItemName().toLowerCase(Locale.ROOT));
+        if (rebuilding) {
+            return;
+        }
+        byPrice.insert(doc);
+        byName.insert(doc);
+        byPopularity.insert(doc);
+    }
+
+    /**
+     * Updates a listing's prices, moving it in the price order if its buy price changed.
+     */
+    void updatePrices(int doc, FreeMarketItem item) {
+        if (columns.getBuyPrice(doc) == item.getBuyPrice()) {
+            columns.updatePrices(doc, item);
+            return;
+        }
+        byPrice.remove(doc);
+        columns.updatePrices(doc, item);
+        byPrice.insert(doc);
+    }
+
+    /**
+     * Updates a listing's trade count, moving it in the popularity order.
+     */
+    void updateTrades(int doc, int trades) {
+        if (columns.getTrades(doc) == trades) {
+            return;
+        }
+        byPopularity.remove(doc);
+        columns.setTrades(doc, trades);
+        byPopularity.insert(doc);
+    }
+
+    /**
+     * Empties every order ahead of re-adding all listings, which {@link #endRebuild} then sorts in one go.
+     */
+    void beginRebuild() {
+        names.clear();
+        rebuilding = true;
+    }
+
+    void endRebuild(int count) {
+        rebuilding = false;
+        byPrice.sortAll(count);
+        byName.sortAll(count);
+        byPopularity.sortAll(count);
+    }
+
+    /**
+     * Fills {@code out} with the given listings in a sort order other than {@link Order#DEFAULT}.
+     * @param docs listing ids to show
+     * @param items the listings by listing id
+     */
+    void sort(Order order, IntArrayList docs, List<FreeMarketItem> items, List<FreeMarketItem> out) {
+        out.clear();
+        selection.clear();
+        for (int i = 0; i < docs.size(); i++) {
+            selection.set(docs.getInt(i));
+        }
+        switch (order) {
+            case NEWEST -> {
+                for (int doc = selection.previousSetBit(items.size() - 1); doc >= 0; doc = selection.previousSetBit(doc - 1)) {
+                    out.add(items.get(doc));
+                }
+            }
+            case PRICE_DESCENDING -> byPrice.collectReversed(selection, items, out);
+            case PRICE_ASCENDING -> byPrice.collect(selection, items, out);
+            case NAME -> byName.collect(selection, items, out);
+            default -> byPopularity.collect(selection, items, out);
+        }
+    }
+
+    /**
+     * Listing ids kept sorted by a comparator.
+     */
+    private static final class Permutation {
+
+        private final IntComparator comparator;
+        private int[] docs = new int[16];
+        private int size = 0;
+
+        Permutation(IntComparator comparator) {
+            this.comparator = comparator;
+        }
+
+        void insert(int doc) {
+            int at = position(doc);
+            docs = IntArrays.grow(docs, size + 1);
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = doc;
+            size++;
+        }
+
+        /**
+         * Takes a listing out. Must run before its sort key changes, so it is found where it was put.
+         */
+        void remove(int doc) {
+            int at = position(doc);
+            if (at < size && docs[at] == doc) {
+                System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+                size--;
+            }
+        }
+
+        void sortAll(int count) {
+            docs = IntArrays.ensureCapacity(docs, count);
+            for (int doc = 0; doc < count; doc++) {
+                docs[doc] = doc;
+            }
+            size = count;
+            IntArrays.quickSort(docs, 0, count, comparator);
+        }
+
+        void collect(BitSet selection, List<FreeMarketItem> items, List<FreeMarketItem> out) {
+            for (int i = 0; i < size; i++) {
+                if (selection.get(docs[i])) {
+                    out.add(items.get(docs[i]));
+                }
+            }
+        }
+
+        void collectReversed(BitSet selection, List<FreeMarketItem> items, List<FreeMarketItem> out) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (selection.get(docs[i])) {
+                    out.add(items.get(docs[i]));
+                }
+            }
+        }
+
+        // First position whose listing does not sort before the given one
+        private int position(int doc) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(docs[mid], doc) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -19,11 +19,16 @@ import com.freemarket.Config;
 import com.freemarket.common.data.FreeMarketItem;
 import com.freemarket.common.network.MarketplaceItemOperationPacket;
 import com.freemarket.common.handlers.AdminModeHandler;
+import com.freemarket.client.data.ClientInventoryIndex;
+import com.freemarket.client.data.ClientMarketplaceCache;
+import com.freemarket.client.data.ClientPriceHistoryCache;
+import com.freemarket.client.data.ListingQuery;
+import com.freemarket.client.data.ListingSearch;
+import com.freemarket.client.data.ListingSortOrders;
 import com.freemarket.client.handlers.ClientWalletHandler;
 import com.freemarket.common.managers.ItemCategoryManager;
 import com.freemarket.common.attachments.ItemComponentHandler;
 import net.minecraft.client.Minecraft;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 
 /**
@@ -38,10 +43,11 @@ public class FreeMarketContainer implements Renderable {
     
     // Caching for processed items with component data
     private final Map<String, ItemStack> processedItemCache = new HashMap<>();
+    // Inventory fingerprints of the processed items, for the sell check
+    private final Map<String, ClientInventoryIndex.Fingerprint> fingerprintCache = new HashMap<>();
     
     // Caching for button states to prevent flickering
     private final Map<String, Boolean> cachedCanBuyStates = new HashMap<>();
-    private final Map<String, Boolean> cachedCanSellStates = new HashMap<>();
     
     // Caching for category filtering to prevent recalculation on every render
     private List<ItemCategoryManager.Category> cachedCategories;
@@ -53,10 +59,19 @@ public class FreeMarketContainer implements Renderable {
     private List<FreeMarketItem> cachedItemsToRender;
     private ItemCategoryManager.Category lastFilteredCategory;
     private String lastSearchText;
+    private int lastSearchGeneration;
+    private ListingQuery searchQuery = ListingQuery.EMPTY;
+    private ListingSortOrders.Order lastSortOrder;
+    // Reused for the sorted grid so switching sort orders does not allocate
+    private final List<FreeMarketItem> sortedItems = new ArrayList<>();
     private long lastItemCacheUpdate = 0;
     private static final long ITEM_CACHE_DURATION = 500; // 500ms cache for more responsive search
     // Item card renderer for proper GUI scaling
     private final ItemCardRenderer itemCardRenderer = new ItemCardRenderer();
+    // Precomputed render state of the visible cards
+    private final MarketGridModel gridModel = new MarketGridModel(itemCardRenderer, this::fillCardView);
+    // Frame and card quads, drawn together each frame
+    private final GuiQuadBatch quadBatch = new GuiQuadBatch();
     
     // GUI Scale to Grid Layout Mapping
     // Scale 1 = 5x5, Scale 2 = 4x4, Scale 3 = 3x3, Scale 4 = 2x2, Scale 5 = 1x1
@@ -70,6 +85,11 @@ public class FreeMarketContainer implements Renderable {
     private int itemSpacing; // Will be calculated responsively
     private ItemCategoryManager.Category selectedCategory = ItemCategoryManager.Category.ALL;
     
+    // Sort dropdown next to the search box
+    private ListingSortOrders.Order sortOrder = ListingSortOrders.Order.DEFAULT;
+    private Component sortButtonLabel = Component.translatable("gui.FreeMarket.marketplace.sort", sortOrder.getLabel());
+    private boolean sortDropdownOpen = false;
+    
     // Buy button state tracking - per item
     private final java.util.Map<String, Long> buyButtonCooldowns = new java.util.HashMap<>();
     private static final long BUY_COOLDOWN_MS = 250; // 250ms cooldown
@@ -85,6 +105,7 @@ public class FreeMarketContainer implements Renderable {
         this.height = height;
         this.allItems = new ArrayList<>(items);
         this.parentScreen = parentScreen;
+        ClientMarketplaceCache.getSearchIndex().sync(allItems);
         
         // Calculate responsive dimensions that fit within the container
         calculateResponsiveDimensions();
@@ -101,6 +122,7 @@ public class FreeMarketContainer implements Renderable {
      */
     public void updateFreeMarketItems(List<FreeMarketItem> newItems, boolean preserveScrollPosition) {
         this.allItems = new ArrayList<>(newItems);
+        ClientMarketplaceCache.getSearchIndex().sync(allItems);
         if (!preserveScrollPosition) {
             // Reset scroll position when items change (default behavior)
             this.scrollOffset = 0;
@@ -217,21 +239,29 @@ public class FreeMarketContainer implements Renderable {
     
     private void onSearchChanged(String searchText) {
         scrollOffset = 0; // Reset scroll when searching
+        // Filters like price<100 run on the index columns; ranked text search runs off the render thread once typing pauses
+        searchQuery = ListingQuery.parse(searchText);
+        ListingSearch.queryChanged(searchQuery.getText());
     }
     
     public void addItem(FreeMarketItem item) {
+        evictProcessedItem(item.getGuid());
         allItems.add(item);
+        ClientMarketplaceCache.getSearchIndex().sync(allItems);
         onSearchChanged(searchBox != null ? searchBox.getValue() : "");
     }
     
     public void removeItem(FreeMarketItem item) {
+        evictProcessedItem(item.getGuid());
         allItems.remove(item);
+        ClientMarketplaceCache.getSearchIndex().sync(allItems);
         onSearchChanged(searchBox != null ? searchBox.getValue() : "");
     }
     
     public void updateItems(List<FreeMarketItem> newItems) {
         allItems.clear();
         allItems.addAll(newItems);
+        ClientMarketplaceCache.getSearchIndex().sync(allItems);
         // Clear cache when items are updated
         clearProcessedItemCache();
         updateButtonStates(); // Update button states when items change
@@ -251,15 +281,46 @@ public class FreeMarketContainer implements Renderable {
     }
     
     public void render(@Nonnull GuiGraphics guiGraphics, int mouseX, int mouseY, float partialTick) {
+        // Get items to render based on selected category and search
+        List<FreeMarketItem> itemsToRender = getItemsToRender();
+        
+        // Draw items with percentage-based positioning (aligned with sidebar)
+        int sidebarWidth = (int)(width * 0.2); // Match calculateResponsiveDimensions
+        int sidebarMargin = (int)(width * 0.02); // Match calculateResponsiveDimensions
+        int startY = y + (int)(height * 0.15); // 15% from top (matches sidebar start)
+        int startX = x + sidebarWidth + sidebarMargin; // Start after sidebar with consistent margin
+        int maxItemsToRender = maxVisibleItems;
+        
+        int cardHeight = (int)(itemHeight * 0.9); // Use 90% of item height for card (leaving margin)
+        float guiScale = (float) Minecraft.getInstance().getWindow().getGuiScale();
+        
+        // Only the visible window is modelled; cards are rebuilt on data, balance or inventory changes
+        checkInventoryChanged();
+        gridModel.update(itemsToRender, scrollOffset * itemsPerRow, maxItemsToRender, calculatedItemWidth, cardHeight, guiScale);
+        long now = System.currentTimeMillis();
+        
+        // The container frame and the flat parts of every card go out in one batch, before anything drawn on top of them
+        quadBatch.begin(guiGraphics);
+        
         // Draw modern container background with gradient effect (semi-transparent)
-        guiGraphics.fill(x, y, x + width, y + height, 0x801E1E1E); // 50% opacity
-        guiGraphics.fill(x + 1, y + 1, x + width - 1, y + height - 1, 0x802A2A2A); // 50% opacity
+        quadBatch.fill(x, y, x + width, y + height, 0x801E1E1E); // 50% opacity
+        quadBatch.fill(x + 1, y + 1, x + width - 1, y + height - 1, 0x802A2A2A); // 50% opacity
         
         // Draw subtle border with rounded corners effect (semi-transparent)
-        guiGraphics.fill(x, y, x + width, y + 2, 0x80404040); // 50% opacity
-        guiGraphics.fill(x, y, x + 2, y + height, 0x80404040); // 50% opacity
-        guiGraphics.fill(x + width - 2, y, x + width, y + height, 0x80404040); // 50% opacity
-        guiGraphics.fill(x, y + height - 2, x + width, y + height, 0x80404040); // 50% opacity
+        quadBatch.fill(x, y, x + width, y + 2, 0x80404040); // 50% opacity
+        quadBatch.fill(x, y, x + 2, y + height, 0x80404040); // 50% opacity
+        quadBatch.fill(x + width - 2, y, x + width, y + height, 0x80404040); // 50% opacity
+        quadBatch.fill(x, y + height - 2, x + width, y + height, 0x80404040); // 50% opacity
+        
+        for (int i = 0; i < gridModel.size(); i++) {
+            MarketGridModel.CardView card = gridModel.get(i);
+            if (!card.addEntry) {
+                int itemX = startX + (i % itemsPerRow) * itemSpacing;
+                int itemY = startY + (i / itemsPerRow) * itemHeight;
+                itemCardRenderer.addCardGeometry(quadBatch, card, itemX, itemY, calculatedItemWidth, cardHeight, mouseX, mouseY, guiScale, now);
+            }
+        }
+        quadBatch.flush();
         
         // Draw title (simple rendering with proper spacing from search bar)
         Component title = Component.literal(Config.MARKETPLACE_NAME.get());
@@ -280,57 +341,37 @@ public class FreeMarketContainer implements Renderable {
         // Draw category sidebar
         renderCategorySidebar(guiGraphics, mouseX, mouseY);
         
-        // Get items to render based on selected category and search
-        List<FreeMarketItem> itemsToRender = getItemsToRender();
-        
-        // Draw items with percentage-based positioning (aligned with sidebar)
-        int sidebarWidth = (int)(width * 0.2); // Match calculateResponsiveDimensions
-        int sidebarMargin = (int)(width * 0.02); // Match calculateResponsiveDimensions
-        int startY = y + (int)(height * 0.15); // 15% from top (matches sidebar start)
-        int startX = x + sidebarWidth + sidebarMargin; // Start after sidebar with consistent margin
-        int itemsRendered = 0;
-        int maxItemsToRender = maxVisibleItems;
-        
-        for (int i = scrollOffset * itemsPerRow; i < itemsToRender.size() && itemsRendered < maxItemsToRender; i += itemsPerRow) {
-            for (int j = 0; j < itemsPerRow && i + j < itemsToRender.size() && itemsRendered < maxItemsToRender; j++) {
-                // Use the new ItemCardRenderer for proper GUI scaling
-                FreeMarketItem item = itemsToRender.get(i + j);
-                int itemX = startX + j * itemSpacing;
-                int itemY = startY + (itemsRendered / itemsPerRow) * itemHeight;
-                int cardHeight = (int)(itemHeight * 0.9); // Use 90% of item height for card (leaving margin)
-                
-                // Check if this is the special "add item" entry
-                if (isAddItemEntry(item)) {
-                    // Render special add item card with plus icon (no buy/sell buttons)
-                    renderAddItemCard(guiGraphics, itemX, itemY, calculatedItemWidth, cardHeight, mouseX, mouseY);
-                } else {
-                    // Create item stack with the marketplace quantity for display
-                    net.minecraft.world.item.ItemStack displayStack = createItemWithComponentData(item);
-                    displayStack.setCount(item.getQuantity());
-                    
-                    // Render the modern item card using the new renderer with GUI scale and cooldown states
-                    Minecraft client = Minecraft.getInstance();
-                    float guiScale = (float) client.getWindow().getGuiScale();
-                    
-                    // Get button states
-                    boolean canBuy = getCachedCanBuyState(item);
-                    boolean canSell = getCachedCanSellState(item);
-                    boolean isBuyCooldown = isBuyButtonInCooldown(item);
-                    boolean isSellCooldown = isSellButtonInCooldown(item);
-                    
-                    itemCardRenderer.renderItemCard(guiGraphics, displayStack, itemX, itemY, 
-                                                 calculatedItemWidth, cardHeight, 
-                                                 mouseX, mouseY, guiScale,
-                                                 canBuy, canSell, isBuyCooldown, isSellCooldown,
-                                                 item.getBuyPrice(), item.getSellPrice());
-                }
-                itemsRendered++;
+        ItemIconAtlas.beginFrame();
+        for (int i = 0; i < gridModel.size(); i++) {
+            MarketGridModel.CardView card = gridModel.get(i);
+            int itemX = startX + (i % itemsPerRow) * itemSpacing;
+            int itemY = startY + (i / itemsPerRow) * itemHeight;
+            
+            // Check if this is the special "add item" entry
+            if (card.addEntry) {
+                // Render special add item card with plus icon (no buy/sell buttons)
+                renderAddItemCard(guiGraphics, itemX, itemY, calculatedItemWidth, cardHeight, mouseX, mouseY);
+                continue;
+            }
+            
+            itemCardRenderer.renderCardContents(guiGraphics, card, itemX, itemY, calculatedItemWidth, cardHeight, mouseX, mouseY, guiScale, now);
+            
+            // Price history sparkline, requested when the card was built
+            itemCardRenderer.renderSparkline(guiGraphics, ClientPriceHistoryCache.get(card.item.getGuid()),
+                                             itemX, itemY, calculatedItemWidth, cardHeight);
+            
+            // Remaining stock for listings with a restock rule
+            if (card.stockText != null) {
+                itemCardRenderer.renderStock(guiGraphics, card.stockText, card.stock, itemX, itemY, calculatedItemWidth);
             }
         }
         
         // Draw scroll bar
         drawScrollBar(guiGraphics);
         
+        // Draw sort dropdown last so its open list covers the item cards
+        renderSortDropdown(guiGraphics, mouseX, mouseY);
+        
         // Draw item count (exclude add item from count)
         int actualItemCount = itemsToRender.size();
         if (AdminModeHandler.isAdminMode() && (searchBox == null || searchBox.getValue().isEmpty())) {
@@ -342,6 +383,85 @@ public class FreeMarketContainer implements Renderable {
     
     
     
+    /**
+     * Draws the sort button to the right of the search box and, when open, the list of sort orders below it.
+     */
+    private void renderSortDropdown(GuiGraphics guiGraphics, int mouseX, int mouseY) {
+        if (searchBox == null) {
+            return;
+        }
+        var font = net.minecraft.client.Minecraft.getInstance().font;
+        int buttonX = getSortButtonX();
+        int buttonY = searchBox.getY();
+        int buttonWidth = getSortButtonWidth();
+        int buttonHeight = searchBox.getHeight();
+        
+        boolean buttonHovered = mouseX >= buttonX && mouseX <= buttonX + buttonWidth &&
+                                mouseY >= buttonY && mouseY <= buttonY + buttonHeight;
+        guiGraphics.fill(buttonX, buttonY, buttonX + buttonWidth, buttonY + buttonHeight, buttonHovered ? 0xCC4A4A4A : 0xCC2D2D2D);
+        guiGraphics.drawString(font, truncateTextToWidth(sortButtonLabel.getString(), buttonWidth - 6),
+            buttonX + 3, buttonY + (buttonHeight - font.lineHeight) / 2 + 1, 0xFFE0E0E0);
+        
+        if (!sortDropdownOpen) {
+            return;
+        }
+        // Above the item cards, which render their items at a raised depth
+        guiGraphics.pose().pushPose();
+        guiGraphics.pose().translate(0, 0, 400);
+        ListingSortOrders.Order[] orders = ListingSortOrders.Order.values();
+        for (int i = 0; i < orders.length; i++) {
+            int optionY = buttonY + buttonHeight * (i + 1);
+            boolean hovered = mouseX >= buttonX && mouseX <= buttonX + buttonWidth &&
+                              mouseY >= optionY && mouseY < optionY + buttonHeight;
+            int background = orders[i] == sortOrder ? 0xF04CAF50 : hovered ? 0xF04A4A4A : 0xF0202020;
+            guiGraphics.fill(buttonX, optionY, buttonX + buttonWidth, optionY + buttonHeight, background);
+            guiGraphics.drawString(font, orders[i].getLabel(), buttonX + 3, optionY + (buttonHeight - font.lineHeight) / 2 + 1, 0xFFE0E0E0);
+        }
+        guiGraphics.pose().popPose();
+    }
+    
+    private int getSortButtonX() {
+        return searchBox.getX() + searchBox.getWidth() + (int)(width * 0.02); // 2% gap after the search box
+    }
+    
+    private int getSortButtonWidth() {
+        return (int)(width * 0.18); // 18% of container width
+    }
+    
+    /**
+     * Handles clicks on the sort button and the open sort list.
+     * @return true if the click was used by the dropdown
+     */
+    private boolean handleSortDropdownClick(double mouseX, double mouseY) {
+        if (searchBox == null) {
+            return false;
+        }
+        int buttonX = getSortButtonX();
+        int buttonY = searchBox.getY();
+        int buttonWidth = getSortButtonWidth();
+        int buttonHeight = searchBox.getHeight();
+        boolean inColumn = mouseX >= buttonX && mouseX <= buttonX + buttonWidth;
+        
+        if (inColumn && mouseY >= buttonY && mouseY <= buttonY + buttonHeight) {
+            sortDropdownOpen = !sortDropdownOpen;
+            return true;
+        }
+        if (!sortDropdownOpen) {
+            return false;
+        }
+        
+        // Any click closes the list; a click on an option also picks it
+        sortDropdownOpen = false;
+        ListingSortOrders.Order[] orders = ListingSortOrders.Order.values();
+        int option = (int) Math.floor((mouseY - buttonY) / buttonHeight) - 1;
+        if (inColumn && option >= 0 && option < orders.length && orders[option] != sortOrder) {
+            sortOrder = orders[option];
+            sortButtonLabel = Component.translatable("gui.FreeMarket.marketplace.sort", sortOrder.getLabel());
+            scrollOffset = 0; // Reset scroll when changing sort order
+        }
+        return true;
+    }
+    
     private void renderCategorySidebar(GuiGraphics guiGraphics, int mouseX, int mouseY) {
         // Use percentage-based sizing for sidebar with matching margins
         int sidebarWidth = (int)(width * 0.2); // 20% of container width
@@ -452,35 +572,45 @@ public class FreeMarketContainer implements Renderable {
     private List<FreeMarketItem> getItemsToRender() {
         long currentTime = System.currentTimeMillis();
         String currentSearchText = (searchBox != null) ? searchBox.getValue() : "";
+        ListingSearch.tick(searchQuery.getText());
         
         // Check if cache is valid
         if (cachedItemsToRender == null || 
             lastFilteredCategory != selectedCategory ||
+            lastSortOrder != sortOrder ||
             !currentSearchText.equals(lastSearchText) ||
+            lastSearchGeneration != ListingSearch.getGeneration() ||
             (currentTime - lastItemCacheUpdate) > ITEM_CACHE_DURATION) {
             
             // Update cache
-            // First filter by category
-            List<FreeMarketItem> categoryFiltered = ItemCategoryManager.filterItemsByCategory(allItems, selectedCategory);
-            
-            // Then filter by search text
-            if (searchBox != null && !searchBox.getValue().isEmpty()) {
-                String searchText = searchBox.getValue().toLowerCase();
-                categoryFiltered = categoryFiltered.stream()
-                    .filter(item -> item.getItemName().toLowerCase().contains(searchText))
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+            // Search first, best matches first, which narrows the listings the category filter has to look at
+            List<FreeMarketItem> searched = allItems;
+            if (searchQuery.hasText()) {
+                searched = ListingSearch.getResults(searchQuery.getText());
+            }
+            if (searchQuery.hasFilters()) {
+                searched = ClientMarketplaceCache.getSearchIndex().filter(searchQuery, searched);
             }
             
+            // Then filter by category
+            List<FreeMarketItem> categoryFiltered = ItemCategoryManager.filterItemsByCategory(searched, selectedCategory);
+            
+            // Then put in the selected order, walking a presorted permutation
+            ClientMarketplaceCache.getSearchIndex().sort(sortOrder, categoryFiltered, sortedItems);
+            
             // Add special "add item" entry if in admin mode and not searching
             if (AdminModeHandler.isAdminMode() && (searchBox == null || searchBox.getValue().isEmpty())) {
                 // Create a special marketplace item for adding new items
                 FreeMarketItem addItem = createAddItemEntry();
-                categoryFiltered.add(addItem);
+                sortedItems.add(addItem);
             }
             
-            cachedItemsToRender = categoryFiltered;
+            cachedItemsToRender = sortedItems;
             lastFilteredCategory = selectedCategory;
+            lastSortOrder = sortOrder;
+            gridModel.invalidate();
             lastSearchText = currentSearchText;
+            lastSearchGeneration = ListingSearch.getGeneration();
             lastItemCacheUpdate = currentTime;
         }
         
@@ -574,7 +704,12 @@ public class FreeMarketContainer implements Renderable {
     }
     
     public boolean mouseClicked(double mouseX, double mouseY, int button) {
-        // Handle search box clicks first
+        // Handle the sort dropdown first, since its open list covers the item cards
+        if (handleSortDropdownClick(mouseX, mouseY)) {
+            return true;
+        }
+        
+        // Handle search box clicks
         if (searchBox != null) {
             if (searchBox.mouseClicked(mouseX, mouseY, button)) {
                 searchBox.setFocused(true);
@@ -714,7 +849,8 @@ public class FreeMarketContainer implements Renderable {
                 // Use the new ItemCardRenderer for sell button click detection
                 if (ItemCardRenderer.isSellButtonClicked(itemX, itemY, cardWidth, cardHeight, (int)mouseX, (int)mouseY, guiScale, item.getSellPrice())) {
                     // Check if button is enabled before processing
-                    if (!getCachedCanSellState(item)) {
+                    checkInventoryChanged();
+                    if (!canSellItem(item)) {
                         return true; // Consume click but don't process - button is disabled
                     }
                     
@@ -818,39 +954,71 @@ public class FreeMarketContainer implements Renderable {
         return cachedCanBuyStates.computeIfAbsent(itemGuid, guid -> canBuyItem(item));
     }
     
-    /**
-     * Gets the cached can sell state for an item.
-     * Only updates when explicitly requested via updateButtonStates().
-     */
-    private boolean getCachedCanSellState(FreeMarketItem item) {
-        String itemGuid = item.getGuid();
-        return cachedCanSellStates.computeIfAbsent(itemGuid, guid -> canSellItem(item));
-    }
-    
     /**
      * Updates all button states. Should only be called when:
      * - GUI opens
      * - After buy/sell operations
      * - When wallet balance changes significantly
+     * States are worked out again as cards need them, so only visible listings are checked.
      */
     public void updateButtonStates() {
         cachedCanBuyStates.clear();
-        cachedCanSellStates.clear();
-        
-        // Pre-calculate states for all items
-        if (allItems != null) {
-            for (FreeMarketItem item : allItems) {
-                cachedCanBuyStates.put(item.getGuid(), canBuyItem(item));
-                cachedCanSellStates.put(item.getGuid(), canSellItem(item));
-            }
+        gridModel.invalidate();
+    }
+    
+    /**
+     * Re-counts the player's items when the inventory changed and rebuilds the cards, since the sell
+     * states depend on what the player holds.
+     */
+    private void checkInventoryChanged() {
+        if (ClientInventoryIndex.refresh(Minecraft.getInstance().player)) {
+            gridModel.invalidate();
         }
     }
     
+    /**
+     * Fills in the listing state of a grid card when the visible window is rebuilt, and requests its
+     * price history if the cached one is missing or old.
+     */
+    private void fillCardView(MarketGridModel.CardView card, FreeMarketItem item) {
+        // Kept per listing, so the icon atlas and tooltip cache see the same stack until the listing changes
+        card.displayStack = getDisplayStack(item);
+        card.canBuy = getCachedCanBuyState(item);
+        card.canSell = canSellItem(item);
+        card.buyCooldownUntil = buyButtonCooldowns.getOrDefault(item.getGuid(), 0L);
+        card.sellCooldownUntil = sellButtonCooldowns.getOrDefault(item.getGuid(), 0L);
+        card.stock = ClientMarketplaceCache.getStock(item.getGuid());
+        ClientPriceHistoryCache.requestIfStale(item.getGuid());
+    }
+    
+    /**
+     * Gets the display stack of a listing: its item with the component data applied and the listing quantity.
+     * Kept per listing, so the icon atlas and tooltip cache see the same stack until the listing changes.
+     */
+    private ItemStack getDisplayStack(FreeMarketItem item) {
+        return processedItemCache.computeIfAbsent(item.getGuid(), guid -> {
+            ItemStack displayStack = createItemWithComponentData(item);
+            displayStack.setCount(item.getQuantity());
+            return displayStack;
+        });
+    }
+    
     /**
      * Clears the processed item cache. Should be called when marketplace data changes.
      */
     public void clearProcessedItemCache() {
         processedItemCache.clear();
+        fingerprintCache.clear();
+        itemCardRenderer.clearTooltipCache();
+    }
+    
+    /**
+     * Drops the display stack, fingerprint and tooltip of one listing.
+     */
+    private void evictProcessedItem(String guid) {
+        processedItemCache.remove(guid);
+        fingerprintCache.remove(guid);
+        itemCardRenderer.evictTooltip(guid);
     }
     
     /**
@@ -883,56 +1051,18 @@ public class FreeMarketContainer implements Renderable {
             return false;
         }
         
-        Minecraft minecraft = Minecraft.getInstance();
-        Player clientPlayer = minecraft.player;
-        if (clientPlayer == null) {
+        if (Minecraft.getInstance().player == null) {
             return false;
         }
         
-        // Use server player for inventory check to ensure consistency
-        Player playerForCheck = clientPlayer;
-        var singleplayerServer = minecraft.getSingleplayerServer();
-        if (singleplayerServer != null) {
-            var serverPlayer = singleplayerServer.getPlayerList().getPlayer(clientPlayer.getUUID());
-            if (serverPlayer != null) {
-                playerForCheck = serverPlayer;
-            }
-        }
-        
-        // Create item with component data applied to ensure proper matching
-        ItemStack itemToCheck = item.getItemStack().copy();
-        
-        // Apply component data if present (same logic as createItemWithComponentData)
-        String componentData = item.getComponentData();
-        if (componentData != null && !componentData.trim().isEmpty() && !componentData.equals("{}")) {
-            // Try to use server-side processing for proper registry access
-            if (singleplayerServer != null) {
-                // Use server-side handler with registry access
-                itemToCheck = com.freemarket.server.handlers.ServerItemHandler.createItemWithComponentData(
-                    itemToCheck, componentData, singleplayerServer);
-            } else {
-                // Fallback to client-side processing
-                ItemComponentHandler.applyComponentData(itemToCheck, componentData);
-            }
-        }
-        
-        // Check if player has the item in inventory
-        var inventory = playerForCheck.getInventory();
-        int totalCount = 0;
-        
-        // Count all matching items across the entire inventory
-        for (int i = 0; i < inventory.getContainerSize(); i++) {
-            ItemStack slotItem = inventory.getItem(i);
-            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, itemToCheck)) {
-                totalCount += slotItem.getCount();
-            }
-        }
-        
-        return totalCount >= itemToCheck.getCount();
+        // One lookup in the counts of the player's items, kept up to date by checkInventoryChanged
+        ClientInventoryIndex.Fingerprint fingerprint = fingerprintCache.computeIfAbsent(
+            item.getGuid(), guid -> ClientInventoryIndex.Fingerprint.of(getDisplayStack(item)));
+        return ClientInventoryIndex.count(fingerprint) >= item.getItemStack().getCount();
     }
     
     /**
-     * Checks if the player can buy the specified item (has enough money and buy price > 0).
+     * Checks if the player can buy the specified item (has enough money, buy price > 0 and enough stock).
      */
     private boolean canBuyItem(FreeMarketItem item) {
         // First check if buy price is greater than 0
@@ -940,6 +1070,12 @@ public class FreeMarketContainer implements Renderable {
             return false;
         }
         
+        // Listings with limited stock need at least one lot left
+        int stock = ClientMarketplaceCache.getStock(item.getGuid());
+        if (stock >= 0 && stock < item.getQuantity()) {
+            return false;
+        }
+        
         // Use the GUI's cached balance instead of calling ClientWalletHandler directly
         if (parentScreen != null) {
             long cachedBalance = parentScreen.getCachedBalance();
@@ -13,23 +13,45 @@ import java.util.List;
 import com.freemarket.Config;
 import com.freemarket.FreeMarket;
 import com.freemarket.client.data.ClientFreeMarketDataManager;
+import com.freemarket.client.data.ClientMailboxCache;
 import com.freemarket.client.data.ClientMarketplaceCache;
 import com.freemarket.common.data.FreeMarketItem;
 import com.freemarket.client.handlers.ClientWalletHandler;
+import com.freemarket.common.network.LeaderboardRequestPacket;
+import com.freemarket.common.network.MailboxClaimPacket;
+import com.freemarket.common.network.LeaderboardSyncPacket;
 import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.handlers.ServerLeaderboardHandler;
 
 /**
  * Semi-transparent dark overlay GUI for the FreeMarket mod.
  * Opens with the O keybind and displays a dark overlay with conditional admin button and marketplace.
+ * Clicking the wallet display toggles the balance leaderboard panel.
+ * A mailbox display next to it shows items waiting for the player; clicking it claims them.
  */
 public class FreeMarketGuiScreen extends Screen {
     
     private List<FreeMarketItem> freeMarketItems;
     private FreeMarketContainer freeMarketContainer;
     
+    // Marketplace snapshot the screen shows; a newer one is picked up on the next frame
+    private ClientMarketplaceCache.Snapshot shownSnapshot;
+    
     // Cache wallet balance to avoid retrieving it every frame
     private long cachedBalance = 0;
     
+    // Wallet display bounds, updated every frame for click detection
+    private int walletBoxX, walletBoxY, walletBoxWidth, walletBoxHeight;
+    
+    // Mailbox display bounds, empty while nothing is waiting
+    private int mailboxBoxX, mailboxBoxY, mailboxBoxWidth, mailboxBoxHeight;
+    
+    // Leaderboard panel state; the page is null until the server answers
+    private boolean leaderboardOpen = false;
+    private LeaderboardSyncPacket leaderboardPage;
+    private int leaderboardPrevX, leaderboardNextX, leaderboardFooterY, leaderboardArrowWidth;
+    private int leaderboardPanelX, leaderboardPanelY, leaderboardPanelWidth, leaderboardPanelHeight;
+    
     public FreeMarketGuiScreen() {
         super(Component.literal(Config.MARKETPLACE_NAME.get()));
         this.freeMarketItems = new ArrayList<>();
@@ -39,7 +61,8 @@ public class FreeMarketGuiScreen extends Screen {
     private void loadFreeMarketItemsFromFile() {
         // First check if we have cached data from network sync
         if (ClientMarketplaceCache.hasCachedData()) {
-            this.freeMarketItems = ClientMarketplaceCache.getCachedItems();
+            this.shownSnapshot = ClientMarketplaceCache.getSnapshot();
+            this.freeMarketItems = new ArrayList<>(shownSnapshot.items());
             return;
         }
         
@@ -138,6 +161,20 @@ public class FreeMarketGuiScreen extends Screen {
         cachedBalance = ClientWalletHandler.getPlayerMoney();
     }
     
+    /**
+     * Updates the leaderboard panel with a page received from the server.
+     */
+    public void updateLeaderboard(LeaderboardSyncPacket page) {
+        this.leaderboardPage = page;
+    }
+    
+    /**
+     * Requests a page of the balance leaderboard from the server.
+     */
+    private void requestLeaderboardPage(int page) {
+        net.neoforged.neoforge.network.PacketDistributor.sendToServer(new LeaderboardRequestPacket(page));
+    }
+    
     /**
      * Updates marketplace data from network sync.
      * Called when receiving marketplace data from server.
@@ -148,6 +185,9 @@ public class FreeMarketGuiScreen extends Screen {
         // Update the marketplace container with new data
         if (freeMarketContainer != null) {
             freeMarketContainer.updateFreeMarketItems(freeMarketItems, true); // Preserve scroll position
+            
+            // Prices and stock affect buy/sell availability
+            freeMarketContainer.updateButtonStates();
         }
     }
     
@@ -159,7 +199,8 @@ public class FreeMarketGuiScreen extends Screen {
     public void refreshMarketplace(boolean preserveScrollPosition) {
         // First check if we have cached data from network sync
         if (ClientMarketplaceCache.hasCachedData()) {
-            this.freeMarketItems = ClientMarketplaceCache.getCachedItems();
+            this.shownSnapshot = ClientMarketplaceCache.getSnapshot();
+            this.freeMarketItems = new ArrayList<>(shownSnapshot.items());
             
             // Update the marketplace container with new data
             if (freeMarketContainer != null) {
@@ -255,14 +296,25 @@ public class FreeMarketGuiScreen extends Screen {
         
         // Call super.render() first to handle any background elements
         super.render(guiGraphics, mouseX, mouseY, partialTick);
+        
+        // Show marketplace updates decoded in the background since the last frame
+        ClientMarketplaceCache.Snapshot latest = ClientMarketplaceCache.getSnapshot();
+        if (latest != shownSnapshot && latest.version() > 0) {
+            shownSnapshot = latest;
+            updateMarketplaceData(latest.items());
+        }
 
-        // Draw wallet display in top right of screen
+        // Draw wallet display in top right of screen, with the mailbox to its left
         renderWalletDisplay(guiGraphics);
+        renderMailboxDisplay(guiGraphics);
         
         // Render marketplace container (it will draw its own background)
         if (freeMarketContainer != null) {
             freeMarketContainer.render(guiGraphics, mouseX, mouseY, partialTick);
         }
+        
+        // Leaderboard panel drops down from the wallet display, over the marketplace
+        renderLeaderboardPanel(guiGraphics);
     }
     
     private void renderWalletDisplay(GuiGraphics guiGraphics) {
@@ -289,6 +341,12 @@ public class FreeMarketGuiScreen extends Screen {
         int backgroundX = GuiScalingHelper.percentageX(0.85f) - backgroundWidth; // 85% from left, minus width
         int backgroundY = GuiScalingHelper.responsiveHeight(15, 10, 25);
         
+        // Remember bounds so clicks can toggle the leaderboard
+        walletBoxX = backgroundX;
+        walletBoxY = backgroundY;
+        walletBoxWidth = backgroundWidth;
+        walletBoxHeight = backgroundHeight;
+        
         // Draw background box with semi-transparent colors (matching container)
         guiGraphics.fill(backgroundX, backgroundY, backgroundX + backgroundWidth, backgroundY + backgroundHeight, 0x801E1E1E); // 50% opacity
         guiGraphics.fill(backgroundX + 1, backgroundY + 1, backgroundX + backgroundWidth - 1, backgroundY + backgroundHeight - 1, 0x802A2A2A); // 50% opacity
@@ -308,6 +366,147 @@ public class FreeMarketGuiScreen extends Screen {
         guiGraphics.drawString(this.font, walletText, moneyX, moneyY, 0xFF4CAF50);
     }
     
+    /**
+     * Renders the mailbox display to the left of the wallet display while items are waiting.
+     */
+    private void renderMailboxDisplay(GuiGraphics guiGraphics) {
+        int waiting = ClientMailboxCache.getItemCount();
+        if (waiting <= 0) {
+            mailboxBoxWidth = 0;
+            return;
+        }
+        
+        Component titleText = Component.translatable("gui.FreeMarket.mailbox.title", waiting);
+        Component claimText = Component.translatable("gui.FreeMarket.mailbox.claim");
+        int marginX = GuiScalingHelper.responsiveWidth(10, 6, 15);
+        int marginY = GuiScalingHelper.responsiveHeight(8, 6, 12);
+        
+        // Same height as the wallet display, just to its left
+        mailboxBoxWidth = Math.max(this.font.width(titleText), this.font.width(claimText)) + marginX * 2;
+        mailboxBoxHeight = walletBoxHeight;
+        mailboxBoxX = walletBoxX - mailboxBoxWidth - 4;
+        mailboxBoxY = walletBoxY;
+        
+        guiGraphics.fill(mailboxBoxX, mailboxBoxY, mailboxBoxX + mailboxBoxWidth, mailboxBoxY + mailboxBoxHeight, 0x801E1E1E);
+        guiGraphics.fill(mailboxBoxX + 1, mailboxBoxY + 1, mailboxBoxX + mailboxBoxWidth - 1, mailboxBoxY + mailboxBoxHeight - 1, 0x802A2A2A);
+        
+        int titleY = mailboxBoxY + marginY;
+        int claimY = mailboxBoxY + mailboxBoxHeight - marginY - GuiScalingHelper.responsiveHeight(8, 6, 12);
+        guiGraphics.drawString(this.font, titleText, mailboxBoxX + (mailboxBoxWidth - this.font.width(titleText)) / 2, titleY, 0xFFFFFFFF);
+        guiGraphics.drawString(this.font, claimText, mailboxBoxX + (mailboxBoxWidth - this.font.width(claimText)) / 2, claimY, 0xFFFFD700);
+    }
+    
+    /**
+     * Claims the mailbox when its display is clicked. The server hands over everything that fits at once.
+     * @return true if the click was consumed
+     */
+    private boolean handleMailboxClick(double mouseX, double mouseY) {
+        if (mailboxBoxWidth <= 0 || mouseX < mailboxBoxX || mouseX >= mailboxBoxX + mailboxBoxWidth
+                || mouseY < mailboxBoxY || mouseY >= mailboxBoxY + mailboxBoxHeight) {
+            return false;
+        }
+        net.neoforged.neoforge.network.PacketDistributor.sendToServer(new MailboxClaimPacket());
+        return true;
+    }
+    
+    /**
+     * Renders the balance leaderboard panel below the wallet display when open.
+     */
+    private void renderLeaderboardPanel(GuiGraphics guiGraphics) {
+        if (!leaderboardOpen) {
+            return;
+        }
+        
+        int padding = 4;
+        int rowHeight = this.font.lineHeight + 2;
+        int rows = leaderboardPage != null ? leaderboardPage.names().size() : 1;
+        
+        leaderboardPanelWidth = Math.max(walletBoxWidth, 140);
+        leaderboardPanelHeight = padding * 2 + rowHeight * (rows + 3);
+        leaderboardPanelX = walletBoxX + walletBoxWidth - leaderboardPanelWidth;
+        leaderboardPanelY = walletBoxY + walletBoxHeight + 2;
+        
+        int x = leaderboardPanelX;
+        int y = leaderboardPanelY;
+        guiGraphics.fill(x, y, x + leaderboardPanelWidth, y + leaderboardPanelHeight, 0xE01E1E1E);
+        guiGraphics.fill(x + 1, y + 1, x + leaderboardPanelWidth - 1, y + leaderboardPanelHeight - 1, 0xE02A2A2A);
+        
+        int textY = y + padding;
+        Component title = Component.translatable("gui.FreeMarket.leaderboard.title");
+        guiGraphics.drawString(this.font, title, x + (leaderboardPanelWidth - this.font.width(title)) / 2, textY, 0xFFFFD700);
+        textY += rowHeight;
+        
+        if (leaderboardPage == null) {
+            guiGraphics.drawString(this.font, Component.translatable("gui.FreeMarket.leaderboard.loading"), x + padding, textY, 0xFFAAAAAA);
+            return;
+        }
+        
+        for (int i = 0; i < leaderboardPage.names().size(); i++) {
+            int rank = leaderboardPage.page() * ServerLeaderboardHandler.PAGE_SIZE + i + 1;
+            String name = "#" + rank + " " + leaderboardPage.names().get(i);
+            String balance = "$" + formatPrice(leaderboardPage.balances().get(i));
+            guiGraphics.drawString(this.font, name, x + padding, textY, 0xFFFFFFFF);
+            guiGraphics.drawString(this.font, balance, x + leaderboardPanelWidth - padding - this.font.width(balance), textY, 0xFF4CAF50);
+            textY += rowHeight;
+        }
+        
+        // Own rank
+        if (leaderboardPage.ownRank() > 0) {
+            Component own = Component.translatable("gui.FreeMarket.leaderboard.own_rank", leaderboardPage.ownRank());
+            guiGraphics.drawString(this.font, own, x + padding, textY, 0xFFAAAAAA);
+        }
+        textY += rowHeight;
+        
+        // Page footer with arrows
+        Component pageText = Component.translatable("gui.FreeMarket.leaderboard.page", leaderboardPage.page() + 1, leaderboardPage.totalPages());
+        int pageWidth = this.font.width(pageText);
+        int centerX = x + leaderboardPanelWidth / 2;
+        leaderboardArrowWidth = this.font.width("<") + 4;
+        leaderboardPrevX = centerX - pageWidth / 2 - leaderboardArrowWidth - 4;
+        leaderboardNextX = centerX + pageWidth / 2 + 4;
+        leaderboardFooterY = textY;
+        
+        guiGraphics.drawString(this.font, pageText, centerX - pageWidth / 2, textY, 0xFFFFFFFF);
+        guiGraphics.drawString(this.font, "<", leaderboardPrevX + 2, textY, leaderboardPage.page() > 0 ? 0xFFFFFFFF : 0xFF555555);
+        guiGraphics.drawString(this.font, ">", leaderboardNextX + 2, textY, leaderboardPage.page() + 1 < leaderboardPage.totalPages() ? 0xFFFFFFFF : 0xFF555555);
+    }
+    
+    /**
+     * Handles clicks on the wallet display and the leaderboard panel.
+     * @return true if the click was consumed
+     */
+    private boolean handleLeaderboardClick(double mouseX, double mouseY) {
+        if (mouseX >= walletBoxX && mouseX < walletBoxX + walletBoxWidth
+                && mouseY >= walletBoxY && mouseY < walletBoxY + walletBoxHeight) {
+            leaderboardOpen = !leaderboardOpen;
+            if (leaderboardOpen) {
+                leaderboardPage = null;
+                requestLeaderboardPage(0);
+            }
+            return true;
+        }
+        
+        if (!leaderboardOpen || leaderboardPage == null) {
+            return false;
+        }
+        
+        if (mouseY >= leaderboardFooterY - 1 && mouseY < leaderboardFooterY + this.font.lineHeight + 1) {
+            if (mouseX >= leaderboardPrevX && mouseX < leaderboardPrevX + leaderboardArrowWidth && leaderboardPage.page() > 0) {
+                requestLeaderboardPage(leaderboardPage.page() - 1);
+                return true;
+            }
+            if (mouseX >= leaderboardNextX && mouseX < leaderboardNextX + leaderboardArrowWidth
+                    && leaderboardPage.page() + 1 < leaderboardPage.totalPages()) {
+                requestLeaderboardPage(leaderboardPage.page() + 1);
+                return true;
+            }
+        }
+        
+        // Swallow clicks on the panel so they don't reach the cards underneath
+        return mouseX >= leaderboardPanelX && mouseX < leaderboardPanelX + leaderboardPanelWidth
+            && mouseY >= leaderboardPanelY && mouseY < leaderboardPanelY + leaderboardPanelHeight;
+    }
+    
     /**
      * Formats a price number to be shorter for display with intelligent decimal handling.
      * Only abbreviates when there are trailing zeros, otherwise shows full number.
@@ -400,6 +599,12 @@ public class FreeMarketGuiScreen extends Screen {
     
     @Override
     public boolean mouseClicked(double mouseX, double mouseY, int button) {
+        if (button == 0 && handleLeaderboardClick(mouseX, mouseY)) {
+            return true;
+        }
+        if (button == 0 && handleMailboxClick(mouseX, mouseY)) {
+            return true;
+        }
         if (freeMarketContainer != null && freeMarketContainer.mouseClicked(mouseX, mouseY, button)) {
             return true;
         }
@@ -0,0 +1,90 @@
+package com.freemarket.client.gui;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.resources.ResourceLocation;
+import org.joml.Matrix4f;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the flat quads of a frame and draws them together, one draw per render type.
+ *
+ * <p>{@link GuiGraphics#fill} and {@link GuiGraphics#blit} each submit their quad on their own, and
+ * the marketplace grid has a dozen or so per card: background, border, delete icon and button
+ * boxes. Here colored quads go straight into the shared GUI buffer and textured quads are kept per
+ * texture, and {@link #flush()} submits them all. Hover and button states are vertex colors, so a
+ * state change never needs a separate pass.</p>
+ *
+ * <p>Within a render type quads are drawn in the order added; all colored quads are drawn before
+ * the textured ones. Nothing else may be drawn through the same {@link GuiGraphics} between
+ * {@link #begin} and {@link #flush()}, and the pose should not change in between.</p>
+ */
+public class GuiQuadBatch {
+
+    private GuiGraphics guiGraphics;
+    // x1, y1, x2, y2 per quad, by texture
+    private final Map<ResourceLocation, FloatArrayList> texturedQuads = new LinkedHashMap<>();
+
+    /**
+     * Starts collecting quads for the given graphics.
+     */
+    public void begin(GuiGraphics guiGraphics) {
+        this.guiGraphics = guiGraphics;
+    }
+
+    /**
+     * Adds a colored rectangle, like {@link GuiGraphics#fill(int, int, int, int, int)}.
+     */
+    public void fill(int x1, int y1, int x2, int y2, int color) {
+        Matrix4f pose = guiGraphics.pose().last().pose();
+        VertexConsumer consumer = guiGraphics.bufferSource().getBuffer(RenderType.gui());
+        consumer.addVertex(pose, x1, y1, 0).setColor(color);
+        consumer.addVertex(pose, x1, y2, 0).setColor(color);
+        consumer.addVertex(pose, x2, y2, 0).setColor(color);
+        consumer.addVertex(pose, x2, y1, 0).setColor(color);
+    }
+
+    /**
+     * Adds a rectangle showing a whole texture.
+     */
+    public void blit(ResourceLocation texture, int x, int y, int width, int height) {
+        FloatArrayList quads = texturedQuads.computeIfAbsent(texture, location -> new FloatArrayList());
+        quads.add(x);
+        quads.add(y);
+        quads.add(x + width);
+        quads.add(y + height);
+    }
+
+    /**
+     * Draws everything added since {@link #begin}.
+     */
+    public void flush() {
+        Matrix4f pose = guiGraphics.pose().last().pose();
+        for (Map.Entry<ResourceLocation, FloatArrayList> entry : texturedQuads.entrySet()) {
+            FloatArrayList quads = entry.getValue();
+            if (quads.isEmpty()) {
+                continue;
+            }
+            VertexConsumer consumer = guiGraphics.bufferSource().getBuffer(RenderType.text(entry.getKey()));
+            for (int i = 0; i < quads.size(); i += 4) {
+                float x1 = quads.getFloat(i);
+                float y1 = quads.getFloat(i + 1);
+                float x2 = quads.getFloat(i + 2);
+                float y2 = quads.getFloat(i + 3);
+                consumer.addVertex(pose, x1, y1, 0).setColor(-1).setUv(0, 0).setLight(LightTexture.FULL_BRIGHT);
+                consumer.addVertex(pose, x1, y2, 0).setColor(-1).setUv(0, 1).setLight(LightTexture.FULL_BRIGHT);
+                consumer.addVertex(pose, x2, y2, 0).setColor(-1).setUv(1, 1).setLight(LightTexture.FULL_BRIGHT);
+                consumer.addVertex(pose, x2, y1, 0).setColor(-1).setUv(1, 0).setLight(LightTexture.FULL_BRIGHT);
+            }
+            // Kept for the next frame, which most likely uses the same textures
+            quads.clear();
+        }
+        guiGraphics.flush();
+        guiGraphics = null;
+    }
+}
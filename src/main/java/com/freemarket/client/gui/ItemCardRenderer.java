@@ -1,8 +1,10 @@
 package com.freemarket.client.gui;
 
+import com.freemarket.client.data.ClientPriceHistoryCache;
 import com.freemarket.common.handlers.AdminModeHandler;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.resources.ResourceLocation;
 
@@ -24,6 +26,16 @@ public class ItemCardRenderer {
     private static int cachedX, cachedY, cachedWidth, cachedHeight;
     private static float cachedGuiScale;
     
+    // Layout of a card at the origin for the view model path, which offsets it per card
+    private CardLayout originLayout;
+    private float cachedOriginScale;
+    
+    // Tooltips of the grid cards, built once per listing
+    private final ListingTooltipCache tooltipCache = new ListingTooltipCache();
+    
+    // Reused batch for the single-card path
+    private final GuiQuadBatch quadBatch = new GuiQuadBatch();
+    
     // Cache for text truncation to avoid binary search on every render
     private final Map<String, String> textTruncationCache = new HashMap<>();
     
@@ -85,50 +97,125 @@ public class ItemCardRenderer {
                               int cardWidth, int cardHeight, int mouseX, int mouseY, float guiScale,
                               boolean canBuy, boolean canSell, boolean isBuyCooldown, boolean isSellCooldown,
                               long buyPrice, long sellPrice) {
-        // Render card background (layer 1)
-        renderCardBackground(guiGraphics, x, y, cardWidth, cardHeight, mouseX, mouseY);
-        
-        // Render delete button if admin mode (layer 2 - before icon so icon can overlap)
+        // Card background, delete button and button boxes in one batch (layers 1 and 2)
+        quadBatch.begin(guiGraphics);
+        addCardBackground(quadBatch, x, y, cardWidth, cardHeight);
         if (AdminModeHandler.isAdminMode()) {
-            renderDeleteButton(guiGraphics, x, y, cardWidth, cardHeight, mouseX, mouseY);
+            addDeleteButton(quadBatch, x, y, cardWidth, cardHeight, mouseX, mouseY);
+        }
+        CardLayout layout = getCachedCardLayout(x, y, cardWidth, cardHeight, guiScale);
+        if (buyPrice > 0) {
+            addButtonBox(quadBatch, layout.buyButton, 0xFF4CAF50, canBuy && !isBuyCooldown, isBuyCooldown,
+                         layout.buyButton.contains(mouseX, mouseY), false);
+        }
+        if (sellPrice > 0) {
+            addButtonBox(quadBatch, layout.sellButton, 0xFF2196F3, canSell && !isSellCooldown, isSellCooldown,
+                         layout.sellButton.contains(mouseX, mouseY), false);
         }
+        quadBatch.flush();
         
         // Render item icon with proper scaling (layer 3)
-        renderItemIcon(guiGraphics, itemStack, x, y, cardWidth, cardHeight, guiScale);
+        renderItemIcon(guiGraphics, null, itemStack, x, y, cardWidth, cardHeight, guiScale);
         
         // Render tooltip on top of icon if hovering (layer 4)
         if (isMouseOverIcon(x, y, cardWidth, cardHeight, mouseX, mouseY)) {
             renderItemTooltip(guiGraphics, itemStack, mouseX, mouseY);
         }
         
-        // Render action buttons on top of everything (layer 5)
+        // Render button labels on top of everything (layer 5)
         renderActionButtons(guiGraphics, x, y, cardWidth, cardHeight, mouseX, mouseY, guiScale,
                            canBuy, canSell, isBuyCooldown, isSellCooldown, buyPrice, sellPrice);
     }
     
     
     /**
-     * Renders the card background (no hover effect on the card itself)
+     * Adds the flat parts of a card from its precomputed view to a batch: background, border,
+     * delete button and button boxes, colored for their hover and cooldown states. The rest of the
+     * card is drawn by {@link #renderCardContents} once the batch has been flushed.
+     * @param now current time, for the button cooldowns
+     */
+    public void addCardGeometry(GuiQuadBatch batch, MarketGridModel.CardView card, int x, int y,
+                                int cardWidth, int cardHeight, int mouseX, int mouseY, float guiScale, long now) {
+        addCardBackground(batch, x, y, cardWidth, cardHeight);
+        if (AdminModeHandler.isAdminMode()) {
+            addDeleteButton(batch, x, y, cardWidth, cardHeight, mouseX, mouseY);
+        }
+        
+        CardLayout layout = getOriginLayout(cardWidth, cardHeight, guiScale);
+        if (card.item.getBuyPrice() > 0) {
+            boolean cooldown = now < card.buyCooldownUntil;
+            addButtonBox(batch, layout.buyButton, x, y, 0xFF4CAF50, card.canBuy && !cooldown, cooldown,
+                         layout.buyButton.contains(mouseX - x, mouseY - y), false);
+        }
+        if (card.item.getSellPrice() > 0) {
+            boolean cooldown = now < card.sellCooldownUntil;
+            addButtonBox(batch, layout.sellButton, x, y, 0xFF2196F3, card.canSell && !cooldown, cooldown,
+                         layout.sellButton.contains(mouseX - x, mouseY - y), false);
+        }
+    }
+    
+    /**
+     * Renders the icon, tooltip and button labels of a card from its precomputed view: no
+     * formatting, truncation or lookups happen here.
+     * @param now current time, for the button cooldowns
+     */
+    public void renderCardContents(GuiGraphics guiGraphics, MarketGridModel.CardView card, int x, int y,
+                                   int cardWidth, int cardHeight, int mouseX, int mouseY, float guiScale, long now) {
+        renderItemIcon(guiGraphics, card.item.getGuid(), card.displayStack, x, y, cardWidth, cardHeight, guiScale);
+        if (isMouseOverIcon(x, y, cardWidth, cardHeight, mouseX, mouseY)) {
+            ListingTooltipCache.Tooltip tooltip = tooltipCache.get(card.item.getGuid(), card.displayStack, card.stock);
+            guiGraphics.renderTooltip(Minecraft.getInstance().font, tooltip.lines(), tooltip.image(), mouseX, mouseY);
+        }
+        
+        CardLayout layout = getOriginLayout(cardWidth, cardHeight, guiScale);
+        ButtonBounds buy = layout.buyButton;
+        ButtonBounds sell = layout.sellButton;
+        if (card.item.getBuyPrice() > 0) {
+            boolean cooldown = now < card.buyCooldownUntil;
+            drawButtonText(guiGraphics, card.buyText, card.buyTextWidth, x + buy.x, y + buy.y, buy.width, buy.height,
+                           card.canBuy && !cooldown, cooldown);
+        }
+        if (card.item.getSellPrice() > 0) {
+            boolean cooldown = now < card.sellCooldownUntil;
+            drawButtonText(guiGraphics, card.sellText, card.sellTextWidth, x + sell.x, y + sell.y, sell.width, sell.height,
+                           card.canSell && !cooldown, cooldown);
+        }
+    }
+    
+    /**
+     * Layout of a card at the origin, which the view model path offsets per card.
+     */
+    private CardLayout getOriginLayout(int cardWidth, int cardHeight, float guiScale) {
+        if (originLayout == null || originLayout.cardWidth != cardWidth || originLayout.cardHeight != cardHeight
+            || cachedOriginScale != guiScale) {
+            originLayout = new CardLayout(0, 0, cardWidth, cardHeight, guiScale);
+            cachedOriginScale = guiScale;
+        }
+        return originLayout;
+    }
+    
+    /**
+     * Adds the card background to a batch (no hover effect on the card itself)
      */
-    private void renderCardBackground(GuiGraphics guiGraphics, int x, int y, int cardWidth, int cardHeight, int mouseX, int mouseY) {
+    private void addCardBackground(GuiQuadBatch batch, int x, int y, int cardWidth, int cardHeight) {
         // Card background colors (semi-transparent) - no hover effect
         int backgroundColor = 0x801A1A1A; // 50% opacity
         int borderColor = 0x80404040; // 50% opacity
         
         // Draw card background
-        guiGraphics.fill(x, y, x + cardWidth, y + cardHeight, backgroundColor);
+        batch.fill(x, y, x + cardWidth, y + cardHeight, backgroundColor);
         
         // Draw card border
-        guiGraphics.fill(x, y, x + cardWidth, y + 2, borderColor); // Top
-        guiGraphics.fill(x, y, x + 2, y + cardHeight, borderColor); // Left
-        guiGraphics.fill(x + cardWidth - 2, y, x + cardWidth, y + cardHeight, borderColor); // Right
-        guiGraphics.fill(x, y + cardHeight - 2, x + cardWidth, y + cardHeight, borderColor); // Bottom
+        batch.fill(x, y, x + cardWidth, y + 2, borderColor); // Top
+        batch.fill(x, y, x + 2, y + cardHeight, borderColor); // Left
+        batch.fill(x + cardWidth - 2, y, x + cardWidth, y + cardHeight, borderColor); // Right
+        batch.fill(x, y + cardHeight - 2, x + cardWidth, y + cardHeight, borderColor); // Bottom
     }
     
     /**
-     * Renders a delete button in the top-right corner of the card (admin mode only)
+     * Adds a delete button in the top-right corner of the card to a batch (admin mode only)
      */
-    private void renderDeleteButton(GuiGraphics guiGraphics, int x, int y, int cardWidth, int cardHeight, int mouseX, int mouseY) {
+    private void addDeleteButton(GuiQuadBatch batch, int x, int y, int cardWidth, int cardHeight, int mouseX, int mouseY) {
         int deleteButtonSize = (int)(cardWidth * 0.12); // 12% of card width (smaller)
         int margin = 0; // No margin - position at absolute edge
         int deleteButtonX = x + cardWidth - deleteButtonSize - margin; // Right at the edge
@@ -146,15 +233,16 @@ public class ItemCardRenderer {
         // Choose texture based on hover state
         ResourceLocation iconTexture = isHovered ? DELETE_ICON_SELECTED : DELETE_ICON_UNSELECTED;
         
-        // Render the appropriate PNG texture
-        guiGraphics.blit(iconTexture, iconX, iconY, 0, 0, iconWidth, iconHeight, iconWidth, iconHeight);
+        // Add the appropriate PNG texture
+        batch.blit(iconTexture, iconX, iconY, iconWidth, iconHeight);
     }
     
     /**
      * Renders the item icon with proper GUI scaling
      * Based on EMI's implementation
+     * Listings with a GUID are drawn from the {@link ItemIconAtlas} when it is enabled
      */
-    private void renderItemIcon(GuiGraphics guiGraphics, ItemStack itemStack, int x, int y, 
+    private void renderItemIcon(GuiGraphics guiGraphics, String guid, ItemStack itemStack, int x, int y, 
                                int cardWidth, int cardHeight, float guiScale) {
         // Calculate icon size and position with proper boundaries
         int iconPadding = Math.max(2, cardWidth / 20); // Minimum 2px padding
@@ -175,6 +263,11 @@ public class ItemCardRenderer {
             iconX = x + (cardWidth - iconSize) / 2; // Re-center
         }
         
+        // Cached icon: one textured quad
+        if (ItemIconAtlas.draw(guiGraphics, guid, itemStack, iconX, iconY, iconSize, guiScale)) {
+            return;
+        }
+        
         // Use proper matrix transformations for GUI scaling
         guiGraphics.pose().pushPose();
         
@@ -196,7 +289,96 @@ public class ItemCardRenderer {
     }
     
     /**
-     * Renders action buttons (Buy/Sell) with proper scaling and cooldown states
+     * Renders the remaining stock in the top left corner of the card, red when sold out.
+     * Nothing is drawn for listings with unlimited stock.
+     */
+    public void renderStock(GuiGraphics guiGraphics, int stock, int x, int y, int cardWidth) {
+        if (stock < 0) {
+            return;
+        }
+        renderStock(guiGraphics, Component.translatable("gui.FreeMarket.stock", stock).getString(), stock, x, y, cardWidth);
+    }
+    
+    /**
+     * Renders an already formatted stock label, e.g. from a card view.
+     */
+    public void renderStock(GuiGraphics guiGraphics, String text, int stock, int x, int y, int cardWidth) {
+        Minecraft client = Minecraft.getInstance();
+        int padding = Math.max(2, cardWidth / 20);
+        int color = stock == 0 ? 0xFFFF5555 : 0xFFAAAAAA;
+        
+        guiGraphics.pose().pushPose();
+        guiGraphics.pose().translate(x + padding, y + padding, 200);
+        guiGraphics.pose().scale(0.75F, 0.75F, 1.0F);
+        guiGraphics.drawString(client.font, text, 0, 0, color, false);
+        guiGraphics.pose().popPose();
+    }
+    
+    /**
+     * Renders a price sparkline just above the buttons: the buy price if the listing is buyable,
+     * otherwise the sell price. Buckets before the first trade are skipped, and nothing is drawn
+     * until at least two buckets have a price.
+     */
+    public void renderSparkline(GuiGraphics guiGraphics, ClientPriceHistoryCache.History history, int x, int y, int cardWidth, int cardHeight) {
+        if (history == null || history.isEmpty()) {
+            return;
+        }
+        
+        boolean useBuy = false;
+        for (long price : history.buyPrices()) {
+            if (price > 0) {
+                useBuy = true;
+                break;
+            }
+        }
+        long[] prices = useBuy ? history.buyPrices() : history.sellPrices();
+        int color = useBuy ? 0xFF4CAF50 : 0xFF2196F3; // Match the Buy/Sell button colors
+        
+        // Find the range of the prices that exist
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int firstIndex = -1;
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i] > 0) {
+                if (firstIndex < 0) {
+                    firstIndex = i;
+                }
+                min = Math.min(min, prices[i]);
+                max = Math.max(max, prices[i]);
+            }
+        }
+        if (firstIndex < 0 || firstIndex >= prices.length - 1) {
+            return;
+        }
+        
+        // Sparkline area sits between the icon and the button area
+        int padding = Math.max(2, cardWidth / 20);
+        int lineWidth = cardWidth - padding * 2;
+        int lineHeight = Math.max(4, cardHeight / 10);
+        int bottom = y + cardHeight - cardHeight / 3 - Math.max(1, cardHeight / 50);
+        int left = x + padding;
+        
+        int previousX = -1;
+        int previousY = -1;
+        for (int i = firstIndex; i < prices.length; i++) {
+            int pointX = left + (int) ((long) i * (lineWidth - 1) / (prices.length - 1));
+            int pointY = max == min
+                ? bottom - lineHeight / 2
+                : bottom - (int) ((prices[i] - min) * (lineHeight - 1) / (max - min));
+            
+            if (previousX >= 0) {
+                // Step line: across at the previous price, then up or down to the new one
+                guiGraphics.fill(previousX, previousY, pointX + 1, previousY + 1, color);
+                guiGraphics.fill(pointX, Math.min(previousY, pointY), pointX + 1, Math.max(previousY, pointY) + 1, color);
+            }
+            previousX = pointX;
+            previousY = pointY;
+        }
+    }
+    
+    /**
+     * Renders the labels of the action buttons (Buy/Sell) with proper scaling and cooldown states;
+     * their boxes are added to the batch by {@link #renderItemCard}
      * Uses CardLayout for consistent positioning
      */
     private void renderActionButtons(GuiGraphics guiGraphics, int x, int y, int cardWidth, int cardHeight, int mouseX, int mouseY, float guiScale,
@@ -204,79 +386,80 @@ public class ItemCardRenderer {
         // Create layout once - this is our "div" with all bounds calculated
         CardLayout layout = getCachedCardLayout(x, y, cardWidth, cardHeight, guiScale);
         
-        // Check hover states using CardLayout (same logic as click detection)
-        boolean isBuyHovered = layout.buyButton.contains(mouseX, mouseY);
-        boolean isSellHovered = layout.sellButton.contains(mouseX, mouseY);
-        
-        // For now, pressed state is false (would need mouse button state from container)
-        boolean isPressed = false;
-        
-        // Render Buy button only if buy price > 0
+        // Render Buy label only if buy price > 0
         if (buyPrice > 0) {
             String buyText = "Buy $" + formatPrice(buyPrice);
-            boolean buyEnabled = canBuy && !isBuyCooldown;
-            renderButtonWithState(guiGraphics, buyText, layout.buyButton.x, layout.buyButton.y, layout.buyButton.width, layout.buyButton.height,
-                                mouseX, mouseY, 0xFF4CAF50, buyEnabled, isBuyCooldown, isBuyHovered, isPressed); // Green color
+            drawButtonText(guiGraphics, buyText, -1, layout.buyButton.x, layout.buyButton.y, layout.buyButton.width, layout.buyButton.height,
+                           canBuy && !isBuyCooldown, isBuyCooldown);
         }
 
-        // Render Sell button only if sell price > 0
+        // Render Sell label only if sell price > 0
         if (sellPrice > 0) {
             String sellText = "Sell $" + formatPrice(sellPrice);
-            boolean sellEnabled = canSell && !isSellCooldown;
-            renderButtonWithState(guiGraphics, sellText, layout.sellButton.x, layout.sellButton.y, layout.sellButton.width, layout.sellButton.height,
-                                mouseX, mouseY, 0xFF2196F3, sellEnabled, isSellCooldown, isSellHovered, isPressed); // Blue color
+            drawButtonText(guiGraphics, sellText, -1, layout.sellButton.x, layout.sellButton.y, layout.sellButton.width, layout.sellButton.height,
+                           canSell && !isSellCooldown, isSellCooldown);
         }
     }
     
+    private void addButtonBox(GuiQuadBatch batch, ButtonBounds bounds, int baseColor, boolean enabled, boolean isCooldown,
+                              boolean isHovered, boolean isPressed) {
+        addButtonBox(batch, bounds, 0, 0, baseColor, enabled, isCooldown, isHovered, isPressed);
+    }
+    
     /**
-     * Renders a single button with hover effects, press effects, and cooldown states
+     * Adds a button's background and border to a batch, offset by the card position. Hover, press
+     * and cooldown states only change the background color.
      */
-    private void renderButtonWithState(GuiGraphics guiGraphics, String text, int x, int y, int width, int height, 
-                                      int mouseX, int mouseY, int baseColor, boolean enabled, boolean isCooldown, boolean isHovered, boolean isPressed) {
-        // isHovered and isPressed are now passed in from CardLayout-based calculation
+    private void addButtonBox(GuiQuadBatch batch, ButtonBounds bounds, int offsetX, int offsetY, int baseColor,
+                              boolean enabled, boolean isCooldown, boolean isHovered, boolean isPressed) {
+        int x = bounds.x + offsetX;
+        int y = bounds.y + offsetY;
+        int width = bounds.width;
+        int height = bounds.height;
         
-        // Determine button colors based on state
-        int backgroundColor;
-        int textColor;
+        // Draw button background
+        batch.fill(x, y, x + width, y + height, buttonBackgroundColor(baseColor, enabled, isCooldown, isHovered, isPressed));
         
+        // Draw button border
+        batch.fill(x, y, x + width, y + 1, 0x80404040); // Top
+        batch.fill(x, y, x + 1, y + height, 0x80404040); // Left
+        batch.fill(x + width - 1, y, x + width, y + height, 0x80404040); // Right
+        batch.fill(x, y + height - 1, x + width, y + height, 0x80404040); // Bottom
+    }
+    
+    /**
+     * Background color of a button for its state
+     */
+    private static int buttonBackgroundColor(int baseColor, boolean enabled, boolean isCooldown, boolean isHovered, boolean isPressed) {
         if (isCooldown) {
             // In cooldown - gray color
-            backgroundColor = isPressed ? 0x90707070 : 
-                             isHovered ? 0xCC9E9E9E : 0x999E9E9E;
-            textColor = 0xFFFFFFFF; // White text for cooldown
+            return isPressed ? 0x90707070 : 
+                   isHovered ? 0xCC9E9E9E : 0x999E9E9E;
         } else if (enabled) {
             // Enabled - normal colors with press state
             if (isPressed) {
-                backgroundColor = 0xE0808080; // Gray when pressed (high opacity)
-            } else if (isHovered) {
-                // Brighter version of base color with higher opacity
-                int r = (baseColor >> 16) & 0xFF;
-                int g = (baseColor >> 8) & 0xFF;
-                int b = baseColor & 0xFF;
-                backgroundColor = 0xCC000000 | (r << 16) | (g << 8) | b; // 80% opacity
-            } else {
-                // Normal base color with lower opacity
-                int r = (baseColor >> 16) & 0xFF;
-                int g = (baseColor >> 8) & 0xFF;
-                int b = baseColor & 0xFF;
-                backgroundColor = 0x99000000 | (r << 16) | (g << 8) | b; // 60% opacity
+                return 0xE0808080; // Gray when pressed (high opacity)
             }
-            textColor = 0xFFFFFFFF; // White text
+            int r = (baseColor >> 16) & 0xFF;
+            int g = (baseColor >> 8) & 0xFF;
+            int b = baseColor & 0xFF;
+            // Hovered: brighter version of base color with higher opacity (80%), otherwise 60% opacity
+            return (isHovered ? 0xCC000000 : 0x99000000) | (r << 16) | (g << 8) | b;
         } else {
             // Disabled - muted colors
-            backgroundColor = isPressed ? 0x90555555 :
-                             isHovered ? 0xCC666666 : 0x99666666;
-            textColor = 0xFF999999; // Gray text
+            return isPressed ? 0x90555555 :
+                   isHovered ? 0xCC666666 : 0x99666666;
         }
-        
-        // Draw button background
-        guiGraphics.fill(x, y, x + width, y + height, backgroundColor);
-        
-        // Draw button border
-        guiGraphics.fill(x, y, x + width, y + 1, 0x80404040); // Top
-        guiGraphics.fill(x, y, x + 1, y + height, 0x80404040); // Left
-        guiGraphics.fill(x + width - 1, y, x + width, y + height, 0x80404040); // Right
-        guiGraphics.fill(x, y + height - 1, x + width, y + height, 0x80404040); // Bottom
+    }
+    
+    /**
+     * Draws a button label. Text with a known width (0 or more) is drawn as is; with a width of -1 it is
+     * first truncated to fit and measured.
+     */
+    private void drawButtonText(GuiGraphics guiGraphics, String text, int textWidth, int x, int y, int width, int height,
+                                boolean enabled, boolean isCooldown) {
+        // White text when usable or in cooldown, gray when disabled
+        int textColor = enabled || isCooldown ? 0xFFFFFFFF : 0xFF999999;
         
         // Draw button text (centered within the inner area, accounting for border)
         Minecraft client = Minecraft.getInstance();
@@ -285,8 +468,10 @@ public class ItemCardRenderer {
         int innerHeight = height - (borderThickness * 2);
         
         // Truncate text if it doesn't fit within the button
-        String displayText = truncateTextToWidth(text, innerWidth);
-        int textWidth = client.font.width(displayText);
+        String displayText = textWidth < 0 ? truncateTextToWidth(text, innerWidth) : text;
+        if (textWidth < 0) {
+            textWidth = client.font.width(displayText);
+        }
         int textHeight = client.font.lineHeight;
         int textX = x + borderThickness + (innerWidth - textWidth) / 2;
         int textY = y + borderThickness + (innerHeight - textHeight) / 2;
@@ -299,7 +484,7 @@ public class ItemCardRenderer {
      * Only abbreviates when there are trailing zeros, otherwise shows full number.
      * Examples: 1000 -> 1K, 1001 -> 1001, 1100000 -> 1.1M, 1000001 -> 1000001
      */
-    private static String formatPrice(long price) {
+    static String formatPrice(long price) {
         if (price < 1000) {
             return String.valueOf(price);
         } else if (price < 1000000) {
@@ -362,7 +547,7 @@ public class ItemCardRenderer {
      * Examples: "Buy $1000000" -> "Buy $1000..", "Sell $500" -> "Sell $500"
      * Uses caching to avoid binary search on every render
      */
-    private String truncateTextToWidth(String text, int maxWidth) {
+    String truncateTextToWidth(String text, int maxWidth) {
         // Create cache key
         String cacheKey = text + "|" + maxWidth;
         
@@ -485,6 +670,20 @@ public class ItemCardRenderer {
         );
     }
     
+    /**
+     * Drops the cached tooltip of one listing, e.g. when its display stack is replaced
+     */
+    public void evictTooltip(String guid) {
+        tooltipCache.evict(guid);
+    }
+    
+    /**
+     * Drops all cached tooltips. Should be called together with clearing the display stacks
+     */
+    public void clearTooltipCache() {
+        tooltipCache.clear();
+    }
+    
     /**
      * Gets cached CardLayout instance, creating new one if parameters changed
      */
@@ -0,0 +1,249 @@
+package com.freemarket.client.gui;
+
+import com.freemarket.Config;
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.blaze3d.vertex.VertexSorting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.client.renderer.block.model.ItemOverrides;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.core.Direction;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.item.ItemStack;
+import org.joml.Matrix4f;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offscreen cache of the marketplace item icons, so a card draws its icon as one textured quad
+ * instead of rendering the item model every frame.
+ *
+ * <p>Each listing's icon, with its decorations, is rendered once into a cell of a texture target at
+ * the pixel size it is shown at. Cells are handed out in order and never reused one by one: when the
+ * atlas is full, or the icon size or GUI scale changes, every cell is dropped and icons are rendered
+ * again as they are shown. A listing whose item changes gets a fresh cell. Enchanted items, items
+ * with animated textures, item properties or custom renderers, and items on cooldown keep being
+ * rendered live. Resource reloads release the atlas, since models and textures may have changed.</p>
+ *
+ * <p>Opt-in through {@link Config#ICON_ATLAS_ENABLED}. Used only from the render thread.</p>
+ */
+public class ItemIconAtlas {
+
+    // Atlas width and height in pixels
+    private static final int ATLAS_SIZE = 1024;
+    // New icons rendered into the atlas per frame; the rest are drawn live until a later frame
+    private static final int MAX_NEW_ICONS_PER_FRAME = 8;
+    // Depth of the icon quad, above the card background and below the stock label
+    private static final float ICON_Z = 100.0F;
+
+    /**
+     * A listing's icon: its cell, or none if it is drawn live.
+     */
+    private static class Slot {
+        ItemStack stack;
+        boolean live;
+        int cellX;
+        int cellY;
+    }
+
+    private static TextureTarget target;
+    private static final Map<String, Slot> slots = new HashMap<>();
+    private static int cellPixels = 0;
+    private static int nextCell = 0;
+    private static int renderedThisFrame = 0;
+
+    /**
+     * Starts a new frame for the per-frame limit on new icons.
+     */
+    public static void beginFrame() {
+        renderedThisFrame = 0;
+    }
+
+    /**
+     * Draws a listing's icon from the atlas, rendering it there first if needed.
+     * @param size icon size in GUI units
+     * @return false if the icon was not drawn and must be rendered live
+     */
+    public static boolean draw(GuiGraphics guiGraphics, String guid, ItemStack stack, int x, int y, int size, float guiScale) {
+        if (!Config.ICON_ATLAS_ENABLED.get()) {
+            if (target != null) {
+                invalidate();
+            }
+            return false;
+        }
+        int pixels = Math.round(size * guiScale);
+        if (guid == null || stack.isEmpty() || pixels <= 0 || pixels > ATLAS_SIZE) {
+            return false;
+        }
+        if (pixels != cellPixels) {
+            // Resized window, GUI scale or card size: every cell has the wrong size
+            reset(pixels);
+        }
+
+        Slot slot = slots.get(guid);
+        if (slot != null && slot.stack != stack) {
+            // The grid builds new display stacks on every data change; only a different item needs a new cell
+            if (ItemStack.matches(slot.stack, stack)) {
+                slot.stack = stack;
+            } else {
+                slots.remove(guid);
+                slot = null;
+            }
+        }
+        if (slot == null) {
+            if (renderedThisFrame >= MAX_NEW_ICONS_PER_FRAME) {
+                return false;
+            }
+            slot = new Slot();
+            slot.stack = stack;
+            slot.live = rendersLive(stack);
+            if (!slot.live) {
+                renderIntoCell(guiGraphics, slot, stack);
+                renderedThisFrame++;
+            }
+            slots.put(guid, slot);
+        }
+
+        Minecraft minecraft = Minecraft.getInstance();
+        if (slot.live || (minecraft.player != null && minecraft.player.getCooldowns().isOnCooldown(stack.getItem()))) {
+            return false;
+        }
+        blitCell(guiGraphics, slot, x, y, size);
+        return true;
+    }
+
+    /**
+     * Releases the atlas. It is created again the next time an icon is drawn.
+     */
+    public static void invalidate() {
+        if (target != null) {
+            target.destroyBuffers();
+            target = null;
+        }
+        slots.clear();
+        cellPixels = 0;
+        nextCell = 0;
+    }
+
+    /**
+     * Drops every cell and prepares an empty atlas for icons of the given pixel size.
+     */
+    private static void reset(int pixels) {
+        if (target == null) {
+            target = new TextureTarget(ATLAS_SIZE, ATLAS_SIZE, true, Minecraft.ON_OSX);
+            target.setClearColor(0.0F, 0.0F, 0.0F, 0.0F);
+        }
+        target.clear(Minecraft.ON_OSX);
+        Minecraft.getInstance().getMainRenderTarget().bindWrite(true);
+        slots.clear();
+        cellPixels = pixels;
+        nextCell = 0;
+    }
+
+    /**
+     * Whether an item's icon changes over time, so a cached copy would go stale.
+     */
+    private static boolean rendersLive(ItemStack stack) {
+        if (stack.hasFoil()) {
+            return true;
+        }
+        Minecraft minecraft = Minecraft.getInstance();
+        // Item properties drive compasses, clocks, bows and the like
+        if (minecraft.getItemRenderer().getItemModelShaper().getItemModel(stack).getOverrides() != ItemOverrides.EMPTY) {
+            return true;
+        }
+        BakedModel model = minecraft.getItemRenderer().getModel(stack, minecraft.level, minecraft.player, 0);
+        if (model.isCustomRenderer()) {
+            return true;
+        }
+        RandomSource random = RandomSource.create();
+        if (hasAnimatedSprite(model.getQuads(null, null, random))) {
+            return true;
+        }
+        for (Direction direction : Direction.values()) {
+            if (hasAnimatedSprite(model.getQuads(null, direction, random))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAnimatedSprite(List<BakedQuad> quads) {
+        for (BakedQuad quad : quads) {
+            if (quad.getSprite().contents().getUniqueFrames().count() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renders an icon into the next free cell, starting over when the atlas is full.
+     */
+    private static void renderIntoCell(GuiGraphics guiGraphics, Slot slot, ItemStack stack) {
+        int cellsPerRow = ATLAS_SIZE / cellPixels;
+        if (nextCell >= cellsPerRow * cellsPerRow) {
+            // Cards already drawn this frame are on screen, so the cells can go
+            reset(cellPixels);
+        }
+        slot.cellX = (nextCell % cellsPerRow) * cellPixels;
+        slot.cellY = (nextCell / cellsPerRow) * cellPixels;
+        nextCell++;
+
+        Minecraft minecraft = Minecraft.getInstance();
+        // Whatever the screen queued so far belongs to the main target
+        guiGraphics.flush();
+        RenderSystem.backupProjectionMatrix();
+        target.bindWrite(true);
+        RenderSystem.setProjectionMatrix(new Matrix4f().setOrtho(0.0F, ATLAS_SIZE, ATLAS_SIZE, 0.0F, 1000.0F, 21000.0F),
+                                         VertexSorting.ORTHOGRAPHIC_Z);
+
+        GuiGraphics atlasGraphics = new GuiGraphics(minecraft, minecraft.renderBuffers().bufferSource());
+        atlasGraphics.pose().translate(slot.cellX, slot.cellY, 0);
+        float scale = cellPixels / 16.0F;
+        atlasGraphics.pose().scale(scale, scale, scale);
+        atlasGraphics.renderItem(stack, 0, 0);
+        atlasGraphics.renderItemDecorations(minecraft.font, stack, 0, 0);
+        atlasGraphics.flush();
+
+        RenderSystem.restoreProjectionMatrix();
+        minecraft.getMainRenderTarget().bindWrite(true);
+    }
+
+    /**
+     * Draws a cell as one quad covering the icon area.
+     */
+    private static void blitCell(GuiGraphics guiGraphics, Slot slot, int x, int y, int size) {
+        float u0 = (float) slot.cellX / ATLAS_SIZE;
+        float u1 = (float) (slot.cellX + cellPixels) / ATLAS_SIZE;
+        // Framebuffer rows run bottom up
+        float v0 = 1.0F - (float) slot.cellY / ATLAS_SIZE;
+        float v1 = 1.0F - (float) (slot.cellY + cellPixels) / ATLAS_SIZE;
+
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        RenderSystem.setShaderTexture(0, target.getColorTextureId());
+        RenderSystem.enableBlend();
+        // The atlas holds colors already multiplied by their alpha
+        RenderSystem.blendFunc(GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
+        Matrix4f pose = guiGraphics.pose().last().pose();
+        BufferBuilder buffer = Tesselator.getInstance().begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        buffer.addVertex(pose, x, y, ICON_Z).setUv(u0, v0);
+        buffer.addVertex(pose, x, y + size, ICON_Z).setUv(u0, v1);
+        buffer.addVertex(pose, x + size, y + size, ICON_Z).setUv(u1, v1);
+        buffer.addVertex(pose, x + size, y, ICON_Z).setUv(u1, v0);
+        BufferUploader.drawWithShader(buffer.buildOrThrow());
+        RenderSystem.defaultBlendFunc();
+        RenderSystem.disableBlend();
+    }
+}
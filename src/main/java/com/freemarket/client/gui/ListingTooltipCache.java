@@ -0,0 +1,127 @@
+package com.freemarket.client.gui;
+
+import com.freemarket.client.data.ClientPriceHistoryCache;
+import net.minecraft.ChatFormatting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.inventory.tooltip.TooltipComponent;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.TooltipFlag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tooltips of the marketplace listings, built once instead of on every frame the mouse hovers a card.
+ *
+ * <p>Building a tooltip from an item stack resolves its components, enchantment names and lore.
+ * Here that happens once per listing, and the lines are kept with the marketplace lines added below
+ * them: the remaining stock and the price range of the recent price history. An entry is kept by
+ * listing GUID and stays valid while the display stack is the same instance (the listing's revision),
+ * the advanced tooltip setting and the language are unchanged, and the stock and price history it
+ * shows are current. Entries are evicted together with the container's display stacks.</p>
+ */
+public class ListingTooltipCache {
+
+    // Entries kept before the cache starts over, like the text truncation cache
+    private static final int MAX_ENTRIES = 256;
+
+    /**
+     * A built tooltip: text lines and the optional image, such as a bundle's contents.
+     */
+    public record Tooltip(List<Component> lines, Optional<TooltipComponent> image) {}
+
+    private record Entry(ItemStack stack, boolean advanced, String language, int stock,
+                         ClientPriceHistoryCache.History history, Tooltip tooltip) {}
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Gets the tooltip of a listing, building it if the cached one is missing or out of date.
+     * @param stack the listing's display stack
+     * @param stock remaining stock, or -1 if unlimited
+     */
+    public Tooltip get(String guid, ItemStack stack, int stock) {
+        Minecraft minecraft = Minecraft.getInstance();
+        boolean advanced = minecraft.options.advancedItemTooltips;
+        String language = minecraft.getLanguageManager().getSelected();
+        ClientPriceHistoryCache.History history = ClientPriceHistoryCache.get(guid);
+
+        Entry entry = entries.get(guid);
+        if (entry != null && entry.stack() == stack && entry.advanced() == advanced && entry.language().equals(language)
+            && entry.stock() == stock && entry.history() == history) {
+            return entry.tooltip();
+        }
+
+        List<Component> lines = new ArrayList<>(stack.getTooltipLines(
+            Item.TooltipContext.EMPTY,
+            minecraft.player,
+            advanced ? TooltipFlag.Default.ADVANCED : TooltipFlag.Default.NORMAL
+        ));
+        if (stock >= 0) {
+            lines.add(Component.translatable("gui.FreeMarket.stock", stock).withStyle(stock == 0 ? ChatFormatting.RED : ChatFormatting.GRAY));
+        }
+        Component priceRange = priceRange(history);
+        if (priceRange != null) {
+            lines.add(priceRange);
+        }
+        Tooltip tooltip = new Tooltip(List.copyOf(lines), stack.getTooltipImage());
+
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(guid, new Entry(stack, advanced, language, stock, history, tooltip));
+        return tooltip;
+    }
+
+    /**
+     * Drops the tooltip of one listing.
+     */
+    public void evict(String guid) {
+        entries.remove(guid);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * The lowest and highest price over the history the sparkline shows: buy prices if the listing
+     * was bought, otherwise sell prices. Null if it has no prices.
+     */
+    private static Component priceRange(ClientPriceHistoryCache.History history) {
+        if (history == null || history.isEmpty()) {
+            return null;
+        }
+        String key = "gui.FreeMarket.tooltip.buy_range";
+        long[] prices = history.buyPrices();
+        if (max(prices) <= 0) {
+            key = "gui.FreeMarket.tooltip.sell_range";
+            prices = history.sellPrices();
+        }
+        long max = max(prices);
+        if (max <= 0) {
+            return null;
+        }
+        long min = Long.MAX_VALUE;
+        for (long price : prices) {
+            if (price > 0) {
+                min = Math.min(min, price);
+            }
+        }
+        return Component.translatable(key, ItemCardRenderer.formatPrice(min), ItemCardRenderer.formatPrice(max))
+            .withStyle(ChatFormatting.DARK_GRAY);
+    }
+
+    private static long max(long[] prices) {
+        long max = 0;
+        for (long price : prices) {
+            max = Math.max(max, price);
+        }
+        return max;
+    }
+}
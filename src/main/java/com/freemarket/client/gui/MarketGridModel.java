@@ -0,0 +1,134 @@
+package com.freemarket.client.gui;
+
+import com.freemarket.common.data.FreeMarketItem;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.List;
+
+/**
+ * Render state of the cards visible in the marketplace grid, so a frame only draws.
+ *
+ * <p>The grid shows a window of the filtered listings. For each card in that window the model keeps
+ * the display stack, the buy and sell button text already formatted and cut to the button width,
+ * the button states and the stock label, in a flat array of reused {@link CardView}s. The window is
+ * rebuilt only when it moves, when the card size or GUI scale changes, or after
+ * {@link #invalidate()}, which the container calls on data, balance and inventory changes.</p>
+ */
+public class MarketGridModel {
+
+    /**
+     * Fills in the listing state of a card: display stack, button states, cooldowns and stock.
+     */
+    @FunctionalInterface
+    public interface CardFiller {
+        void fill(CardView card, FreeMarketItem item);
+    }
+
+    /**
+     * Everything needed to draw one card. Instances are reused as the grid scrolls.
+     */
+    public static class CardView {
+        public FreeMarketItem item;
+        public boolean addEntry;
+        public ItemStack displayStack = ItemStack.EMPTY;
+        public boolean canBuy;
+        public boolean canSell;
+        public long buyCooldownUntil;
+        public long sellCooldownUntil;
+        public int stock = -1;
+        // Derived by the model from the fields above
+        public String buyText;
+        public int buyTextWidth;
+        public String sellText;
+        public int sellTextWidth;
+        public String stockText;
+    }
+
+    private final ItemCardRenderer cardRenderer;
+    private final CardFiller filler;
+    private CardView[] cards = new CardView[0];
+    private int size = 0;
+
+    // What the current window was built for
+    private boolean valid = false;
+    private List<FreeMarketItem> builtFrom;
+    private int builtFirst;
+    private int builtCount;
+    private int builtCardWidth;
+    private int builtCardHeight;
+    private float builtGuiScale;
+
+    public MarketGridModel(ItemCardRenderer cardRenderer, CardFiller filler) {
+        this.cardRenderer = cardRenderer;
+        this.filler = filler;
+    }
+
+    /**
+     * Marks every card as out of date; the next {@link #update} rebuilds the window.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Makes the model show {@code maxCards} listings starting at {@code first}, rebuilding the cards
+     * only if something they depend on changed.
+     */
+    public void update(List<FreeMarketItem> items, int first, int maxCards, int cardWidth, int cardHeight, float guiScale) {
+        int count = Math.max(0, Math.min(maxCards, items.size() - first));
+        if (valid && items == builtFrom && first == builtFirst && count == builtCount
+            && cardWidth == builtCardWidth && cardHeight == builtCardHeight && guiScale == builtGuiScale) {
+            return;
+        }
+
+        if (cards.length < count) {
+            CardView[] grown = new CardView[count];
+            System.arraycopy(cards, 0, grown, 0, cards.length);
+            for (int i = cards.length; i < count; i++) {
+                grown[i] = new CardView();
+            }
+            cards = grown;
+        }
+
+        // The buttons are the same size on every card
+        int textWidth = new ItemCardRenderer.CardLayout(0, 0, cardWidth, cardHeight, guiScale).buyButton.width - 2;
+        var font = Minecraft.getInstance().font;
+        for (int i = 0; i < count; i++) {
+            CardView card = cards[i];
+            FreeMarketItem item = items.get(first + i);
+            card.item = item;
+            card.addEntry = "ADD_ITEM_SPECIAL".equals(item.getGuid());
+            if (card.addEntry) {
+                continue;
+            }
+            filler.fill(card, item);
+            card.buyText = cardRenderer.truncateTextToWidth("Buy $" + ItemCardRenderer.formatPrice(item.getBuyPrice()), textWidth);
+            card.buyTextWidth = font.width(card.buyText);
+            card.sellText = cardRenderer.truncateTextToWidth("Sell $" + ItemCardRenderer.formatPrice(item.getSellPrice()), textWidth);
+            card.sellTextWidth = font.width(card.sellText);
+            card.stockText = card.stock < 0 ? null : Component.translatable("gui.FreeMarket.stock", card.stock).getString();
+        }
+        size = count;
+
+        valid = true;
+        builtFrom = items;
+        builtFirst = first;
+        builtCount = count;
+        builtCardWidth = cardWidth;
+        builtCardHeight = cardHeight;
+        builtGuiScale = guiScale;
+    }
+
+    /**
+     * Number of cards in the window.
+     */
+    public int size() {
+        return size;
+    }
+
+    public CardView get(int index) {
+        return cards[index];
+    }
+}
@@ -64,6 +64,76 @@ public class AdminModeNetworkHandler {
             BuyItemResponsePacket.STREAM_CODEC,
             BuyItemNetworkHandler::handleBuyResponse
         );
+        
+        // Register leaderboard request packet
+        registrar.playToServer(
+            LeaderboardRequestPacket.TYPE,
+            LeaderboardRequestPacket.STREAM_CODEC,
+            LeaderboardNetworkHandler::handleLeaderboardRequest
+        );
+        
+        // Register leaderboard sync packet
+        registrar.playToClient(
+            LeaderboardSyncPacket.TYPE,
+            LeaderboardSyncPacket.STREAM_CODEC,
+            LeaderboardNetworkHandler::handleLeaderboardSync
+        );
+        
+        // Register auction notify packet
+        registrar.playToClient(
+            AuctionNotifyPacket.TYPE,
+            AuctionNotifyPacket.STREAM_CODEC,
+            AuctionNetworkHandler::handleAuctionNotify
+        );
+        
+        // Register price delta packet
+        registrar.playToClient(
+            PriceDeltaPacket.TYPE,
+            PriceDeltaPacket.STREAM_CODEC,
+            MarketplaceNetworkHandler::handlePriceDelta
+        );
+        
+        // Register price history request packet
+        registrar.playToServer(
+            PriceHistoryRequestPacket.TYPE,
+            PriceHistoryRequestPacket.STREAM_CODEC,
+            PriceHistoryNetworkHandler::handleHistoryRequest
+        );
+        
+        // Register price history sync packet
+        registrar.playToClient(
+            PriceHistorySyncPacket.TYPE,
+            PriceHistorySyncPacket.STREAM_CODEC,
+            PriceHistoryNetworkHandler::handleHistorySync
+        );
+        
+        // Register listing delta packet
+        registrar.playToClient(
+            ListingDeltaPacket.TYPE,
+            ListingDeltaPacket.STREAM_CODEC,
+            MarketplaceNetworkHandler::handleListingDelta
+        );
+        
+        // Register mailbox status packet
+        registrar.playToClient(
+            MailboxStatusPacket.TYPE,
+            MailboxStatusPacket.STREAM_CODEC,
+            MailboxNetworkHandler::handleStatus
+        );
+        
+        // Register mailbox claim packet
+        registrar.playToServer(
+            MailboxClaimPacket.TYPE,
+            MailboxClaimPacket.STREAM_CODEC,
+            MailboxNetworkHandler::handleClaim
+        );
+        
+        // Register listing popularity packet
+        registrar.playToClient(
+            ListingPopularityPacket.TYPE,
+            ListingPopularityPacket.STREAM_CODEC,
+            MarketplaceNetworkHandler::handleListingPopularity
+        );
     }
     
     /**
@@ -0,0 +1,37 @@
+package com.freemarket.common.network;
+
+import net.minecraft.network.chat.Component;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Network handler for auction notifications.
+ * Shows outbid, won, sold and expired messages to the player they are sent to.
+ */
+public class AuctionNetworkHandler {
+
+    /**
+     * Handles auction notify packets on the client side.
+     * Shows the message in chat and plays a sound for outbid and won notices.
+     */
+    public static void handleAuctionNotify(AuctionNotifyPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            net.minecraft.client.Minecraft minecraft = net.minecraft.client.Minecraft.getInstance();
+            if (minecraft.player == null) {
+                return;
+            }
+
+            String key = switch (packet.kind()) {
+                case AuctionNotifyPacket.OUTBID -> "message.FreeMarket.auction.outbid";
+                case AuctionNotifyPacket.WON -> "message.FreeMarket.auction.won";
+                case AuctionNotifyPacket.SOLD -> "message.FreeMarket.auction.sold";
+                default -> "message.FreeMarket.auction.expired";
+            };
+            minecraft.player.displayClientMessage(
+                Component.translatable(key, packet.auctionId(), packet.itemName(), packet.amount()), false);
+
+            if (packet.kind() == AuctionNotifyPacket.OUTBID || packet.kind() == AuctionNotifyPacket.WON) {
+                minecraft.player.playSound(net.minecraft.sounds.SoundEvents.NOTE_BLOCK_BELL.value(), 1.0F, 1.0F);
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+/**
+ * Network packet telling one player about an auction they take part in.
+ * Sent only to the player concerned; the client builds the message from its own translations.
+ */
+public record AuctionNotifyPacket(int kind, long auctionId, String itemName, long amount) implements CustomPacketPayload {
+
+    public static final int OUTBID = 0;
+    public static final int WON = 1;
+    public static final int SOLD = 2;
+    public static final int EXPIRED = 3;
+
+    public static final CustomPacketPayload.Type<AuctionNotifyPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "auction_notify"));
+
+    public static final StreamCodec<ByteBuf, AuctionNotifyPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.VAR_INT,
+        AuctionNotifyPacket::kind,
+        ByteBufCodecs.VAR_LONG,
+        AuctionNotifyPacket::auctionId,
+        ByteBufCodecs.STRING_UTF8,
+        AuctionNotifyPacket::itemName,
+        ByteBufCodecs.VAR_LONG,
+        AuctionNotifyPacket::amount,
+        AuctionNotifyPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -6,12 +6,16 @@ import net.neoforged.neoforge.network.handling.IPayloadContext;
 import com.freemarket.FreeMarket;
 import com.freemarket.common.data.FreeMarketItem;
 import com.freemarket.server.handlers.ServerWalletHandler;
-import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.mailbox.MailboxStore;
+import com.freemarket.server.schedule.ListingScheduler;
+import com.freemarket.server.seller.PlayerListings;
+import com.freemarket.server.trade.TradeBatchProcessor;
+import com.freemarket.server.trade.TradeOutcome;
+import com.freemarket.server.trade.TradeRequest;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.item.ItemStack;
 
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -41,72 +45,56 @@ public class BuyItemNetworkHandler {
 
     /**
      * Handles buy item request packets on the server side.
-     * Validates wallet balance, deducts money, and gives item to player.
+     * Queues the request for the per-tick trade batch instead of processing it inline.
      */
     public static void handleBuyRequest(BuyItemRequestPacket packet, IPayloadContext context) {
-        context.enqueueWork(() -> {
-            if (!(context.player() instanceof ServerPlayer player)) {
-                return;
-            }
+        if (context.player() instanceof ServerPlayer player) {
+            TradeBatchProcessor.submit(TradeRequest.Type.BUY, player, packet.itemGuid());
+        }
+    }
 
-            String itemGuid = packet.itemGuid();
-            ServerLevel level = player.serverLevel();
-            
-            // Load marketplace items to find the item
-            List<FreeMarketItem> items = FreeMarketDataManager.loadFreeMarketItems(level);
-            FreeMarketItem itemToBuy = null;
-            
-            for (FreeMarketItem item : items) {
-                if (item.getGuid().equals(itemGuid)) {
-                    itemToBuy = item;
-                    break;
-                }
-            }
-            
-            if (itemToBuy == null) {
-                // Item not found
-                BuyItemResponsePacket response = new BuyItemResponsePacket(false, "Item not found", ServerWalletHandler.getPlayerMoney(player));
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-                return;
-            }
-            
-            // Check if player has enough money
-            if (!ServerWalletHandler.hasEnoughMoney(player, itemToBuy.getBuyPrice())) {
-                long currentBalance = ServerWalletHandler.getPlayerMoney(player);
-                BuyItemResponsePacket response = new BuyItemResponsePacket(false, "Insufficient funds", currentBalance);
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-                return;
-            }
-            
-            // Create item with component data
-            ItemStack itemStack = com.freemarket.server.handlers.ServerItemHandler.createItemWithComponentData(
-                itemToBuy.getItemStack(), itemToBuy.getComponentData(), level.getServer());
-            
-            // Try to add item to player inventory
-            boolean addedToInventory = addItemToInventory(player, itemStack);
-            if (!addedToInventory) {
-                // Drop item at player's feet
-                player.drop(itemStack, false);
-            }
-            
-            // Deduct money from wallet
-            boolean success = ServerWalletHandler.removeMoney(player, itemToBuy.getBuyPrice());
-            if (!success) {
-                // This shouldn't happen since we checked above, but just in case
-                BuyItemResponsePacket response = new BuyItemResponsePacket(false, "Failed to deduct money", ServerWalletHandler.getPlayerMoney(player));
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-                return;
-            }
-            
-            // Send success response
-            long newBalance = ServerWalletHandler.getPlayerMoney(player);
-            BuyItemResponsePacket response = new BuyItemResponsePacket(true, "Purchase successful", newBalance);
-            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-            
-            FreeMarket.LOGGER.info("Player {} bought {} for {} coins. New balance: {}", 
-                player.getName().getString(), itemToBuy.getItemStack().getDisplayName().getString(), 
-                itemToBuy.getBuyPrice(), newBalance);
-        });
+    /**
+     * Executes a single purchase for a player.
+     * Validates wallet balance and listing stock, deducts money, and gives item to player.
+     * Called from the trade batch on the server thread; the caller sends the response.
+     *
+     * @param prototype the listing's ItemStack with component data applied, shared across the batch (not modified)
+     */
+    public static TradeOutcome executeBuy(ServerPlayer player, FreeMarketItem itemToBuy, ItemStack prototype) {
+        // Check if player has enough money
+        if (!ServerWalletHandler.hasEnoughMoney(player, itemToBuy.getBuyPrice())) {
+            return TradeOutcome.failure("Insufficient funds");
+        }
+        
+        // Players cannot buy back their own listings
+        if (PlayerListings.isOwnedBy(player.server, itemToBuy.getGuid(), player.getUUID())) {
+            return TradeOutcome.failure("Cannot buy your own listing");
+        }
+        
+        // Listings with a restock rule or a seller have limited stock
+        if (!ListingScheduler.takeStock(player.server, itemToBuy.getGuid(), prototype.getCount())) {
+            return TradeOutcome.failure("Out of stock");
+        }
+        
+        // Deduct money from wallet
+        boolean success = ServerWalletHandler.removeMoney(player, itemToBuy.getBuyPrice(), LedgerReason.BUY, itemToBuy.getGuid());
+        if (!success) {
+            // This shouldn't happen since we checked above, but just in case
+            ListingScheduler.returnStock(player.server, itemToBuy.getGuid(), prototype.getCount());
+            return TradeOutcome.failure("Failed to deduct money");
+        }
+        
+        // Add to the player's inventory; whatever does not fit waits in their mailbox
+        int mailed = MailboxStore.deliver(player.server, player.getUUID(), prototype, prototype.getCount());
+        
+        // Player listings pay the seller
+        PlayerListings.payOwner(player.server, itemToBuy.getGuid(), itemToBuy.getBuyPrice());
+        
+        FreeMarket.LOGGER.info("Player {} bought {} for {} coins. New balance: {}", 
+            player.getName().getString(), itemToBuy.getItemStack().getDisplayName().getString(), 
+            itemToBuy.getBuyPrice(), ServerWalletHandler.getPlayerMoney(player));
+        return TradeOutcome.success(mailed > 0 ? "Purchase sent to your mailbox" : "Purchase successful",
+            prototype.getCount(), itemToBuy.getBuyPrice());
     }
 
     /**
@@ -141,62 +129,4 @@ public class BuyItemNetworkHandler {
             }
         });
     }
-    
-    /**
-     * Adds an item to the player's inventory.
-     * Returns true if successful, false if inventory is full.
-     */
-    private static boolean addItemToInventory(ServerPlayer player, ItemStack itemToAdd) {
-        var inventory = player.getInventory();
-        int remainingToAdd = itemToAdd.getCount();
-        
-        // Only use main inventory slots (0-35) - avoid offhand (40), armor (36-39), and curio slots
-        final int MAIN_INVENTORY_SIZE = 36; // 0-35: hotbar + main inventory
-        
-        // First pass: find all existing stacks of the same item in main inventory and sort by count (fewest first)
-        java.util.List<java.util.Map.Entry<Integer, ItemStack>> existingStacks = new java.util.ArrayList<>();
-        for (int i = 0; i < MAIN_INVENTORY_SIZE; i++) {
-            ItemStack slotItem = inventory.getItem(i);
-            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, itemToAdd)) {
-                existingStacks.add(new java.util.AbstractMap.SimpleEntry<>(i, slotItem));
-            }
-        }
-        
-        // Sort by count (ascending - fewest items first)
-        existingStacks.sort((a, b) -> Integer.compare(a.getValue().getCount(), b.getValue().getCount()));
-        
-        // Add items to existing stacks starting with those that have fewest items
-        for (var entry : existingStacks) {
-            if (remainingToAdd <= 0) break;
-            
-            int slotIndex = entry.getKey();
-            ItemStack slotItem = entry.getValue();
-            int maxStackSize = slotItem.getMaxStackSize();
-            int currentCount = slotItem.getCount();
-            int canAdd = maxStackSize - currentCount;
-            
-            if (canAdd > 0) {
-                int addToSlot = Math.min(remainingToAdd, canAdd);
-                slotItem.grow(addToSlot);
-                remainingToAdd -= addToSlot;
-                inventory.setItem(slotIndex, slotItem);
-            }
-        }
-        
-        // If there are still items to add, try to find empty slots in main inventory only
-        if (remainingToAdd > 0) {
-            for (int i = 0; i < MAIN_INVENTORY_SIZE && remainingToAdd > 0; i++) {
-                ItemStack slotItem = inventory.getItem(i);
-                if (slotItem.isEmpty()) {
-                    int addToSlot = Math.min(remainingToAdd, itemToAdd.getMaxStackSize());
-                    ItemStack newStack = itemToAdd.copy();
-                    newStack.setCount(addToSlot);
-                    inventory.setItem(i, newStack);
-                    remainingToAdd -= addToSlot;
-                }
-            }
-        }
-        
-        return remainingToAdd == 0;
-    }
 }
@@ -0,0 +1,49 @@
+package com.freemarket.common.network;
+
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+import com.freemarket.server.handlers.ServerLeaderboardHandler;
+import com.freemarket.server.handlers.ServerWalletHandler;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Network handler for the balance leaderboard.
+ * Answers page requests from the GUI and delivers pages to the open screen.
+ */
+public class LeaderboardNetworkHandler {
+
+    /**
+     * Handles leaderboard request packets on the server side.
+     * Sends the requested page along with the player's own rank.
+     */
+    public static void handleLeaderboardRequest(LeaderboardRequestPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (!(context.player() instanceof ServerPlayer player)) {
+                return;
+            }
+
+            ServerLeaderboardHandler.Page page = ServerLeaderboardHandler.getPage(player.server, packet.page());
+            LeaderboardSyncPacket response = new LeaderboardSyncPacket(
+                page.page(),
+                page.totalPages(),
+                ServerLeaderboardHandler.getRank(player),
+                ServerWalletHandler.getPlayerMoney(player),
+                page.names(),
+                page.balances()
+            );
+            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
+        });
+    }
+
+    /**
+     * Handles leaderboard sync packets on the client side.
+     * Passes the page to the marketplace screen if it is open.
+     */
+    public static void handleLeaderboardSync(LeaderboardSyncPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            net.minecraft.client.Minecraft minecraft = net.minecraft.client.Minecraft.getInstance();
+            if (minecraft.screen instanceof com.freemarket.client.gui.FreeMarketGuiScreen freeMarketScreen) {
+                freeMarketScreen.updateLeaderboard(packet);
+            }
+        });
+    }
+}
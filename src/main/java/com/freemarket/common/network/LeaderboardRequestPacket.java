@@ -0,0 +1,29 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+/**
+ * Network packet for requesting a page of the balance leaderboard from server.
+ * Client sends this when the leaderboard panel is opened or paged.
+ */
+public record LeaderboardRequestPacket(int page) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<LeaderboardRequestPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "leaderboard_request"));
+
+    public static final StreamCodec<ByteBuf, LeaderboardRequestPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.VAR_INT,
+        LeaderboardRequestPacket::page,
+        LeaderboardRequestPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+import java.util.List;
+
+/**
+ * Network packet for sending a page of the balance leaderboard from server to client.
+ * Contains the player names and balances on the page plus the receiving player's own rank.
+ */
+public record LeaderboardSyncPacket(int page, int totalPages, int ownRank, long ownBalance, List<String> names, List<Long> balances) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<LeaderboardSyncPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "leaderboard_sync"));
+
+    public static final StreamCodec<ByteBuf, LeaderboardSyncPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.VAR_INT,
+        LeaderboardSyncPacket::page,
+        ByteBufCodecs.VAR_INT,
+        LeaderboardSyncPacket::totalPages,
+        ByteBufCodecs.VAR_INT,
+        LeaderboardSyncPacket::ownRank,
+        ByteBufCodecs.VAR_LONG,
+        LeaderboardSyncPacket::ownBalance,
+        ByteBufCodecs.STRING_UTF8.apply(ByteBufCodecs.list()),
+        LeaderboardSyncPacket::names,
+        ByteBufCodecs.VAR_LONG.apply(ByteBufCodecs.list()),
+        LeaderboardSyncPacket::balances,
+        LeaderboardSyncPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,36 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+import java.util.List;
+
+/**
+ * Network packet carrying listing stock changes and expired listings, sent once per scheduler batch.
+ * {@code stockGuids} and {@code stock} are parallel; a stock of -1 means the listing went back to
+ * unlimited stock. Listings in {@code removedGuids} expired and are no longer in the marketplace.
+ */
+public record ListingDeltaPacket(List<String> removedGuids, List<String> stockGuids, List<Integer> stock) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<ListingDeltaPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "listing_delta"));
+
+    public static final StreamCodec<ByteBuf, ListingDeltaPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8.apply(ByteBufCodecs.list()),
+        ListingDeltaPacket::removedGuids,
+        ByteBufCodecs.STRING_UTF8.apply(ByteBufCodecs.list()),
+        ListingDeltaPacket::stockGuids,
+        ByteBufCodecs.VAR_INT.apply(ByteBufCodecs.list()),
+        ListingDeltaPacket::stock,
+        ListingDeltaPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,34 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+import java.util.List;
+
+/**
+ * Network packet carrying how many times listings traded over the analytics window, for sorting
+ * the marketplace by popularity. Sent in full on login and afterwards only for listings that traded.
+ * {@code guids} and {@code trades} are parallel.
+ */
+public record ListingPopularityPacket(List<String> guids, List<Integer> trades) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<ListingPopularityPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "listing_popularity"));
+
+    public static final StreamCodec<ByteBuf, ListingPopularityPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8.apply(ByteBufCodecs.list()),
+        ListingPopularityPacket::guids,
+        ByteBufCodecs.VAR_INT.apply(ByteBufCodecs.list()),
+        ListingPopularityPacket::trades,
+        ListingPopularityPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,24 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+/**
+ * Network packet for claiming the mailbox.
+ * Client sends this when the mailbox display in the marketplace screen is clicked.
+ */
+public record MailboxClaimPacket() implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<MailboxClaimPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "mailbox_claim"));
+
+    public static final StreamCodec<ByteBuf, MailboxClaimPacket> STREAM_CODEC = StreamCodec.unit(new MailboxClaimPacket());
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
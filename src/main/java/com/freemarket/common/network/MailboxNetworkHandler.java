@@ -0,0 +1,41 @@
+package com.freemarket.common.network;
+
+import net.minecraft.network.chat.Component;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+import com.freemarket.server.mailbox.MailboxStore;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Network handler for the mailbox.
+ * Claims mailboxes for the GUI and keeps the client's waiting item count current.
+ */
+public class MailboxNetworkHandler {
+
+    /**
+     * Handles mailbox claim packets on the server side.
+     * Hands over as much as fits in one batch and tells the player how it went.
+     */
+    public static void handleClaim(MailboxClaimPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (!(context.player() instanceof ServerPlayer player)) {
+                return;
+            }
+
+            int claimed = MailboxStore.claim(player);
+            int remaining = MailboxStore.get(player.server, player.getUUID()).getItemCount();
+            if (claimed > 0) {
+                player.sendSystemMessage(Component.translatable("message.FreeMarket.mailbox.claimed", claimed, remaining));
+            } else if (remaining > 0) {
+                player.sendSystemMessage(Component.translatable("message.FreeMarket.mailbox.inventory_full", remaining));
+            }
+        });
+    }
+
+    /**
+     * Handles mailbox status packets on the client side.
+     * Stores the waiting item count for the marketplace screen.
+     */
+    public static void handleStatus(MailboxStatusPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> com.freemarket.client.data.ClientMailboxCache.setItemCount(packet.itemCount()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+/**
+ * Network packet telling a player how many items are waiting in their mailbox.
+ * Sent on login, when items arrive in the mailbox and after a claim.
+ */
+public record MailboxStatusPacket(int itemCount) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<MailboxStatusPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "mailbox_status"));
+
+    public static final StreamCodec<ByteBuf, MailboxStatusPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.VAR_INT,
+        MailboxStatusPacket::itemCount,
+        MailboxStatusPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
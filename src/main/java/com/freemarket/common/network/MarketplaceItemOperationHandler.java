@@ -7,6 +7,7 @@ import com.freemarket.FreeMarket;
 import com.freemarket.common.data.FreeMarketItem;
 import com.freemarket.server.data.FreeMarketDataManager;
 import com.freemarket.server.network.ServerMarketplaceSync;
+import com.freemarket.server.seller.PlayerListings;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.ServerLevel;
 
@@ -68,12 +69,16 @@ public class MarketplaceItemOperationHandler {
             } else if ("remove".equals(operation)) {
                 // Remove item from marketplace
                 List<FreeMarketItem> existingItems = FreeMarketDataManager.loadFreeMarketItems(level);
-                boolean removed = existingItems.removeIf(existingItem -> 
-                    existingItem.getGuid().equals(item.getGuid())
-                );
+                FreeMarketItem existing = existingItems.stream()
+                    .filter(existingItem -> existingItem.getGuid().equals(item.getGuid()))
+                    .findFirst().orElse(null);
+                boolean removed = existing != null && existingItems.remove(existing);
                 
                 if (removed) {
                     FreeMarketDataManager.saveFreeMarketItems(level, existingItems);
+                    
+                    // Player listings give their unsold stock back to the seller
+                    PlayerListings.onListingRemoved(level.getServer(), existing.getGuid(), existing);
                     FreeMarket.LOGGER.info("Player {} removed item from marketplace: {}", 
                         player.getName().getString(), item.getItemStack().getDisplayName().getString());
                     
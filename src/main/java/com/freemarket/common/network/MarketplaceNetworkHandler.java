@@ -4,10 +4,9 @@ import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
 import net.neoforged.neoforge.network.handling.IPayloadContext;
 import com.freemarket.FreeMarket;
-import com.freemarket.client.gui.FreeMarketGuiScreen;
 import com.freemarket.client.data.ClientMarketplaceCache;
+import com.freemarket.client.data.ListingSearchIndex;
 import com.freemarket.common.data.FreeMarketItem;
-import net.minecraft.client.Minecraft;
 
 import java.util.List;
 
@@ -29,21 +28,45 @@ public class MarketplaceNetworkHandler {
     
     /**
      * Handles the marketplace sync packet on the client side.
-     * Updates the client-side marketplace data to match the server.
+     * Decodes the items on the background worker and publishes them as the new client-side snapshot;
+     * an open marketplace screen picks it up on its next frame.
      */
     public static void handle(MarketplaceSyncPacket packet, IPayloadContext context) {
-        context.enqueueWork(() -> {
+        ClientMarketplaceCache.submit(() -> {
             // Convert JSON data to items and cache them
             List<FreeMarketItem> items = packet.toItems();
             ClientMarketplaceCache.updateCache(items);
-            
-            // Update GUI if it's open
-            Minecraft minecraft = Minecraft.getInstance();
-            if (minecraft.screen instanceof FreeMarketGuiScreen freeMarketScreen) {
-                freeMarketScreen.updateMarketplaceData(items);
-                FreeMarket.LOGGER.info("Client received marketplace sync: {} items (GUI open)", items.size());
-            } else {
-                FreeMarket.LOGGER.info("Client received marketplace sync: {} items (GUI not open, cached)", items.size());
+            FreeMarket.LOGGER.info("Client received marketplace sync: {} items", items.size());
+        });
+    }
+    
+    /**
+     * Handles the price delta packet on the client side.
+     * Patches the prices of the listed items in the cache, after any sync still being decoded.
+     */
+    public static void handlePriceDelta(PriceDeltaPacket packet, IPayloadContext context) {
+        ClientMarketplaceCache.submit(() ->
+            ClientMarketplaceCache.applyPriceChanges(packet.guids(), packet.buyPrices(), packet.sellPrices()));
+    }
+    
+    /**
+     * Handles listing delta packets on the client side.
+     * Drops expired listings and records new stock levels, after any sync still being decoded.
+     */
+    public static void handleListingDelta(ListingDeltaPacket packet, IPayloadContext context) {
+        ClientMarketplaceCache.submit(() ->
+            ClientMarketplaceCache.applyListingChanges(packet.removedGuids(), packet.stockGuids(), packet.stock()));
+    }
+    
+    /**
+     * Handles listing popularity packets on the client side.
+     * Records the trade counts the popularity sort order uses; the grid picks them up on its next refresh.
+     */
+    public static void handleListingPopularity(ListingPopularityPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            ListingSearchIndex index = ClientMarketplaceCache.getSearchIndex();
+            for (int i = 0; i < packet.guids().size(); i++) {
+                index.setTrades(packet.guids().get(i), packet.trades().get(i));
             }
         });
     }
@@ -0,0 +1,36 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+import java.util.List;
+
+/**
+ * Network packet carrying new prices for the listings that dynamic pricing changed.
+ * Much smaller than a full {@link MarketplaceSyncPacket}: only GUIDs and prices, no item data.
+ * The three lists are parallel.
+ */
+public record PriceDeltaPacket(List<String> guids, List<Long> buyPrices, List<Long> sellPrices) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<PriceDeltaPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "price_delta"));
+
+    public static final StreamCodec<ByteBuf, PriceDeltaPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8.apply(ByteBufCodecs.list()),
+        PriceDeltaPacket::guids,
+        ByteBufCodecs.VAR_LONG.apply(ByteBufCodecs.list()),
+        PriceDeltaPacket::buyPrices,
+        ByteBufCodecs.VAR_LONG.apply(ByteBufCodecs.list()),
+        PriceDeltaPacket::sellPrices,
+        PriceDeltaPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
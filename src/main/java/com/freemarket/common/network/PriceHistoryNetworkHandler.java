@@ -0,0 +1,52 @@
+package com.freemarket.common.network;
+
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+import com.freemarket.client.data.ClientPriceHistoryCache;
+import com.freemarket.server.history.PriceHistoryStore;
+import com.freemarket.server.history.PriceResolution;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Network handler for listing price history.
+ * Answers history requests from the GUI and stores the results for the card sparklines.
+ */
+public class PriceHistoryNetworkHandler {
+
+    /**
+     * Handles price history request packets on the server side.
+     */
+    public static void handleHistoryRequest(PriceHistoryRequestPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (!(context.player() instanceof ServerPlayer player)) {
+                return;
+            }
+
+            PriceResolution resolution = PriceResolution.byId(packet.resolution());
+            PriceHistoryStore.Chart chart = PriceHistoryStore.getChart(packet.itemGuid(), resolution);
+
+            List<Long> buyPrices = new ArrayList<>();
+            List<Long> sellPrices = new ArrayList<>();
+            List<Integer> volumes = new ArrayList<>();
+            if (chart != null) {
+                for (int i = 0; i < chart.volumes().length; i++) {
+                    buyPrices.add(chart.buyPrices()[i]);
+                    sellPrices.add(chart.sellPrices()[i]);
+                    volumes.add(chart.volumes()[i]);
+                }
+            }
+
+            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player,
+                new PriceHistorySyncPacket(packet.itemGuid(), resolution.ordinal(), buyPrices, sellPrices, volumes));
+        });
+    }
+
+    /**
+     * Handles price history sync packets on the client side.
+     */
+    public static void handleHistorySync(PriceHistorySyncPacket packet, IPayloadContext context) {
+        context.enqueueWork(() -> ClientPriceHistoryCache.update(packet));
+    }
+}
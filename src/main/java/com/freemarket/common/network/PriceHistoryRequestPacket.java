@@ -0,0 +1,31 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+/**
+ * Network packet for requesting a listing's price history from server.
+ * Client sends this when a card that shows a sparkline has no recent history.
+ */
+public record PriceHistoryRequestPacket(String itemGuid, int resolution) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<PriceHistoryRequestPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "price_history_request"));
+
+    public static final StreamCodec<ByteBuf, PriceHistoryRequestPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8,
+        PriceHistoryRequestPacket::itemGuid,
+        ByteBufCodecs.VAR_INT,
+        PriceHistoryRequestPacket::resolution,
+        PriceHistoryRequestPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
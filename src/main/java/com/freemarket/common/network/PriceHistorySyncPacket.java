@@ -0,0 +1,39 @@
+package com.freemarket.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import com.freemarket.FreeMarket;
+
+import java.util.List;
+
+/**
+ * Network packet for sending a listing's price history from server to client.
+ * The lists are parallel, oldest bucket first; they are empty if the listing has never traded.
+ */
+public record PriceHistorySyncPacket(String itemGuid, int resolution, List<Long> buyPrices, List<Long> sellPrices, List<Integer> volumes) implements CustomPacketPayload {
+
+    public static final CustomPacketPayload.Type<PriceHistorySyncPacket> TYPE =
+        new CustomPacketPayload.Type<>(ResourceLocation.fromNamespaceAndPath(FreeMarket.MODID, "price_history_sync"));
+
+    public static final StreamCodec<ByteBuf, PriceHistorySyncPacket> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8,
+        PriceHistorySyncPacket::itemGuid,
+        ByteBufCodecs.VAR_INT,
+        PriceHistorySyncPacket::resolution,
+        ByteBufCodecs.VAR_LONG.apply(ByteBufCodecs.list()),
+        PriceHistorySyncPacket::buyPrices,
+        ByteBufCodecs.VAR_LONG.apply(ByteBufCodecs.list()),
+        PriceHistorySyncPacket::sellPrices,
+        ByteBufCodecs.VAR_INT.apply(ByteBufCodecs.list()),
+        PriceHistorySyncPacket::volumes,
+        PriceHistorySyncPacket::new
+    );
+
+    @Override
+    public CustomPacketPayload.Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
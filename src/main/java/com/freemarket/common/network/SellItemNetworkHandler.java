@@ -5,13 +5,16 @@ import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
 import net.neoforged.neoforge.network.handling.IPayloadContext;
 import com.freemarket.FreeMarket;
 import com.freemarket.common.data.FreeMarketItem;
+import com.freemarket.server.handlers.ServerInventoryHandler;
 import com.freemarket.server.handlers.ServerWalletHandler;
-import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.orderbook.OrderMatchingEngine;
+import com.freemarket.server.trade.TradeBatchProcessor;
+import com.freemarket.server.trade.TradeOutcome;
+import com.freemarket.server.trade.TradeRequest;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.item.ItemStack;
 
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -41,66 +44,56 @@ public class SellItemNetworkHandler {
 
     /**
      * Handles sell item request packets on the server side.
-     * Validates inventory, removes item, and adds money to wallet.
+     * Queues the request for the per-tick trade batch instead of processing it inline.
      */
     public static void handleSellRequest(SellItemRequestPacket packet, IPayloadContext context) {
-        context.enqueueWork(() -> {
-            if (!(context.player() instanceof ServerPlayer player)) {
-                return;
-            }
+        if (context.player() instanceof ServerPlayer player) {
+            TradeBatchProcessor.submit(TradeRequest.Type.SELL, player, packet.itemGuid());
+        }
+    }
 
-            String itemGuid = packet.itemGuid();
-            ServerLevel level = player.serverLevel();
-            
-            // Load marketplace items to find the item
-            List<FreeMarketItem> items = FreeMarketDataManager.loadFreeMarketItems(level);
-            FreeMarketItem itemToSell = null;
-            
-            for (FreeMarketItem item : items) {
-                if (item.getGuid().equals(itemGuid)) {
-                    itemToSell = item;
-                    break;
-                }
-            }
-            
-            if (itemToSell == null) {
-                // Item not found
-                SellItemResponsePacket response = new SellItemResponsePacket(false, "Item not found", ServerWalletHandler.getPlayerMoney(player));
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-                return;
-            }
-            
-            // Create item with component data to ensure proper matching
-            ItemStack itemStack = com.freemarket.server.handlers.ServerItemHandler.createItemWithComponentData(
-                itemToSell.getItemStack(), itemToSell.getComponentData(), level.getServer());
-            
-            // Check if player has the item in inventory
-            if (!hasItemInInventory(player, itemStack)) {
-                SellItemResponsePacket response = new SellItemResponsePacket(false, "You don't have this item", ServerWalletHandler.getPlayerMoney(player));
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-                return;
-            }
-            
-            // Remove item from inventory
-            boolean removed = removeItemFromInventory(player, itemStack);
-            if (!removed) {
-                SellItemResponsePacket response = new SellItemResponsePacket(false, "Failed to remove item from inventory", ServerWalletHandler.getPlayerMoney(player));
-                net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-                return;
-            }
-            
-            // Add money to wallet
-            ServerWalletHandler.addMoney(player, itemToSell.getSellPrice());
-            
-            // Send success response
-            long newBalance = ServerWalletHandler.getPlayerMoney(player);
-            SellItemResponsePacket response = new SellItemResponsePacket(true, "Sale successful", newBalance);
-            net.neoforged.neoforge.network.PacketDistributor.sendToPlayer(player, response);
-            
-            FreeMarket.LOGGER.info("Player {} sold {} for {} coins. New balance: {}", 
-                player.getName().getString(), itemToSell.getItemStack().getDisplayName().getString(), 
-                itemToSell.getSellPrice(), newBalance);
-        });
+    /**
+     * Executes a single sale for a player.
+     * Validates inventory and removes the items, then fills standing buy orders that pay at least
+     * the marketplace price before paying the listing's sell price for whatever is left.
+     * Called from the trade batch on the server thread; the caller sends the response.
+     *
+     * @param prototype the listing's ItemStack with component data applied, shared across the batch (not modified)
+     */
+    public static TradeOutcome executeSell(ServerPlayer player, FreeMarketItem itemToSell, ItemStack prototype) {
+        // Listings without a sell price, such as player listings, do not buy items
+        if (itemToSell.getSellPrice() <= 0) {
+            return TradeOutcome.failure("This listing does not buy items");
+        }
+        
+        // Check if player has the item in inventory
+        if (!ServerInventoryHandler.hasItemInInventory(player, prototype)) {
+            return TradeOutcome.failure("You don't have this item");
+        }
+        
+        // Remove item from inventory
+        boolean removed = ServerInventoryHandler.removeItemFromInventory(player, prototype);
+        if (!removed) {
+            return TradeOutcome.failure("Failed to remove item from inventory");
+        }
+        
+        // Standing buy orders come first as long as they pay at least the marketplace price per item
+        int count = prototype.getCount();
+        long sellPrice = itemToSell.getSellPrice();
+        int soldToOrders = OrderMatchingEngine.sellToBuyOrders(player, prototype, count, Math.ceilDiv(sellPrice, count));
+        
+        // The marketplace pays its price pro rata for the rest
+        int remaining = count - soldToOrders;
+        long payout = 0;
+        if (remaining > 0) {
+            payout = sellPrice / count * remaining + sellPrice % count * remaining / count;
+            ServerWalletHandler.addMoney(player, payout, LedgerReason.SELL, itemToSell.getGuid());
+        }
+        
+        FreeMarket.LOGGER.info("Player {} sold {} ({} to buy orders). New balance: {}", 
+            player.getName().getString(), itemToSell.getItemStack().getDisplayName().getString(), 
+            soldToOrders, ServerWalletHandler.getPlayerMoney(player));
+        return TradeOutcome.success("Sale successful", remaining, payout);
     }
 
     /**
@@ -135,62 +128,4 @@ public class SellItemNetworkHandler {
             }
         });
     }
-    
-    /**
-     * Checks if the player has the specified item in their inventory.
-     * Checks total count across all stacks, not individual stack counts.
-     */
-    private static boolean hasItemInInventory(ServerPlayer player, ItemStack itemToCheck) {
-        var inventory = player.getInventory();
-        int totalCount = 0;
-        
-        // Count all matching items across the entire inventory
-        for (int i = 0; i < inventory.getContainerSize(); i++) {
-            ItemStack slotItem = inventory.getItem(i);
-            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, itemToCheck)) {
-                totalCount += slotItem.getCount();
-            }
-        }
-        
-        return totalCount >= itemToCheck.getCount();
-    }
-    
-    /**
-     * Removes the specified item from the player's inventory.
-     * Prioritizes removing from stacks with the fewest items.
-     * Returns true if successful, false if item not found.
-     */
-    private static boolean removeItemFromInventory(ServerPlayer player, ItemStack itemToRemove) {
-        var inventory = player.getInventory();
-        int remainingToRemove = itemToRemove.getCount();
-        
-        // First pass: find all matching stacks and sort by count (fewest first)
-        java.util.List<java.util.Map.Entry<Integer, ItemStack>> matchingStacks = new java.util.ArrayList<>();
-        for (int i = 0; i < inventory.getContainerSize(); i++) {
-            ItemStack slotItem = inventory.getItem(i);
-            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, itemToRemove)) {
-                matchingStacks.add(new java.util.AbstractMap.SimpleEntry<>(i, slotItem));
-            }
-        }
-        
-        // Sort by count (ascending - fewest items first)
-        matchingStacks.sort((a, b) -> Integer.compare(a.getValue().getCount(), b.getValue().getCount()));
-        
-        // Remove items starting from stacks with fewest items
-        for (var entry : matchingStacks) {
-            if (remainingToRemove <= 0) break;
-            
-            int slotIndex = entry.getKey();
-            ItemStack slotItem = entry.getValue();
-            int removeFromSlot = Math.min(remainingToRemove, slotItem.getCount());
-            slotItem.shrink(removeFromSlot);
-            remainingToRemove -= removeFromSlot;
-            
-            // Update the slot
-            inventory.setItem(slotIndex, slotItem.isEmpty() ? ItemStack.EMPTY : slotItem);
-        }
-        
-        return remainingToRemove == 0; // Return true if we removed all required items
-    }
-    
 }
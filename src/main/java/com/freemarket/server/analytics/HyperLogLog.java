@@ -0,0 +1,80 @@
+package com.freemarket.server.analytics;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Fixed-size estimator of how many distinct players were added to it.
+ *
+ * <p>Each player's UUID is hashed to 64 bits; the top {@value #PRECISION} bits pick one of
+ * {@value #REGISTERS} registers and the register keeps the longest run of leading zeros seen in the
+ * remaining bits. The estimate uses 256 bytes however many players trade, with a standard error of
+ * about 6.5%, and small counts fall back to linear counting so they are close to exact.</p>
+ *
+ * <p>Not thread-safe; used only from the server thread.</p>
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 8;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Adds a player to the set.
+     */
+    public void add(UUID playerId) {
+        long hash = mix(playerId.getMostSignificantBits() ^ mix(playerId.getLeastSignificantBits()));
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Position of the first set bit in the remaining bits, capped when they are all zero
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), Long.SIZE - PRECISION) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Adds every player counted by another estimator to this one.
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    /**
+     * Estimates the number of distinct players added.
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // MurmurHash3 finalizer, spreads UUID bits evenly over the whole hash
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
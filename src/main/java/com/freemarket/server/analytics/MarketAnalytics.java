@@ -0,0 +1,258 @@
+package com.freemarket.server.analytics;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.common.managers.ItemCategoryManager;
+import com.freemarket.common.network.ListingPopularityPacket;
+import com.freemarket.server.trade.CompletedTrade;
+import com.freemarket.server.trade.TradeRequest;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming trade analytics per listing and per category, fed by the committed trade stream.
+ *
+ * <p>Each listing and category keeps one {@link RollingStats}: trade count, volume, money in and
+ * out and a {@link HyperLogLog} of the players who traded, over the last
+ * {@link RollingStats#getWindowHours()} hours. Memory per listing is fixed, so busy listings cost no
+ * more than quiet ones. Stats live in memory only and start empty with each server.</p>
+ *
+ * <p>When {@link Config#ANALYTICS_EXPORT_MINUTES} is set, a snapshot of every listing and category is
+ * written as newline-delimited JSON to {@code world/data/freemarket_analytics.ndjson}. The lines are
+ * built on the server thread and written on the IO pool, replacing the previous export.</p>
+ *
+ * <p>Clients sort the marketplace by popularity using each listing's trade count over the window.
+ * They get every count on login and then, every few seconds, the counts that changed since the last
+ * sync: listings that traded, and listings whose older trades left the window. A count is followed
+ * until it has decayed to zero and that zero was sent.</p>
+ */
+public class MarketAnalytics {
+
+    private static final String EXPORT_FILE_NAME = "freemarket_analytics.ndjson";
+    private static final Gson GSON = new Gson();
+    private static final int POPULARITY_SYNC_TICKS = 100;
+
+    /**
+     * A listing's stats with the item it sells, for lookups by item id.
+     */
+    private record ListingStats(ResourceLocation itemId, RollingStats stats) {}
+
+    private static final Map<String, ListingStats> LISTINGS = new HashMap<>();
+    private static final Map<ItemCategoryManager.Category, RollingStats> CATEGORIES = new EnumMap<>(ItemCategoryManager.Category.class);
+
+    private static int ticksSinceExport = 0;
+
+    // Listings that traded since popularity was last sent to clients
+    private static final Set<String> popularityChanged = new HashSet<>();
+    // Trade count last sent to clients, for listings whose count was above zero
+    private static final Object2IntOpenHashMap<String> sentPopularity = new Object2IntOpenHashMap<>();
+    private static int ticksSincePopularitySync = 0;
+
+    /**
+     * Adds a committed trade to its listing and category. Registered as a trade listener.
+     */
+    public static void onTrade(CompletedTrade trade) {
+        boolean buy = trade.type() == TradeRequest.Type.BUY;
+        ListingStats listing = LISTINGS.computeIfAbsent(trade.item().getGuid(), guid -> new ListingStats(
+            BuiltInRegistries.ITEM.getKey(trade.item().getItemStack().getItem()), new RollingStats()));
+        listing.stats().record(trade.timestamp(), trade.playerId(), trade.quantity(), trade.price(), buy);
+
+        ItemCategoryManager.Category category = ItemCategoryManager.getCategoryForItem(trade.item().getItemStack());
+        CATEGORIES.computeIfAbsent(category, key -> new RollingStats())
+            .record(trade.timestamp(), trade.playerId(), trade.quantity(), trade.price(), buy);
+        popularityChanged.add(trade.item().getGuid());
+    }
+
+    /**
+     * Forgets a listing's stats, e.g. after the listing was removed. Its category keeps the trades.
+     * Clients that were sent a trade count for it get a zero with the next popularity sync.
+     */
+    public static void remove(String guid) {
+        LISTINGS.remove(guid);
+        // A count still followed in sentPopularity has no stats left, so the next sync sends zero and drops it
+        popularityChanged.remove(guid);
+    }
+
+    /**
+     * Gets a listing's stats, or null if it has not traded since the server started.
+     */
+    public static RollingStats.Summary getListingStats(String guid) {
+        ListingStats listing = LISTINGS.get(guid);
+        return listing == null ? null : listing.stats().summarize(System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the combined stats of every listing selling an item, or null if none of them has traded.
+     */
+    public static RollingStats.Summary getItemStats(ResourceLocation itemId) {
+        List<RollingStats> matching = new ArrayList<>();
+        for (ListingStats listing : LISTINGS.values()) {
+            if (listing.itemId().equals(itemId)) {
+                matching.add(listing.stats());
+            }
+        }
+        return matching.isEmpty() ? null : RollingStats.summarize(matching, System.currentTimeMillis());
+    }
+
+    /**
+     * Gets a category's stats, or null if nothing in it has traded.
+     */
+    public static RollingStats.Summary getCategoryStats(ItemCategoryManager.Category category) {
+        if (category == ItemCategoryManager.Category.ALL) {
+            return CATEGORIES.isEmpty() ? null : RollingStats.summarize(CATEGORIES.values(), System.currentTimeMillis());
+        }
+        RollingStats stats = CATEGORIES.get(category);
+        return stats == null ? null : stats.summarize(System.currentTimeMillis());
+    }
+
+    /**
+     * Sends a player the trade counts of every listing that traded within the window.
+     */
+    public static void sendPopularity(ServerPlayer player) {
+        PacketDistributor.sendToPlayer(player, popularity(LISTINGS.keySet()));
+    }
+
+    /**
+     * Sends all players the trade counts that differ from the ones last sent, and stops following
+     * counts that have reached zero.
+     */
+    private static void syncPopularity() {
+        Set<String> candidates = new HashSet<>(sentPopularity.keySet());
+        candidates.addAll(popularityChanged);
+        popularityChanged.clear();
+
+        long now = System.currentTimeMillis();
+        List<String> guids = new ArrayList<>();
+        List<Integer> trades = new ArrayList<>();
+        for (String guid : candidates) {
+            ListingStats listing = LISTINGS.get(guid);
+            int count = listing == null ? 0 : (int) Math.min(Integer.MAX_VALUE, listing.stats().countTrades(now));
+            // Counts not followed were last sent as zero, or never sent at all
+            if (count == sentPopularity.getInt(guid)) {
+                continue;
+            }
+            guids.add(guid);
+            trades.add(count);
+            if (count > 0) {
+                sentPopularity.put(guid, count);
+            } else {
+                sentPopularity.removeInt(guid);
+            }
+        }
+        if (!guids.isEmpty()) {
+            PacketDistributor.sendToAllPlayers(new ListingPopularityPacket(guids, trades));
+        }
+    }
+
+    private static ListingPopularityPacket popularity(Collection<String> listingGuids) {
+        long now = System.currentTimeMillis();
+        List<String> guids = new ArrayList<>(listingGuids.size());
+        List<Integer> trades = new ArrayList<>(listingGuids.size());
+        for (String guid : listingGuids) {
+            ListingStats listing = LISTINGS.get(guid);
+            if (listing != null) {
+                guids.add(guid);
+                trades.add((int) Math.min(Integer.MAX_VALUE, listing.stats().countTrades(now)));
+            }
+        }
+        return new ListingPopularityPacket(guids, trades);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        if (++ticksSincePopularitySync >= POPULARITY_SYNC_TICKS) {
+            ticksSincePopularitySync = 0;
+            if (!popularityChanged.isEmpty() || !sentPopularity.isEmpty()) {
+                syncPopularity();
+            }
+        }
+
+        int minutes = Config.ANALYTICS_EXPORT_MINUTES.get();
+        if (minutes <= 0 || ++ticksSinceExport < minutes * 60 * 20) {
+            return;
+        }
+        ticksSinceExport = 0;
+        export(event.getServer());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        LISTINGS.clear();
+        CATEGORIES.clear();
+        ticksSinceExport = 0;
+        popularityChanged.clear();
+        sentPopularity.clear();
+        ticksSincePopularitySync = 0;
+    }
+
+    /**
+     * Builds the export on the server thread and writes it on the IO pool.
+     */
+    private static void export(MinecraftServer server) {
+        long now = System.currentTimeMillis();
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<String, ListingStats> entry : LISTINGS.entrySet()) {
+            JsonObject line = toJson(now, "listing", entry.getKey(), entry.getValue().stats().summarize(now));
+            line.addProperty("item", entry.getValue().itemId().toString());
+            lines.append(GSON.toJson(line)).append('\n');
+        }
+        for (Map.Entry<ItemCategoryManager.Category, RollingStats> entry : CATEGORIES.entrySet()) {
+            lines.append(GSON.toJson(toJson(now, "category", entry.getKey().name(), entry.getValue().summarize(now)))).append('\n');
+        }
+
+        byte[] data = lines.toString().getBytes(StandardCharsets.UTF_8);
+        Path target = server.getWorldPath(LevelResource.ROOT).resolve("data").resolve(EXPORT_FILE_NAME);
+        Util.ioPool().execute(() -> write(target, data));
+    }
+
+    private static JsonObject toJson(long now, String scope, String id, RollingStats.Summary summary) {
+        JsonObject line = new JsonObject();
+        line.addProperty("time", now);
+        line.addProperty("scope", scope);
+        line.addProperty("id", id);
+        line.addProperty("windowHours", RollingStats.getWindowHours());
+        line.addProperty("trades", summary.trades());
+        line.addProperty("volume", summary.volume());
+        line.addProperty("vwap", summary.vwap());
+        line.addProperty("moneyIn", summary.moneyIn());
+        line.addProperty("moneyOut", summary.moneyOut());
+        line.addProperty("uniqueTraders", summary.uniqueTraders());
+        return line;
+    }
+
+    private static synchronized void write(Path target, byte[] data) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(EXPORT_FILE_NAME + ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to write market analytics {}: {}", target, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.freemarket.server.analytics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Trade totals over a rolling window, kept in a fixed ring of time buckets.
+ *
+ * <p>The window is {@value #BUCKETS} buckets of {@value #BUCKET_HOURS} hours. A trade is added to
+ * the bucket for its time; a bucket that comes round again is cleared before reuse, so memory stays
+ * the same however long the server runs and the window slides forward one bucket at a time.</p>
+ *
+ * <p>Money in is what buyers paid the marketplace, money out is what the marketplace paid sellers.</p>
+ *
+ * <p>Not thread-safe; used only from the server thread.</p>
+ */
+public class RollingStats {
+
+    private static final int BUCKETS = 4;
+    private static final int BUCKET_HOURS = 6;
+    private static final long BUCKET_MILLIS = BUCKET_HOURS * 60L * 60L * 1000L;
+
+    /**
+     * Totals over the window.
+     * @param trades number of trades
+     * @param volume items bought plus sold
+     * @param notional money that changed hands, both directions
+     * @param moneyIn money paid by buyers
+     * @param moneyOut money paid to sellers
+     * @param uniqueTraders estimated number of distinct players who traded
+     */
+    public record Summary(long trades, long volume, long notional, long moneyIn, long moneyOut, long uniqueTraders) {
+
+        /**
+         * Volume-weighted average price per item, or 0 without trades.
+         */
+        public double vwap() {
+            return volume == 0 ? 0 : (double) notional / volume;
+        }
+    }
+
+    private final long[] epochs = new long[BUCKETS];
+    private final long[] trades = new long[BUCKETS];
+    private final long[] volume = new long[BUCKETS];
+    private final long[] moneyIn = new long[BUCKETS];
+    private final long[] moneyOut = new long[BUCKETS];
+    private final HyperLogLog[] traders = new HyperLogLog[BUCKETS];
+
+    public RollingStats() {
+        for (int i = 0; i < BUCKETS; i++) {
+            epochs[i] = -1;
+            traders[i] = new HyperLogLog();
+        }
+    }
+
+    /**
+     * Adds a trade.
+     * @param price money paid or received for the whole quantity
+     * @param buy true if the player bought from the marketplace
+     */
+    public void record(long timestamp, UUID trader, int quantity, long price, boolean buy) {
+        long epoch = timestamp / BUCKET_MILLIS;
+        int slot = (int) (epoch % BUCKETS);
+        if (epochs[slot] != epoch) {
+            if (epochs[slot] > epoch) {
+                // Older than the window, e.g. after the clock moved back
+                return;
+            }
+            epochs[slot] = epoch;
+            trades[slot] = 0;
+            volume[slot] = 0;
+            moneyIn[slot] = 0;
+            moneyOut[slot] = 0;
+            traders[slot].clear();
+        }
+        trades[slot]++;
+        volume[slot] += quantity;
+        if (buy) {
+            moneyIn[slot] += price;
+        } else {
+            moneyOut[slot] += price;
+        }
+        traders[slot].add(trader);
+    }
+
+    /**
+     * Sums the window ending at {@code now}.
+     */
+    public Summary summarize(long now) {
+        return summarize(List.of(this), now);
+    }
+
+    /**
+     * Counts the trades in the window ending at {@code now}, without building a whole {@link Summary}.
+     */
+    public long countTrades(long now) {
+        long oldestEpoch = now / BUCKET_MILLIS - BUCKETS + 1;
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (epochs[i] >= oldestEpoch) {
+                total += trades[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sums the windows of several stats ending at {@code now}, counting a player who traded in more
+     * than one of them once.
+     */
+    public static Summary summarize(Collection<RollingStats> stats, long now) {
+        long oldestEpoch = now / BUCKET_MILLIS - BUCKETS + 1;
+        long totalTrades = 0, totalVolume = 0, totalIn = 0, totalOut = 0;
+        HyperLogLog allTraders = new HyperLogLog();
+        for (RollingStats stat : stats) {
+            for (int i = 0; i < BUCKETS; i++) {
+                if (stat.epochs[i] < oldestEpoch) {
+                    continue;
+                }
+                totalTrades += stat.trades[i];
+                totalVolume += stat.volume[i];
+                totalIn += stat.moneyIn[i];
+                totalOut += stat.moneyOut[i];
+                allTraders.merge(stat.traders[i]);
+            }
+        }
+        return new Summary(totalTrades, totalVolume, totalIn + totalOut, totalIn, totalOut, allTraders.estimate());
+    }
+
+    /**
+     * Length of the window in hours.
+     */
+    public static int getWindowHours() {
+        return BUCKETS * BUCKET_HOURS;
+    }
+}
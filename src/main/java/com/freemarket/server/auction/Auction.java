@@ -0,0 +1,87 @@
+package com.freemarket.server.auction;
+
+import net.minecraft.world.item.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * A timed auction. The item is held by the auction house from creation, and the highest bid is held
+ * in escrow until the auction ends or the bidder is outbid.
+ */
+public class Auction {
+
+    private final long id;
+    private final UUID seller;
+    private final ItemStack item;
+    private final long startingBid;
+    private final long buyout;
+    private final long endTime;
+    private UUID highestBidder;
+    private long highestBid;
+
+    /**
+     * @param id unique auction id, shown to players for bidding
+     * @param seller the player who created the auction
+     * @param item the item being auctioned
+     * @param startingBid the lowest first bid
+     * @param buyout the bid that ends the auction immediately, or 0 for none
+     * @param endTime when the auction ends, in epoch milliseconds
+     * @param highestBidder the current highest bidder, or null if there are no bids
+     * @param highestBid the current highest bid, 0 if there are no bids
+     */
+    public Auction(long id, UUID seller, ItemStack item, long startingBid, long buyout, long endTime, UUID highestBidder, long highestBid) {
+        this.id = id;
+        this.seller = seller;
+        this.item = item;
+        this.startingBid = startingBid;
+        this.buyout = buyout;
+        this.endTime = endTime;
+        this.highestBidder = highestBidder;
+        this.highestBid = highestBid;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public UUID getSeller() {
+        return seller;
+    }
+
+    public ItemStack getItem() {
+        return item;
+    }
+
+    public long getStartingBid() {
+        return startingBid;
+    }
+
+    public long getBuyout() {
+        return buyout;
+    }
+
+    public boolean hasBuyout() {
+        return buyout > 0;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public UUID getHighestBidder() {
+        return highestBidder;
+    }
+
+    public long getHighestBid() {
+        return highestBid;
+    }
+
+    public boolean hasBids() {
+        return highestBidder != null;
+    }
+
+    void setHighestBid(UUID bidder, long amount) {
+        this.highestBidder = bidder;
+        this.highestBid = amount;
+    }
+}
@@ -0,0 +1,184 @@
+package com.freemarket.server.auction;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.common.network.AuctionNotifyPacket;
+import com.freemarket.server.handlers.ServerWalletHandler;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.mailbox.MailboxStore;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.UUID;
+
+/**
+ * Creates, bids on and closes timed auctions.
+ *
+ * <p>Each bid is taken from the bidder's wallet straight away and held until they are outbid (refund)
+ * or the auction ends (paid to the seller), so a winning bid can always be paid. Auctions end when
+ * their time runs out, found through the store's timing wheel at the end of each server tick, or as
+ * soon as someone bids the buyout price.</p>
+ */
+public class AuctionHouse {
+
+    /**
+     * Outcome of a bid.
+     */
+    public enum BidResult {
+        ACCEPTED,
+        BOUGHT_OUT,
+        NOT_FOUND,
+        OWN_AUCTION,
+        TOO_LOW,
+        INSUFFICIENT_FUNDS
+    }
+
+    /**
+     * Closes auctions whose time has run out.
+     */
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        MinecraftServer server = event.getServer();
+        AuctionStore store = AuctionStore.get(server);
+        store.advance(id -> {
+            Auction auction = store.remove(id);
+            if (auction != null) {
+                close(server, auction);
+            }
+        });
+    }
+
+    /**
+     * Refunds the highest bids of auctions whose item no longer exists, found when the store loaded.
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        MinecraftServer server = event.getServer();
+        for (AuctionStore.OrphanedBid bid : AuctionStore.get(server).takeOrphanedBids()) {
+            ServerWalletHandler.addMoney(server, bid.bidder(), bid.amount(), LedgerReason.AUCTION_REFUND, auctionReference(bid.auctionId()));
+            FreeMarket.LOGGER.info("Refunded the {} coin bid on dropped auction #{}", bid.amount(), bid.auctionId());
+        }
+    }
+
+    /**
+     * Puts the stack in the player's main hand up for auction.
+     * @param buyout the bid that ends the auction immediately, or 0 for none
+     * @return the new auction, or null if the player's hand is empty
+     */
+    public static Auction createAuction(ServerPlayer player, long startingBid, long buyout, int durationMinutes) {
+        ItemStack heldItem = player.getMainHandItem();
+        if (heldItem.isEmpty()) {
+            return null;
+        }
+
+        ItemStack item = heldItem.copy();
+        player.setItemInHand(InteractionHand.MAIN_HAND, ItemStack.EMPTY);
+
+        long endTime = System.currentTimeMillis() + durationMinutes * 60_000L;
+        Auction auction = AuctionStore.get(player.server).create(player.getUUID(), item, startingBid, buyout, endTime);
+        FreeMarket.LOGGER.info("{} started auction #{} for {}x {} (start {}, buyout {}, {} min)", player.getName().getString(),
+            auction.getId(), item.getCount(), item.getHoverName().getString(), startingBid, buyout, durationMinutes);
+        return auction;
+    }
+
+    /**
+     * Gets the lowest bid the auction currently accepts.
+     */
+    public static long getMinimumBid(Auction auction) {
+        if (!auction.hasBids()) {
+            return auction.getStartingBid();
+        }
+        long highestBid = auction.getHighestBid();
+        int percent = Config.AUCTION_MIN_INCREMENT_PERCENT.get();
+        // Split so large bids cannot overflow
+        long increment = Math.max(1, highestBid / 100 * percent + highestBid % 100 * percent / 100);
+        long minimum = highestBid + increment;
+        // Never ask for more than the buyout, so the buyout is always reachable
+        return auction.hasBuyout() ? Math.min(minimum, auction.getBuyout()) : minimum;
+    }
+
+    /**
+     * Places a bid. Bids at or above the buyout are capped to it and end the auction.
+     * A player raising their own bid only pays the difference.
+     */
+    public static BidResult placeBid(ServerPlayer bidder, long auctionId, long amount) {
+        MinecraftServer server = bidder.server;
+        AuctionStore store = AuctionStore.get(server);
+        Auction auction = store.get(auctionId);
+        if (auction == null) {
+            return BidResult.NOT_FOUND;
+        }
+        if (auction.getSeller().equals(bidder.getUUID())) {
+            return BidResult.OWN_AUCTION;
+        }
+
+        long bid = auction.hasBuyout() ? Math.min(amount, auction.getBuyout()) : amount;
+        if (bid < getMinimumBid(auction)) {
+            return BidResult.TOO_LOW;
+        }
+
+        String reference = auctionReference(auction);
+        UUID previousBidder = auction.getHighestBidder();
+        long previousBid = auction.getHighestBid();
+        boolean raisingOwnBid = bidder.getUUID().equals(previousBidder);
+
+        long charge = raisingOwnBid ? bid - previousBid : bid;
+        if (!ServerWalletHandler.removeMoney(server, bidder.getUUID(), charge, LedgerReason.AUCTION_BID, reference)) {
+            return BidResult.INSUFFICIENT_FUNDS;
+        }
+
+        if (previousBidder != null && !raisingOwnBid) {
+            ServerWalletHandler.addMoney(server, previousBidder, previousBid, LedgerReason.AUCTION_REFUND, reference);
+            notify(server, previousBidder, AuctionNotifyPacket.OUTBID, auction, bid);
+        }
+        store.setHighestBid(auction, bidder.getUUID(), bid);
+
+        if (auction.hasBuyout() && bid >= auction.getBuyout()) {
+            store.remove(auction.getId());
+            close(server, auction);
+            return BidResult.BOUGHT_OUT;
+        }
+        return BidResult.ACCEPTED;
+    }
+
+    /**
+     * Settles a closed auction: the winner gets the item and the seller the winning bid, or the
+     * item goes back to the seller if nobody bid. Items go to the mailbox of players who are offline or out of space.
+     */
+    private static void close(MinecraftServer server, Auction auction) {
+        ItemStack item = auction.getItem();
+        if (auction.hasBids()) {
+            ServerWalletHandler.addMoney(server, auction.getSeller(), auction.getHighestBid(), LedgerReason.AUCTION_SALE, auctionReference(auction));
+            MailboxStore.deliver(server, auction.getHighestBidder(), item, item.getCount());
+            notify(server, auction.getHighestBidder(), AuctionNotifyPacket.WON, auction, auction.getHighestBid());
+            notify(server, auction.getSeller(), AuctionNotifyPacket.SOLD, auction, auction.getHighestBid());
+            FreeMarket.LOGGER.info("Auction #{} sold for {}", auction.getId(), auction.getHighestBid());
+        } else {
+            MailboxStore.deliver(server, auction.getSeller(), item, item.getCount());
+            notify(server, auction.getSeller(), AuctionNotifyPacket.EXPIRED, auction, 0);
+            FreeMarket.LOGGER.info("Auction #{} expired without bids", auction.getId());
+        }
+    }
+
+    private static void notify(MinecraftServer server, UUID playerId, int kind, Auction auction, long amount) {
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            String itemName = auction.getItem().getCount() + "x " + auction.getItem().getHoverName().getString();
+            PacketDistributor.sendToPlayer(player, new AuctionNotifyPacket(kind, auction.getId(), itemName, amount));
+        }
+    }
+
+    private static String auctionReference(Auction auction) {
+        return auctionReference(auction.getId());
+    }
+
+    private static String auctionReference(long auctionId) {
+        return "auction:" + auctionId;
+    }
+}
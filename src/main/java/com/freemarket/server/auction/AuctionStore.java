@@ -0,0 +1,190 @@
+package com.freemarket.server.auction;
+
+import com.freemarket.FreeMarket;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Open auctions, stored as {@code data/freemarket_auctions.dat}.
+ *
+ * <p>Expiry is tracked by a {@link TimingWheel} with one-second slots, so checking for ended auctions
+ * each tick only touches the auctions due in the current second. The wheel is not saved; it is
+ * rebuilt from the auctions' end times when the store loads. Auctions that end early (buyout) are
+ * removed from the map and their wheel entry is ignored when it comes due.</p>
+ *
+ * <p>Used only from the server thread.</p>
+ */
+public class AuctionStore extends SavedData {
+
+    private static final String DATA_NAME = "freemarket_auctions";
+
+    // 4096 one-second slots is a little over an hour per revolution
+    private static final int WHEEL_SLOTS = 4096;
+
+    private static final SavedData.Factory<AuctionStore> FACTORY =
+        new SavedData.Factory<>(AuctionStore::new, AuctionStore::load, null);
+
+    /**
+     * The escrowed highest bid of an auction that was dropped on load because its item no longer exists.
+     */
+    public record OrphanedBid(long auctionId, UUID bidder, long amount) {}
+
+    private final Long2ObjectOpenHashMap<Auction> auctions = new Long2ObjectOpenHashMap<>();
+    // Filled on load, paid back by the auction house once the server has started (not saved)
+    private final List<OrphanedBid> orphanedBids = new ArrayList<>();
+    private final TimingWheel<Long> expiries = new TimingWheel<>(WHEEL_SLOTS, currentSecond());
+    private long nextAuctionId = 1;
+
+    /**
+     * Gets the auction store for a server, loading or creating it in the overworld data storage.
+     */
+    public static AuctionStore get(MinecraftServer server) {
+        return server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    }
+
+    /**
+     * Opens a new auction. The caller has already taken the item from the seller.
+     */
+    public Auction create(UUID seller, ItemStack item, long startingBid, long buyout, long endTime) {
+        Auction auction = new Auction(nextAuctionId++, seller, item.copy(), startingBid, buyout, endTime, null, 0);
+        add(auction);
+        setDirty();
+        return auction;
+    }
+
+    private void add(Auction auction) {
+        auctions.put(auction.getId(), auction);
+        // Round up so an auction never ends before its end time
+        expiries.schedule(auction.getId(), (auction.getEndTime() + 999) / 1000);
+    }
+
+    public Auction get(long id) {
+        return auctions.get(id);
+    }
+
+    /**
+     * Hands out the bids of auctions dropped on load, once. The store is marked dirty so the dropped
+     * auctions are gone from the file before the bids could be refunded a second time.
+     */
+    public List<OrphanedBid> takeOrphanedBids() {
+        if (orphanedBids.isEmpty()) {
+            return List.of();
+        }
+        List<OrphanedBid> taken = List.copyOf(orphanedBids);
+        orphanedBids.clear();
+        setDirty();
+        return taken;
+    }
+
+    /**
+     * Records a new highest bid. The caller has already moved the escrow.
+     */
+    public void setHighestBid(Auction auction, UUID bidder, long amount) {
+        auction.setHighestBid(bidder, amount);
+        setDirty();
+    }
+
+    /**
+     * Closes an auction, e.g. when it is bought out or has expired.
+     * @return the auction, or null if it was already closed
+     */
+    public Auction remove(long id) {
+        Auction auction = auctions.remove(id);
+        if (auction != null) {
+            setDirty();
+        }
+        return auction;
+    }
+
+    /**
+     * Advances the expiry wheel to the current second and passes every auction id that came due
+     * to {@code expired}. Ids of auctions that already closed are passed too; look them up first.
+     */
+    public void advance(LongConsumer expired) {
+        expiries.advanceTo(currentSecond(), expired::accept);
+    }
+
+    /**
+     * Gets open auctions ordered by end time, soonest first.
+     */
+    public List<Auction> getEndingSoonest(int limit) {
+        List<Auction> sorted = new ArrayList<>(auctions.values());
+        sorted.sort(Comparator.comparingLong(Auction::getEndTime));
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    public int size() {
+        return auctions.size();
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        ListTag list = new ListTag();
+        for (Auction auction : auctions.values()) {
+            CompoundTag auctionTag = new CompoundTag();
+            auctionTag.putLong("id", auction.getId());
+            auctionTag.putUUID("seller", auction.getSeller());
+            auctionTag.put("item", auction.getItem().save(registries));
+            auctionTag.putLong("startingBid", auction.getStartingBid());
+            auctionTag.putLong("buyout", auction.getBuyout());
+            auctionTag.putLong("endTime", auction.getEndTime());
+            if (auction.hasBids()) {
+                auctionTag.putUUID("highestBidder", auction.getHighestBidder());
+                auctionTag.putLong("highestBid", auction.getHighestBid());
+            }
+            list.add(auctionTag);
+        }
+        tag.put("auctions", list);
+        tag.putLong("nextAuctionId", nextAuctionId);
+        return tag;
+    }
+
+    private static AuctionStore load(CompoundTag tag, HolderLookup.Provider registries) {
+        AuctionStore store = new AuctionStore();
+        store.nextAuctionId = Math.max(1, tag.getLong("nextAuctionId"));
+
+        ListTag list = tag.getList("auctions", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag auctionTag = list.getCompound(i);
+            Optional<ItemStack> item = ItemStack.parse(registries, auctionTag.getCompound("item"));
+            if (item.isEmpty()) {
+                FreeMarket.LOGGER.warn("Dropping auction #{} with an item that no longer exists", auctionTag.getLong("id"));
+                if (auctionTag.hasUUID("highestBidder")) {
+                    store.orphanedBids.add(new OrphanedBid(auctionTag.getLong("id"), auctionTag.getUUID("highestBidder"),
+                        auctionTag.getLong("highestBid")));
+                }
+                continue;
+            }
+
+            boolean hasBids = auctionTag.hasUUID("highestBidder");
+            store.add(new Auction(
+                auctionTag.getLong("id"),
+                auctionTag.getUUID("seller"),
+                item.get(),
+                auctionTag.getLong("startingBid"),
+                auctionTag.getLong("buyout"),
+                auctionTag.getLong("endTime"),
+                hasBids ? auctionTag.getUUID("highestBidder") : null,
+                hasBids ? auctionTag.getLong("highestBid") : 0
+            ));
+        }
+        return store;
+    }
+}
@@ -0,0 +1,91 @@
+package com.freemarket.server.auction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: deadlines are hashed into a fixed ring of slots by {@code deadline % slots},
+ * so advancing one tick only looks at the entries in one slot instead of every scheduled entry.
+ * Entries whose deadline is more than one revolution away stay in their slot until the wheel comes
+ * round to them again.
+ *
+ * <p>Ticks are whatever unit the owner advances the wheel in. Not thread-safe.</p>
+ *
+ * @param <T> the scheduled value
+ */
+public class TimingWheel<T> {
+
+    private record Entry<T>(T value, long deadline) {}
+
+    private final List<List<Entry<T>>> slots;
+    private final int mask;
+    private long currentTick;
+    private int size = 0;
+
+    /**
+     * @param slotCount number of slots, rounded up to a power of two
+     * @param startTick the tick the wheel starts at
+     */
+    public TimingWheel(int slotCount, long startTick) {
+        int capacity = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.slots = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.mask = capacity - 1;
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Schedules a value to expire at {@code deadline}. Deadlines that have already passed expire on
+     * the next tick.
+     */
+    public void schedule(T value, long deadline) {
+        long tick = Math.max(deadline, currentTick + 1);
+        slots.get((int) (tick & mask)).add(new Entry<>(value, tick));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to {@code targetTick}, passing every value whose deadline has been reached to
+     * {@code expired}. If the wheel fell more than one revolution behind (e.g. the server was stopped),
+     * all slots are swept once instead of stepping through every missed tick.
+     */
+    public void advanceTo(long targetTick, Consumer<T> expired) {
+        if (targetTick - currentTick > slots.size()) {
+            currentTick = targetTick;
+            for (List<Entry<T>> slot : slots) {
+                expireSlot(slot, expired);
+            }
+            return;
+        }
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            expireSlot(slots.get((int) (currentTick & mask)), expired);
+        }
+    }
+
+    private void expireSlot(List<Entry<T>> slot, Consumer<T> expired) {
+        for (int i = slot.size() - 1; i >= 0; i--) {
+            Entry<T> entry = slot.get(i);
+            if (entry.deadline() <= currentTick) {
+                // Swap-remove keeps removal O(1); order within a slot does not matter
+                int last = slot.size() - 1;
+                slot.set(i, slot.get(last));
+                slot.remove(last);
+                size--;
+                expired.accept(entry.value());
+            }
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+}
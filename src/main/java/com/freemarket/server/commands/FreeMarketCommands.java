@@ -7,12 +7,37 @@ import com.mojang.brigadier.arguments.LongArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.freemarket.server.handlers.ServerLeaderboardHandler;
 import com.freemarket.server.handlers.ServerWalletHandler;
 import com.freemarket.common.handlers.AdminModeHandler;
+import com.freemarket.server.data.EconomyCounters;
+import com.freemarket.server.data.EconomySource;
 import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.data.MarketCatalog;
+import com.freemarket.server.data.WalletRegistry;
+import com.freemarket.server.analytics.MarketAnalytics;
+import com.freemarket.server.analytics.RollingStats;
+import com.freemarket.server.auction.Auction;
+import com.freemarket.server.auction.AuctionHouse;
+import com.freemarket.server.auction.AuctionStore;
+import com.freemarket.server.ledger.LedgerEntry;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.ledger.TransactionLedger;
+import com.freemarket.server.orderbook.Order;
+import com.freemarket.server.orderbook.OrderBook;
+import com.freemarket.server.orderbook.OrderBookStore;
+import com.freemarket.server.orderbook.OrderMatchingEngine;
+import com.freemarket.server.orderbook.OrderSide;
+import com.freemarket.server.schedule.ListingSchedule;
+import com.freemarket.server.schedule.ListingScheduleStore;
+import com.freemarket.server.schedule.ListingScheduler;
+import com.freemarket.server.seller.PlayerListings;
+import com.freemarket.server.seller.SellerRegistry;
 import com.freemarket.common.data.FreeMarketItem;
+import com.freemarket.common.managers.ItemCategoryManager;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.Util;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.ServerLevel;
@@ -22,9 +47,15 @@ import net.minecraft.resources.ResourceLocation;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 
+import com.freemarket.Config;
 import com.freemarket.FreeMarket;
 import com.freemarket.common.attachments.ItemComponentHandler;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Marketplace-related commands for the FreeMarket mod.
@@ -32,8 +63,8 @@ import java.util.List;
  * 
  * <p>Command Structure:</p>
  * <ul>
- *   <li>Player Commands: help, balance, pay</li>
- *   <li>Admin Commands: adminmode, itemdata, list (hand/item), balance management</li>
+ *   <li>Player Commands: help, balance, pay, baltop, order (buy/sell/cancel/list/book), auction (create/bid/list)</li>
+ *   <li>Admin Commands: adminmode, itemdata, list (hand/item), balance management, audit, stats (item/category), economy, schedule (restock/expire/clear/show)</li>
  * </ul>
  * 
  * <p>Available Command Aliases:</p>
@@ -60,6 +91,30 @@ public class FreeMarketCommands {
     private static final String ARG_SELL_PRICE = "sellPrice";
     private static final String ARG_QUANTITY = "quantity";
     private static final String ARG_ENABLED = "enabled";
+    private static final String ARG_SINCE = "since";
+    private static final String ARG_PAGE = "page";
+    private static final String ARG_PRICE = "price";
+    private static final String ARG_ORDER_ID = "orderId";
+    private static final String ARG_STARTING_BID = "startingBid";
+    private static final String ARG_MINUTES = "minutes";
+    private static final String ARG_BUYOUT = "buyout";
+    private static final String ARG_AUCTION_ID = "auctionId";
+    private static final String ARG_ID = "id";
+    private static final String ARG_CATEGORY = "category";
+    private static final String ARG_LISTING = "listing";
+    private static final String ARG_CAP = "cap";
+    private static final String ARG_LOT_SIZE = "lotSize";
+    
+    // Maximum ledger entries shown by the audit command
+    private static final int AUDIT_MAX_ENTRIES = 20;
+    private static final DateTimeFormatter AUDIT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+    
+    // Price levels shown per side by the order book command
+    private static final int ORDER_BOOK_DEPTH = 5;
+    
+    // Auctions shown by the auction list command
+    private static final int AUCTION_LIST_SIZE = 10;
 
     @SubscribeEvent
     public static void onRegisterCommands(net.neoforged.neoforge.event.RegisterCommandsEvent event) {
@@ -88,9 +143,17 @@ public class FreeMarketCommands {
             .then(buildHelpCommand())
             .then(buildBalanceCommands())
             .then(buildPayCommand())
+            .then(buildBaltopCommand())
             .then(buildAdminModeCommand())
             .then(buildItemDataCommand())
-            .then(buildListCommand()));
+            .then(buildListCommand())
+            .then(buildAuditCommand())
+            .then(buildOrderCommand())
+            .then(buildAuctionCommand())
+            .then(buildPlayerListingCommand())
+            .then(buildStatsCommand())
+            .then(buildEconomyCommand())
+            .then(buildScheduleCommand()));
     }
     
     /**
@@ -137,6 +200,18 @@ public class FreeMarketCommands {
                     .executes(FreeMarketCommands::payPlayer)));
     }
     
+    /**
+     * Builds the balance leaderboard command.
+     * 
+     * @return Command builder for baltop command
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildBaltopCommand() {
+        return Commands.literal("baltop")
+            .executes(context -> showBaltop(context, 1))
+            .then(Commands.argument(ARG_PAGE, IntegerArgumentType.integer(1))
+                .executes(context -> showBaltop(context, IntegerArgumentType.getInteger(context, ARG_PAGE))));
+    }
+    
     /**
      * Builds admin mode commands.
      * 
@@ -180,7 +255,142 @@ public class FreeMarketCommands {
                             .then(Commands.argument(ARG_QUANTITY, IntegerArgumentType.integer(1))
                                 .executes(FreeMarketCommands::addItemToMarketplace))))));
     }
-    
+        
+    /**
+     * Builds the audit command for reading a player's ledger entries.
+     * 
+     * @return Command builder for audit command
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildAuditCommand() {
+        return Commands.literal("audit")
+            .requires(source -> source.hasPermission(ADMIN_PERMISSION_LEVEL))
+            .then(Commands.argument(ARG_PLAYER, StringArgumentType.word())
+                .executes(context -> auditPlayer(context, false))
+                .then(Commands.argument(ARG_SINCE, StringArgumentType.word())
+                    .executes(context -> auditPlayer(context, true))));
+    }
+
+    /**
+     * Builds the player order commands. Buy and sell orders trade the item held in the main hand.
+     * 
+     * @return Command builder for order commands
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildOrderCommand() {
+        return Commands.literal("order")
+            .then(Commands.literal("buy")
+                .then(Commands.argument(ARG_PRICE, LongArgumentType.longArg(1))
+                    .then(Commands.argument(ARG_QUANTITY, IntegerArgumentType.integer(1))
+                        .executes(context -> placeOrder(context, OrderSide.BUY)))))
+            .then(Commands.literal("sell")
+                .then(Commands.argument(ARG_PRICE, LongArgumentType.longArg(1))
+                    .then(Commands.argument(ARG_QUANTITY, IntegerArgumentType.integer(1))
+                        .executes(context -> placeOrder(context, OrderSide.SELL)))))
+            .then(Commands.literal("cancel")
+                .then(Commands.argument(ARG_ORDER_ID, LongArgumentType.longArg(1))
+                    .executes(FreeMarketCommands::cancelOrder)))
+            .then(Commands.literal("list")
+                .executes(FreeMarketCommands::listOrders))
+            .then(Commands.literal("book")
+                .executes(FreeMarketCommands::showOrderBook));
+    }
+
+    /**
+     * Builds the auction commands. Auctions sell the stack held in the main hand.
+     * 
+     * @return Command builder for auction commands
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildAuctionCommand() {
+        return Commands.literal("auction")
+            .then(Commands.literal("create")
+                .then(Commands.argument(ARG_STARTING_BID, LongArgumentType.longArg(1))
+                    .then(Commands.argument(ARG_MINUTES, IntegerArgumentType.integer(1))
+                        .executes(context -> createAuction(context, false))
+                        .then(Commands.argument(ARG_BUYOUT, LongArgumentType.longArg(1))
+                            .executes(context -> createAuction(context, true))))))
+            .then(Commands.literal("bid")
+                .then(Commands.argument(ARG_AUCTION_ID, LongArgumentType.longArg(1))
+                    .then(Commands.argument(ARG_AMOUNT, LongArgumentType.longArg(1))
+                        .executes(FreeMarketCommands::bidOnAuction))))
+            .then(Commands.literal("list")
+                .executes(FreeMarketCommands::listAuctions));
+    }
+
+    /**
+     * Builds the player listing commands. Players list the lots in their main hand.
+     * 
+     * @return Command builder for player listing commands
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildPlayerListingCommand() {
+        return Commands.literal("listing")
+            .then(Commands.literal("create")
+                .then(Commands.argument(ARG_PRICE, LongArgumentType.longArg(1))
+                    .then(Commands.argument(ARG_LOT_SIZE, IntegerArgumentType.integer(1, 64))
+                        .executes(FreeMarketCommands::createPlayerListing))))
+            .then(Commands.literal("cancel")
+                .then(Commands.argument(ARG_LISTING, StringArgumentType.word())
+                    .executes(FreeMarketCommands::cancelPlayerListing)))
+            .then(Commands.literal("mine")
+                .executes(FreeMarketCommands::listPlayerListings));
+    }
+
+    /**
+     * Builds the market analytics commands.
+     * 
+     * @return Command builder for stats commands
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildStatsCommand() {
+        return Commands.literal("stats")
+            .requires(source -> source.hasPermission(ADMIN_PERMISSION_LEVEL))
+            .then(Commands.literal("item")
+                .then(Commands.argument(ARG_ID, StringArgumentType.greedyString())
+                    .executes(FreeMarketCommands::showItemStats)))
+            .then(Commands.literal("category")
+                .then(Commands.argument(ARG_CATEGORY, StringArgumentType.word())
+                    .suggests((context, builder) -> {
+                        for (ItemCategoryManager.Category category : ItemCategoryManager.getAllCategories()) {
+                            builder.suggest(category.name().toLowerCase(java.util.Locale.ROOT));
+                        }
+                        return builder.buildFuture();
+                    })
+                    .executes(FreeMarketCommands::showCategoryStats)));
+    }
+
+    /**
+     * Builds the economy health command.
+     * 
+     * @return Command builder for economy command
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildEconomyCommand() {
+        return Commands.literal("economy")
+            .requires(source -> source.hasPermission(ADMIN_PERMISSION_LEVEL))
+            .executes(FreeMarketCommands::showEconomy);
+    }
+
+    /**
+     * Builds the listing schedule commands for restock rules and expiry dates.
+     * 
+     * @return Command builder for schedule commands
+     */
+    private static com.mojang.brigadier.builder.LiteralArgumentBuilder<CommandSourceStack> buildScheduleCommand() {
+        return Commands.literal("schedule")
+            .requires(source -> source.hasPermission(ADMIN_PERMISSION_LEVEL))
+            .then(Commands.literal("restock")
+                .then(Commands.argument(ARG_LISTING, StringArgumentType.word())
+                    .then(Commands.argument(ARG_AMOUNT, IntegerArgumentType.integer(1))
+                        .then(Commands.argument(ARG_MINUTES, IntegerArgumentType.integer(1))
+                            .then(Commands.argument(ARG_CAP, IntegerArgumentType.integer(1))
+                                .executes(FreeMarketCommands::setListingRestock))))))
+            .then(Commands.literal("expire")
+                .then(Commands.argument(ARG_LISTING, StringArgumentType.word())
+                    .then(Commands.argument(ARG_MINUTES, IntegerArgumentType.integer(1))
+                        .executes(FreeMarketCommands::setListingExpiry))))
+            .then(Commands.literal("clear")
+                .then(Commands.argument(ARG_LISTING, StringArgumentType.word())
+                    .executes(FreeMarketCommands::clearListingSchedule)))
+            .then(Commands.literal("show")
+                .then(Commands.argument(ARG_LISTING, StringArgumentType.word())
+                    .executes(FreeMarketCommands::showListingSchedule)));
+    }
 
     // ============================================================================
     // COMMAND EXECUTION METHODS
@@ -226,11 +436,11 @@ public class FreeMarketCommands {
         String playerName = StringArgumentType.getString(context, "player");
         CommandSourceStack source = context.getSource();
 
-        ServerPlayer player = findPlayer(source, playerName);
+        UUID playerId = findPlayerId(source, playerName);
         
-        if (player != null) {
-            // Player found - get balance from NBT
-            long balance = ServerWalletHandler.getPlayerMoney(player);
+        if (playerId != null) {
+            // Player found - read from the wallet registry (works for offline players)
+            long balance = ServerWalletHandler.getMoney(source.getServer(), playerId);
             Component message = Component.translatable("command.FreeMarket.economy.balance", 
                 playerName, balance);
             source.sendSuccess(() -> message, false);
@@ -259,21 +469,23 @@ public class FreeMarketCommands {
         long amount = LongArgumentType.getLong(context, "amount");
         CommandSourceStack source = context.getSource();
 
-        ServerPlayer player = findPlayer(source, playerName);
+        UUID playerId = findPlayerId(source, playerName);
         
-        if (player != null) {
-            // Player found - update NBT data
-            ServerWalletHandler.addMoney(player, amount);
-            long newBalance = ServerWalletHandler.getPlayerMoney(player);
+        if (playerId != null) {
+            // Player found - update the wallet registry (works for offline players)
+            long newBalance = ServerWalletHandler.addMoney(source.getServer(), playerId, amount, LedgerReason.ADMIN_ADD, null);
             
             Component message = Component.translatable("command.FreeMarket.economy.add.success", 
                 amount, playerName, newBalance);
             source.sendSuccess(() -> message, false);
             
-            // Notify the player
-            Component playerMessage = Component.translatable("command.FreeMarket.economy.add.notify", 
-                amount, newBalance);
-            player.sendSystemMessage(playerMessage);
+            // Notify the player if online
+            ServerPlayer player = source.getServer().getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                Component playerMessage = Component.translatable("command.FreeMarket.economy.add.notify", 
+                    amount, newBalance);
+                player.sendSystemMessage(playerMessage);
+            }
         } else {
             // Player not found
             Component message = Component.translatable("command.FreeMarket.economy.player_not_found", 
@@ -299,25 +511,28 @@ public class FreeMarketCommands {
         long amount = LongArgumentType.getLong(context, "amount");
         CommandSourceStack source = context.getSource();
 
-        ServerPlayer player = findPlayer(source, playerName);
+        UUID playerId = findPlayerId(source, playerName);
         
-        if (player != null) {
-            // Player found - update NBT data
-            boolean success = ServerWalletHandler.removeMoney(player, amount);
+        if (playerId != null) {
+            // Player found - update the wallet registry (works for offline players)
+            boolean success = ServerWalletHandler.removeMoney(source.getServer(), playerId, amount, LedgerReason.ADMIN_REMOVE, null);
             
             if (success) {
-                long newBalance = ServerWalletHandler.getPlayerMoney(player);
+                long newBalance = ServerWalletHandler.getMoney(source.getServer(), playerId);
                 
                 Component message = Component.translatable("command.FreeMarket.economy.remove.success", 
                     amount, playerName, newBalance);
                 source.sendSuccess(() -> message, false);
                 
-                // Notify the player
-                Component playerMessage = Component.translatable("command.FreeMarket.economy.remove.notify", 
-                    amount, newBalance);
-                player.sendSystemMessage(playerMessage);
+                // Notify the player if online
+                ServerPlayer player = source.getServer().getPlayerList().getPlayer(playerId);
+                if (player != null) {
+                    Component playerMessage = Component.translatable("command.FreeMarket.economy.remove.notify", 
+                        amount, newBalance);
+                    player.sendSystemMessage(playerMessage);
+                }
             } else {
-                long currentBalance = ServerWalletHandler.getPlayerMoney(player);
+                long currentBalance = ServerWalletHandler.getMoney(source.getServer(), playerId);
                 
                 Component message = Component.translatable("command.FreeMarket.economy.remove.insufficient", 
                     amount, playerName, currentBalance);
@@ -348,21 +563,24 @@ public class FreeMarketCommands {
         long amount = LongArgumentType.getLong(context, "amount");
         CommandSourceStack source = context.getSource();
 
-        ServerPlayer player = findPlayer(source, playerName);
+        UUID playerId = findPlayerId(source, playerName);
         
-        if (player != null) {
-            // Player found - update NBT data
-            long oldBalance = ServerWalletHandler.getPlayerMoney(player);
-            ServerWalletHandler.setPlayerMoney(player, amount);
+        if (playerId != null) {
+            // Player found - update the wallet registry (works for offline players)
+            long oldBalance = ServerWalletHandler.getMoney(source.getServer(), playerId);
+            ServerWalletHandler.setMoney(source.getServer(), playerId, amount, LedgerReason.ADMIN_SET);
             
             Component message = Component.translatable("command.FreeMarket.economy.set.success", 
                 playerName, oldBalance, amount);
             source.sendSuccess(() -> message, false);
             
-            // Notify the player
-            Component playerMessage = Component.translatable("command.FreeMarket.economy.set.notify", 
-                amount);
-            player.sendSystemMessage(playerMessage);
+            // Notify the player if online
+            ServerPlayer player = source.getServer().getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                Component playerMessage = Component.translatable("command.FreeMarket.economy.set.notify", 
+                    amount);
+                player.sendSystemMessage(playerMessage);
+            }
         } else {
             // Player not found
             Component message = Component.translatable("command.FreeMarket.economy.player_not_found", 
@@ -373,10 +591,766 @@ public class FreeMarketCommands {
         return 1;
     }
     
+    /**
+     * Shows a page of the balance leaderboard and, for players, their own rank.
+     * 
+     * <p>Usage: /freemarket baltop [page]</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @param pageNumber The 1-based page to show
+     * @return 1 if successful
+     */
+    private static int showBaltop(CommandContext<CommandSourceStack> context, int pageNumber) {
+        CommandSourceStack source = context.getSource();
+        ServerLeaderboardHandler.Page page = ServerLeaderboardHandler.getPage(source.getServer(), pageNumber - 1);
+        
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.baltop.header", 
+            page.page() + 1, page.totalPages()), false);
+        
+        for (int i = 0; i < page.names().size(); i++) {
+            Component line = Component.translatable("command.FreeMarket.baltop.entry", 
+                page.rankAt(i), page.names().get(i), page.balances().get(i));
+            source.sendSuccess(() -> line, false);
+        }
+        
+        if (source.getEntity() instanceof ServerPlayer player) {
+            int rank = ServerLeaderboardHandler.getRank(player);
+            if (rank > 0) {
+                long balance = ServerWalletHandler.getPlayerMoney(player);
+                source.sendSuccess(() -> Component.translatable("command.FreeMarket.baltop.own_rank", rank, balance), false);
+            }
+        }
+        
+        return 1;
+    }
+    
+    /**
+     * Shows the most recent ledger entries for a player, optionally limited to a time window.
+     * The ledger is read on the IO pool and the results are sent back on the server thread.
+     * 
+     * <p>Usage: /freemarket audit &lt;player&gt; [since]</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @param hasSince Whether the since argument was given
+     * @return 1 if the audit was started, 0 if the arguments are invalid
+     */
+    private static int auditPlayer(CommandContext<CommandSourceStack> context, boolean hasSince) {
+        String playerName = StringArgumentType.getString(context, ARG_PLAYER);
+        CommandSourceStack source = context.getSource();
+        
+        long since = 0;
+        if (hasSince) {
+            String sinceArg = StringArgumentType.getString(context, ARG_SINCE);
+            since = parseSince(sinceArg);
+            if (since < 0) {
+                source.sendFailure(Component.translatable("command.FreeMarket.audit.invalid_since", sinceArg));
+                return 0;
+            }
+        }
+        
+        UUID playerId = findPlayerId(source, playerName);
+        if (playerId == null) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.player_not_found", playerName));
+            return 0;
+        }
+        
+        final long sinceMillis = since;
+        CompletableFuture.supplyAsync(() -> TransactionLedger.query(playerId, sinceMillis, AUDIT_MAX_ENTRIES), Util.ioPool())
+            .thenAcceptAsync(entries -> {
+                if (entries.isEmpty()) {
+                    source.sendSuccess(() -> Component.translatable("command.FreeMarket.audit.empty", playerName), false);
+                    return;
+                }
+                
+                source.sendSuccess(() -> Component.translatable("command.FreeMarket.audit.header", playerName, entries.size()), false);
+                for (LedgerEntry entry : entries) {
+                    String delta = entry.delta() >= 0 ? "§a+" + entry.delta() + "§r" : "§c" + entry.delta() + "§r";
+                    String listing = entry.listingGuid() != null ? "§8" + entry.listingGuid() + "§r" : "";
+                    Component line = Component.translatable("command.FreeMarket.audit.entry",
+                        AUDIT_TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestamp())),
+                        entry.reason().name(), delta, entry.balanceAfter(), listing);
+                    source.sendSuccess(() -> line, false);
+                }
+            }, source.getServer());
+        
+        return 1;
+    }
+    
+    /**
+     * Places a buy or sell order for the item held in the player's main hand.
+     * Buy orders take the full cost as escrow, sell orders take the items.
+     * 
+     * <p>Usage: /freemarket order buy|sell &lt;price&gt; &lt;quantity&gt;</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @param side Whether this is a buy or a sell order
+     * @return 1 if the order was placed, 0 otherwise
+     */
+    private static int placeOrder(CommandContext<CommandSourceStack> context, OrderSide side) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        ItemStack heldItem = player.getMainHandItem();
+        if (heldItem.isEmpty()) {
+            source.sendFailure(Component.translatable("command.FreeMarket.order.empty_hand"));
+            return 0;
+        }
+        
+        long price = LongArgumentType.getLong(context, ARG_PRICE);
+        int quantity = IntegerArgumentType.getInteger(context, ARG_QUANTITY);
+        ItemStack template = heldItem.copyWithCount(1);
+        String itemName = template.getHoverName().getString();
+        
+        Order order;
+        if (side == OrderSide.BUY) {
+            if (price > Long.MAX_VALUE / quantity) {
+                source.sendFailure(Component.translatable("command.FreeMarket.order.too_expensive"));
+                return 0;
+            }
+            order = OrderMatchingEngine.placeBuyOrder(player, template, price, quantity);
+            if (order == null) {
+                source.sendFailure(Component.translatable("command.FreeMarket.order.insufficient_funds", price * quantity));
+                return 0;
+            }
+        } else {
+            order = OrderMatchingEngine.placeSellOrder(player, template, price, quantity);
+            if (order == null) {
+                source.sendFailure(Component.translatable("command.FreeMarket.order.insufficient_items", quantity, itemName));
+                return 0;
+            }
+        }
+        
+        Component message = Component.translatable(side == OrderSide.BUY ? "command.FreeMarket.order.buy_placed" : "command.FreeMarket.order.sell_placed",
+            order.getId(), quantity, itemName, price);
+        source.sendSuccess(() -> message, false);
+        return 1;
+    }
+    
+    /**
+     * Cancels one of the player's resting orders and returns the remaining escrow.
+     * 
+     * <p>Usage: /freemarket order cancel &lt;orderId&gt;</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if the order was cancelled, 0 otherwise
+     */
+    private static int cancelOrder(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        long orderId = LongArgumentType.getLong(context, ARG_ORDER_ID);
+        Order order = OrderMatchingEngine.cancelOrder(player, orderId);
+        if (order == null) {
+            source.sendFailure(Component.translatable("command.FreeMarket.order.not_found", orderId));
+            return 0;
+        }
+        
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.cancelled", orderId, order.getRemaining()), false);
+        return 1;
+    }
+    
+    /**
+     * Lists the player's resting orders, oldest first.
+     * 
+     * <p>Usage: /freemarket order list</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if not run by a player
+     */
+    private static int listOrders(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        OrderBookStore store = OrderBookStore.get(source.getServer());
+        List<Order> orders = store.getOrdersOf(player.getUUID());
+        if (orders.isEmpty()) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.list.empty"), false);
+            return 1;
+        }
+        
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.list.header", orders.size()), false);
+        for (Order order : orders) {
+            Component line = Component.translatable("command.FreeMarket.order.list.entry",
+                order.getId(), order.getSide().name(), order.getRemaining(), order.getQuantity(),
+                store.getTemplate(order).getHoverName().getString(), order.getPrice());
+            source.sendSuccess(() -> line, false);
+        }
+        return 1;
+    }
+    
+    /**
+     * Shows the best bid and ask levels of the order book for the held item.
+     * 
+     * <p>Usage: /freemarket order book</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if not run by a player holding an item
+     */
+    private static int showOrderBook(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        ItemStack heldItem = player.getMainHandItem();
+        if (heldItem.isEmpty()) {
+            source.sendFailure(Component.translatable("command.FreeMarket.order.empty_hand"));
+            return 0;
+        }
+        
+        String itemName = heldItem.getHoverName().getString();
+        OrderBook book = OrderBookStore.get(source.getServer()).getBook(heldItem);
+        if (book == null) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.book.empty", itemName), false);
+            return 1;
+        }
+        
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.book.header", itemName), false);
+        List<OrderBook.Level> asks = book.depth(OrderSide.SELL, ORDER_BOOK_DEPTH);
+        // Asks from highest to lowest so the spread sits in the middle
+        for (int i = asks.size() - 1; i >= 0; i--) {
+            OrderBook.Level level = asks.get(i);
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.book.ask", level.price(), level.quantity(), level.orders()), false);
+        }
+        for (OrderBook.Level level : book.depth(OrderSide.BUY, ORDER_BOOK_DEPTH)) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.order.book.bid", level.price(), level.quantity(), level.orders()), false);
+        }
+        return 1;
+    }
+    
+    /**
+     * Starts an auction for the stack held in the player's main hand.
+     * 
+     * <p>Usage: /freemarket auction create &lt;startingBid&gt; &lt;minutes&gt; [buyout]</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @param hasBuyout Whether the buyout argument was given
+     * @return 1 if the auction was created, 0 otherwise
+     */
+    private static int createAuction(CommandContext<CommandSourceStack> context, boolean hasBuyout) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        long startingBid = LongArgumentType.getLong(context, ARG_STARTING_BID);
+        int minutes = IntegerArgumentType.getInteger(context, ARG_MINUTES);
+        long buyout = hasBuyout ? LongArgumentType.getLong(context, ARG_BUYOUT) : 0;
+        
+        int maxMinutes = Config.AUCTION_MAX_DURATION_MINUTES.get();
+        if (minutes > maxMinutes) {
+            source.sendFailure(Component.translatable("command.FreeMarket.auction.too_long", maxMinutes));
+            return 0;
+        }
+        if (hasBuyout && buyout < startingBid) {
+            source.sendFailure(Component.translatable("command.FreeMarket.auction.buyout_too_low"));
+            return 0;
+        }
+        
+        Auction auction = AuctionHouse.createAuction(player, startingBid, buyout, minutes);
+        if (auction == null) {
+            source.sendFailure(Component.translatable("command.FreeMarket.order.empty_hand"));
+            return 0;
+        }
+        
+        Component message = Component.translatable("command.FreeMarket.auction.created", auction.getId(),
+            auction.getItem().getCount(), auction.getItem().getHoverName().getString(), startingBid, minutes);
+        source.sendSuccess(() -> message, false);
+        return 1;
+    }
+    
+    /**
+     * Bids on an auction. The bid is held from the player's wallet until they are outbid.
+     * 
+     * <p>Usage: /freemarket auction bid &lt;auctionId&gt; &lt;amount&gt;</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if the bid was accepted, 0 otherwise
+     */
+    private static int bidOnAuction(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        long auctionId = LongArgumentType.getLong(context, ARG_AUCTION_ID);
+        long amount = LongArgumentType.getLong(context, ARG_AMOUNT);
+        Auction auction = AuctionStore.get(source.getServer()).get(auctionId);
+        
+        AuctionHouse.BidResult result = AuctionHouse.placeBid(player, auctionId, amount);
+        switch (result) {
+            case ACCEPTED -> source.sendSuccess(() -> Component.translatable("command.FreeMarket.auction.bid_accepted", auctionId, auction.getHighestBid()), false);
+            case BOUGHT_OUT -> source.sendSuccess(() -> Component.translatable("command.FreeMarket.auction.bought_out", auctionId, auction.getHighestBid()), false);
+            case NOT_FOUND -> source.sendFailure(Component.translatable("command.FreeMarket.auction.not_found", auctionId));
+            case OWN_AUCTION -> source.sendFailure(Component.translatable("command.FreeMarket.auction.own_auction"));
+            case TOO_LOW -> source.sendFailure(Component.translatable("command.FreeMarket.auction.bid_too_low", AuctionHouse.getMinimumBid(auction)));
+            case INSUFFICIENT_FUNDS -> source.sendFailure(Component.translatable("command.FreeMarket.auction.insufficient_funds", amount));
+        }
+        return result == AuctionHouse.BidResult.ACCEPTED || result == AuctionHouse.BidResult.BOUGHT_OUT ? 1 : 0;
+    }
+    
+    /**
+     * Lists the open auctions that end soonest.
+     * 
+     * <p>Usage: /freemarket auction list</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful
+     */
+    private static int listAuctions(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        AuctionStore store = AuctionStore.get(source.getServer());
+        
+        List<Auction> auctions = store.getEndingSoonest(AUCTION_LIST_SIZE);
+        if (auctions.isEmpty()) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.auction.list.empty"), false);
+            return 1;
+        }
+        
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.auction.list.header", store.size()), false);
+        long now = System.currentTimeMillis();
+        for (Auction auction : auctions) {
+            long minutesLeft = Math.max(0, (auction.getEndTime() - now) / 60_000);
+            Component line = Component.translatable("command.FreeMarket.auction.list.entry",
+                auction.getId(), auction.getItem().getCount(), auction.getItem().getHoverName().getString(),
+                auction.hasBids() ? auction.getHighestBid() : auction.getStartingBid(),
+                auction.hasBuyout() ? String.valueOf(auction.getBuyout()) : "-", minutesLeft);
+            source.sendSuccess(() -> line, false);
+        }
+        return 1;
+    }
+    
+    /**
+     * Lists the lots in the player's main hand on the marketplace. Buyers pay the player.
+     * 
+     * <p>Usage: /freemarket listing create &lt;price&gt; &lt;lotSize&gt;</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if the listing was created, 0 otherwise
+     */
+    private static int createPlayerListing(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        long price = LongArgumentType.getLong(context, ARG_PRICE);
+        int lotSize = IntegerArgumentType.getInteger(context, ARG_LOT_SIZE);
+        int maxListings = Config.PLAYER_LISTING_MAX_PER_PLAYER.get();
+        String itemName = player.getMainHandItem().getHoverName().getString();
+        int stock = player.getMainHandItem().getCount() - player.getMainHandItem().getCount() % lotSize;
+        
+        switch (PlayerListings.createListing(player, price, lotSize, maxListings)) {
+            case CREATED -> {
+                source.sendSuccess(() -> Component.translatable("command.FreeMarket.listing.created", stock, itemName, lotSize, price), false);
+                return 1;
+            }
+            case EMPTY_HAND -> source.sendFailure(Component.translatable("command.FreeMarket.order.empty_hand"));
+            case LOT_TOO_LARGE -> source.sendFailure(Component.translatable("command.FreeMarket.listing.lot_too_large", lotSize));
+            case TOO_MANY_LISTINGS -> source.sendFailure(Component.translatable("command.FreeMarket.listing.too_many", maxListings));
+        }
+        return 0;
+    }
+    
+    /**
+     * Cancels one of the player's listings. The unsold items are returned.
+     * 
+     * <p>Usage: /freemarket listing cancel &lt;listing&gt;</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if the listing was cancelled, 0 otherwise
+     */
+    private static int cancelPlayerListing(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        String guid = StringArgumentType.getString(context, ARG_LISTING);
+        FreeMarketItem listing = PlayerListings.cancelListing(player, guid);
+        if (listing == null) {
+            source.sendFailure(Component.translatable("command.FreeMarket.listing.not_found", guid));
+            return 0;
+        }
+        
+        String itemName = listing.getItemStack().getHoverName().getString();
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.listing.cancelled", itemName), false);
+        return 1;
+    }
+    
+    /**
+     * Lists the player's own marketplace listings with their remaining stock.
+     * 
+     * <p>Usage: /freemarket listing mine</p>
+     * <p>Permission: None (available to all players)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful
+     */
+    private static int listPlayerListings(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        
+        if (!(source.getEntity() instanceof ServerPlayer player)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.economy.not_player"));
+            return 0;
+        }
+        
+        List<FreeMarketItem> listings = PlayerListings.getListings(source.getServer(), player.getUUID());
+        if (listings.isEmpty()) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.listing.mine.empty"), false);
+            return 1;
+        }
+        
+        ListingScheduleStore schedules = ListingScheduleStore.get(source.getServer());
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.listing.mine.header", listings.size()), false);
+        for (FreeMarketItem listing : listings) {
+            ListingSchedule schedule = schedules.get(listing.getGuid());
+            int stock = schedule == null ? 0 : schedule.getStock();
+            Component line = Component.translatable("command.FreeMarket.listing.mine.entry",
+                listing.getItemStack().getHoverName().getString(), listing.getQuantity(), listing.getBuyPrice(),
+                stock, listing.getGuid());
+            source.sendSuccess(() -> line, false);
+        }
+        return 1;
+    }
+    
+    /**
+     * Shows trade analytics for one listing, or for every listing of an item combined.
+     * 
+     * <p>Usage: /freemarket stats item &lt;listing guid | item id&gt;</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if the id is neither a listing nor an item
+     */
+    private static int showItemStats(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        String id = StringArgumentType.getString(context, ARG_ID).trim();
+        
+        FreeMarketItem listing = MarketCatalog.get(source.getServer()).find(id);
+        if (listing != null) {
+            sendStats(source, listing.getItemStack().getHoverName().getString(), MarketAnalytics.getListingStats(id));
+            return 1;
+        }
+        
+        ResourceLocation itemId = ResourceLocation.tryParse(id);
+        if (itemId == null || !BuiltInRegistries.ITEM.containsKey(itemId)) {
+            source.sendFailure(Component.translatable("command.FreeMarket.stats.unknown_item", id));
+            return 0;
+        }
+        sendStats(source, itemId.toString(), MarketAnalytics.getItemStats(itemId));
+        return 1;
+    }
+    
+    /**
+     * Shows trade analytics for a marketplace category; "all" covers every category.
+     * 
+     * <p>Usage: /freemarket stats category &lt;category&gt;</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if the category does not exist
+     */
+    private static int showCategoryStats(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        String name = StringArgumentType.getString(context, ARG_CATEGORY);
+        
+        ItemCategoryManager.Category category;
+        try {
+            category = ItemCategoryManager.Category.valueOf(name.toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            source.sendFailure(Component.translatable("command.FreeMarket.stats.unknown_category", name));
+            return 0;
+        }
+        sendStats(source, category.getDisplayName(), MarketAnalytics.getCategoryStats(category));
+        return 1;
+    }
+    
+    /**
+     * Shows the money supply, where money entered and left wallets, and how fast it circulates.
+     * Reads running counters, so it costs the same however many players there are.
+     * 
+     * <p>Usage: /freemarket economy</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful
+     */
+    private static int showEconomy(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        WalletRegistry registry = WalletRegistry.get(source.getServer());
+        EconomyCounters economy = registry.getEconomy();
+        
+        long supply = economy.getSupply();
+        int wallets = registry.size();
+        long turnover = economy.getDailyTurnover();
+        String velocity = String.format(java.util.Locale.ROOT, "%.3f", economy.getDailyVelocity());
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.economy.summary.header", supply, wallets), false);
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.economy.summary.velocity", turnover, velocity), false);
+        for (EconomySource economySource : EconomySource.values()) {
+            long minted = economy.getMinted(economySource);
+            long burned = economy.getBurned(economySource);
+            if (minted == 0 && burned == 0) {
+                continue;
+            }
+            String name = economySource.name().toLowerCase(java.util.Locale.ROOT);
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.economy.summary.source", name, minted, burned, minted - burned), false);
+        }
+        return 1;
+    }
+    
+    /**
+     * Gives a listing limited stock that starts full and is restocked on a fixed interval up to a cap.
+     * 
+     * <p>Usage: /freemarket schedule restock &lt;listing&gt; &lt;amount&gt; &lt;minutes&gt; &lt;cap&gt;</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if the listing does not exist
+     */
+    private static int setListingRestock(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        FreeMarketItem listing = findListing(source, StringArgumentType.getString(context, ARG_LISTING));
+        if (listing == null) {
+            return 0;
+        }
+        
+        if (SellerRegistry.get(source.getServer()).getOwner(listing.getGuid()) != null) {
+            source.sendFailure(Component.translatable("command.FreeMarket.schedule.player_listing"));
+            return 0;
+        }
+        
+        int amount = IntegerArgumentType.getInteger(context, ARG_AMOUNT);
+        int minutes = IntegerArgumentType.getInteger(context, ARG_MINUTES);
+        int cap = IntegerArgumentType.getInteger(context, ARG_CAP);
+        ListingScheduleStore.get(source.getServer()).setRestock(listing.getGuid(), amount, minutes * 60_000L, cap, System.currentTimeMillis());
+        ListingScheduler.markChanged(listing.getGuid());
+        
+        String itemName = listing.getItemStack().getHoverName().getString();
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.restock.success", itemName, amount, minutes, cap), true);
+        return 1;
+    }
+    
+    /**
+     * Makes a listing expire, removing it from the marketplace, after the given number of minutes.
+     * 
+     * <p>Usage: /freemarket schedule expire &lt;listing&gt; &lt;minutes&gt;</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if the listing does not exist
+     */
+    private static int setListingExpiry(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        FreeMarketItem listing = findListing(source, StringArgumentType.getString(context, ARG_LISTING));
+        if (listing == null) {
+            return 0;
+        }
+        
+        int minutes = IntegerArgumentType.getInteger(context, ARG_MINUTES);
+        ListingScheduleStore.get(source.getServer()).setExpiry(listing.getGuid(), System.currentTimeMillis() + minutes * 60_000L);
+        
+        String itemName = listing.getItemStack().getHoverName().getString();
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.expire.success", itemName, minutes), true);
+        return 1;
+    }
+    
+    /**
+     * Removes a listing's restock rule and expiry, giving it unlimited stock again.
+     * 
+     * <p>Usage: /freemarket schedule clear &lt;listing&gt;</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if the listing does not exist
+     */
+    private static int clearListingSchedule(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        FreeMarketItem listing = findListing(source, StringArgumentType.getString(context, ARG_LISTING));
+        if (listing == null) {
+            return 0;
+        }
+        
+        ListingScheduleStore store = ListingScheduleStore.get(source.getServer());
+        if (SellerRegistry.get(source.getServer()).getOwner(listing.getGuid()) != null) {
+            // Player listings keep their stock; only the expiry can be removed
+            store.clearExpiry(listing.getGuid());
+            String itemName = listing.getItemStack().getHoverName().getString();
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.clear.player_listing", itemName), true);
+            return 1;
+        }
+        store.clearRestock(listing.getGuid());
+        store.clearExpiry(listing.getGuid());
+        ListingScheduler.markChanged(listing.getGuid());
+        
+        String itemName = listing.getItemStack().getHoverName().getString();
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.clear.success", itemName), true);
+        return 1;
+    }
+    
+    /**
+     * Shows a listing's stock, restock rule and expiry.
+     * 
+     * <p>Usage: /freemarket schedule show &lt;listing&gt;</p>
+     * <p>Permission: OP Level 2 (admin only)</p>
+     * 
+     * @param context The command context containing the source and arguments
+     * @return 1 if successful, 0 if the listing does not exist
+     */
+    private static int showListingSchedule(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        FreeMarketItem listing = findListing(source, StringArgumentType.getString(context, ARG_LISTING));
+        if (listing == null) {
+            return 0;
+        }
+        
+        String itemName = listing.getItemStack().getHoverName().getString();
+        ListingSchedule schedule = ListingScheduleStore.get(source.getServer()).get(listing.getGuid());
+        if (schedule == null) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.show.none", itemName), false);
+            return 1;
+        }
+        
+        long now = System.currentTimeMillis();
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.show.header", itemName), false);
+        if (schedule.hasRestock()) {
+            long minutesToRestock = Math.max(0, (schedule.getNextRestockAt() - now) / 60_000);
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.show.restock",
+                schedule.getStock(), schedule.getRestockAmount(), schedule.getRestockIntervalMillis() / 60_000,
+                schedule.getRestockCap(), minutesToRestock), false);
+        } else if (schedule.hasLimitedStock()) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.show.stock", schedule.getStock()), false);
+        }
+        if (schedule.hasExpiry()) {
+            String expiresAt = AUDIT_TIME_FORMAT.format(Instant.ofEpochMilli(schedule.getExpiresAt()));
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.schedule.show.expiry", expiresAt), false);
+        }
+        return 1;
+    }
+    
     // ============================================================================
     // HELPER METHODS
     // ============================================================================
     
+    /**
+     * Looks up a marketplace listing by GUID, sending a failure message if there is none.
+     * 
+     * @return The listing, or null if it does not exist
+     */
+    private static FreeMarketItem findListing(CommandSourceStack source, String guid) {
+        FreeMarketItem listing = MarketCatalog.get(source.getServer()).find(guid);
+        if (listing == null) {
+            source.sendFailure(Component.translatable("command.FreeMarket.schedule.unknown_listing", guid));
+        }
+        return listing;
+    }
+    
+    /**
+     * Sends a stats summary, or a "no trades" line when there is none.
+     */
+    private static void sendStats(CommandSourceStack source, String label, RollingStats.Summary summary) {
+        int hours = RollingStats.getWindowHours();
+        if (summary == null || summary.trades() == 0) {
+            source.sendSuccess(() -> Component.translatable("command.FreeMarket.stats.none", label, hours), false);
+            return;
+        }
+        String vwap = String.format(java.util.Locale.ROOT, "%.2f", summary.vwap());
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.stats.header", label, hours), false);
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.stats.volume", summary.trades(), summary.volume(), vwap), false);
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.stats.money", summary.moneyIn(), summary.moneyOut()), false);
+        source.sendSuccess(() -> Component.translatable("command.FreeMarket.stats.traders", summary.uniqueTraders()), false);
+    }
+    
+    /**
+     * Parses a relative time such as 30m, 12h or 7d into an epoch millisecond cutoff.
+     * 
+     * @param value The relative time, a number followed by s, m, h or d
+     * @return The cutoff in epoch milliseconds, or -1 if the value is invalid
+     */
+    private static long parseSince(String value) {
+        if (value.length() < 2) {
+            return -1;
+        }
+        
+        long multiplier = switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+            case 's' -> 1000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            default -> -1;
+        };
+        if (multiplier < 0) {
+            return -1;
+        }
+        
+        try {
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            if (amount < 0) {
+                return -1;
+            }
+            return Math.max(0, System.currentTimeMillis() - amount * multiplier);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Resolves a player name to a UUID, including players who are offline.
+     * 
+     * @param source The command source for server access
+     * @param playerName The name of the player to find
+     * @return The player's UUID if known to the server, null otherwise
+     */
+    private static UUID findPlayerId(CommandSourceStack source, String playerName) {
+        ServerPlayer onlinePlayer = findPlayer(source, playerName);
+        if (onlinePlayer != null) {
+            return onlinePlayer.getUUID();
+        }
+        
+        var profileCache = source.getServer().getProfileCache();
+        if (profileCache != null) {
+            var gameProfile = profileCache.get(playerName);
+            if (gameProfile.isPresent()) {
+                return gameProfile.get().getId();
+            }
+        }
+        
+        return null;
+    }
+    
     /**
      * Helper method to find a player by name, works in both singleplayer and multiplayer.
      * 
@@ -501,44 +1475,46 @@ public class FreeMarketCommands {
             return 0;
         }
         
-        // Find target player
-        ServerPlayer targetPlayer = findPlayer(source, targetPlayerName);
-        if (targetPlayer == null) {
+        // Find target player (may be offline)
+        UUID targetPlayerId = findPlayerId(source, targetPlayerName);
+        if (targetPlayerId == null) {
             Component message = Component.translatable("command.FreeMarket.economy.player_not_found", targetPlayerName);
             source.sendFailure(message);
             return 0;
         }
         
         // Check if trying to pay yourself
-        if (sender.getUUID().equals(targetPlayer.getUUID())) {
+        if (sender.getUUID().equals(targetPlayerId)) {
             Component message = Component.translatable("command.FreeMarket.freemarket.pay.self");
             source.sendFailure(message);
             return 0;
         }
         
         // Perform the transaction
-        boolean success = ServerWalletHandler.removeMoney(sender, amount);
+        boolean success = ServerWalletHandler.removeMoney(sender, amount, LedgerReason.PAY_SENT, null);
         if (!success) {
             Component message = Component.translatable("command.FreeMarket.freemarket.pay.failed");
             source.sendFailure(message);
             return 0;
         }
         
-        ServerWalletHandler.addMoney(targetPlayer, amount);
+        long targetBalance = ServerWalletHandler.addMoney(source.getServer(), targetPlayerId, amount, LedgerReason.PAY_RECEIVED, null);
         
-        // Get updated balances
+        // Get updated balance
         long senderBalance = ServerWalletHandler.getPlayerMoney(sender);
-        long targetBalance = ServerWalletHandler.getPlayerMoney(targetPlayer);
         
         // Send success message to sender
         Component senderMessage = Component.translatable("command.FreeMarket.freemarket.pay.sender_success", 
             amount, targetPlayerName, senderBalance);
         source.sendSuccess(() -> senderMessage, false);
         
-        // Send notification to target player
-        Component targetMessage = Component.translatable("command.FreeMarket.freemarket.pay.target_notify", 
-            amount, sender.getName().getString(), targetBalance);
-        targetPlayer.sendSystemMessage(targetMessage);
+        // Send notification to target player if online
+        ServerPlayer targetPlayer = source.getServer().getPlayerList().getPlayer(targetPlayerId);
+        if (targetPlayer != null) {
+            Component targetMessage = Component.translatable("command.FreeMarket.freemarket.pay.target_notify", 
+                amount, sender.getName().getString(), targetBalance);
+            targetPlayer.sendSystemMessage(targetMessage);
+        }
         
         return 1;
     }
@@ -710,6 +1686,13 @@ public class FreeMarketCommands {
         source.sendSuccess(() -> Component.literal("§7/freemarket help§r - Shows this help message"), false);
         source.sendSuccess(() -> Component.literal("§7/freemarket balance§r - Shows your balance"), false);
         source.sendSuccess(() -> Component.literal("§7/freemarket pay <player> <amount>§r - Pay money to another player"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket baltop [page]§r - Shows the players with the highest balances"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket order buy | sell <price> <quantity>§r - Place an order for the item in your hand"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket order cancel <id> | list | book§r - Manage your orders or view the book for the item in your hand"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket auction create <startingBid> <minutes> [buyout]§r - Auction the stack in your hand"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket auction bid <id> <amount> | list§r - Bid on an auction or list open auctions"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket listing create <price> <lotSize>§r - Sell the stack in your hand on the marketplace in lots"), false);
+        source.sendSuccess(() -> Component.literal("§7/freemarket listing cancel <listing> | mine§r - Cancel one of your listings or list them"), false);
         
         // Admin commands (OP only)
         if (source.hasPermission(ADMIN_PERMISSION_LEVEL)) {
@@ -720,6 +1703,11 @@ public class FreeMarketCommands {
             source.sendSuccess(() -> Component.literal("§7/freemarket itemdata§r - Shows data about the item in your hand"), false);
             source.sendSuccess(() -> Component.literal("§7/freemarket list hand <buyPrice> <sellPrice>§r - Add the item in your hand to marketplace (at least one price must be > 0)"), false);
             source.sendSuccess(() -> Component.literal("§7/freemarket list item <item> <buyPrice> <sellPrice> <quantity>§r - Add item to marketplace (at least one price must be > 0)"), false);
+            source.sendSuccess(() -> Component.literal("§7/freemarket audit <player> [since]§r - Shows a player's recent wallet transactions (since e.g. 30m, 12h, 7d)"), false);
+            source.sendSuccess(() -> Component.literal("§7/freemarket schedule restock <listing> <amount> <minutes> <cap>§r - Give a listing limited stock that refills over time"), false);
+            source.sendSuccess(() -> Component.literal("§7/freemarket schedule expire <listing> <minutes> | clear | show <listing>§r - Set, remove or show a listing's schedule"), false);
+            source.sendSuccess(() -> Component.literal("§7/freemarket economy§r - Shows the money supply, money minted and burned by source, and velocity"), false);
+            source.sendSuccess(() -> Component.literal("§7/freemarket stats item <listing | item> | category <category>§r - Shows trade volume, VWAP and traders over the last day"), false);
         }
         
         source.sendSuccess(() -> Component.literal("§6Use §e/fm§6 as a shortcut for §e/freemarket§r"), false);
@@ -0,0 +1,182 @@
+package com.freemarket.server.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Order-statistic treap of wallet balances, sorted by balance (highest first) and then by UUID.
+ *
+ * <p>Every node stores the size of its subtree, so inserts, removals, a player's rank and
+ * selecting the k-th entry all take O(log n) expected time, and reading a page of k entries
+ * takes O(log n + k). The {@link WalletRegistry} keeps it in step with every balance change.</p>
+ *
+ * <p>Not thread-safe; the owning registry synchronizes access.</p>
+ */
+public class BalanceRankTree {
+
+    /**
+     * One leaderboard row.
+     */
+    public record Entry(UUID playerId, long balance) {}
+
+    private static class Node {
+        final UUID playerId;
+        final long balance;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(UUID playerId, long balance, int priority) {
+            this.playerId = playerId;
+            this.balance = balance;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Adds a player's balance. The same (balance, player) pair must not already be present.
+     */
+    public void insert(UUID playerId, long balance) {
+        Node node = new Node(playerId, balance, random.nextInt());
+        Node[] parts = split(root, playerId, balance, false);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * Removes a player's balance if present.
+     */
+    public void remove(UUID playerId, long balance) {
+        Node[] lessAndRest = split(root, playerId, balance, false);
+        Node[] matchAndGreater = split(lessAndRest[1], playerId, balance, true);
+        root = merge(lessAndRest[0], matchAndGreater[1]);
+    }
+
+    /**
+     * Moves a player from one balance to another.
+     */
+    public void update(UUID playerId, long oldBalance, long newBalance) {
+        if (oldBalance == newBalance) {
+            return;
+        }
+        remove(playerId, oldBalance);
+        insert(playerId, newBalance);
+    }
+
+    /**
+     * Returns the 0-based rank of a player with the given balance, i.e. how many players rank above them.
+     */
+    public int rankOf(UUID playerId, long balance) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(playerId, balance, node);
+            if (cmp <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns up to {@code count} entries starting at the 0-based rank {@code offset}.
+     */
+    public List<Entry> page(int offset, int count) {
+        List<Entry> out = new ArrayList<>(Math.max(0, Math.min(count, size() - offset)));
+        if (offset >= 0 && count > 0) {
+            collect(root, offset, offset + count, 0, out);
+        }
+        return out;
+    }
+
+    /**
+     * In-order walk restricted to ranks [from, to), skipping subtrees that lie entirely outside the range.
+     */
+    private static void collect(Node node, int from, int to, int base, List<Entry> out) {
+        if (node == null || base >= to || base + node.size <= from) {
+            return;
+        }
+        int nodeRank = base + size(node.left);
+        collect(node.left, from, to, base, out);
+        if (nodeRank >= from && nodeRank < to) {
+            out.add(new Entry(node.playerId, node.balance));
+        }
+        collect(node.right, from, to, nodeRank + 1, out);
+    }
+
+    /**
+     * Splits a tree into keys before (playerId, balance) and the rest. When {@code inclusive},
+     * the key itself goes to the left part.
+     */
+    private static Node[] split(Node node, UUID playerId, long balance, boolean inclusive) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        int cmp = compare(playerId, balance, node);
+        boolean nodeGoesLeft = inclusive ? cmp >= 0 : cmp > 0;
+        if (nodeGoesLeft) {
+            Node[] parts = split(node.right, playerId, balance, inclusive);
+            node.right = parts[0];
+            update(node);
+            return new Node[] {node, parts[1]};
+        } else {
+            Node[] parts = split(node.left, playerId, balance, inclusive);
+            node.left = parts[1];
+            update(node);
+            return new Node[] {parts[0], node};
+        }
+    }
+
+    /**
+     * Merges two trees where every key in {@code left} sorts before every key in {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+    }
+
+    /**
+     * Compares the key (playerId, balance) with a node: higher balances first, then by UUID.
+     */
+    private static int compare(UUID playerId, long balance, Node node) {
+        int cmp = Long.compare(node.balance, balance);
+        return cmp != 0 ? cmp : playerId.compareTo(node.playerId);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
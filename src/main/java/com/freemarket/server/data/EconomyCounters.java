@@ -0,0 +1,174 @@
+package com.freemarket.server.data;
+
+import com.freemarket.server.ledger.LedgerReason;
+import net.minecraft.nbt.CompoundTag;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Economy-wide money counters, updated on every wallet change and saved with the {@link WalletRegistry}.
+ *
+ * <p>Tracks the total money in all wallets (the supply), how much money entered (minted) and left
+ * (burned) wallets per {@link EconomySource}, and the money that changed hands in completed trades
+ * and payments over the last 24 hours. Dividing that turnover by the supply gives the daily velocity:
+ * how many times the average coin was spent in a day.</p>
+ *
+ * <p>Counters are {@link LongAdder}s, so reads from commands or other threads never wait on wallet
+ * changes and never see a torn value. The supply is not saved; it is rebuilt from the balances
+ * when the registry loads, so it always matches them.</p>
+ */
+public class EconomyCounters {
+
+    private static final long HOUR_MILLIS = 60L * 60L * 1000L;
+    private static final int TURNOVER_HOURS = 24;
+
+    private final LongAdder supply = new LongAdder();
+    private final LongAdder[] minted = newAdders(EconomySource.values().length);
+    private final LongAdder[] burned = newAdders(EconomySource.values().length);
+
+    // Ring of hourly turnover totals; each slot remembers which hour it holds
+    private final LongAdder[] turnover = newAdders(TURNOVER_HOURS);
+    private final AtomicLongArray turnoverHours = new AtomicLongArray(TURNOVER_HOURS);
+
+    /**
+     * Moves the supply by a balance change. Called by the registry for every balance it stores.
+     */
+    void adjustSupply(long delta) {
+        supply.add(delta);
+    }
+
+    /**
+     * Records a wallet change by its ledger reason.
+     * @param delta the signed change to the balance
+     */
+    public void record(LedgerReason reason, long delta) {
+        record(EconomySource.of(reason), delta);
+        if (isTurnover(reason)) {
+            addTurnover(System.currentTimeMillis(), Math.abs(delta));
+        }
+    }
+
+    /**
+     * Records a wallet change that is not in the ledger, such as a migrated balance.
+     * @param delta the signed change to the balance
+     */
+    public void record(EconomySource source, long delta) {
+        if (delta > 0) {
+            minted[source.ordinal()].add(delta);
+        } else if (delta < 0) {
+            burned[source.ordinal()].add(-delta);
+        }
+    }
+
+    /**
+     * Whether a change completes an exchange of money for goods or a payment. Escrows, bids and
+     * refunds only park money, and a payment is counted on the sending side only.
+     */
+    private static boolean isTurnover(LedgerReason reason) {
+        return switch (reason) {
+            case BUY, SELL, PAY_SENT, ORDER_FILL, AUCTION_SALE -> true;
+            default -> false;
+        };
+    }
+
+    private void addTurnover(long now, long amount) {
+        long hour = now / HOUR_MILLIS;
+        int slot = (int) (hour % TURNOVER_HOURS);
+        long held = turnoverHours.get(slot);
+        if (held != hour) {
+            if (held > hour) {
+                // Older than the window, e.g. after the clock moved back
+                return;
+            }
+            synchronized (turnover) {
+                if (turnoverHours.get(slot) != hour) {
+                    turnover[slot].reset();
+                    turnoverHours.set(slot, hour);
+                }
+            }
+        }
+        turnover[slot].add(amount);
+    }
+
+    public long getSupply() {
+        return supply.sum();
+    }
+
+    public long getMinted(EconomySource source) {
+        return minted[source.ordinal()].sum();
+    }
+
+    public long getBurned(EconomySource source) {
+        return burned[source.ordinal()].sum();
+    }
+
+    /**
+     * Money that changed hands in the last 24 hours.
+     */
+    public long getDailyTurnover() {
+        long oldestHour = System.currentTimeMillis() / HOUR_MILLIS - TURNOVER_HOURS + 1;
+        long total = 0;
+        for (int i = 0; i < TURNOVER_HOURS; i++) {
+            if (turnoverHours.get(i) >= oldestHour) {
+                total += turnover[i].sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Daily turnover divided by the supply, or 0 while there is no money.
+     */
+    public double getDailyVelocity() {
+        long currentSupply = getSupply();
+        return currentSupply <= 0 ? 0 : (double) getDailyTurnover() / currentSupply;
+    }
+
+    CompoundTag save() {
+        CompoundTag tag = new CompoundTag();
+        CompoundTag sources = new CompoundTag();
+        for (EconomySource source : EconomySource.values()) {
+            sources.putLongArray(source.name(), new long[] {getMinted(source), getBurned(source)});
+        }
+        tag.put("sources", sources);
+
+        long[] hours = new long[TURNOVER_HOURS];
+        long[] totals = new long[TURNOVER_HOURS];
+        for (int i = 0; i < TURNOVER_HOURS; i++) {
+            hours[i] = turnoverHours.get(i);
+            totals[i] = turnover[i].sum();
+        }
+        tag.putLongArray("turnoverHours", hours);
+        tag.putLongArray("turnover", totals);
+        return tag;
+    }
+
+    void load(CompoundTag tag) {
+        CompoundTag sources = tag.getCompound("sources");
+        for (EconomySource source : EconomySource.values()) {
+            long[] values = sources.getLongArray(source.name());
+            if (values.length == 2) {
+                minted[source.ordinal()].add(values[0]);
+                burned[source.ordinal()].add(values[1]);
+            }
+        }
+
+        long[] hours = tag.getLongArray("turnoverHours");
+        long[] totals = tag.getLongArray("turnover");
+        if (hours.length == TURNOVER_HOURS && totals.length == TURNOVER_HOURS) {
+            for (int i = 0; i < TURNOVER_HOURS; i++) {
+                turnoverHours.set(i, hours[i]);
+                turnover[i].add(totals[i]);
+            }
+        }
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
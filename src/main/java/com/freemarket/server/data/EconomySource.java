@@ -0,0 +1,33 @@
+package com.freemarket.server.data;
+
+import com.freemarket.server.ledger.LedgerReason;
+
+/**
+ * Where money entering or leaving player wallets came from, for the {@link EconomyCounters}.
+ * Stored by name.
+ */
+public enum EconomySource {
+    ADMIN,
+    MARKET_BUY,
+    MARKET_SELL,
+    PAY,
+    ORDERS,
+    AUCTIONS,
+    PLAYER_LISTINGS,
+    MIGRATION;
+
+    /**
+     * Gets the source a ledger reason belongs to.
+     */
+    public static EconomySource of(LedgerReason reason) {
+        return switch (reason) {
+            case BUY -> MARKET_BUY;
+            case SELL -> MARKET_SELL;
+            case PAY_SENT, PAY_RECEIVED -> PAY;
+            case ADMIN_ADD, ADMIN_REMOVE, ADMIN_SET -> ADMIN;
+            case ORDER_ESCROW, ORDER_REFUND, ORDER_FILL -> ORDERS;
+            case AUCTION_BID, AUCTION_REFUND, AUCTION_SALE -> AUCTIONS;
+            case LISTING_SALE -> PLAYER_LISTINGS;
+        };
+    }
+}
@@ -166,7 +166,7 @@ public class FreeMarketDataManager {
     }
     
     /**
-     * Saves marketplace items to the JSON file.
+     * Saves marketplace items to the JSON file and publishes them as a new {@link MarketCatalog} revision.
      */
     public static void saveFreeMarketItems(ServerLevel level, List<FreeMarketItem> items) {
         try {
@@ -197,6 +197,9 @@ public class FreeMarketDataManager {
         } catch (IOException e) {
             FreeMarket.LOGGER.error("Failed to save marketplace items to world: {}", level.dimension().location(), e);
         }
+        
+        // Publish the new catalog revision for in-flight trades
+        MarketCatalog.publish(items);
     }
     
     /**
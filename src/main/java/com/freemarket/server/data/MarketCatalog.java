@@ -0,0 +1,78 @@
+package com.freemarket.server.data;
+
+import com.freemarket.common.data.FreeMarketItem;
+import net.minecraft.server.MinecraftServer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory, immutable snapshot of the marketplace catalog with a revision number.
+ * The snapshot can be read from any thread; it is replaced (and the revision bumped)
+ * every time the marketplace is saved through {@link FreeMarketDataManager#saveFreeMarketItems}.
+ * Trade validation uses the revision to detect listings that changed while a trade was in flight.
+ */
+public class MarketCatalog {
+
+    /**
+     * An immutable view of the catalog at one revision.
+     */
+    public record Snapshot(long revision, List<FreeMarketItem> items, Map<String, FreeMarketItem> itemsByGuid) {
+
+        public FreeMarketItem find(String guid) {
+            return guid == null ? null : itemsByGuid.get(guid);
+        }
+    }
+
+    private static volatile Snapshot current;
+    private static long nextRevision = 1;
+
+    /**
+     * Gets the current snapshot, loading it from disk on first use.
+     */
+    public static Snapshot get(MinecraftServer server) {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (MarketCatalog.class) {
+            if (current == null) {
+                current = build(FreeMarketDataManager.loadFreeMarketItems(server.overworld()));
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Gets the current revision, or 0 if the catalog has not been loaded yet.
+     */
+    public static long getRevision() {
+        Snapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.revision();
+    }
+
+    /**
+     * Publishes a new snapshot after the marketplace was saved.
+     */
+    static synchronized void publish(List<FreeMarketItem> items) {
+        current = build(items);
+    }
+
+    /**
+     * Drops the snapshot so the next world starts from its own marketplace file.
+     */
+    public static synchronized void clear() {
+        current = null;
+    }
+
+    private static synchronized Snapshot build(List<FreeMarketItem> items) {
+        List<FreeMarketItem> copy = List.copyOf(items);
+        Map<String, FreeMarketItem> byGuid = new HashMap<>();
+        for (FreeMarketItem item : copy) {
+            byGuid.put(item.getGuid(), item);
+        }
+        return new Snapshot(nextRevision++, copy, Collections.unmodifiableMap(byGuid));
+    }
+}
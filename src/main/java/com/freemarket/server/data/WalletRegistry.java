@@ -0,0 +1,236 @@
+package com.freemarket.server.data;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server-wide wallet balances keyed by player UUID, stored as {@code data/freemarket_wallets.dat}.
+ *
+ * <p>This is the source of truth for balances. Player wallet attachments mirror it, so balances of
+ * offline players can be read and changed in O(1) without loading their playerdata files.
+ * Changes mark the data dirty and are written with the regular world save.</p>
+ *
+ * <p>A {@link BalanceRankTree} is kept in step with every change so the balance leaderboard and
+ * a player's rank can be read in O(log n) without scanning all balances.</p>
+ *
+ * <p>Players whose wallet attachment balance from before the registry has been merged in are
+ * tracked separately from having a balance, since offline players can be credited before their
+ * first login; see {@link #migrate}.</p>
+ *
+ * <p>The {@link EconomyCounters} are saved in the same file; their money supply moves with every
+ * balance stored here.</p>
+ *
+ * <p>Methods are synchronized because the singleplayer GUI and off-thread trade validation read
+ * balances outside the server thread.</p>
+ */
+public class WalletRegistry extends SavedData {
+
+    private static final String DATA_NAME = "freemarket_wallets";
+
+    private static final SavedData.Factory<WalletRegistry> FACTORY =
+        new SavedData.Factory<>(WalletRegistry::new, WalletRegistry::load, null);
+
+    // Cached so lookups from other threads never touch the data storage map
+    private static volatile WalletRegistry instance;
+    private static volatile MinecraftServer owner;
+
+    private final Object2LongOpenHashMap<UUID> balances = new Object2LongOpenHashMap<>();
+    private final BalanceRankTree ranking = new BalanceRankTree();
+    // Players whose legacy attachment balance is already in their registry balance
+    private final ObjectOpenHashSet<UUID> migrated = new ObjectOpenHashSet<>();
+    private final EconomyCounters economy = new EconomyCounters();
+
+    /**
+     * Gets the wallet registry for a server, loading or creating it in the overworld data storage.
+     */
+    public static WalletRegistry get(MinecraftServer server) {
+        WalletRegistry registry = instance;
+        if (registry != null && owner == server) {
+            return registry;
+        }
+        synchronized (WalletRegistry.class) {
+            if (instance == null || owner != server) {
+                instance = server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+                owner = server;
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Drops the cached registry when the server stops. The data itself was saved with the world.
+     */
+    public static synchronized void clearCache() {
+        instance = null;
+        owner = null;
+    }
+
+    public synchronized boolean contains(UUID playerId) {
+        return balances.containsKey(playerId);
+    }
+
+    public synchronized long getBalance(UUID playerId) {
+        return balances.getLong(playerId);
+    }
+
+    public synchronized void setBalance(UUID playerId, long balance) {
+        putBalance(playerId, balance);
+        setDirty();
+    }
+
+    public synchronized boolean isMigrated(UUID playerId) {
+        return migrated.contains(playerId);
+    }
+
+    /**
+     * Merges a player's legacy attachment balance into the registry, once per player. The legacy
+     * balance is added to whatever the registry already holds, such as payments received while
+     * the player had not logged in since the upgrade.
+     * @return the new balance, or -1 if the player was already migrated
+     */
+    public synchronized long migrate(UUID playerId, long legacyBalance) {
+        if (!migrated.add(playerId)) {
+            return -1;
+        }
+        long balance = balances.getLong(playerId) + legacyBalance;
+        putBalance(playerId, balance);
+        setDirty();
+        return balance;
+    }
+
+    /**
+     * Adds to a balance and returns the new balance.
+     */
+    public synchronized long add(UUID playerId, long amount) {
+        long balance = balances.getLong(playerId) + amount;
+        putBalance(playerId, balance);
+        setDirty();
+        return balance;
+    }
+
+    /**
+     * Removes from a balance if there are enough funds.
+     * @return true if the amount was removed, false if the balance is too low
+     */
+    public synchronized boolean tryRemove(UUID playerId, long amount) {
+        long balance = balances.getLong(playerId);
+        if (balance < amount) {
+            return false;
+        }
+        putBalance(playerId, balance - amount);
+        setDirty();
+        return true;
+    }
+
+    /**
+     * Gets a player's 1-based leaderboard rank, or 0 if the player has no wallet.
+     */
+    public synchronized int getRank(UUID playerId) {
+        if (!balances.containsKey(playerId)) {
+            return 0;
+        }
+        return ranking.rankOf(playerId, balances.getLong(playerId)) + 1;
+    }
+
+    /**
+     * Gets up to {@code count} leaderboard entries starting at the 0-based rank {@code offset}.
+     */
+    public synchronized List<BalanceRankTree.Entry> getTopBalances(int offset, int count) {
+        return ranking.page(offset, count);
+    }
+
+    /**
+     * Gets the economy-wide counters. They are thread-safe and can be read without the registry lock.
+     */
+    public EconomyCounters getEconomy() {
+        return economy;
+    }
+
+    /**
+     * Stores a balance, moves the player to the matching position in the ranking and adjusts the money supply.
+     */
+    private void putBalance(UUID playerId, long balance) {
+        if (balances.containsKey(playerId)) {
+            long oldBalance = balances.getLong(playerId);
+            ranking.update(playerId, oldBalance, balance);
+            economy.adjustSupply(balance - oldBalance);
+        } else {
+            ranking.insert(playerId, balance);
+            economy.adjustSupply(balance);
+        }
+        balances.put(playerId, balance);
+    }
+
+    public synchronized int size() {
+        return balances.size();
+    }
+
+    /**
+     * Returns a copy of all balances, for callers that need to iterate without holding the lock.
+     */
+    public synchronized Object2LongMap<UUID> snapshot() {
+        return new Object2LongOpenHashMap<>(balances);
+    }
+
+    @Override
+    public synchronized CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        // Parallel primitive arrays keep the file compact for thousands of players
+        int size = balances.size();
+        long[] most = new long[size];
+        long[] least = new long[size];
+        long[] values = new long[size];
+
+        int index = 0;
+        for (Object2LongMap.Entry<UUID> entry : balances.object2LongEntrySet()) {
+            most[index] = entry.getKey().getMostSignificantBits();
+            least[index] = entry.getKey().getLeastSignificantBits();
+            values[index] = entry.getLongValue();
+            index++;
+        }
+
+        tag.putLongArray("uuidMost", most);
+        tag.putLongArray("uuidLeast", least);
+        tag.putLongArray("balances", values);
+
+        long[] migratedMost = new long[migrated.size()];
+        long[] migratedLeast = new long[migrated.size()];
+        index = 0;
+        for (UUID playerId : migrated) {
+            migratedMost[index] = playerId.getMostSignificantBits();
+            migratedLeast[index] = playerId.getLeastSignificantBits();
+            index++;
+        }
+        tag.putLongArray("migratedMost", migratedMost);
+        tag.putLongArray("migratedLeast", migratedLeast);
+        tag.put("economy", economy.save());
+        return tag;
+    }
+
+    private static WalletRegistry load(CompoundTag tag, HolderLookup.Provider registries) {
+        WalletRegistry registry = new WalletRegistry();
+        long[] most = tag.getLongArray("uuidMost");
+        long[] least = tag.getLongArray("uuidLeast");
+        long[] values = tag.getLongArray("balances");
+
+        int size = Math.min(most.length, Math.min(least.length, values.length));
+        for (int i = 0; i < size; i++) {
+            registry.putBalance(new UUID(most[i], least[i]), values[i]);
+        }
+
+        long[] migratedMost = tag.getLongArray("migratedMost");
+        long[] migratedLeast = tag.getLongArray("migratedLeast");
+        for (int i = 0; i < Math.min(migratedMost.length, migratedLeast.length); i++) {
+            registry.migrated.add(new UUID(migratedMost[i], migratedLeast[i]));
+        }
+        registry.economy.load(tag.getCompound("economy"));
+        return registry;
+    }
+}
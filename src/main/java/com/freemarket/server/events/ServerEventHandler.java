@@ -1,23 +1,51 @@
 package com.freemarket.server.events;
 
 import com.freemarket.common.handlers.AdminModeHandler;
+import com.freemarket.server.data.WalletRegistry;
+import com.freemarket.server.handlers.ServerWalletHandler;
+import com.freemarket.server.mailbox.MailboxStore;
+import com.freemarket.server.seller.PlayerListings;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
 
 /**
  * Server-side event handlers for FreeMarket.
- * Handles player join events to synchronize admin mode state.
+ * Handles player join events to synchronize admin mode state and wallet balances
+ * and to point out items that arrived in the player's mailbox while they were offline.
  */
 public class ServerEventHandler {
-    
+
     /**
-     * Handles player login events to send admin mode state to newly connected players.
+     * Handles player login events to send admin mode state to newly connected players
+     * and to line up their wallet attachment with the wallet registry.
      */
     @SubscribeEvent
     public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
         if (event.getEntity() instanceof net.minecraft.server.level.ServerPlayer serverPlayer) {
+            // Migrate or refresh the player's wallet before anything reads it
+            ServerWalletHandler.syncOnLogin(serverPlayer);
+
+            // Credit listing sales made while the player was away
+            PlayerListings.settlePayouts(serverPlayer);
+
+            // Point out items that arrived while the player was away; they are claimed from the marketplace screen
+            int waiting = MailboxStore.get(serverPlayer.server, serverPlayer.getUUID()).getItemCount();
+            MailboxStore.sendStatus(serverPlayer);
+            if (waiting > 0) {
+                serverPlayer.sendSystemMessage(net.minecraft.network.chat.Component.translatable("message.FreeMarket.mailbox.waiting", waiting));
+            }
+
             // Send current admin mode state to the newly connected player
             AdminModeHandler.sendAdminModeToPlayer(serverPlayer);
         }
     }
+
+    /**
+     * Drops server-scoped caches so the next world starts clean.
+     */
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        WalletRegistry.clearCache();
+    }
 }
@@ -2,7 +2,9 @@ package com.freemarket.server.events;
 
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import com.freemarket.server.analytics.MarketAnalytics;
 import com.freemarket.server.network.ServerMarketplaceSync;
+import com.freemarket.server.schedule.ListingScheduler;
 
 /**
  * Server-side event handler for marketplace synchronization.
@@ -17,6 +19,12 @@ public class ServerMarketplaceEventHandler {
         if (event.getEntity() instanceof net.minecraft.server.level.ServerPlayer serverPlayer) {
             // Send marketplace data to the newly joined player
             ServerMarketplaceSync.syncMarketplaceData(serverPlayer.serverLevel());
+            
+            // Send stock levels of listings with limited stock
+            ListingScheduler.syncStockTo(serverPlayer);
+            
+            // Send trade counts for sorting by popularity
+            MarketAnalytics.sendPopularity(serverPlayer);
         }
     }
 }
@@ -0,0 +1,164 @@
+package com.freemarket.server.handlers;
+
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side inventory helpers shared by marketplace trades and player orders.
+ * Items are matched by item and components, so enchanted or renamed items never mix with plain ones.
+ */
+public class ServerInventoryHandler {
+
+    // Only use main inventory slots (0-35) - avoid offhand (40), armor (36-39), and curio slots
+    private static final int MAIN_INVENTORY_SIZE = 36; // 0-35: hotbar + main inventory
+
+    /**
+     * Counts the items matching the template across the entire inventory.
+     */
+    public static int countMatching(ServerPlayer player, ItemStack template) {
+        var inventory = player.getInventory();
+        int totalCount = 0;
+
+        // Count all matching items across the entire inventory
+        for (int i = 0; i < inventory.getContainerSize(); i++) {
+            ItemStack slotItem = inventory.getItem(i);
+            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, template)) {
+                totalCount += slotItem.getCount();
+            }
+        }
+
+        return totalCount;
+    }
+
+    /**
+     * Checks if the player has the specified item in their inventory.
+     * Checks total count across all stacks, not individual stack counts.
+     */
+    public static boolean hasItemInInventory(ServerPlayer player, ItemStack itemToCheck) {
+        return countMatching(player, itemToCheck) >= itemToCheck.getCount();
+    }
+
+    /**
+     * Removes the specified item from the player's inventory.
+     * Prioritizes removing from stacks with the fewest items.
+     * Returns true if successful, false if item not found.
+     */
+    public static boolean removeItemFromInventory(ServerPlayer player, ItemStack itemToRemove) {
+        return removeMatching(player, itemToRemove, itemToRemove.getCount());
+    }
+
+    /**
+     * Removes {@code count} items matching the template from the player's inventory.
+     * Prioritizes removing from stacks with the fewest items.
+     * Returns true if all items were removed.
+     */
+    public static boolean removeMatching(ServerPlayer player, ItemStack template, int count) {
+        var inventory = player.getInventory();
+        int remainingToRemove = count;
+
+        // First pass: find all matching stacks and sort by count (fewest first)
+        List<Map.Entry<Integer, ItemStack>> matchingStacks = new ArrayList<>();
+        for (int i = 0; i < inventory.getContainerSize(); i++) {
+            ItemStack slotItem = inventory.getItem(i);
+            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, template)) {
+                matchingStacks.add(new AbstractMap.SimpleEntry<>(i, slotItem));
+            }
+        }
+
+        // Sort by count (ascending - fewest items first)
+        matchingStacks.sort((a, b) -> Integer.compare(a.getValue().getCount(), b.getValue().getCount()));
+
+        // Remove items starting from stacks with fewest items
+        for (var entry : matchingStacks) {
+            if (remainingToRemove <= 0) break;
+
+            int slotIndex = entry.getKey();
+            ItemStack slotItem = entry.getValue();
+            int removeFromSlot = Math.min(remainingToRemove, slotItem.getCount());
+            slotItem.shrink(removeFromSlot);
+            remainingToRemove -= removeFromSlot;
+
+            // Update the slot
+            inventory.setItem(slotIndex, slotItem.isEmpty() ? ItemStack.EMPTY : slotItem);
+        }
+
+        return remainingToRemove == 0; // Return true if we removed all required items
+    }
+
+    /**
+     * Adds an item to the player's inventory.
+     * Returns true if successful, false if inventory is full.
+     */
+    public static boolean addItemToInventory(ServerPlayer player, ItemStack itemToAdd) {
+        return insertMatching(player, itemToAdd, itemToAdd.getCount()) == 0;
+    }
+
+    /**
+     * Inserts {@code count} copies of the template into the main inventory, topping up the
+     * smallest matching stacks first and then using empty slots.
+     * Returns the number of items that did not fit.
+     */
+    public static int insertMatching(ServerPlayer player, ItemStack template, int count) {
+        var inventory = player.getInventory();
+        int remainingToAdd = count;
+
+        // First pass: find all existing stacks of the same item in main inventory and sort by count (fewest first)
+        List<Map.Entry<Integer, ItemStack>> existingStacks = new ArrayList<>();
+        for (int i = 0; i < MAIN_INVENTORY_SIZE; i++) {
+            ItemStack slotItem = inventory.getItem(i);
+            if (!slotItem.isEmpty() && ItemStack.isSameItemSameComponents(slotItem, template)) {
+                existingStacks.add(new AbstractMap.SimpleEntry<>(i, slotItem));
+            }
+        }
+
+        // Sort by count (ascending - fewest items first)
+        existingStacks.sort((a, b) -> Integer.compare(a.getValue().getCount(), b.getValue().getCount()));
+
+        // Add items to existing stacks starting with those that have fewest items
+        for (var entry : existingStacks) {
+            if (remainingToAdd <= 0) break;
+
+            int slotIndex = entry.getKey();
+            ItemStack slotItem = entry.getValue();
+            int canAdd = slotItem.getMaxStackSize() - slotItem.getCount();
+
+            if (canAdd > 0) {
+                int addToSlot = Math.min(remainingToAdd, canAdd);
+                slotItem.grow(addToSlot);
+                remainingToAdd -= addToSlot;
+                inventory.setItem(slotIndex, slotItem);
+            }
+        }
+
+        // If there are still items to add, try to find empty slots in main inventory only
+        for (int i = 0; i < MAIN_INVENTORY_SIZE && remainingToAdd > 0; i++) {
+            ItemStack slotItem = inventory.getItem(i);
+            if (slotItem.isEmpty()) {
+                int addToSlot = Math.min(remainingToAdd, template.getMaxStackSize());
+                inventory.setItem(i, template.copyWithCount(addToSlot));
+                remainingToAdd -= addToSlot;
+            }
+        }
+
+        return remainingToAdd;
+    }
+
+    /**
+     * Splits {@code count} copies of the template into stacks no larger than the max stack size.
+     */
+    public static List<ItemStack> splitIntoStacks(ItemStack template, int count) {
+        List<ItemStack> stacks = new ArrayList<>();
+        int maxStackSize = Math.max(1, template.getMaxStackSize());
+        while (count > 0) {
+            int stackCount = Math.min(count, maxStackSize);
+            stacks.add(template.copyWithCount(stackCount));
+            count -= stackCount;
+        }
+        return stacks;
+    }
+}
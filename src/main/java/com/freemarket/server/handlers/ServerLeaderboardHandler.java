@@ -0,0 +1,87 @@
+package com.freemarket.server.handlers;
+
+import com.freemarket.server.data.BalanceRankTree;
+import com.freemarket.server.data.WalletRegistry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server-side handler for the balance leaderboard.
+ * Reads pages from the {@link WalletRegistry} ranking and resolves player names,
+ * for both the baltop command and the GUI leaderboard panel.
+ */
+public class ServerLeaderboardHandler {
+
+    public static final int PAGE_SIZE = 10;
+
+    /**
+     * One page of the leaderboard with names already resolved.
+     * @param page 0-based page index (clamped to the available pages)
+     * @param totalPages number of pages, at least 1
+     * @param names player names in rank order
+     * @param balances balances matching {@code names}
+     */
+    public record Page(int page, int totalPages, List<String> names, List<Long> balances) {
+
+        /**
+         * Gets the 1-based rank of the row at {@code index} on this page.
+         */
+        public int rankAt(int index) {
+            return page * PAGE_SIZE + index + 1;
+        }
+    }
+
+    /**
+     * Gets a page of the leaderboard. Costs O(log n + PAGE_SIZE) regardless of the number of wallets.
+     * @param server the server whose wallet registry to read
+     * @param page 0-based page index
+     * @return the requested page, or the last page if {@code page} is past the end
+     */
+    public static Page getPage(MinecraftServer server, int page) {
+        WalletRegistry registry = WalletRegistry.get(server);
+        int totalPages = Math.max(1, (registry.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        int clampedPage = Math.max(0, Math.min(page, totalPages - 1));
+
+        List<BalanceRankTree.Entry> entries = registry.getTopBalances(clampedPage * PAGE_SIZE, PAGE_SIZE);
+        List<String> names = new ArrayList<>(entries.size());
+        List<Long> balances = new ArrayList<>(entries.size());
+        for (BalanceRankTree.Entry entry : entries) {
+            names.add(resolvePlayerName(server, entry.playerId()));
+            balances.add(entry.balance());
+        }
+
+        return new Page(clampedPage, totalPages, names, balances);
+    }
+
+    /**
+     * Gets a player's 1-based rank, or 0 if they have no wallet yet.
+     */
+    public static int getRank(ServerPlayer player) {
+        return WalletRegistry.get(player.server).getRank(player.getUUID());
+    }
+
+    /**
+     * Resolves a player's name without loading their playerdata: online players first,
+     * then the server's profile cache.
+     */
+    public static String resolvePlayerName(MinecraftServer server, UUID playerId) {
+        ServerPlayer online = server.getPlayerList().getPlayer(playerId);
+        if (online != null) {
+            return online.getName().getString();
+        }
+
+        var profileCache = server.getProfileCache();
+        if (profileCache != null) {
+            var profile = profileCache.get(playerId);
+            if (profile.isPresent()) {
+                return profile.get().getName();
+            }
+        }
+
+        return playerId.toString().substring(0, 8);
+    }
+}
@@ -2,16 +2,28 @@ package com.freemarket.server.handlers;
 
 import com.freemarket.FreeMarket;
 import com.freemarket.common.attachments.PlayerWalletAttachment;
+import com.freemarket.server.data.EconomyCounters;
+import com.freemarket.server.data.EconomySource;
+import com.freemarket.server.data.WalletRegistry;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.ledger.TransactionLedger;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 
+import java.util.UUID;
+
 /**
  * Server-side wallet handler for the FreeMarket mod.
- * Handles all wallet operations that require server-side data attachments.
+ * Balances are stored in the server-wide {@link WalletRegistry}, so they can be read and changed
+ * for offline players. The player's wallet attachment mirrors the registry while they are online.
+ * Every balance change is recorded in the {@link TransactionLedger} with its reason and counted
+ * in the registry's {@link EconomyCounters}.
  */
 public class ServerWalletHandler {
-    
+
     /**
-     * Gets the current player money amount from their wallet attachment.
+     * Gets the current player money amount.
      * @param player the player to get money for
      * @return current money amount
      */
@@ -20,65 +32,136 @@ public class ServerWalletHandler {
             FreeMarket.LOGGER.warn("Cannot get money for null player");
             return 0;
         }
-        
-        PlayerWalletAttachment wallet = player.getData(PlayerWalletAttachment.WALLET);
-        long balance = wallet.getBalance();
-        return balance;
+
+        MinecraftServer server = player.getServer();
+        if (server == null) {
+            // Not on a server; only the attachment is available
+            return player.getData(PlayerWalletAttachment.WALLET).getBalance();
+        }
+        return getMoney(server, player.getUUID());
+    }
+
+    /**
+     * Gets the money of any player by UUID, online or offline.
+     * @param server the server whose wallet registry to use
+     * @param playerId the player's UUID
+     * @return current money amount, 0 for unknown players
+     */
+    public static long getMoney(MinecraftServer server, UUID playerId) {
+        return WalletRegistry.get(server).getBalance(playerId);
     }
-    
+
     /**
-     * Sets the player money amount in their wallet attachment.
+     * Sets the player money amount.
      * @param player the player to set money for
      * @param amount the new money amount
+     * @param reason why the balance changed, recorded in the ledger
      */
-    public static void setPlayerMoney(Player player, long amount) {
-        if (player == null) {
+    public static void setPlayerMoney(Player player, long amount, LedgerReason reason) {
+        if (player == null || player.getServer() == null) {
             FreeMarket.LOGGER.warn("Cannot set money for null player");
             return;
         }
-        
-        PlayerWalletAttachment wallet = player.getData(PlayerWalletAttachment.WALLET);
-        wallet.setBalance(amount);
-        
+
+        setMoney(player.getServer(), player.getUUID(), amount, reason);
+
         FreeMarket.LOGGER.debug("Set {} money to: {}", player.getName().getString(), amount);
     }
-    
+
+    /**
+     * Sets the money of any player by UUID, online or offline.
+     * @param server the server whose wallet registry to use
+     * @param playerId the player's UUID
+     * @param amount the new money amount
+     * @param reason why the balance changed, recorded in the ledger
+     */
+    public static void setMoney(MinecraftServer server, UUID playerId, long amount, LedgerReason reason) {
+        WalletRegistry registry = WalletRegistry.get(server);
+        long oldBalance = registry.getBalance(playerId);
+        registry.setBalance(playerId, amount);
+        mirrorToAttachment(server, playerId, amount);
+        registry.getEconomy().record(reason, amount - oldBalance);
+        TransactionLedger.record(playerId, amount - oldBalance, amount, reason, null);
+    }
+
     /**
      * Adds money to the player's wallet.
      * @param player the player to add money to
      * @param amount the amount to add
+     * @param reason why the balance changed, recorded in the ledger
+     * @param listingGuid the marketplace listing involved, or null if not a trade
      */
-    public static void addMoney(Player player, long amount) {
-        if (player == null) {
+    public static void addMoney(Player player, long amount, LedgerReason reason, String listingGuid) {
+        if (player == null || player.getServer() == null) {
             FreeMarket.LOGGER.warn("Cannot add money for null player");
             return;
         }
-        
-        PlayerWalletAttachment wallet = player.getData(PlayerWalletAttachment.WALLET);
-        wallet.addBalance(amount);
+
+        addMoney(player.getServer(), player.getUUID(), amount, reason, listingGuid);
     }
-    
+
+    /**
+     * Adds money to any player's wallet by UUID, online or offline.
+     * @param server the server whose wallet registry to use
+     * @param playerId the player's UUID
+     * @param amount the amount to add
+     * @param reason why the balance changed, recorded in the ledger
+     * @param listingGuid the marketplace listing involved, or null if not a trade
+     * @return the new balance
+     */
+    public static long addMoney(MinecraftServer server, UUID playerId, long amount, LedgerReason reason, String listingGuid) {
+        WalletRegistry registry = WalletRegistry.get(server);
+        long newBalance = registry.add(playerId, amount);
+        mirrorToAttachment(server, playerId, newBalance);
+        registry.getEconomy().record(reason, amount);
+        TransactionLedger.record(playerId, amount, newBalance, reason, listingGuid);
+        return newBalance;
+    }
+
     /**
      * Removes money from the player's wallet.
      * @param player the player to remove money from
      * @param amount the amount to remove
+     * @param reason why the balance changed, recorded in the ledger
+     * @param listingGuid the marketplace listing involved, or null if not a trade
      * @return true if successful, false if insufficient funds
      */
-    public static boolean removeMoney(Player player, long amount) {
-        if (player == null) {
+    public static boolean removeMoney(Player player, long amount, LedgerReason reason, String listingGuid) {
+        if (player == null || player.getServer() == null) {
             FreeMarket.LOGGER.warn("Cannot remove money for null player");
             return false;
         }
-        
-        PlayerWalletAttachment wallet = player.getData(PlayerWalletAttachment.WALLET);
-        if (wallet.removeBalance(amount)) {
+
+        if (removeMoney(player.getServer(), player.getUUID(), amount, reason, listingGuid)) {
             return true;
         }
-        
-        FreeMarket.LOGGER.info("Insufficient funds for {}. Required: {}, Available: {}", player.getName().getString(), amount, wallet.getBalance());
+
+        FreeMarket.LOGGER.info("Insufficient funds for {}. Required: {}, Available: {}", player.getName().getString(), amount, getPlayerMoney(player));
         return false;
     }
-    
+
+    /**
+     * Removes money from any player's wallet by UUID, online or offline.
+     * @param server the server whose wallet registry to use
+     * @param playerId the player's UUID
+     * @param amount the amount to remove
+     * @param reason why the balance changed, recorded in the ledger
+     * @param listingGuid the marketplace listing involved, or null if not a trade
+     * @return true if successful, false if insufficient funds
+     */
+    public static boolean removeMoney(MinecraftServer server, UUID playerId, long amount, LedgerReason reason, String listingGuid) {
+        WalletRegistry registry = WalletRegistry.get(server);
+        if (!registry.tryRemove(playerId, amount)) {
+            return false;
+        }
+
+        long newBalance = registry.getBalance(playerId);
+        mirrorToAttachment(server, playerId, newBalance);
+        registry.getEconomy().record(reason, -amount);
+        TransactionLedger.record(playerId, -amount, newBalance, reason, listingGuid);
+        return true;
+    }
+
     /**
      * Checks if the player has enough money.
      * @param player the player to check
@@ -89,8 +172,39 @@ public class ServerWalletHandler {
         if (player == null) {
             return false;
         }
-        
+
+        return getPlayerMoney(player) >= amount;
+    }
+
+    /**
+     * Brings the registry and the player's attachment in line when the player logs in.
+     * On the first login since the registry existed, the attachment balance is added to the
+     * registry balance, which may already hold money received while offline (payments, admin
+     * credits, auction payouts). Afterwards the registry wins, so offline changes show up in the attachment.
+     * @param player the player who logged in
+     */
+    public static void syncOnLogin(ServerPlayer player) {
+        WalletRegistry registry = WalletRegistry.get(player.server);
         PlayerWalletAttachment wallet = player.getData(PlayerWalletAttachment.WALLET);
-        return wallet.hasEnoughBalance(amount);
+
+        long legacyBalance = wallet.getBalance();
+        long migratedBalance = registry.migrate(player.getUUID(), legacyBalance);
+        if (migratedBalance >= 0) {
+            registry.getEconomy().record(EconomySource.MIGRATION, legacyBalance);
+            wallet.setBalance(migratedBalance);
+            FreeMarket.LOGGER.debug("Migrated {} wallet balance {} into wallet registry", player.getName().getString(), legacyBalance);
+        } else {
+            wallet.setBalance(registry.getBalance(player.getUUID()));
+        }
+    }
+
+    /**
+     * Copies a registry balance into the player's attachment if they are online.
+     */
+    private static void mirrorToAttachment(MinecraftServer server, UUID playerId, long balance) {
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            player.getData(PlayerWalletAttachment.WALLET).setBalance(balance);
+        }
     }
 }
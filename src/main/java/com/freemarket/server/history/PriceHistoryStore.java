@@ -0,0 +1,194 @@
+package com.freemarket.server.history;
+
+import com.freemarket.FreeMarket;
+import com.freemarket.server.trade.CompletedTrade;
+import com.freemarket.server.trade.TradeRequest;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-listing price and volume history at minute, hour and day resolution, stored in the binary
+ * file {@code world/data/freemarket_history.bin}.
+ *
+ * <p>Every committed trade is recorded into all three {@link PriceSeries} of its listing at once, so
+ * the coarser resolutions are rolled up incrementally rather than recomputed from the finer ones.
+ * With the bucket counts in {@link PriceResolution} (198 buckets of 32 bytes) a listing costs about
+ * 6.5 KB of memory and file space, regardless of how much it trades. A listing's history is dropped
+ * when the listing leaves the marketplace.</p>
+ *
+ * <p>The file is rewritten on world save: the bytes are built on the server thread and written to a
+ * temporary file on the IO pool, then moved into place. Used only from the server thread.</p>
+ */
+public class PriceHistoryStore {
+
+    private static final String FILE_NAME = "freemarket_history.bin";
+    private static final int MAGIC = 0x464D5048; // "FMPH"
+    private static final int VERSION = 1;
+
+    private static final Map<String, PriceSeries[]> HISTORY = new HashMap<>();
+    private static Path file;
+
+    // Orders asynchronous writes so an older snapshot never replaces a newer one
+    private static final AtomicLong writeSequence = new AtomicLong();
+    private static long lastWritten = 0;
+
+    /**
+     * Records a committed trade. Registered as a trade listener.
+     */
+    public static void onTrade(CompletedTrade trade) {
+        PriceSeries[] series = HISTORY.computeIfAbsent(trade.item().getGuid(), guid -> newSeries());
+        boolean buy = trade.type() == TradeRequest.Type.BUY;
+        for (PriceSeries resolution : series) {
+            resolution.record(trade.timestamp(), trade.item().getBuyPrice(), trade.item().getSellPrice(),
+                buy ? trade.quantity() : 0, buy ? 0 : trade.quantity());
+        }
+    }
+
+    /**
+     * Forgets a listing's history, e.g. after the listing was removed. The file loses it on the next save.
+     */
+    public static void remove(String guid) {
+        HISTORY.remove(guid);
+    }
+
+    /**
+     * A listing's history at one resolution, oldest bucket first.
+     * @param buyPrices closing buy price per bucket, 0 before the first trade
+     * @param sellPrices closing sell price per bucket, 0 before the first trade
+     * @param volumes items bought plus sold per bucket
+     */
+    public record Chart(long[] buyPrices, long[] sellPrices, int[] volumes) {}
+
+    /**
+     * Reads a listing's history, or null if it has never traded.
+     */
+    public static Chart getChart(String guid, PriceResolution resolution) {
+        PriceSeries[] series = HISTORY.get(guid);
+        if (series == null) {
+            return null;
+        }
+        int buckets = resolution.getBuckets();
+        Chart chart = new Chart(new long[buckets], new long[buckets], new int[buckets]);
+        series[resolution.ordinal()].read(System.currentTimeMillis(), chart.buyPrices(), chart.sellPrices(), chart.volumes());
+        return chart;
+    }
+
+    private static PriceSeries[] newSeries() {
+        PriceResolution[] resolutions = PriceResolution.values();
+        PriceSeries[] series = new PriceSeries[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            series[i] = new PriceSeries(resolutions[i].getBuckets(), resolutions[i].getBucketMillis());
+        }
+        return series;
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        file = event.getServer().getWorldPath(LevelResource.ROOT).resolve("data").resolve(FILE_NAME);
+        HISTORY.clear();
+        load();
+    }
+
+    @SubscribeEvent
+    public static void onLevelSave(LevelEvent.Save event) {
+        MinecraftServer server = event.getLevel().getServer();
+        if (file == null || server == null || event.getLevel() != server.overworld()) {
+            return;
+        }
+        byte[] data = serialize();
+        long sequence = writeSequence.incrementAndGet();
+        Path target = file;
+        Util.ioPool().execute(() -> write(target, data, sequence));
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        if (file != null) {
+            // Written synchronously so the file is complete before the game exits
+            write(file, serialize(), writeSequence.incrementAndGet());
+        }
+        HISTORY.clear();
+        file = null;
+    }
+
+    private static byte[] serialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(HISTORY.size());
+            for (Map.Entry<String, PriceSeries[]> entry : HISTORY.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeByte(entry.getValue().length);
+                for (PriceSeries series : entry.getValue()) {
+                    series.writeTo(out);
+                }
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static synchronized void write(Path target, byte[] data, long sequence) {
+        if (sequence < lastWritten) {
+            return;
+        }
+        lastWritten = sequence;
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(FILE_NAME + ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to write price history {}: {}", target, e.getMessage());
+        }
+    }
+
+    private static void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file));
+             DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                FreeMarket.LOGGER.warn("Ignoring price history {} with an unknown format", file);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String guid = in.readUTF();
+                int seriesCount = in.readUnsignedByte();
+                PriceSeries[] series = newSeries();
+                for (int j = 0; j < seriesCount; j++) {
+                    // Resolutions added later keep their fresh series; removed ones are read and dropped
+                    PriceSeries target = j < series.length ? series[j] : new PriceSeries(1, 1);
+                    target.readFrom(in);
+                }
+                HISTORY.put(guid, series);
+            }
+            FreeMarket.LOGGER.info("Loaded price history for {} listings", count);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to read price history {}: {}", file, e.getMessage());
+        }
+    }
+}
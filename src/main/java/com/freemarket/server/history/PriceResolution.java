@@ -0,0 +1,34 @@
+package com.freemarket.server.history;
+
+/**
+ * The resolutions every listing's price history is kept at, with how many buckets each keeps.
+ */
+public enum PriceResolution {
+    MINUTE(60, 60_000L),      // last hour
+    HOUR(48, 3_600_000L),     // last two days
+    DAY(90, 86_400_000L);     // last ninety days
+
+    private final int buckets;
+    private final long bucketMillis;
+
+    PriceResolution(int buckets, long bucketMillis) {
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Gets a resolution by ordinal, falling back to HOUR for unknown values from the network.
+     */
+    public static PriceResolution byId(int id) {
+        PriceResolution[] values = values();
+        return id >= 0 && id < values.length ? values[id] : HOUR;
+    }
+}
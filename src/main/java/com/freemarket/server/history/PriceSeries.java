@@ -0,0 +1,131 @@
+package com.freemarket.server.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of time buckets for one listing at one resolution.
+ *
+ * <p>Each bucket covers {@code bucketMillis} and lives in slot {@code bucket % capacity}, so the ring
+ * never needs a head pointer: a slot whose stored bucket number is not the one being asked for is
+ * simply empty or stale, and is reset when a trade lands in it. Recording a trade is O(1).</p>
+ *
+ * <p>Each slot takes 32 bytes in five parallel primitive arrays (bucket number, closing buy and sell
+ * price, items bought and sold), so a series costs {@code 32 * capacity} bytes plus array headers.</p>
+ */
+public class PriceSeries {
+
+    private final int capacity;
+    private final long bucketMillis;
+    private final long[] buckets;
+    private final long[] buyClose;
+    private final long[] sellClose;
+    private final int[] bought;
+    private final int[] sold;
+
+    public PriceSeries(int capacity, long bucketMillis) {
+        this.capacity = capacity;
+        this.bucketMillis = bucketMillis;
+        this.buckets = new long[capacity];
+        this.buyClose = new long[capacity];
+        this.sellClose = new long[capacity];
+        this.bought = new int[capacity];
+        this.sold = new int[capacity];
+        Arrays.fill(buckets, -1);
+    }
+
+    /**
+     * Records a trade: the listing's prices at that moment become the bucket's closing prices.
+     */
+    public void record(long timestamp, long buyPrice, long sellPrice, int boughtCount, int soldCount) {
+        long bucket = timestamp / bucketMillis;
+        int slot = (int) (bucket % capacity);
+        if (buckets[slot] != bucket) {
+            if (buckets[slot] > bucket) {
+                // Older than anything the ring still holds
+                return;
+            }
+            buckets[slot] = bucket;
+            bought[slot] = 0;
+            sold[slot] = 0;
+        }
+        buyClose[slot] = buyPrice;
+        sellClose[slot] = sellPrice;
+        bought[slot] += boughtCount;
+        sold[slot] += soldCount;
+    }
+
+    /**
+     * Reads the last {@code capacity} buckets up to {@code now}, oldest first. Buckets without trades
+     * carry the previous closing prices forward; buckets before the first trade are 0.
+     */
+    public void read(long now, long[] buyPrices, long[] sellPrices, int[] volumes) {
+        long newest = now / bucketMillis;
+        long oldest = newest - capacity + 1;
+
+        // Start from the last close before the window so a quiet start still shows a price
+        long lastBuy = 0;
+        long lastSell = 0;
+        long lastBucket = Long.MIN_VALUE;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (buckets[slot] >= 0 && buckets[slot] < oldest && buckets[slot] > lastBucket) {
+                lastBucket = buckets[slot];
+                lastBuy = buyClose[slot];
+                lastSell = sellClose[slot];
+            }
+        }
+
+        for (int i = 0; i < capacity; i++) {
+            long bucket = oldest + i;
+            int slot = (int) (bucket % capacity);
+            if (buckets[slot] == bucket) {
+                lastBuy = buyClose[slot];
+                lastSell = sellClose[slot];
+                volumes[i] = bought[slot] + sold[slot];
+            } else {
+                volumes[i] = 0;
+            }
+            buyPrices[i] = lastBuy;
+            sellPrices[i] = lastSell;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            out.writeLong(buckets[slot]);
+            out.writeLong(buyClose[slot]);
+            out.writeLong(sellClose[slot]);
+            out.writeInt(bought[slot]);
+            out.writeInt(sold[slot]);
+        }
+    }
+
+    /**
+     * Reads a series written by {@link #writeTo}. Data saved with a different capacity is skipped,
+     * leaving this series empty.
+     */
+    void readFrom(DataInput in) throws IOException {
+        int savedCapacity = in.readInt();
+        for (int slot = 0; slot < savedCapacity; slot++) {
+            long bucket = in.readLong();
+            long buy = in.readLong();
+            long sell = in.readLong();
+            int boughtCount = in.readInt();
+            int soldCount = in.readInt();
+            if (savedCapacity == capacity) {
+                buckets[slot] = bucket;
+                buyClose[slot] = buy;
+                sellClose[slot] = sell;
+                bought[slot] = boughtCount;
+                sold[slot] = soldCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.freemarket.server.ledger;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.UUID;
+
+/**
+ * A single wallet mutation recorded in the transaction ledger.
+ * Serialized as one JSON object per line (NDJSON).
+ *
+ * @param timestamp epoch milliseconds when the mutation happened
+ * @param playerId the player whose wallet changed
+ * @param delta signed change in balance
+ * @param balanceAfter wallet balance after the change
+ * @param reason why the balance changed
+ * @param listingGuid marketplace listing involved, or null when not a trade
+ */
+public record LedgerEntry(long timestamp, UUID playerId, long delta, long balanceAfter, LedgerReason reason, String listingGuid) {
+
+    public String toJsonLine() {
+        JsonObject json = new JsonObject();
+        json.addProperty("ts", timestamp);
+        json.addProperty("player", playerId.toString());
+        json.addProperty("delta", delta);
+        json.addProperty("balance", balanceAfter);
+        json.addProperty("reason", reason.name());
+        if (listingGuid != null) {
+            json.addProperty("listing", listingGuid);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Parses a ledger line, returning null if it is malformed (e.g. a torn write after a crash).
+     */
+    public static LedgerEntry fromJsonLine(String line) {
+        try {
+            JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+            return new LedgerEntry(
+                json.get("ts").getAsLong(),
+                UUID.fromString(json.get("player").getAsString()),
+                json.get("delta").getAsLong(),
+                json.get("balance").getAsLong(),
+                LedgerReason.valueOf(json.get("reason").getAsString()),
+                json.has("listing") ? json.get("listing").getAsString() : null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
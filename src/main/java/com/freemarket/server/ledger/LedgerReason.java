@@ -0,0 +1,21 @@
+package com.freemarket.server.ledger;
+
+/**
+ * Why a wallet balance changed. Stored by name in the transaction ledger.
+ */
+public enum LedgerReason {
+    BUY,
+    SELL,
+    PAY_SENT,
+    PAY_RECEIVED,
+    ADMIN_ADD,
+    ADMIN_REMOVE,
+    ADMIN_SET,
+    ORDER_ESCROW,
+    ORDER_REFUND,
+    ORDER_FILL,
+    AUCTION_BID,
+    AUCTION_REFUND,
+    AUCTION_SALE,
+    LISTING_SALE
+}
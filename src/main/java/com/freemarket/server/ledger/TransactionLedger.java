@@ -0,0 +1,414 @@
+package com.freemarket.server.ledger;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Append-only ledger of every wallet mutation, stored as NDJSON segment files in
+ * {@code world/data/freemarket_ledger}.
+ *
+ * <p>Callers on any thread add entries to a lock-free queue; a single background writer
+ * appends them to the current segment and rotates to a new segment when it reaches the
+ * configured size or age. An {@code index.json} file records each segment's time range and
+ * the players it contains, so audits only open the segments that can match.</p>
+ */
+public class TransactionLedger {
+
+    private static final String LEDGER_DIRECTORY_NAME = "freemarket_ledger";
+    private static final String INDEX_FILE_NAME = "index.json";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".ndjson";
+    private static final long INDEX_WRITE_INTERVAL_MS = 5000;
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // Wallet mutations waiting for the writer (many producers, one consumer)
+    private static final Queue<LedgerEntry> PENDING = new ConcurrentLinkedQueue<>();
+
+    // Segment index, oldest first; the last entry is the segment being written
+    private static final List<SegmentInfo> segments = new CopyOnWriteArrayList<>();
+
+    private static volatile Path directory;
+    private static volatile boolean running = false;
+    private static volatile Thread writerThread;
+
+    /**
+     * Index entry for one segment file. Updated by the writer thread, read by audits.
+     */
+    private static class SegmentInfo {
+        final String fileName;
+        final Set<UUID> players = ConcurrentHashMap.newKeySet();
+        volatile long minTimestamp = Long.MAX_VALUE;
+        volatile long maxTimestamp = Long.MIN_VALUE;
+        volatile long entryCount = 0;
+        volatile long bytes = 0;
+
+        SegmentInfo(String fileName) {
+            this.fileName = fileName;
+        }
+
+        void add(LedgerEntry entry, long lineBytes) {
+            players.add(entry.playerId());
+            minTimestamp = Math.min(minTimestamp, entry.timestamp());
+            maxTimestamp = Math.max(maxTimestamp, entry.timestamp());
+            entryCount++;
+            bytes += lineBytes;
+        }
+
+        boolean mayContain(UUID playerId, long since) {
+            return entryCount > 0 && maxTimestamp >= since && players.contains(playerId);
+        }
+    }
+
+    /**
+     * Records a wallet mutation. Safe to call from any thread; never blocks on disk.
+     * Entries recorded before the ledger starts are queued; after the writer failed they are dropped.
+     */
+    public static void record(UUID playerId, long delta, long balanceAfter, LedgerReason reason, String listingGuid) {
+        if (!running && writerThread != null) {
+            // The writer is stopping or died; nothing would ever drain the queue
+            return;
+        }
+        PENDING.add(new LedgerEntry(System.currentTimeMillis(), playerId, delta, balanceAfter, reason, listingGuid));
+        Thread writer = writerThread;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        start(event.getServer().getWorldPath(LevelResource.ROOT).resolve("data").resolve(LEDGER_DIRECTORY_NAME));
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        stop();
+    }
+
+    private static synchronized void start(Path ledgerDirectory) {
+        if (running) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(ledgerDirectory);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to create ledger directory {}", ledgerDirectory, e);
+            return;
+        }
+
+        directory = ledgerDirectory;
+        segments.clear();
+        loadIndex();
+
+        running = true;
+        writerThread = new Thread(TransactionLedger::runWriter, "FreeMarket-LedgerWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private static synchronized void stop() {
+        // The writer may already have stopped on its own after a write failure
+        if (writerThread == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+        // Anything still queued belongs to this world; don't let it leak into the next one
+        PENDING.clear();
+        segments.clear();
+        directory = null;
+    }
+
+    // ============================================================================
+    // WRITER
+    // ============================================================================
+
+    private static void runWriter() {
+        long maxBytes = Config.LEDGER_SEGMENT_MAX_KB.get() * 1024L;
+        long maxAgeMs = TimeUnit.MINUTES.toMillis(Config.LEDGER_SEGMENT_MAX_MINUTES.get());
+
+        // Always start a fresh segment so a torn line from a crash is never appended to
+        SegmentInfo current = openNewSegment();
+        long segmentOpenedAt = System.currentTimeMillis();
+        long lastIndexWrite = 0;
+        boolean indexDirty = true;
+        BufferedWriter writer = null;
+
+        try {
+            while (running || !PENDING.isEmpty()) {
+                LedgerEntry entry = PENDING.poll();
+                if (entry == null) {
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                    if (indexDirty && System.currentTimeMillis() - lastIndexWrite >= INDEX_WRITE_INTERVAL_MS) {
+                        writeIndex();
+                        lastIndexWrite = System.currentTimeMillis();
+                        indexDirty = false;
+                    }
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                    continue;
+                }
+
+                // Rotate by size or age before writing into a full segment
+                if (current.entryCount > 0
+                        && (current.bytes >= maxBytes || System.currentTimeMillis() - segmentOpenedAt >= maxAgeMs)) {
+                    if (writer != null) {
+                        writer.close();
+                        writer = null;
+                    }
+                    current = openNewSegment();
+                    segmentOpenedAt = System.currentTimeMillis();
+                    writeIndex();
+                    lastIndexWrite = System.currentTimeMillis();
+                }
+
+                if (writer == null) {
+                    writer = Files.newBufferedWriter(directory.resolve(current.fileName), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+
+                String line = entry.toJsonLine();
+                writer.write(line);
+                writer.write('\n');
+                current.add(entry, line.getBytes(StandardCharsets.UTF_8).length + 1L);
+                indexDirty = true;
+            }
+        } catch (IOException e) {
+            // Stop accepting entries so the queue cannot grow without a writer
+            running = false;
+            PENDING.clear();
+            FreeMarket.LOGGER.error("Transaction ledger writer failed; further wallet mutations will not be recorded", e);
+        } finally {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                FreeMarket.LOGGER.error("Failed to close ledger segment", e);
+            }
+            writeIndex();
+        }
+    }
+
+    private static SegmentInfo openNewSegment() {
+        int nextNumber = 1;
+        if (!segments.isEmpty()) {
+            nextNumber = parseSegmentNumber(segments.get(segments.size() - 1).fileName) + 1;
+        }
+        SegmentInfo segment = new SegmentInfo(String.format("%s%06d%s", SEGMENT_PREFIX, nextNumber, SEGMENT_SUFFIX));
+        segments.add(segment);
+        return segment;
+    }
+
+    private static int parseSegmentNumber(String fileName) {
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // ============================================================================
+    // INDEX
+    // ============================================================================
+
+    /**
+     * Loads the segment index, rescanning any segment the index doesn't describe accurately
+     * (e.g. the last segment after a crash).
+     */
+    private static void loadIndex() {
+        Map<String, SegmentInfo> indexed = new HashMap<>();
+        Path indexFile = directory.resolve(INDEX_FILE_NAME);
+
+        if (Files.exists(indexFile)) {
+            try {
+                JsonElement root = JsonParser.parseString(Files.readString(indexFile));
+                for (JsonElement element : root.getAsJsonObject().getAsJsonArray("segments")) {
+                    JsonObject json = element.getAsJsonObject();
+                    SegmentInfo info = new SegmentInfo(json.get("file").getAsString());
+                    info.minTimestamp = json.get("min").getAsLong();
+                    info.maxTimestamp = json.get("max").getAsLong();
+                    info.entryCount = json.get("count").getAsLong();
+                    info.bytes = json.get("bytes").getAsLong();
+                    for (JsonElement player : json.getAsJsonArray("players")) {
+                        info.players.add(UUID.fromString(player.getAsString()));
+                    }
+                    indexed.put(info.fileName, info);
+                }
+            } catch (Exception e) {
+                FreeMarket.LOGGER.warn("Ledger index is unreadable, rebuilding from segments: {}", e.getMessage());
+                indexed.clear();
+            }
+        }
+
+        List<Path> segmentFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segmentFiles::add);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to list ledger segments in {}", directory, e);
+        }
+
+        for (Path file : segmentFiles) {
+            String name = file.getFileName().toString();
+            SegmentInfo info = indexed.get(name);
+            try {
+                if (info == null || info.bytes != Files.size(file)) {
+                    info = scanSegment(file);
+                }
+                segments.add(info);
+            } catch (IOException e) {
+                FreeMarket.LOGGER.error("Failed to read ledger segment {}", file, e);
+            }
+        }
+    }
+
+    private static SegmentInfo scanSegment(Path file) throws IOException {
+        SegmentInfo info = new SegmentInfo(file.getFileName().toString());
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LedgerEntry entry = LedgerEntry.fromJsonLine(line);
+                if (entry != null) {
+                    info.add(entry, 0);
+                }
+            }
+        }
+        info.bytes = Files.size(file);
+        return info;
+    }
+
+    private static void writeIndex() {
+        Path ledgerDirectory = directory;
+        if (ledgerDirectory == null) {
+            return;
+        }
+
+        JsonArray segmentsJson = new JsonArray();
+        for (SegmentInfo info : segments) {
+            if (info.entryCount == 0) {
+                continue;
+            }
+            JsonObject json = new JsonObject();
+            json.addProperty("file", info.fileName);
+            json.addProperty("min", info.minTimestamp);
+            json.addProperty("max", info.maxTimestamp);
+            json.addProperty("count", info.entryCount);
+            json.addProperty("bytes", info.bytes);
+            JsonArray players = new JsonArray();
+            for (UUID player : info.players) {
+                players.add(player.toString());
+            }
+            json.add("players", players);
+            segmentsJson.add(json);
+        }
+
+        JsonObject root = new JsonObject();
+        root.add("segments", segmentsJson);
+
+        try {
+            // Write to a temp file first so a crash never leaves a half-written index
+            Path tempFile = ledgerDirectory.resolve(INDEX_FILE_NAME + ".tmp");
+            Files.writeString(tempFile, GSON.toJson(root), StandardCharsets.UTF_8);
+            Files.move(tempFile, ledgerDirectory.resolve(INDEX_FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to write ledger index", e);
+        }
+    }
+
+    // ============================================================================
+    // AUDIT
+    // ============================================================================
+
+    /**
+     * Returns the most recent ledger entries for a player since the given time, oldest first.
+     * Only segments whose index entry can contain the player and time range are read.
+     * Performs file I/O; call off the server thread.
+     *
+     * @param playerId the player to audit
+     * @param since epoch milliseconds; entries before this are skipped
+     * @param limit maximum number of entries to return
+     */
+    public static List<LedgerEntry> query(UUID playerId, long since, int limit) {
+        Path ledgerDirectory = directory;
+        Deque<LedgerEntry> results = new ArrayDeque<>();
+        if (ledgerDirectory == null) {
+            return new ArrayList<>(results);
+        }
+
+        String playerIdString = playerId.toString();
+        for (SegmentInfo info : segments) {
+            if (!info.mayContain(playerId, since)) {
+                continue;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(ledgerDirectory.resolve(info.fileName), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // Cheap substring check before parsing the JSON
+                    if (!line.contains(playerIdString)) {
+                        continue;
+                    }
+                    LedgerEntry entry = LedgerEntry.fromJsonLine(line);
+                    if (entry == null || !entry.playerId().equals(playerId) || entry.timestamp() < since) {
+                        continue;
+                    }
+                    results.addLast(entry);
+                    if (results.size() > limit) {
+                        results.removeFirst();
+                    }
+                }
+            } catch (IOException e) {
+                FreeMarket.LOGGER.error("Failed to read ledger segment {}", info.fileName, e);
+            }
+        }
+
+        return new ArrayList<>(results);
+    }
+}
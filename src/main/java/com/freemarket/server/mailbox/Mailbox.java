@@ -0,0 +1,116 @@
+package com.freemarket.server.mailbox;
+
+import com.freemarket.server.handlers.ServerInventoryHandler;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Items waiting for one player: purchases that did not fit, auction wins and returns, order fills
+ * and listing stock. Stacks of the same item and components are merged as they arrive.
+ *
+ * <p>Each stack is stored as its own item tag behind a stack count, so the file holds only
+ * the stacks themselves. Used only from the server thread.</p>
+ */
+public class Mailbox {
+
+    private final List<ItemStack> items = new ArrayList<>();
+    private int itemCount = 0;
+    private boolean dirty = false;
+
+    /**
+     * Adds {@code count} copies of the template, topping up waiting stacks first.
+     */
+    public void add(ItemStack template, int count) {
+        if (count <= 0) {
+            return;
+        }
+        itemCount += count;
+        for (ItemStack stack : items) {
+            if (count <= 0) {
+                break;
+            }
+            if (ItemStack.isSameItemSameComponents(stack, template) && stack.getCount() < stack.getMaxStackSize()) {
+                int added = Math.min(count, stack.getMaxStackSize() - stack.getCount());
+                stack.grow(added);
+                count -= added;
+            }
+        }
+        if (count > 0) {
+            items.addAll(ServerInventoryHandler.splitIntoStacks(template, count));
+        }
+        dirty = true;
+    }
+
+    /**
+     * Moves as many waiting items as fit into the player's inventory.
+     * @return the number of items handed over
+     */
+    public int claim(ServerPlayer player) {
+        int claimed = 0;
+        Iterator<ItemStack> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            ItemStack stack = iterator.next();
+            int leftover = ServerInventoryHandler.insertMatching(player, stack, stack.getCount());
+            claimed += stack.getCount() - leftover;
+            if (leftover == 0) {
+                iterator.remove();
+            } else {
+                stack.setCount(leftover);
+            }
+        }
+        if (claimed > 0) {
+            itemCount -= claimed;
+            dirty = true;
+        }
+        return claimed;
+    }
+
+    /**
+     * Total number of items waiting, across all stacks.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void markSaved() {
+        dirty = false;
+    }
+
+    void writeTo(DataOutput out, HolderLookup.Provider registries) throws IOException {
+        out.writeInt(items.size());
+        for (ItemStack stack : items) {
+            NbtIo.write((CompoundTag) stack.save(registries), out);
+        }
+    }
+
+    void readFrom(DataInput in, HolderLookup.Provider registries) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            CompoundTag tag = NbtIo.read(in, NbtAccounter.unlimitedHeap());
+            // Stacks of items that no longer exist are dropped
+            ItemStack.parse(registries, tag).ifPresent(stack -> {
+                items.add(stack);
+                itemCount += stack.getCount();
+            });
+        }
+    }
+}
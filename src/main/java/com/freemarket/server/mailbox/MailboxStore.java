@@ -0,0 +1,215 @@
+package com.freemarket.server.mailbox;
+
+import com.freemarket.FreeMarket;
+import com.freemarket.common.network.MailboxStatusPacket;
+import com.freemarket.server.handlers.ServerInventoryHandler;
+import net.minecraft.Util;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-player mailboxes, one binary file per player in {@code world/data/freemarket_mailbox/<uuid>.bin}.
+ *
+ * <p>Everything the market owes a player in items goes through {@link #deliver}: online players get
+ * what fits straight into their inventory and the rest waits in their {@link Mailbox}, so nothing is
+ * dropped into the world. Players claim their mailbox from the marketplace screen, which hands over
+ * as much as fits in one go.</p>
+ *
+ * <p>A mailbox is read from disk the first time it is needed. On world save, changed mailboxes are
+ * serialized on the server thread and written on the IO pool; mailboxes of offline players that
+ * have not changed since the previous save are unloaded. Used only from the server thread.</p>
+ */
+public class MailboxStore {
+
+    private static final String DIRECTORY_NAME = "freemarket_mailbox";
+    private static final int MAGIC = 0x464D4D42; // "FMMB"
+    private static final int VERSION = 1;
+
+    private static final Map<UUID, Mailbox> LOADED = new HashMap<>();
+    private static Path directory;
+
+    // Orders asynchronous writes per player so an older snapshot never replaces a newer one
+    private static long writeSequence = 0;
+    private static final Map<UUID, Long> lastWritten = new HashMap<>();
+
+    /**
+     * Gets a player's mailbox, reading it from disk on first access.
+     */
+    public static Mailbox get(MinecraftServer server, UUID playerId) {
+        return LOADED.computeIfAbsent(playerId, id -> load(server.registryAccess(), id));
+    }
+
+    /**
+     * Gives {@code count} copies of the template to a player: straight into the inventory if they are
+     * online, with anything that does not fit (or everything, if offline) put in their mailbox.
+     * @return the number of items that went to the mailbox
+     */
+    public static int deliver(MinecraftServer server, UUID playerId, ItemStack template, int count) {
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        int leftover = player != null ? ServerInventoryHandler.insertMatching(player, template, count) : count;
+        if (leftover > 0) {
+            Mailbox mailbox = get(server, playerId);
+            mailbox.add(template, leftover);
+            if (player != null) {
+                sendStatus(player, mailbox);
+            }
+        }
+        return leftover;
+    }
+
+    /**
+     * Moves as much of a player's mailbox as fits into their inventory.
+     * @return the number of items handed over
+     */
+    public static int claim(ServerPlayer player) {
+        Mailbox mailbox = get(player.server, player.getUUID());
+        int claimed = mailbox.claim(player);
+        sendStatus(player, mailbox);
+        if (claimed > 0) {
+            FreeMarket.LOGGER.debug("Delivered {} mailbox items to {}", claimed, player.getName().getString());
+        }
+        return claimed;
+    }
+
+    /**
+     * Tells a player's client how many items are waiting in their mailbox.
+     */
+    public static void sendStatus(ServerPlayer player) {
+        sendStatus(player, get(player.server, player.getUUID()));
+    }
+
+    private static void sendStatus(ServerPlayer player, Mailbox mailbox) {
+        PacketDistributor.sendToPlayer(player, new MailboxStatusPacket(mailbox.getItemCount()));
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        directory = event.getServer().getWorldPath(LevelResource.ROOT).resolve("data").resolve(DIRECTORY_NAME);
+        LOADED.clear();
+    }
+
+    @SubscribeEvent
+    public static void onLevelSave(LevelEvent.Save event) {
+        MinecraftServer server = event.getLevel().getServer();
+        if (directory == null || server == null || event.getLevel() != server.overworld()) {
+            return;
+        }
+
+        Map<UUID, byte[]> changed = new HashMap<>();
+        Iterator<Map.Entry<UUID, Mailbox>> iterator = LOADED.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Mailbox> entry = iterator.next();
+            Mailbox mailbox = entry.getValue();
+            if (mailbox.isDirty()) {
+                changed.put(entry.getKey(), serialize(mailbox, server.registryAccess()));
+                mailbox.markSaved();
+            } else if (server.getPlayerList().getPlayer(entry.getKey()) == null) {
+                // Saved by an earlier world save and nobody is using it
+                iterator.remove();
+            }
+        }
+        if (!changed.isEmpty()) {
+            long sequence = ++writeSequence;
+            Path target = directory;
+            Util.ioPool().execute(() -> write(target, changed, sequence));
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        if (directory != null) {
+            Map<UUID, byte[]> changed = new HashMap<>();
+            for (Map.Entry<UUID, Mailbox> entry : LOADED.entrySet()) {
+                if (entry.getValue().isDirty()) {
+                    changed.put(entry.getKey(), serialize(entry.getValue(), event.getServer().registryAccess()));
+                }
+            }
+            // Written synchronously so the files are complete before the game exits
+            write(directory, changed, ++writeSequence);
+        }
+        LOADED.clear();
+        directory = null;
+    }
+
+    /**
+     * Serializes a mailbox, or returns null for an empty one so its file is deleted.
+     */
+    private static byte[] serialize(Mailbox mailbox, HolderLookup.Provider registries) {
+        if (mailbox.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            mailbox.writeTo(out, registries);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static synchronized void write(Path directory, Map<UUID, byte[]> changed, long sequence) {
+        for (Map.Entry<UUID, byte[]> entry : changed.entrySet()) {
+            if (sequence < lastWritten.getOrDefault(entry.getKey(), 0L)) {
+                continue;
+            }
+            lastWritten.put(entry.getKey(), sequence);
+            Path target = directory.resolve(entry.getKey() + ".bin");
+            try {
+                if (entry.getValue() == null) {
+                    Files.deleteIfExists(target);
+                    continue;
+                }
+                Files.createDirectories(directory);
+                Path temp = directory.resolve(entry.getKey() + ".bin.tmp");
+                Files.write(temp, entry.getValue());
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                FreeMarket.LOGGER.error("Failed to write mailbox {}: {}", target, e.getMessage());
+            }
+        }
+    }
+
+    private static Mailbox load(HolderLookup.Provider registries, UUID playerId) {
+        Mailbox mailbox = new Mailbox();
+        Path file = directory == null ? null : directory.resolve(playerId + ".bin");
+        if (file == null || !Files.exists(file)) {
+            return mailbox;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file));
+             DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                FreeMarket.LOGGER.warn("Ignoring mailbox {} with an unknown format", file);
+                return mailbox;
+            }
+            mailbox.readFrom(in, registries);
+        } catch (IOException e) {
+            FreeMarket.LOGGER.error("Failed to read mailbox {}: {}", file, e.getMessage());
+        }
+        return mailbox;
+    }
+}
@@ -0,0 +1,73 @@
+package com.freemarket.server.orderbook;
+
+import java.util.UUID;
+
+/**
+ * A resting player order in an {@link OrderBook}.
+ * Buy orders hold {@code price * remaining} coins in escrow; sell orders hold {@code remaining} items.
+ */
+public class Order {
+
+    private final long id;
+    private final UUID owner;
+    private final OrderSide side;
+    private final long price;
+    private final int quantity;
+    private final long sequence;
+    private int remaining;
+
+    /**
+     * @param id unique order id, shown to players for cancelling
+     * @param owner the player who placed the order
+     * @param side buy or sell
+     * @param price limit price per item
+     * @param quantity number of items originally ordered
+     * @param remaining number of items not yet filled
+     * @param sequence placement order, used for time priority within a price level
+     */
+    public Order(long id, UUID owner, OrderSide side, long price, int quantity, int remaining, long sequence) {
+        this.id = id;
+        this.owner = owner;
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        this.remaining = remaining;
+        this.sequence = sequence;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public UUID getOwner() {
+        return owner;
+    }
+
+    public OrderSide getSide() {
+        return side;
+    }
+
+    public long getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public boolean isFilled() {
+        return remaining == 0;
+    }
+
+    void fill(int amount) {
+        remaining -= amount;
+    }
+}
@@ -0,0 +1,207 @@
+package com.freemarket.server.orderbook;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Limit order book for one item (item plus components) with price-time priority.
+ *
+ * <p>Each side is a {@link TreeMap} of price levels, best price first, and each level is a FIFO
+ * queue of orders in placement order. Matching repeatedly crosses the best bid against the best
+ * ask; the trade happens at the price of whichever order was placed first (the resting order),
+ * and partial fills leave the remainder at the front of its level. A player's orders never trade with
+ * each other: when the best bid and ask have the same owner, the newer of the two is cancelled
+ * instead and matching carries on with the next order.</p>
+ *
+ * <p>Not thread-safe; used only from the server thread.</p>
+ */
+public class OrderBook {
+
+    /**
+     * Receives each fill as it is matched.
+     */
+    @FunctionalInterface
+    public interface FillListener {
+        void onFill(Order buy, Order sell, int quantity, long price);
+    }
+
+    /**
+     * Receives each order cancelled to keep its owner from trading with themselves. The order still
+     * has its unfilled remainder, whose escrow is to be returned.
+     */
+    @FunctionalInterface
+    public interface CancelListener {
+        void onCancel(Order order);
+    }
+
+    /**
+     * Aggregated quantity at one price level, for display.
+     */
+    public record Level(long price, int quantity, int orders) {}
+
+    private final NavigableMap<Long, ArrayDeque<Order>> bids = new TreeMap<>(Collections.reverseOrder());
+    private final NavigableMap<Long, ArrayDeque<Order>> asks = new TreeMap<>();
+    private int orderCount = 0;
+
+    /**
+     * Adds an order at the back of its price level.
+     */
+    public void add(Order order) {
+        sideFor(order.getSide()).computeIfAbsent(order.getPrice(), price -> new ArrayDeque<>()).addLast(order);
+        orderCount++;
+    }
+
+    /**
+     * Removes an order from the book.
+     * @return true if the order was resting in this book
+     */
+    public boolean remove(Order order) {
+        NavigableMap<Long, ArrayDeque<Order>> side = sideFor(order.getSide());
+        ArrayDeque<Order> level = side.get(order.getPrice());
+        if (level == null || !level.remove(order)) {
+            return false;
+        }
+        if (level.isEmpty()) {
+            side.remove(order.getPrice());
+        }
+        orderCount--;
+        return true;
+    }
+
+    /**
+     * Checks whether the best bid meets or exceeds the best ask, i.e. there is something to match.
+     */
+    public boolean isCrossed() {
+        return !bids.isEmpty() && !asks.isEmpty() && bids.firstKey() >= asks.firstKey();
+    }
+
+    /**
+     * Matches crossing orders until the book is uncrossed or {@code maxFills} fills and self-trade
+     * cancellations have happened. Fully filled and cancelled orders are removed from the book before
+     * the listeners see the next one.
+     * @return the number of fills made
+     */
+    public int match(int maxFills, FillListener listener, CancelListener cancelListener) {
+        int fills = 0;
+        int cancels = 0;
+        while (fills + cancels < maxFills && isCrossed()) {
+            Map.Entry<Long, ArrayDeque<Order>> bidLevel = bids.firstEntry();
+            Map.Entry<Long, ArrayDeque<Order>> askLevel = asks.firstEntry();
+            Order buy = bidLevel.getValue().peekFirst();
+            Order sell = askLevel.getValue().peekFirst();
+
+            if (buy.getOwner().equals(sell.getOwner())) {
+                // Self-trade prevention: the order that crossed its owner's resting one goes
+                boolean buyIsNewer = buy.getSequence() > sell.getSequence();
+                Order newer = buyIsNewer ? buy : sell;
+                popFirst(buyIsNewer ? bids : asks, buyIsNewer ? bidLevel : askLevel);
+                cancelListener.onCancel(newer);
+                cancels++;
+                continue;
+            }
+
+            int quantity = Math.min(buy.getRemaining(), sell.getRemaining());
+            // The resting (earlier) order sets the price
+            long price = buy.getSequence() < sell.getSequence() ? buy.getPrice() : sell.getPrice();
+
+            buy.fill(quantity);
+            sell.fill(quantity);
+            popIfFilled(bids, bidLevel);
+            popIfFilled(asks, askLevel);
+
+            listener.onFill(buy, sell, quantity, price);
+            fills++;
+        }
+        return fills;
+    }
+
+    private void popIfFilled(NavigableMap<Long, ArrayDeque<Order>> side, Map.Entry<Long, ArrayDeque<Order>> level) {
+        if (level.getValue().peekFirst().isFilled()) {
+            popFirst(side, level);
+        }
+    }
+
+    private void popFirst(NavigableMap<Long, ArrayDeque<Order>> side, Map.Entry<Long, ArrayDeque<Order>> level) {
+        ArrayDeque<Order> queue = level.getValue();
+        queue.pollFirst();
+        orderCount--;
+        if (queue.isEmpty()) {
+            side.remove(level.getKey());
+        }
+    }
+
+    /**
+     * Gets the best price on a side, or -1 if the side is empty.
+     */
+    public long bestPrice(OrderSide side) {
+        NavigableMap<Long, ArrayDeque<Order>> levels = sideFor(side);
+        return levels.isEmpty() ? -1 : levels.firstKey();
+    }
+
+    /**
+     * Gets the oldest order at the best price on a side, or null if the side is empty.
+     */
+    public Order bestOrder(OrderSide side) {
+        NavigableMap<Long, ArrayDeque<Order>> levels = sideFor(side);
+        return levels.isEmpty() ? null : levels.firstEntry().getValue().peekFirst();
+    }
+
+    /**
+     * Gets the order with the best price on a side, oldest first within a price, that is not owned
+     * by the given player, or null if there is none. Skips only that player's own orders.
+     */
+    public Order bestOrderNotOwnedBy(OrderSide side, UUID owner) {
+        for (ArrayDeque<Order> level : sideFor(side).values()) {
+            for (Order order : level) {
+                if (!order.getOwner().equals(owner)) {
+                    return order;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets up to {@code maxLevels} aggregated price levels on a side, best first.
+     */
+    public List<Level> depth(OrderSide side, int maxLevels) {
+        List<Level> levels = new ArrayList<>();
+        for (Map.Entry<Long, ArrayDeque<Order>> entry : sideFor(side).entrySet()) {
+            if (levels.size() >= maxLevels) {
+                break;
+            }
+            int quantity = 0;
+            for (Order order : entry.getValue()) {
+                quantity += order.getRemaining();
+            }
+            levels.add(new Level(entry.getKey(), quantity, entry.getValue().size()));
+        }
+        return levels;
+    }
+
+    /**
+     * Visits every resting order, bids first.
+     */
+    public void forEachOrder(java.util.function.Consumer<Order> consumer) {
+        bids.values().forEach(level -> level.forEach(consumer));
+        asks.values().forEach(level -> level.forEach(consumer));
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public boolean isEmpty() {
+        return orderCount == 0;
+    }
+
+    private NavigableMap<Long, ArrayDeque<Order>> sideFor(OrderSide side) {
+        return side == OrderSide.BUY ? bids : asks;
+    }
+}
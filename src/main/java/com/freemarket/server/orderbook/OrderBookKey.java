@@ -0,0 +1,19 @@
+package com.freemarket.server.orderbook;
+
+import net.minecraft.core.component.DataComponentPatch;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Identifies one order book: an item together with its component changes, so enchanted,
+ * renamed or damaged items trade in their own book instead of mixing with plain ones.
+ */
+public record OrderBookKey(Item item, DataComponentPatch components) {
+
+    /**
+     * Gets the key for the book that trades the given stack.
+     */
+    public static OrderBookKey of(ItemStack stack) {
+        return new OrderBookKey(stack.getItem(), stack.getComponentsPatch());
+    }
+}
@@ -0,0 +1,359 @@
+package com.freemarket.server.orderbook;
+
+import com.freemarket.FreeMarket;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * All player order books on the server, stored as {@code data/freemarket_orders.dat}.
+ *
+ * <p>Keeps one {@link OrderBook} per {@link OrderBookKey} plus a one-item template stack used to
+ * hand out filled or returned items, and an id index so orders can be cancelled in O(1).
+ * Books that received a new order are remembered so the matching engine only visits books that
+ * may have crossed.</p>
+ *
+ * <p>Used only from the server thread.</p>
+ */
+public class OrderBookStore extends SavedData {
+
+    private static final String DATA_NAME = "freemarket_orders";
+
+    private static final SavedData.Factory<OrderBookStore> FACTORY =
+        new SavedData.Factory<>(OrderBookStore::new, OrderBookStore::load, null);
+
+    /**
+     * Receives each fill together with the book it happened in.
+     */
+    @FunctionalInterface
+    public interface FillListener {
+        void onFill(OrderBookKey key, ItemStack template, Order buy, Order sell, int quantity, long price);
+    }
+
+    /**
+     * Receives each order cancelled during matching to keep its owner from trading with themselves,
+     * together with the item it traded. The order is already out of the store; the escrow of its
+     * unfilled remainder is to be returned.
+     */
+    @FunctionalInterface
+    public interface CancelListener {
+        void onCancel(ItemStack template, Order order);
+    }
+
+    /**
+     * Part of a standing order filled directly by {@link #takeBids}.
+     */
+    public record Fill(Order order, int quantity, long price) {}
+
+    /**
+     * Coins escrowed by a buy order that was dropped on load because its item no longer exists.
+     */
+    public record OrphanedEscrow(long orderId, UUID owner, long amount) {}
+
+    private final Map<OrderBookKey, OrderBook> books = new HashMap<>();
+    private final Map<OrderBookKey, ItemStack> templates = new HashMap<>();
+    private final Long2ObjectOpenHashMap<Order> ordersById = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<OrderBookKey> keysById = new Long2ObjectOpenHashMap<>();
+    private final Set<OrderBookKey> booksToMatch = new LinkedHashSet<>();
+    // Filled on load, paid back by the matching engine once the server has started (not saved)
+    private final List<OrphanedEscrow> orphanedEscrow = new ArrayList<>();
+    private long nextOrderId = 1;
+    private long nextSequence = 1;
+
+    /**
+     * Gets the order book store for a server, loading or creating it in the overworld data storage.
+     */
+    public static OrderBookStore get(MinecraftServer server) {
+        return server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    }
+
+    /**
+     * Adds a new order to the book for the template's item. The caller has already taken the escrow.
+     * @param template the item being traded; its count is ignored
+     * @return the new order
+     */
+    public Order placeOrder(ItemStack template, UUID owner, OrderSide side, long price, int quantity) {
+        OrderBookKey key = OrderBookKey.of(template);
+        Order order = new Order(nextOrderId++, owner, side, price, quantity, quantity, nextSequence++);
+        insert(key, template, order);
+        booksToMatch.add(key);
+        setDirty();
+        return order;
+    }
+
+    private void insert(OrderBookKey key, ItemStack template, Order order) {
+        books.computeIfAbsent(key, k -> new OrderBook()).add(order);
+        templates.computeIfAbsent(key, k -> template.copyWithCount(1));
+        ordersById.put(order.getId(), order);
+        keysById.put(order.getId(), key);
+    }
+
+    /**
+     * Removes a resting order, e.g. when it is cancelled. The caller returns the escrow.
+     * @return true if the order was resting
+     */
+    public boolean removeOrder(Order order) {
+        OrderBookKey key = keysById.remove(order.getId());
+        if (key == null) {
+            return false;
+        }
+        ordersById.remove(order.getId());
+
+        OrderBook book = books.get(key);
+        if (book != null) {
+            book.remove(order);
+            if (book.isEmpty()) {
+                books.remove(key);
+                templates.remove(key);
+            }
+        }
+        setDirty();
+        return true;
+    }
+
+    public Order getOrder(long id) {
+        return ordersById.get(id);
+    }
+
+    /**
+     * Gets the item an order trades, as a one-item stack, or EMPTY if the order is unknown.
+     */
+    public ItemStack getTemplate(Order order) {
+        OrderBookKey key = keysById.get(order.getId());
+        ItemStack template = key != null ? templates.get(key) : null;
+        return template != null ? template : ItemStack.EMPTY;
+    }
+
+    /**
+     * Gets the book for an item, or null if nobody has an order for it.
+     */
+    public OrderBook getBook(ItemStack stack) {
+        return books.get(OrderBookKey.of(stack));
+    }
+
+    /**
+     * Gets all resting orders placed by a player, oldest first.
+     */
+    public List<Order> getOrdersOf(UUID owner) {
+        List<Order> orders = new ArrayList<>();
+        for (Order order : ordersById.values()) {
+            if (order.getOwner().equals(owner)) {
+                orders.add(order);
+            }
+        }
+        orders.sort((a, b) -> Long.compare(a.getSequence(), b.getSequence()));
+        return orders;
+    }
+
+    public boolean hasBooksToMatch() {
+        return !booksToMatch.isEmpty();
+    }
+
+    /**
+     * Matches the books that received orders, making at most {@code maxFills} fills in total.
+     * Orders cancelled by self-trade prevention count toward that limit.
+     * Books that still cross when the limit is hit stay queued for the next call.
+     * @return the number of fills made
+     */
+    public int matchPending(int maxFills, FillListener listener, CancelListener cancelListener) {
+        int fills = 0;
+        int cancelled = 0;
+        Iterator<OrderBookKey> iterator = booksToMatch.iterator();
+        while (iterator.hasNext() && fills + cancelled < maxFills) {
+            OrderBookKey key = iterator.next();
+            OrderBook book = books.get(key);
+            if (book == null) {
+                iterator.remove();
+                continue;
+            }
+
+            ItemStack template = templates.get(key);
+            int[] cancels = new int[1];
+            fills += book.match(maxFills - fills - cancelled, (buy, sell, quantity, price) -> {
+                forgetIfFilled(buy);
+                forgetIfFilled(sell);
+                listener.onFill(key, template, buy, sell, quantity, price);
+            }, order -> {
+                ordersById.remove(order.getId());
+                keysById.remove(order.getId());
+                cancels[0]++;
+                cancelListener.onCancel(template, order);
+            });
+            cancelled += cancels[0];
+
+            if (!book.isCrossed()) {
+                iterator.remove();
+            }
+            if (book.isEmpty()) {
+                books.remove(key);
+                templates.remove(key);
+            }
+        }
+
+        if (fills > 0 || cancelled > 0) {
+            setDirty();
+        }
+        return fills;
+    }
+
+    /**
+     * Fills standing buy orders for an item directly, best price first, for a seller who is not in
+     * the book (e.g. selling to the marketplace). The seller's own bids are skipped, so nobody sells
+     * to themselves. Each lookup of the best bid is O(log n) in the number of price levels, plus any
+     * of the seller's own bids ahead of it. Stops at {@code quantity} items or at the first bid below
+     * {@code minPrice}.
+     * The buy orders' escrow pays for the fills; the caller credits the seller and delivers the items.
+     * @return the fills made, in order
+     */
+    public List<Fill> takeBids(ItemStack template, UUID seller, int quantity, long minPrice) {
+        OrderBookKey key = OrderBookKey.of(template);
+        OrderBook book = books.get(key);
+        if (book == null) {
+            return List.of();
+        }
+
+        List<Fill> fills = new ArrayList<>();
+        while (quantity > 0) {
+            Order bid = book.bestOrderNotOwnedBy(OrderSide.BUY, seller);
+            if (bid == null || bid.getPrice() < minPrice) {
+                break;
+            }
+
+            int filled = Math.min(quantity, bid.getRemaining());
+            bid.fill(filled);
+            quantity -= filled;
+            if (bid.isFilled()) {
+                book.remove(bid);
+                forgetIfFilled(bid);
+            }
+            fills.add(new Fill(bid, filled, bid.getPrice()));
+        }
+
+        if (book.isEmpty()) {
+            books.remove(key);
+            templates.remove(key);
+        }
+        if (!fills.isEmpty()) {
+            setDirty();
+        }
+        return fills;
+    }
+
+    private void forgetIfFilled(Order order) {
+        if (order.isFilled()) {
+            ordersById.remove(order.getId());
+            keysById.remove(order.getId());
+        }
+    }
+
+    public int getOrderCount() {
+        return ordersById.size();
+    }
+
+    /**
+     * Hands out the escrow of buy orders dropped on load, once. The store is marked dirty so the
+     * dropped books are gone from the file before the refunds could be paid a second time.
+     */
+    public List<OrphanedEscrow> takeOrphanedEscrow() {
+        if (orphanedEscrow.isEmpty()) {
+            return List.of();
+        }
+        List<OrphanedEscrow> taken = List.copyOf(orphanedEscrow);
+        orphanedEscrow.clear();
+        setDirty();
+        return taken;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        ListTag bookList = new ListTag();
+        for (Map.Entry<OrderBookKey, OrderBook> entry : books.entrySet()) {
+            CompoundTag bookTag = new CompoundTag();
+            bookTag.put("item", templates.get(entry.getKey()).save(registries));
+
+            ListTag orderList = new ListTag();
+            entry.getValue().forEachOrder(order -> {
+                CompoundTag orderTag = new CompoundTag();
+                orderTag.putLong("id", order.getId());
+                orderTag.putUUID("owner", order.getOwner());
+                orderTag.putString("side", order.getSide().name());
+                orderTag.putLong("price", order.getPrice());
+                orderTag.putInt("quantity", order.getQuantity());
+                orderTag.putInt("remaining", order.getRemaining());
+                orderTag.putLong("sequence", order.getSequence());
+                orderList.add(orderTag);
+            });
+            bookTag.put("orders", orderList);
+            bookList.add(bookTag);
+        }
+
+        tag.put("books", bookList);
+        tag.putLong("nextOrderId", nextOrderId);
+        tag.putLong("nextSequence", nextSequence);
+        return tag;
+    }
+
+    private static OrderBookStore load(CompoundTag tag, HolderLookup.Provider registries) {
+        OrderBookStore store = new OrderBookStore();
+        store.nextOrderId = Math.max(1, tag.getLong("nextOrderId"));
+        store.nextSequence = Math.max(1, tag.getLong("nextSequence"));
+
+        ListTag bookList = tag.getList("books", Tag.TAG_COMPOUND);
+        for (int i = 0; i < bookList.size(); i++) {
+            CompoundTag bookTag = bookList.getCompound(i);
+            Optional<ItemStack> template = ItemStack.parse(registries, bookTag.getCompound("item"));
+            if (template.isEmpty()) {
+                FreeMarket.LOGGER.warn("Dropping order book with an item that no longer exists: {}", bookTag.getCompound("item"));
+                // The coins of its buy orders go back to their owners; sell orders' items are gone with the item
+                ListTag orderList = bookTag.getList("orders", Tag.TAG_COMPOUND);
+                for (int j = 0; j < orderList.size(); j++) {
+                    CompoundTag orderTag = orderList.getCompound(j);
+                    if (OrderSide.BUY.name().equals(orderTag.getString("side"))) {
+                        store.orphanedEscrow.add(new OrphanedEscrow(orderTag.getLong("id"), orderTag.getUUID("owner"),
+                            orderTag.getLong("price") * orderTag.getInt("remaining")));
+                    }
+                }
+                continue;
+            }
+
+            OrderBookKey key = OrderBookKey.of(template.get());
+            List<Order> orders = new ArrayList<>();
+            ListTag orderList = bookTag.getList("orders", Tag.TAG_COMPOUND);
+            for (int j = 0; j < orderList.size(); j++) {
+                CompoundTag orderTag = orderList.getCompound(j);
+                orders.add(new Order(
+                    orderTag.getLong("id"),
+                    orderTag.getUUID("owner"),
+                    OrderSide.valueOf(orderTag.getString("side")),
+                    orderTag.getLong("price"),
+                    orderTag.getInt("quantity"),
+                    orderTag.getInt("remaining"),
+                    orderTag.getLong("sequence")
+                ));
+            }
+
+            // Restore time priority within each price level
+            orders.sort((a, b) -> Long.compare(a.getSequence(), b.getSequence()));
+            for (Order order : orders) {
+                store.insert(key, template.get(), order);
+            }
+            store.booksToMatch.add(key);
+        }
+        return store;
+    }
+}
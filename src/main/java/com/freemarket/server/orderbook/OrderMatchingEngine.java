@@ -0,0 +1,186 @@
+package com.freemarket.server.orderbook;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.server.handlers.ServerInventoryHandler;
+import com.freemarket.server.handlers.ServerWalletHandler;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.mailbox.MailboxStore;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Places, cancels and matches player orders.
+ *
+ * <p>Placing an order takes its escrow up front: coins for buy orders ({@code price * quantity}),
+ * items for sell orders. Matching happens at the end of each server tick for the books that
+ * received orders, bounded by {@link Config#ORDER_MATCH_MAX_FILLS_PER_TICK}; a fill pays the seller
+ * at the trade price, refunds the buyer any difference to their limit price and delivers the items
+ * to the buyer, or to their mailbox ({@link MailboxStore}) if they are offline or out of space.
+ * An order that would trade with its owner's own order is cancelled and its escrow returned, and
+ * sales to the marketplace skip the seller's own buy orders.</p>
+ */
+public class OrderMatchingEngine {
+
+    /**
+     * Matches books that received orders since the last tick.
+     */
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        MinecraftServer server = event.getServer();
+        OrderBookStore store = OrderBookStore.get(server);
+        if (!store.hasBooksToMatch()) {
+            return;
+        }
+
+        store.matchPending(Config.ORDER_MATCH_MAX_FILLS_PER_TICK.get(),
+            (key, template, buy, sell, quantity, price) -> settleFill(server, template, buy, sell, quantity, price),
+            (template, order) -> {
+                returnEscrow(server, template, order);
+                notify(server, order.getOwner(), Component.translatable("message.FreeMarket.order.self_trade",
+                    order.getId(), template.getHoverName().getString()));
+            });
+    }
+
+    /**
+     * Returns the escrow of buy orders whose item no longer exists, found when the order books loaded.
+     */
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        MinecraftServer server = event.getServer();
+        for (OrderBookStore.OrphanedEscrow escrow : OrderBookStore.get(server).takeOrphanedEscrow()) {
+            ServerWalletHandler.addMoney(server, escrow.owner(), escrow.amount(), LedgerReason.ORDER_REFUND, orderReference(escrow.orderId()));
+            FreeMarket.LOGGER.info("Refunded {} coins escrowed by dropped order #{}", escrow.amount(), escrow.orderId());
+        }
+    }
+
+    /**
+     * Places a buy order, taking {@code price * quantity} coins from the player as escrow.
+     * @return the new order, or null if the player cannot afford it
+     * @throws ArithmeticException if the total cost does not fit in a long
+     */
+    public static Order placeBuyOrder(ServerPlayer player, ItemStack template, long price, int quantity) {
+        long cost = Math.multiplyExact(price, (long) quantity);
+        if (!ServerWalletHandler.removeMoney(player, cost, LedgerReason.ORDER_ESCROW, null)) {
+            return null;
+        }
+
+        Order order = OrderBookStore.get(player.server).placeOrder(template, player.getUUID(), OrderSide.BUY, price, quantity);
+        FreeMarket.LOGGER.debug("{} placed buy order #{}: {}x {} at {}", player.getName().getString(), order.getId(), quantity, template.getHoverName().getString(), price);
+        return order;
+    }
+
+    /**
+     * Places a sell order, taking the items from the player's inventory as escrow.
+     * @return the new order, or null if the player does not have enough matching items
+     */
+    public static Order placeSellOrder(ServerPlayer player, ItemStack template, long price, int quantity) {
+        if (ServerInventoryHandler.countMatching(player, template) < quantity
+                || !ServerInventoryHandler.removeMatching(player, template, quantity)) {
+            return null;
+        }
+
+        Order order = OrderBookStore.get(player.server).placeOrder(template, player.getUUID(), OrderSide.SELL, price, quantity);
+        FreeMarket.LOGGER.debug("{} placed sell order #{}: {}x {} at {}", player.getName().getString(), order.getId(), quantity, template.getHoverName().getString(), price);
+        return order;
+    }
+
+    /**
+     * Cancels one of the player's resting orders and returns what is left of its escrow.
+     * @return the cancelled order, or null if the player has no resting order with that id
+     */
+    public static Order cancelOrder(ServerPlayer player, long orderId) {
+        OrderBookStore store = OrderBookStore.get(player.server);
+        Order order = store.getOrder(orderId);
+        if (order == null || !order.getOwner().equals(player.getUUID())) {
+            return null;
+        }
+
+        ItemStack template = store.getTemplate(order);
+        store.removeOrder(order);
+        returnEscrow(player.server, template, order);
+        return order;
+    }
+
+    /**
+     * Returns the escrow of an order's unfilled remainder to its owner: coins for a buy order,
+     * items (through the mailbox) for a sell order.
+     */
+    private static void returnEscrow(MinecraftServer server, ItemStack template, Order order) {
+        if (order.getSide() == OrderSide.BUY) {
+            ServerWalletHandler.addMoney(server, order.getOwner(), order.getPrice() * order.getRemaining(),
+                LedgerReason.ORDER_REFUND, orderReference(order));
+        } else {
+            MailboxStore.deliver(server, order.getOwner(), template, order.getRemaining());
+        }
+    }
+
+    /**
+     * Sells items to standing buy orders before they go to the marketplace. The seller is paid each
+     * order's own price and the buyers receive the items, or get them on their next login. The
+     * seller's own buy orders are left alone.
+     * The caller has already taken the items from the seller.
+     * @param seller the player selling
+     * @param template the item being sold; its count is ignored
+     * @param quantity the number of items being sold
+     * @param minPrice the lowest price per item worth taking, e.g. what the marketplace pays
+     * @return the number of items sold to buy orders
+     */
+    public static int sellToBuyOrders(ServerPlayer seller, ItemStack template, int quantity, long minPrice) {
+        MinecraftServer server = seller.server;
+        List<OrderBookStore.Fill> fills = OrderBookStore.get(server).takeBids(template, seller.getUUID(), quantity, minPrice);
+
+        int sold = 0;
+        String itemName = template.getHoverName().getString();
+        for (OrderBookStore.Fill fill : fills) {
+            Order bid = fill.order();
+            ServerWalletHandler.addMoney(server, seller.getUUID(), fill.price() * fill.quantity(), LedgerReason.ORDER_FILL, orderReference(bid));
+            MailboxStore.deliver(server, bid.getOwner(), template, fill.quantity());
+            notify(server, bid.getOwner(), Component.translatable("message.FreeMarket.order.bought", fill.quantity(), itemName, fill.price(), bid.getId()));
+            sold += fill.quantity();
+        }
+        return sold;
+    }
+
+    /**
+     * Pays out one fill. The buyer's escrow covered their limit price, so the seller is paid from it
+     * and the rest is refunded.
+     */
+    private static void settleFill(MinecraftServer server, ItemStack template, Order buy, Order sell, int quantity, long price) {
+        ServerWalletHandler.addMoney(server, sell.getOwner(), price * quantity, LedgerReason.ORDER_FILL, orderReference(sell));
+
+        long refund = (buy.getPrice() - price) * quantity;
+        if (refund > 0) {
+            ServerWalletHandler.addMoney(server, buy.getOwner(), refund, LedgerReason.ORDER_REFUND, orderReference(buy));
+        }
+
+        MailboxStore.deliver(server, buy.getOwner(), template, quantity);
+
+        String itemName = template.getHoverName().getString();
+        notify(server, buy.getOwner(), Component.translatable("message.FreeMarket.order.bought", quantity, itemName, price, buy.getId()));
+        notify(server, sell.getOwner(), Component.translatable("message.FreeMarket.order.sold", quantity, itemName, price, sell.getId()));
+    }
+
+    private static void notify(MinecraftServer server, UUID playerId, Component message) {
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            player.sendSystemMessage(message);
+        }
+    }
+
+    private static String orderReference(Order order) {
+        return orderReference(order.getId());
+    }
+
+    private static String orderReference(long orderId) {
+        return "order:" + orderId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.freemarket.server.orderbook;
+
+/**
+ * Side of a player order: a bid to buy or an ask to sell.
+ */
+public enum OrderSide {
+    BUY,
+    SELL
+}
@@ -0,0 +1,228 @@
+package com.freemarket.server.pricing;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.common.data.FreeMarketItem;
+import com.freemarket.common.network.PriceDeltaPacket;
+import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.data.MarketCatalog;
+import com.freemarket.server.trade.CompletedTrade;
+import com.freemarket.server.trade.TradeRequest;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Optional supply and demand pricing for marketplace listings.
+ *
+ * <p>Trades only bump per-listing volume counters. Every pricing interval the counters are handed,
+ * together with the current {@link MarketCatalog} snapshot and the saved {@link PriceState}s, to a
+ * background thread that folds them into exponentially weighted moving averages and derives new prices:
+ * more buying than selling raises a listing's prices, more selling lowers them, always within the
+ * configured floor and ceiling around the admin-set price. The server thread only commits the result:
+ * it saves the changed prices and sends one {@link PriceDeltaPacket} with just the listings that moved.</p>
+ *
+ * <p>An admin editing a listing's price makes the new price its base price on the next batch.</p>
+ */
+public class DynamicPricingEngine {
+
+    /**
+     * Pricing settings captured on the server thread for one batch.
+     */
+    record Parameters(double smoothing, double sensitivity, int floorPercent, int ceilingPercent) {}
+
+    /**
+     * A listing whose prices moved, with the prices it was computed from.
+     */
+    record PriceChange(String guid, long fromBuy, long fromSell, long buyPrice, long sellPrice) {}
+
+    /**
+     * Output of one background batch.
+     */
+    record BatchResult(int generation, Map<String, PriceState> states, Map<String, PriceChange> changes) {}
+
+    // Items traded per listing since the last batch (server thread only)
+    private static final Object2IntOpenHashMap<String> boughtThisInterval = new Object2IntOpenHashMap<>();
+    private static final Object2IntOpenHashMap<String> soldThisInterval = new Object2IntOpenHashMap<>();
+
+    private static volatile BatchResult pendingResult;
+    private static volatile int generation = 0;
+    private static boolean batchRunning = false;
+    private static int ticksUntilBatch = 0;
+
+    /**
+     * Counts a committed trade towards its listing's volume. Registered as a trade listener.
+     */
+    public static void onTrade(CompletedTrade trade) {
+        if (!Config.DYNAMIC_PRICING_ENABLED.get()) {
+            return;
+        }
+        var counters = trade.type() == TradeRequest.Type.BUY ? boughtThisInterval : soldThisInterval;
+        counters.addTo(trade.item().getGuid(), trade.quantity());
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        if (!Config.DYNAMIC_PRICING_ENABLED.get()) {
+            return;
+        }
+
+        BatchResult result = pendingResult;
+        if (result != null) {
+            pendingResult = null;
+            batchRunning = false;
+            commit(event.getServer(), result);
+        }
+
+        if (batchRunning || --ticksUntilBatch > 0) {
+            return;
+        }
+        ticksUntilBatch = Config.DYNAMIC_PRICING_INTERVAL_SECONDS.get() * 20;
+        startBatch(event.getServer());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        // A batch still running belongs to the old world; its result is ignored
+        generation++;
+        pendingResult = null;
+        batchRunning = false;
+        ticksUntilBatch = 0;
+        boughtThisInterval.clear();
+        soldThisInterval.clear();
+    }
+
+    /**
+     * Snapshots everything the batch needs and computes the new prices on a background thread.
+     */
+    private static void startBatch(MinecraftServer server) {
+        MarketCatalog.Snapshot catalog = MarketCatalog.get(server);
+        Map<String, PriceState> states = PricingStore.get(server).snapshot();
+        Object2IntOpenHashMap<String> bought = new Object2IntOpenHashMap<>(boughtThisInterval);
+        Object2IntOpenHashMap<String> sold = new Object2IntOpenHashMap<>(soldThisInterval);
+        boughtThisInterval.clear();
+        soldThisInterval.clear();
+
+        Parameters parameters = new Parameters(
+            Config.DYNAMIC_PRICING_SMOOTHING.get(),
+            Config.DYNAMIC_PRICING_SENSITIVITY.get(),
+            Config.DYNAMIC_PRICING_FLOOR_PERCENT.get(),
+            Config.DYNAMIC_PRICING_CEILING_PERCENT.get()
+        );
+        int batchGeneration = generation;
+
+        batchRunning = true;
+        CompletableFuture.supplyAsync(() -> compute(batchGeneration, catalog, states, bought, sold, parameters), Util.backgroundExecutor())
+            .whenComplete((result, error) -> {
+                if (error != null) {
+                    FreeMarket.LOGGER.error("Dynamic pricing batch failed: {}", error.getMessage(), error);
+                    result = new BatchResult(batchGeneration, states, Map.of());
+                }
+                if (result.generation() == generation) {
+                    pendingResult = result;
+                }
+            });
+    }
+
+    /**
+     * Folds one interval's volumes into the moving averages and derives new prices. Pure function
+     * of its arguments, run off the server thread.
+     */
+    static BatchResult compute(int batchGeneration, MarketCatalog.Snapshot catalog, Map<String, PriceState> states,
+                               Object2IntOpenHashMap<String> bought, Object2IntOpenHashMap<String> sold, Parameters parameters) {
+        Map<String, PriceState> newStates = new HashMap<>();
+        Map<String, PriceChange> changes = new HashMap<>();
+        double alpha = parameters.smoothing();
+
+        for (FreeMarketItem item : catalog.items()) {
+            String guid = item.getGuid();
+            PriceState state = states.get(guid);
+            if (state == null) {
+                state = PriceState.initial(item.getBuyPrice(), item.getSellPrice());
+            } else if (state.lastBuy() != item.getBuyPrice() || state.lastSell() != item.getSellPrice()) {
+                // An admin changed the price: it becomes the new base, the volume history stays
+                state = new PriceState(item.getBuyPrice(), item.getSellPrice(), item.getBuyPrice(), item.getSellPrice(),
+                    state.buyVolume(), state.sellVolume());
+            }
+
+            double buyVolume = alpha * bought.getInt(guid) + (1 - alpha) * state.buyVolume();
+            double sellVolume = alpha * sold.getInt(guid) + (1 - alpha) * state.sellVolume();
+
+            // Imbalance is in (-1, 1): positive when players buy more than they sell
+            double imbalance = (buyVolume - sellVolume) / (buyVolume + sellVolume + 1);
+            double multiplier = 1 + parameters.sensitivity() * imbalance;
+
+            long buyPrice = reprice(state.baseBuy(), multiplier, parameters);
+            long sellPrice = reprice(state.baseSell(), multiplier, parameters);
+            newStates.put(guid, new PriceState(state.baseBuy(), state.baseSell(), buyPrice, sellPrice, buyVolume, sellVolume));
+
+            if (buyPrice != item.getBuyPrice() || sellPrice != item.getSellPrice()) {
+                changes.put(guid, new PriceChange(guid, item.getBuyPrice(), item.getSellPrice(), buyPrice, sellPrice));
+            }
+        }
+
+        return new BatchResult(batchGeneration, newStates, changes);
+    }
+
+    /**
+     * Scales a base price, clamped to the floor and ceiling. A price of 0 (not buyable or not sellable) stays 0.
+     */
+    private static long reprice(long basePrice, double multiplier, Parameters parameters) {
+        if (basePrice <= 0) {
+            return basePrice;
+        }
+        double floor = Math.max(1, basePrice * (parameters.floorPercent() / 100.0));
+        double ceiling = Math.max(floor, basePrice * (parameters.ceilingPercent() / 100.0));
+        double price = Math.max(floor, Math.min(ceiling, basePrice * multiplier));
+        return Math.round(price);
+    }
+
+    /**
+     * Applies a batch result on the server thread. Listings edited while the batch ran keep the
+     * admin's price and are re-based on the next batch.
+     */
+    private static void commit(MinecraftServer server, BatchResult result) {
+        PricingStore.get(server).replaceAll(result.states());
+        if (result.changes().isEmpty()) {
+            return;
+        }
+
+        MarketCatalog.Snapshot catalog = MarketCatalog.get(server);
+        List<FreeMarketItem> items = new ArrayList<>(catalog.items().size());
+        List<String> guids = new ArrayList<>();
+        List<Long> buyPrices = new ArrayList<>();
+        List<Long> sellPrices = new ArrayList<>();
+
+        for (FreeMarketItem item : catalog.items()) {
+            PriceChange change = result.changes().get(item.getGuid());
+            if (change == null || change.fromBuy() != item.getBuyPrice() || change.fromSell() != item.getSellPrice()) {
+                items.add(item);
+                continue;
+            }
+
+            items.add(new FreeMarketItem(item.getItemStack(), change.buyPrice(), change.sellPrice(), item.getQuantity(),
+                item.getSeller(), item.getGuid(), item.getComponentData()));
+            guids.add(item.getGuid());
+            buyPrices.add(change.buyPrice());
+            sellPrices.add(change.sellPrice());
+        }
+
+        if (guids.isEmpty()) {
+            return;
+        }
+
+        FreeMarketDataManager.saveFreeMarketItems(server.overworld(), items);
+        PacketDistributor.sendToAllPlayers(new PriceDeltaPacket(guids, buyPrices, sellPrices));
+        FreeMarket.LOGGER.debug("Dynamic pricing updated {} listings", guids.size());
+    }
+}
@@ -0,0 +1,20 @@
+package com.freemarket.server.pricing;
+
+/**
+ * Dynamic pricing state of one listing.
+ * @param baseBuy the buy price the admin set, which the floor and ceiling are relative to
+ * @param baseSell the sell price the admin set
+ * @param lastBuy the buy price dynamic pricing last published; a different listing price means an admin changed it
+ * @param lastSell the sell price dynamic pricing last published
+ * @param buyVolume exponentially weighted moving average of items bought per pricing interval
+ * @param sellVolume exponentially weighted moving average of items sold per pricing interval
+ */
+public record PriceState(long baseBuy, long baseSell, long lastBuy, long lastSell, double buyVolume, double sellVolume) {
+
+    /**
+     * Starts tracking a listing at its current prices.
+     */
+    public static PriceState initial(long buyPrice, long sellPrice) {
+        return new PriceState(buyPrice, sellPrice, buyPrice, sellPrice, 0, 0);
+    }
+}
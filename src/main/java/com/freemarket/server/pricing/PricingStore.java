@@ -0,0 +1,83 @@
+package com.freemarket.server.pricing;
+
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dynamic pricing state per listing GUID, stored as {@code data/freemarket_pricing.dat}.
+ * Replaced wholesale by each committed pricing batch; used only from the server thread.
+ */
+public class PricingStore extends SavedData {
+
+    private static final String DATA_NAME = "freemarket_pricing";
+
+    private static final SavedData.Factory<PricingStore> FACTORY =
+        new SavedData.Factory<>(PricingStore::new, PricingStore::load, null);
+
+    private Map<String, PriceState> states = new HashMap<>();
+
+    /**
+     * Gets the pricing store for a server, loading or creating it in the overworld data storage.
+     */
+    public static PricingStore get(MinecraftServer server) {
+        return server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    }
+
+    /**
+     * Returns a copy of all states, safe to hand to another thread.
+     */
+    public Map<String, PriceState> snapshot() {
+        return new HashMap<>(states);
+    }
+
+    /**
+     * Replaces all states with the result of a pricing batch. Listings that are gone are dropped.
+     */
+    public void replaceAll(Map<String, PriceState> newStates) {
+        this.states = new HashMap<>(newStates);
+        setDirty();
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        ListTag list = new ListTag();
+        for (Map.Entry<String, PriceState> entry : states.entrySet()) {
+            PriceState state = entry.getValue();
+            CompoundTag stateTag = new CompoundTag();
+            stateTag.putString("guid", entry.getKey());
+            stateTag.putLong("baseBuy", state.baseBuy());
+            stateTag.putLong("baseSell", state.baseSell());
+            stateTag.putLong("lastBuy", state.lastBuy());
+            stateTag.putLong("lastSell", state.lastSell());
+            stateTag.putDouble("buyVolume", state.buyVolume());
+            stateTag.putDouble("sellVolume", state.sellVolume());
+            list.add(stateTag);
+        }
+        tag.put("listings", list);
+        return tag;
+    }
+
+    private static PricingStore load(CompoundTag tag, HolderLookup.Provider registries) {
+        PricingStore store = new PricingStore();
+        ListTag list = tag.getList("listings", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag stateTag = list.getCompound(i);
+            store.states.put(stateTag.getString("guid"), new PriceState(
+                stateTag.getLong("baseBuy"),
+                stateTag.getLong("baseSell"),
+                stateTag.getLong("lastBuy"),
+                stateTag.getLong("lastSell"),
+                stateTag.getDouble("buyVolume"),
+                stateTag.getDouble("sellVolume")
+            ));
+        }
+        return store;
+    }
+}
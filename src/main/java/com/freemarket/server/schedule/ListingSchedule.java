@@ -0,0 +1,120 @@
+package com.freemarket.server.schedule;
+
+/**
+ * Restock rule, stock level and expiry of one marketplace listing.
+ *
+ * <p>Listings without a schedule have unlimited stock and never expire. A listing with a restock rule
+ * has limited stock: buying takes items out of it, and every interval {@code restockAmount} items
+ * are added back up to {@code restockCap}. Player-created listings have limited stock without a
+ * restock rule: the items their owner put in.</p>
+ */
+public class ListingSchedule {
+
+    private final String guid;
+    private int stock = -1;
+    private int restockAmount;
+    private long restockIntervalMillis;
+    private int restockCap;
+    private long nextRestockAt;
+    private long expiresAt;
+
+    ListingSchedule(String guid) {
+        this.guid = guid;
+    }
+
+    public String getGuid() {
+        return guid;
+    }
+
+    /**
+     * Items left to buy, or -1 for unlimited stock.
+     */
+    public int getStock() {
+        return stock;
+    }
+
+    public boolean hasLimitedStock() {
+        return stock >= 0;
+    }
+
+    public boolean hasRestock() {
+        return nextRestockAt > 0;
+    }
+
+    public int getRestockAmount() {
+        return restockAmount;
+    }
+
+    public long getRestockIntervalMillis() {
+        return restockIntervalMillis;
+    }
+
+    public int getRestockCap() {
+        return restockCap;
+    }
+
+    /**
+     * When the next restock is due in epoch milliseconds, or 0 without a restock rule.
+     */
+    public long getNextRestockAt() {
+        return nextRestockAt;
+    }
+
+    public boolean hasExpiry() {
+        return expiresAt > 0;
+    }
+
+    /**
+     * When the listing expires in epoch milliseconds, or 0 if it never does.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    void setStock(int stock) {
+        this.stock = stock;
+    }
+
+    void setRestock(int amount, long intervalMillis, int cap, long nextRestockAt) {
+        this.restockAmount = amount;
+        this.restockIntervalMillis = intervalMillis;
+        this.restockCap = cap;
+        this.nextRestockAt = nextRestockAt;
+    }
+
+    void clearRestock() {
+        this.restockAmount = 0;
+        this.restockIntervalMillis = 0;
+        this.restockCap = 0;
+        this.nextRestockAt = 0;
+        this.stock = -1;
+    }
+
+    void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Applies every restock that came due by {@code now}, catching up on intervals missed while
+     * the server was down in one step.
+     * @return true if the stock changed
+     */
+    boolean restock(long now) {
+        if (!hasRestock() || now < nextRestockAt) {
+            return false;
+        }
+        long intervals = (now - nextRestockAt) / restockIntervalMillis + 1;
+        nextRestockAt += intervals * restockIntervalMillis;
+        long restocked = Math.min((long) restockCap, stock + intervals * restockAmount);
+        int oldStock = stock;
+        stock = (int) Math.max(stock, restocked);
+        return stock != oldStock;
+    }
+
+    /**
+     * Whether the listing has no restock rule, expiry or limited stock left and can be forgotten.
+     */
+    boolean isEmpty() {
+        return !hasRestock() && !hasExpiry() && !hasLimitedStock();
+    }
+}
@@ -0,0 +1,242 @@
+package com.freemarket.server.schedule;
+
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Listing restock rules, stock levels and expiries, stored as {@code data/freemarket_schedules.dat}.
+ *
+ * <p>Next event times sit in a min-heap, so finding due listings only looks at the top of the heap
+ * and never at the catalog. Changing a schedule pushes its new times without removing the old ones;
+ * when an old entry comes due it no longer matches the schedule and is skipped. The heap is not
+ * saved; it is rebuilt from the schedules when the store loads.</p>
+ *
+ * <p>Used only from the server thread.</p>
+ */
+public class ListingScheduleStore extends SavedData {
+
+    private static final String DATA_NAME = "freemarket_schedules";
+
+    private static final SavedData.Factory<ListingScheduleStore> FACTORY =
+        new SavedData.Factory<>(ListingScheduleStore::new, ListingScheduleStore::load, null);
+
+    /**
+     * A pending restock or expiry of a listing.
+     */
+    private record Due(long time, String guid) {}
+
+    private final Map<String, ListingSchedule> schedules = new HashMap<>();
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparingLong(Due::time));
+
+    /**
+     * Gets the schedule store for a server, loading or creating it in the overworld data storage.
+     */
+    public static ListingScheduleStore get(MinecraftServer server) {
+        return server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    }
+
+    /**
+     * Gets a listing's schedule, or null if it has none.
+     */
+    public ListingSchedule get(String guid) {
+        return schedules.get(guid);
+    }
+
+    public Collection<ListingSchedule> getAll() {
+        return Collections.unmodifiableCollection(schedules.values());
+    }
+
+    /**
+     * Gives a listing limited stock, starting full, that grows by {@code amount} every interval up to {@code cap}.
+     */
+    public ListingSchedule setRestock(String guid, int amount, long intervalMillis, int cap, long now) {
+        ListingSchedule schedule = schedules.computeIfAbsent(guid, ListingSchedule::new);
+        schedule.setRestock(amount, intervalMillis, cap, now + intervalMillis);
+        schedule.setStock(cap);
+        queue.add(new Due(schedule.getNextRestockAt(), guid));
+        setDirty();
+        return schedule;
+    }
+
+    /**
+     * Gives a listing a fixed stock without a restock rule, e.g. the items a player put up for sale.
+     */
+    public ListingSchedule setStock(String guid, int stock) {
+        ListingSchedule schedule = schedules.computeIfAbsent(guid, ListingSchedule::new);
+        schedule.setStock(stock);
+        setDirty();
+        return schedule;
+    }
+
+    /**
+     * Removes a listing's restock rule, making its stock unlimited again.
+     */
+    public void clearRestock(String guid) {
+        ListingSchedule schedule = schedules.get(guid);
+        if (schedule != null) {
+            schedule.clearRestock();
+            forgetIfEmpty(schedule);
+            setDirty();
+        }
+    }
+
+    /**
+     * Makes a listing expire at {@code expiresAt}.
+     */
+    public ListingSchedule setExpiry(String guid, long expiresAt) {
+        ListingSchedule schedule = schedules.computeIfAbsent(guid, ListingSchedule::new);
+        schedule.setExpiresAt(expiresAt);
+        queue.add(new Due(expiresAt, guid));
+        setDirty();
+        return schedule;
+    }
+
+    /**
+     * Removes a listing's expiry.
+     */
+    public void clearExpiry(String guid) {
+        ListingSchedule schedule = schedules.get(guid);
+        if (schedule != null) {
+            schedule.setExpiresAt(0);
+            forgetIfEmpty(schedule);
+            setDirty();
+        }
+    }
+
+    /**
+     * Forgets a listing's schedule entirely, e.g. when the listing was removed.
+     */
+    public void remove(String guid) {
+        if (schedules.remove(guid) != null) {
+            setDirty();
+        }
+    }
+
+    /**
+     * Takes items out of a listing's stock. Listings with unlimited stock always succeed.
+     * @return true if there was enough stock
+     */
+    public boolean takeStock(String guid, int count) {
+        ListingSchedule schedule = schedules.get(guid);
+        if (schedule == null || !schedule.hasLimitedStock()) {
+            return true;
+        }
+        if (schedule.getStock() < count) {
+            return false;
+        }
+        schedule.setStock(schedule.getStock() - count);
+        setDirty();
+        return true;
+    }
+
+    /**
+     * Puts items back into a listing's stock after a purchase that did not go through.
+     */
+    public void returnStock(String guid, int count) {
+        ListingSchedule schedule = schedules.get(guid);
+        if (schedule != null && schedule.hasLimitedStock()) {
+            schedule.setStock(schedule.getStock() + count);
+            setDirty();
+        }
+    }
+
+    /**
+     * Checks whether the earliest pending event is due. Only looks at the top of the heap.
+     */
+    public boolean hasDue(long now) {
+        Due head = queue.peek();
+        return head != null && head.time() <= now;
+    }
+
+    /**
+     * Processes up to {@code maxEvents} due events in time order.
+     * Restocks are applied and rescheduled here; each restocked listing is passed to {@code restocked}
+     * and each expired listing to {@code expired}, which must decide what happens to the listing.
+     * Expired schedules lose their expiry; a listing may show up in both consumers in one call.
+     * @return the number of heap entries taken, including stale ones
+     */
+    public int pollDue(long now, int maxEvents, Consumer<ListingSchedule> restocked, Consumer<ListingSchedule> expired) {
+        int taken = 0;
+        while (taken < maxEvents && hasDue(now)) {
+            Due due = queue.poll();
+            taken++;
+            ListingSchedule schedule = schedules.get(due.guid());
+            if (schedule == null) {
+                continue;
+            }
+
+            if (schedule.hasRestock() && schedule.getNextRestockAt() == due.time()) {
+                if (schedule.restock(now)) {
+                    restocked.accept(schedule);
+                }
+                queue.add(new Due(schedule.getNextRestockAt(), schedule.getGuid()));
+                setDirty();
+            }
+            if (schedule.hasExpiry() && schedule.getExpiresAt() == due.time()) {
+                schedule.setExpiresAt(0);
+                expired.accept(schedule);
+                setDirty();
+            }
+        }
+        return taken;
+    }
+
+    private void forgetIfEmpty(ListingSchedule schedule) {
+        if (schedule.isEmpty()) {
+            schedules.remove(schedule.getGuid());
+        }
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        ListTag list = new ListTag();
+        for (ListingSchedule schedule : schedules.values()) {
+            CompoundTag scheduleTag = new CompoundTag();
+            scheduleTag.putString("guid", schedule.getGuid());
+            scheduleTag.putInt("stock", schedule.getStock());
+            scheduleTag.putInt("restockAmount", schedule.getRestockAmount());
+            scheduleTag.putLong("restockInterval", schedule.getRestockIntervalMillis());
+            scheduleTag.putInt("restockCap", schedule.getRestockCap());
+            scheduleTag.putLong("nextRestockAt", schedule.getNextRestockAt());
+            scheduleTag.putLong("expiresAt", schedule.getExpiresAt());
+            list.add(scheduleTag);
+        }
+        tag.put("schedules", list);
+        return tag;
+    }
+
+    private static ListingScheduleStore load(CompoundTag tag, HolderLookup.Provider registries) {
+        ListingScheduleStore store = new ListingScheduleStore();
+        ListTag list = tag.getList("schedules", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundTag scheduleTag = list.getCompound(i);
+            ListingSchedule schedule = new ListingSchedule(scheduleTag.getString("guid"));
+            if (scheduleTag.getLong("nextRestockAt") > 0 && scheduleTag.getLong("restockInterval") > 0) {
+                schedule.setRestock(scheduleTag.getInt("restockAmount"), scheduleTag.getLong("restockInterval"),
+                    scheduleTag.getInt("restockCap"), scheduleTag.getLong("nextRestockAt"));
+                store.queue.add(new Due(schedule.getNextRestockAt(), schedule.getGuid()));
+            }
+            schedule.setStock(scheduleTag.contains("stock") ? scheduleTag.getInt("stock") : -1);
+            if (scheduleTag.getLong("expiresAt") > 0) {
+                schedule.setExpiresAt(scheduleTag.getLong("expiresAt"));
+                store.queue.add(new Due(schedule.getExpiresAt(), schedule.getGuid()));
+            }
+            if (!schedule.isEmpty()) {
+                store.schedules.put(schedule.getGuid(), schedule);
+            }
+        }
+        return store;
+    }
+}
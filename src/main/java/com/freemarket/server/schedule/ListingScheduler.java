@@ -0,0 +1,186 @@
+package com.freemarket.server.schedule;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.common.data.FreeMarketItem;
+import com.freemarket.common.network.ListingDeltaPacket;
+import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.data.MarketCatalog;
+import com.freemarket.server.seller.PlayerListings;
+import com.freemarket.server.seller.SellerRegistry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies listing restocks and expiries when they come due and keeps clients' stock levels current.
+ *
+ * <p>At the end of each server tick the {@link ListingScheduleStore} heap is checked for due events;
+ * when nothing is due that is a single peek. Due restocks and expiries are applied as one batch
+ * (capped by {@link Config#LISTING_SCHEDULE_MAX_EVENTS_PER_TICK}), expired listings are removed from
+ * the marketplace with one save, and one {@link ListingDeltaPacket} carries the batch to all players
+ * together with any stock bought during the tick. Player listings whose stock was bought out are
+ * removed in the same batch, so they no longer count toward their owner's listing limit.</p>
+ */
+public class ListingScheduler {
+
+    // Listings whose stock changed since the last delta was sent (server thread only)
+    private static final Set<String> changedStock = new LinkedHashSet<>();
+    // Listings whose stock ran out since the last tick (server thread only)
+    private static final Set<String> soldOut = new LinkedHashSet<>();
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        MinecraftServer server = event.getServer();
+        ListingScheduleStore store = ListingScheduleStore.get(server);
+        long now = System.currentTimeMillis();
+
+        List<String> expired = new ArrayList<>();
+        if (store.hasDue(now)) {
+            MarketCatalog.Snapshot catalog = MarketCatalog.get(server);
+            store.pollDue(now, Config.LISTING_SCHEDULE_MAX_EVENTS_PER_TICK.get(),
+                schedule -> {
+                    if (catalog.find(schedule.getGuid()) == null) {
+                        // The listing was deleted; its schedule goes with it
+                        store.remove(schedule.getGuid());
+                    } else {
+                        changedStock.add(schedule.getGuid());
+                    }
+                },
+                schedule -> expired.add(schedule.getGuid()));
+        }
+        if (!soldOut.isEmpty()) {
+            collectSoldOutPlayerListings(server, store, expired);
+        }
+        if (!expired.isEmpty()) {
+            removeListings(server, expired);
+        }
+        if (expired.isEmpty() && changedStock.isEmpty()) {
+            return;
+        }
+
+        List<String> stockGuids = new ArrayList<>(changedStock.size());
+        List<Integer> stock = new ArrayList<>(changedStock.size());
+        for (String guid : changedStock) {
+            ListingSchedule schedule = store.get(guid);
+            stockGuids.add(guid);
+            stock.add(schedule == null ? -1 : schedule.getStock());
+        }
+        changedStock.clear();
+        PacketDistributor.sendToAllPlayers(new ListingDeltaPacket(expired, stockGuids, stock));
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        changedStock.clear();
+        soldOut.clear();
+    }
+
+    /**
+     * Takes a purchase out of a listing's stock. Listings with unlimited stock always succeed.
+     * @return true if there was enough stock
+     */
+    public static boolean takeStock(MinecraftServer server, String guid, int count) {
+        ListingScheduleStore store = ListingScheduleStore.get(server);
+        ListingSchedule schedule = store.get(guid);
+        if (schedule == null || !schedule.hasLimitedStock()) {
+            return true;
+        }
+        if (!store.takeStock(guid, count)) {
+            return false;
+        }
+        changedStock.add(guid);
+        if (schedule.getStock() == 0 && !schedule.hasRestock()) {
+            soldOut.add(guid);
+        }
+        return true;
+    }
+
+    /**
+     * Puts a purchase back into a listing's stock when it did not go through.
+     */
+    public static void returnStock(MinecraftServer server, String guid, int count) {
+        ListingScheduleStore store = ListingScheduleStore.get(server);
+        ListingSchedule schedule = store.get(guid);
+        if (schedule != null && schedule.hasLimitedStock()) {
+            store.returnStock(guid, count);
+            changedStock.add(guid);
+        }
+    }
+
+    /**
+     * Queues a listing's stock for the next delta, e.g. after its restock rule changed.
+     */
+    public static void markChanged(String guid) {
+        changedStock.add(guid);
+    }
+
+    /**
+     * Sends the stock of every listing with limited stock to a player who just joined.
+     */
+    public static void syncStockTo(ServerPlayer player) {
+        List<String> stockGuids = new ArrayList<>();
+        List<Integer> stock = new ArrayList<>();
+        for (ListingSchedule schedule : ListingScheduleStore.get(player.server).getAll()) {
+            if (schedule.hasLimitedStock()) {
+                stockGuids.add(schedule.getGuid());
+                stock.add(schedule.getStock());
+            }
+        }
+        if (!stockGuids.isEmpty()) {
+            PacketDistributor.sendToPlayer(player, new ListingDeltaPacket(List.of(), stockGuids, stock));
+        }
+    }
+
+    /**
+     * Adds the player listings that are still sold out to the listings to remove. The stock check is
+     * repeated because a purchase that did not go through puts its stock back.
+     */
+    private static void collectSoldOutPlayerListings(MinecraftServer server, ListingScheduleStore store, List<String> removed) {
+        SellerRegistry sellers = SellerRegistry.get(server);
+        for (String guid : soldOut) {
+            ListingSchedule schedule = store.get(guid);
+            if (schedule != null && schedule.getStock() == 0 && !schedule.hasRestock()
+                    && sellers.getOwner(guid) != null && !removed.contains(guid)) {
+                removed.add(guid);
+            }
+        }
+        soldOut.clear();
+    }
+
+    /**
+     * Removes expired listings from the marketplace with a single save.
+     * Unsold stock of expired player listings goes back to their owners. Also used for sold-out
+     * player listings, which have no stock to return.
+     */
+    private static void removeListings(MinecraftServer server, List<String> expired) {
+        Set<String> expiredGuids = new HashSet<>(expired);
+        MarketCatalog.Snapshot snapshot = MarketCatalog.get(server);
+        List<FreeMarketItem> catalog = snapshot.items();
+        List<FreeMarketItem> items = new ArrayList<>(catalog.size());
+        for (FreeMarketItem item : catalog) {
+            if (!expiredGuids.contains(item.getGuid())) {
+                items.add(item);
+            }
+        }
+        for (String guid : expired) {
+            PlayerListings.onListingRemoved(server, guid, snapshot.find(guid));
+            changedStock.remove(guid);
+        }
+        
+        int removed = catalog.size() - items.size();
+        if (removed > 0) {
+            FreeMarketDataManager.saveFreeMarketItems(server.overworld(), items);
+            FreeMarket.LOGGER.info("Removed {} expired or sold-out marketplace listings", removed);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.freemarket.server.seller;
+
+import com.freemarket.FreeMarket;
+import com.freemarket.common.attachments.ItemComponentHandler;
+import com.freemarket.common.data.FreeMarketItem;
+import com.freemarket.server.analytics.MarketAnalytics;
+import com.freemarket.server.data.FreeMarketDataManager;
+import com.freemarket.server.data.MarketCatalog;
+import com.freemarket.server.handlers.ServerItemHandler;
+import com.freemarket.server.handlers.ServerWalletHandler;
+import com.freemarket.server.history.PriceHistoryStore;
+import com.freemarket.server.ledger.LedgerReason;
+import com.freemarket.server.mailbox.MailboxStore;
+import com.freemarket.server.network.ServerMarketplaceSync;
+import com.freemarket.server.schedule.ListingSchedule;
+import com.freemarket.server.schedule.ListingScheduleStore;
+import com.freemarket.server.schedule.ListingScheduler;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Marketplace listings created by players from their own items.
+ *
+ * <p>A player listing sells lots of the item the player held when creating it. The items are taken
+ * from the player up front and become the listing's stock in the {@link ListingScheduleStore}; the
+ * marketplace does not buy into player listings. Every purchase pays the buy price to the owner:
+ * straight into their wallet if they are online, otherwise into their pending payout in the
+ * {@link SellerRegistry}, which is credited in one go when they next log in.</p>
+ *
+ * <p>When a player listing is cancelled, expires or is removed by an admin, the unsold stock goes
+ * back to the owner through {@link MailboxStore}. A player listing whose stock is bought out is
+ * removed by the {@link ListingScheduler} on the next tick.</p>
+ */
+public class PlayerListings {
+
+    /**
+     * Outcome of creating a listing.
+     */
+    public enum CreateResult {
+        CREATED,
+        EMPTY_HAND,
+        LOT_TOO_LARGE,
+        TOO_MANY_LISTINGS
+    }
+
+    /**
+     * Puts the lots in the player's main hand up for sale. Items left over after whole lots stay in the hand.
+     * @param price what a buyer pays for one lot
+     * @param lotSize items per purchase
+     */
+    public static CreateResult createListing(ServerPlayer player, long price, int lotSize, int maxListings) {
+        ItemStack heldItem = player.getMainHandItem();
+        if (heldItem.isEmpty()) {
+            return CreateResult.EMPTY_HAND;
+        }
+        if (lotSize > heldItem.getCount() || lotSize > heldItem.getMaxStackSize()) {
+            return CreateResult.LOT_TOO_LARGE;
+        }
+        MinecraftServer server = player.server;
+        SellerRegistry sellers = SellerRegistry.get(server);
+        if (sellers.getListings(player.getUUID()).size() >= maxListings) {
+            return CreateResult.TOO_MANY_LISTINGS;
+        }
+
+        int stock = heldItem.getCount() - heldItem.getCount() % lotSize;
+        ItemStack lot = heldItem.copyWithCount(lotSize);
+        heldItem.shrink(stock);
+
+        String guid = UUID.randomUUID().toString();
+        FreeMarketItem listing = new FreeMarketItem(lot, price, 0, lotSize, player.getName().getString(), guid,
+            ItemComponentHandler.getComponentData(lot));
+        sellers.register(guid, player.getUUID());
+        ListingScheduleStore.get(server).setStock(guid, stock);
+        ListingScheduler.markChanged(guid);
+
+        List<FreeMarketItem> items = new ArrayList<>(MarketCatalog.get(server).items());
+        items.add(listing);
+        FreeMarketDataManager.saveFreeMarketItems(server.overworld(), items);
+        ServerMarketplaceSync.syncToAllPlayers(server.overworld(), items);
+
+        FreeMarket.LOGGER.info("Player {} listed {}x {} in lots of {} for {} coins",
+            player.getName().getString(), stock, lot.getHoverName().getString(), lotSize, price);
+        return CreateResult.CREATED;
+    }
+
+    /**
+     * Cancels a player's own listing and gives the unsold stock back.
+     * @return the cancelled listing, or null if the player does not own a listing with that GUID
+     */
+    public static FreeMarketItem cancelListing(ServerPlayer player, String guid) {
+        MinecraftServer server = player.server;
+        if (!player.getUUID().equals(SellerRegistry.get(server).getOwner(guid))) {
+            return null;
+        }
+        FreeMarketItem listing = MarketCatalog.get(server).find(guid);
+        if (listing == null) {
+            // Listing already gone; only the ownership record was left
+            onListingRemoved(server, guid, null);
+            return null;
+        }
+
+        List<FreeMarketItem> items = new ArrayList<>(MarketCatalog.get(server).items());
+        items.removeIf(item -> item.getGuid().equals(guid));
+        FreeMarketDataManager.saveFreeMarketItems(server.overworld(), items);
+        ServerMarketplaceSync.syncToAllPlayers(server.overworld(), items);
+        onListingRemoved(server, guid, listing);
+        return listing;
+    }
+
+    /**
+     * Gets a player's listings through the seller index, without scanning the catalog.
+     */
+    public static List<FreeMarketItem> getListings(MinecraftServer server, UUID owner) {
+        MarketCatalog.Snapshot catalog = MarketCatalog.get(server);
+        List<FreeMarketItem> listings = new ArrayList<>();
+        for (String guid : SellerRegistry.get(server).getListings(owner)) {
+            FreeMarketItem listing = catalog.find(guid);
+            if (listing != null) {
+                listings.add(listing);
+            }
+        }
+        return listings;
+    }
+
+    /**
+     * Checks whether a listing belongs to a player.
+     */
+    public static boolean isOwnedBy(MinecraftServer server, String guid, UUID playerId) {
+        return playerId.equals(SellerRegistry.get(server).getOwner(guid));
+    }
+
+    /**
+     * Pays the proceeds of a purchase to the listing's owner. Does nothing for marketplace listings.
+     */
+    public static void payOwner(MinecraftServer server, String guid, long amount) {
+        SellerRegistry sellers = SellerRegistry.get(server);
+        UUID owner = sellers.getOwner(guid);
+        if (owner == null || amount <= 0) {
+            return;
+        }
+        if (server.getPlayerList().getPlayer(owner) != null) {
+            ServerWalletHandler.addMoney(server, owner, amount, LedgerReason.LISTING_SALE, guid);
+        } else {
+            sellers.addPayout(owner, amount);
+        }
+    }
+
+    /**
+     * Credits everything that was sold while the player was offline in one wallet change.
+     */
+    public static void settlePayouts(ServerPlayer player) {
+        long amount = SellerRegistry.get(player.server).takePayout(player.getUUID());
+        if (amount > 0) {
+            ServerWalletHandler.addMoney(player.server, player.getUUID(), amount, LedgerReason.LISTING_SALE, null);
+            player.sendSystemMessage(Component.translatable("message.FreeMarket.listing.payout", amount));
+        }
+    }
+
+    /**
+     * Cleans up after a listing left the marketplace: its schedule, price history and analytics are
+     * dropped, and if it was a player listing, its unsold stock goes back to the owner and the
+     * ownership record is dropped.
+     * @param listing the removed listing, or null if it is no longer known (no stock is returned)
+     */
+    public static void onListingRemoved(MinecraftServer server, String guid, FreeMarketItem listing) {
+        UUID owner = SellerRegistry.get(server).unregister(guid);
+        ListingScheduleStore schedules = ListingScheduleStore.get(server);
+        ListingSchedule schedule = schedules.get(guid);
+        if (owner != null && listing != null && schedule != null && schedule.getStock() > 0) {
+            ItemStack template = ServerItemHandler.createItemWithComponentData(listing.getItemStack(), listing.getComponentData(), server);
+            MailboxStore.deliver(server, owner, template, schedule.getStock());
+        }
+        schedules.remove(guid);
+        PriceHistoryStore.remove(guid);
+        MarketAnalytics.remove(guid);
+    }
+}
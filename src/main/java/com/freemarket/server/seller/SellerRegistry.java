@@ -0,0 +1,161 @@
+package com.freemarket.server.seller;
+
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Owners of player-created listings and the proceeds waiting for them, stored as
+ * {@code data/freemarket_sellers.dat}.
+ *
+ * <p>Listings map to their owner, and a seller index maps each owner to their listings, so a
+ * player's listings are found in O(k) for k listings instead of scanning the catalog. The index is
+ * not saved; it is rebuilt from the owners when the registry loads.</p>
+ *
+ * <p>Proceeds of sales made while the owner was offline add up in one amount per owner and are
+ * paid out as a single wallet credit when they log in.</p>
+ *
+ * <p>Used only from the server thread.</p>
+ */
+public class SellerRegistry extends SavedData {
+
+    private static final String DATA_NAME = "freemarket_sellers";
+
+    private static final SavedData.Factory<SellerRegistry> FACTORY =
+        new SavedData.Factory<>(SellerRegistry::new, SellerRegistry::load, null);
+
+    private final Map<String, UUID> ownerByListing = new HashMap<>();
+    private final Map<UUID, Set<String>> listingsByOwner = new HashMap<>();
+    private final Object2LongOpenHashMap<UUID> pendingPayouts = new Object2LongOpenHashMap<>();
+
+    /**
+     * Gets the seller registry for a server, loading or creating it in the overworld data storage.
+     */
+    public static SellerRegistry get(MinecraftServer server) {
+        return server.overworld().getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    }
+
+    /**
+     * Records a player as the owner of a listing.
+     */
+    public void register(String guid, UUID owner) {
+        putOwner(guid, owner);
+        setDirty();
+    }
+
+    /**
+     * Forgets a listing's owner.
+     * @return the owner, or null if the listing was not player-owned
+     */
+    public UUID unregister(String guid) {
+        UUID owner = ownerByListing.remove(guid);
+        if (owner == null) {
+            return null;
+        }
+        removeFromIndex(owner, guid);
+        setDirty();
+        return owner;
+    }
+
+    /**
+     * Gets a listing's owner, or null for marketplace listings.
+     */
+    public UUID getOwner(String guid) {
+        return ownerByListing.get(guid);
+    }
+
+    /**
+     * Gets the GUIDs of a player's listings, in the order they were created.
+     */
+    public Set<String> getListings(UUID owner) {
+        Set<String> listings = listingsByOwner.get(owner);
+        return listings == null ? Set.of() : Collections.unmodifiableSet(listings);
+    }
+
+    /**
+     * Adds proceeds for an offline owner.
+     */
+    public void addPayout(UUID owner, long amount) {
+        pendingPayouts.addTo(owner, amount);
+        setDirty();
+    }
+
+    /**
+     * Removes and returns everything owed to an owner.
+     */
+    public long takePayout(UUID owner) {
+        long amount = pendingPayouts.removeLong(owner);
+        if (amount != 0) {
+            setDirty();
+        }
+        return amount;
+    }
+
+    private void putOwner(String guid, UUID owner) {
+        UUID previous = ownerByListing.put(guid, owner);
+        if (previous != null && !previous.equals(owner)) {
+            removeFromIndex(previous, guid);
+        }
+        listingsByOwner.computeIfAbsent(owner, id -> new LinkedHashSet<>()).add(guid);
+    }
+
+    private void removeFromIndex(UUID owner, String guid) {
+        Set<String> listings = listingsByOwner.get(owner);
+        if (listings != null) {
+            listings.remove(guid);
+            if (listings.isEmpty()) {
+                listingsByOwner.remove(owner);
+            }
+        }
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+        ListTag listings = new ListTag();
+        for (Map.Entry<String, UUID> entry : ownerByListing.entrySet()) {
+            CompoundTag listingTag = new CompoundTag();
+            listingTag.putString("guid", entry.getKey());
+            listingTag.putUUID("owner", entry.getValue());
+            listings.add(listingTag);
+        }
+        tag.put("listings", listings);
+
+        ListTag payouts = new ListTag();
+        for (Object2LongMap.Entry<UUID> entry : pendingPayouts.object2LongEntrySet()) {
+            CompoundTag payoutTag = new CompoundTag();
+            payoutTag.putUUID("owner", entry.getKey());
+            payoutTag.putLong("amount", entry.getLongValue());
+            payouts.add(payoutTag);
+        }
+        tag.put("payouts", payouts);
+        return tag;
+    }
+
+    private static SellerRegistry load(CompoundTag tag, HolderLookup.Provider registries) {
+        SellerRegistry registry = new SellerRegistry();
+        ListTag listings = tag.getList("listings", Tag.TAG_COMPOUND);
+        for (int i = 0; i < listings.size(); i++) {
+            CompoundTag listingTag = listings.getCompound(i);
+            registry.putOwner(listingTag.getString("guid"), listingTag.getUUID("owner"));
+        }
+
+        ListTag payouts = tag.getList("payouts", Tag.TAG_COMPOUND);
+        for (int i = 0; i < payouts.size(); i++) {
+            CompoundTag payoutTag = payouts.getCompound(i);
+            registry.pendingPayouts.addTo(payoutTag.getUUID("owner"), payoutTag.getLong("amount"));
+        }
+        return registry;
+    }
+}
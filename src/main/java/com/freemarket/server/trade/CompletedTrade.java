@@ -0,0 +1,17 @@
+package com.freemarket.server.trade;
+
+import com.freemarket.common.data.FreeMarketItem;
+
+import java.util.UUID;
+
+/**
+ * A marketplace trade that was committed, as passed to {@link TradeListener}s.
+ * @param type buy or sell
+ * @param playerId the player who traded
+ * @param item the listing at the time of the trade
+ * @param quantity number of items that changed hands with the listing; items a sale matched against
+ *                 standing buy orders are not included
+ * @param price the listing price paid or received for the whole quantity
+ * @param timestamp when the trade was committed, in epoch milliseconds
+ */
+public record CompletedTrade(TradeRequest.Type type, UUID playerId, FreeMarketItem item, int quantity, long price, long timestamp) {}
@@ -0,0 +1,220 @@
+package com.freemarket.server.trade;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.common.network.BuyItemNetworkHandler;
+import com.freemarket.common.network.BuyItemResponsePacket;
+import com.freemarket.common.network.SellItemNetworkHandler;
+import com.freemarket.common.network.SellItemResponsePacket;
+import com.freemarket.server.data.MarketCatalog;
+import com.freemarket.server.handlers.ServerWalletHandler;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects validated buy/sell requests and commits them in one batch per server tick.
+ *
+ * <p>Requests are first validated off the server thread by the {@link TradeValidator}, which looks up
+ * the listing in the {@link com.freemarket.server.data.MarketCatalog} snapshot and builds its prototype
+ * ItemStack. Only the commit happens here: each trade is re-validated against the current catalog
+ * revision, then the inventory and wallet are updated. Processing stops when the configured time budget
+ * is used up; the remaining trades carry over to the next tick in arrival order. Responses are coalesced
+ * to at most one buy and one sell response per player per tick, each carrying the player's final balance.
+ * The part of each successful trade that went through the listing is passed to the registered
+ * {@link TradeListeners}.</p>
+ */
+public class TradeBatchProcessor {
+
+    // Trades returned by the validator workers, drained on the server thread
+    private static final Queue<ValidatedTrade> VALIDATED = new ConcurrentLinkedQueue<>();
+
+    // Trades waiting to be committed, in arrival order (server thread only)
+    private static final ArrayDeque<ValidatedTrade> backlog = new ArrayDeque<>();
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    // Metrics from the last processed batch
+    private static int lastBatchProcessed = 0;
+    private static int lastBatchCarriedOver = 0;
+    private static long lastBatchNanos = 0;
+    private static long totalProcessed = 0;
+
+    /**
+     * Queues a trade request for validation and commit on a following server tick.
+     * Safe to call from any thread.
+     */
+    public static void submit(TradeRequest.Type type, ServerPlayer player, String itemGuid) {
+        TradeRequest request = new TradeRequest(sequence.incrementAndGet(), type, player, itemGuid);
+        TradeValidator.submit(request, player.server, VALIDATED::add);
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(ServerTickEvent.Post event) {
+        if (!VALIDATED.isEmpty()) {
+            // Workers finish out of order; restore arrival order before queueing
+            List<ValidatedTrade> arrived = new ArrayList<>();
+            ValidatedTrade trade;
+            while ((trade = VALIDATED.poll()) != null) {
+                arrived.add(trade);
+            }
+            arrived.sort(Comparator.comparingLong(validated -> validated.request().sequence()));
+            backlog.addAll(arrived);
+        }
+
+        if (backlog.isEmpty()) {
+            return;
+        }
+
+        processBatch(event.getServer());
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        // Drop anything still queued so stale player references don't leak into the next world
+        TradeValidator.shutdown();
+        VALIDATED.clear();
+        backlog.clear();
+        MarketCatalog.clear();
+    }
+
+    /**
+     * Commits as many backlog trades as fit in the tick budget.
+     */
+    private static void processBatch(MinecraftServer server) {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + Config.TRADE_TICK_BUDGET_MS.get() * 1_000_000L;
+
+        Map<UUID, PlayerResults> results = new LinkedHashMap<>();
+        int processed = 0;
+
+        // Always make progress on at least one trade per tick
+        while (!backlog.isEmpty() && (processed == 0 || System.nanoTime() < deadline)) {
+            ValidatedTrade trade = backlog.pollFirst();
+            TradeRequest request = trade.request();
+            ServerPlayer player = request.player();
+            if (player.hasDisconnected()) {
+                continue;
+            }
+
+            // Optimistic check: the listing may have changed since the worker validated it
+            trade = TradeValidator.revalidate(trade, server);
+
+            TradeOutcome outcome;
+            if (trade.isRejected()) {
+                outcome = trade.rejection();
+            } else if (request.type() == TradeRequest.Type.BUY) {
+                outcome = BuyItemNetworkHandler.executeBuy(player, trade.item(), trade.prototype());
+            } else {
+                outcome = SellItemNetworkHandler.executeSell(player, trade.item(), trade.prototype());
+            }
+
+            // A sale filled entirely by standing buy orders did not trade with the listing
+            if (outcome.success() && outcome.quantity() > 0) {
+                TradeListeners.fire(new CompletedTrade(request.type(), player.getUUID(), trade.item(),
+                    outcome.quantity(), outcome.price(), System.currentTimeMillis()));
+            }
+
+            results.computeIfAbsent(player.getUUID(), uuid -> new PlayerResults(player))
+                .record(request.type(), outcome);
+            processed++;
+        }
+
+        for (PlayerResults playerResults : results.values()) {
+            playerResults.flush();
+        }
+
+        lastBatchProcessed = processed;
+        lastBatchCarriedOver = backlog.size();
+        lastBatchNanos = System.nanoTime() - startNanos;
+        totalProcessed += processed;
+
+        if (!backlog.isEmpty()) {
+            FreeMarket.LOGGER.debug("Trade batch processed {} requests in {} us, {} carried over to next tick",
+                processed, lastBatchNanos / 1000, backlog.size());
+        }
+    }
+
+    public static int getLastBatchProcessed() {
+        return lastBatchProcessed;
+    }
+
+    public static int getLastBatchCarriedOver() {
+        return lastBatchCarriedOver;
+    }
+
+    public static long getLastBatchNanos() {
+        return lastBatchNanos;
+    }
+
+    public static long getTotalProcessed() {
+        return totalProcessed;
+    }
+
+    public static int getPendingCount() {
+        return VALIDATED.size() + backlog.size();
+    }
+
+    /**
+     * Accumulates one player's trade outcomes for the current tick.
+     */
+    private static class PlayerResults {
+        private final ServerPlayer player;
+        private final Summary buys = new Summary();
+        private final Summary sells = new Summary();
+
+        PlayerResults(ServerPlayer player) {
+            this.player = player;
+        }
+
+        void record(TradeRequest.Type type, TradeOutcome outcome) {
+            (type == TradeRequest.Type.BUY ? buys : sells).record(outcome);
+        }
+
+        /**
+         * Sends at most one buy and one sell response, both carrying the final balance.
+         */
+        void flush() {
+            long balance = ServerWalletHandler.getPlayerMoney(player);
+            if (buys.count > 0) {
+                PacketDistributor.sendToPlayer(player, new BuyItemResponsePacket(buys.anySuccess, buys.message("Purchase successful"), balance));
+            }
+            if (sells.count > 0) {
+                PacketDistributor.sendToPlayer(player, new SellItemResponsePacket(sells.anySuccess, sells.message("Sale successful"), balance));
+            }
+        }
+    }
+
+    private static class Summary {
+        int count;
+        boolean anySuccess;
+        String lastFailure;
+
+        void record(TradeOutcome outcome) {
+            count++;
+            if (outcome.success()) {
+                anySuccess = true;
+            } else {
+                lastFailure = outcome.message();
+            }
+        }
+
+        String message(String successMessage) {
+            return lastFailure != null ? lastFailure : successMessage;
+        }
+    }
+}
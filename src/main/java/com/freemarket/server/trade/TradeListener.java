@@ -0,0 +1,11 @@
+package com.freemarket.server.trade;
+
+/**
+ * Receives every committed marketplace trade. Called on the server thread, in commit order,
+ * so implementations must be quick and hand anything heavy to another thread.
+ */
+@FunctionalInterface
+public interface TradeListener {
+
+    void onTrade(CompletedTrade trade);
+}
@@ -0,0 +1,32 @@
+package com.freemarket.server.trade;
+
+import com.freemarket.FreeMarket;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of {@link TradeListener}s notified by the {@link TradeBatchProcessor} after each successful trade.
+ * Listeners are registered once during mod construction and live for the whole game.
+ */
+public class TradeListeners {
+
+    private static final List<TradeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    public static void register(TradeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Passes a trade to every listener. A failing listener is logged and does not stop the others.
+     */
+    static void fire(CompletedTrade trade) {
+        for (TradeListener listener : LISTENERS) {
+            try {
+                listener.onTrade(trade);
+            } catch (Exception e) {
+                FreeMarket.LOGGER.error("Trade listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+}
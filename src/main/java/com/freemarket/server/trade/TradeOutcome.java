@@ -0,0 +1,18 @@
+package com.freemarket.server.trade;
+
+/**
+ * Result of executing a single trade on the server.
+ * @param quantity number of items the marketplace listing itself bought or sold; items matched
+ *                 against standing orders are not counted
+ * @param price what the listing charged or paid for that quantity
+ */
+public record TradeOutcome(boolean success, String message, int quantity, long price) {
+
+    public static TradeOutcome success(String message, int quantity, long price) {
+        return new TradeOutcome(true, message, quantity, price);
+    }
+
+    public static TradeOutcome failure(String message) {
+        return new TradeOutcome(false, message, 0, 0);
+    }
+}
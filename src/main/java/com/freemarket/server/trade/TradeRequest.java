@@ -0,0 +1,15 @@
+package com.freemarket.server.trade;
+
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * A buy or sell request received from a client, waiting to be processed by the {@link TradeBatchProcessor}.
+ * The sequence number preserves arrival order when requests carry over between ticks.
+ */
+public record TradeRequest(long sequence, Type type, ServerPlayer player, String itemGuid) {
+
+    public enum Type {
+        BUY,
+        SELL
+    }
+}
@@ -0,0 +1,154 @@
+package com.freemarket.server.trade;
+
+import com.freemarket.Config;
+import com.freemarket.FreeMarket;
+import com.freemarket.common.data.FreeMarketItem;
+import com.freemarket.server.data.MarketCatalog;
+import com.freemarket.server.handlers.ServerItemHandler;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Validates trade requests on a worker pool against the immutable {@link MarketCatalog} snapshot.
+ *
+ * <p>Finding the listing and decoding its component data into a prototype ItemStack happen here,
+ * off the server thread; funds are left to the commit. The result is handed back to the
+ * {@link TradeBatchProcessor}, which re-validates against the catalog revision and commits the
+ * inventory and wallet changes on the server thread.</p>
+ *
+ * <p>Prototype stacks are cached per listing for the current catalog revision and are never
+ * modified after creation, so they can be shared between threads.</p>
+ */
+public class TradeValidator {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private static ExecutorService executor;
+
+    // Prototype stacks for the catalog revision they were built from
+    private static volatile PrototypeCache prototypes = new PrototypeCache(0, new ConcurrentHashMap<>());
+
+    private record PrototypeCache(long revision, Map<String, ItemStack> stacks) {}
+
+    /**
+     * Validates a request on the worker pool and passes the result to the sink.
+     * The sink is called from a worker thread.
+     */
+    public static void submit(TradeRequest request, MinecraftServer server, Consumer<ValidatedTrade> sink) {
+        try {
+            getExecutor().execute(() -> sink.accept(validateSafely(request, server)));
+        } catch (RejectedExecutionException e) {
+            // Pool is shutting down with the server; validate inline so the request isn't lost
+            sink.accept(validateSafely(request, server));
+        }
+    }
+
+    private static ValidatedTrade validateSafely(TradeRequest request, MinecraftServer server) {
+        try {
+            return validate(request, server);
+        } catch (Exception e) {
+            FreeMarket.LOGGER.error("Failed to validate trade request for item {}: {}", request.itemGuid(), e.getMessage());
+            return ValidatedTrade.rejected(request, MarketCatalog.getRevision(), "Trade validation failed");
+        }
+    }
+
+    /**
+     * Validates a request against the current catalog snapshot.
+     * Safe to call from any thread.
+     */
+    private static ValidatedTrade validate(TradeRequest request, MinecraftServer server) {
+        MarketCatalog.Snapshot snapshot = MarketCatalog.get(server);
+        FreeMarketItem item = snapshot.find(request.itemGuid());
+        if (item == null) {
+            return ValidatedTrade.rejected(request, snapshot.revision(), "Item not found");
+        }
+
+        // Funds are not checked here: trades earlier in the same batch may still change the balance,
+        // so the wallet is only checked when the trade is committed on the server thread
+
+        return ValidatedTrade.accepted(request, snapshot.revision(), item, getPrototype(snapshot.revision(), item, server));
+    }
+
+    /**
+     * Re-validates a trade on the server thread just before it is committed.
+     * If the catalog changed since validation, the listing is looked up again and its prototype rebuilt
+     * when the listing itself changed.
+     */
+    public static ValidatedTrade revalidate(ValidatedTrade trade, MinecraftServer server) {
+        if (trade.isRejected()) {
+            return trade;
+        }
+
+        MarketCatalog.Snapshot snapshot = MarketCatalog.get(server);
+        if (snapshot.revision() == trade.revision()) {
+            return trade;
+        }
+
+        FreeMarketItem current = snapshot.find(trade.request().itemGuid());
+        if (current == null) {
+            return ValidatedTrade.rejected(trade.request(), snapshot.revision(), "Item not found");
+        }
+
+        if (isSameListing(current, trade.item())) {
+            // Prices and contents unchanged; the existing prototype is still valid
+            return ValidatedTrade.accepted(trade.request(), snapshot.revision(), current, trade.prototype());
+        }
+
+        return ValidatedTrade.accepted(trade.request(), snapshot.revision(), current, getPrototype(snapshot.revision(), current, server));
+    }
+
+    private static boolean isSameListing(FreeMarketItem a, FreeMarketItem b) {
+        return a.getBuyPrice() == b.getBuyPrice()
+            && a.getSellPrice() == b.getSellPrice()
+            && Objects.equals(a.getComponentData(), b.getComponentData())
+            && ItemStack.matches(a.getItemStack(), b.getItemStack());
+    }
+
+    /**
+     * Gets the cached prototype stack for a listing, building it if needed.
+     */
+    private static ItemStack getPrototype(long revision, FreeMarketItem item, MinecraftServer server) {
+        PrototypeCache cache = prototypes;
+        if (revision < cache.revision()) {
+            // Validated against an older snapshot; build without polluting the newer cache
+            return ServerItemHandler.createItemWithComponentData(item.getItemStack(), item.getComponentData(), server);
+        }
+        if (revision > cache.revision()) {
+            cache = new PrototypeCache(revision, new ConcurrentHashMap<>());
+            prototypes = cache;
+        }
+        return cache.stacks().computeIfAbsent(item.getGuid(),
+            guid -> ServerItemHandler.createItemWithComponentData(item.getItemStack(), item.getComponentData(), server));
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(Config.TRADE_VALIDATION_THREADS.get(), runnable -> {
+                Thread thread = new Thread(runnable, "FreeMarket-TradeValidator-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the worker pool and drops cached prototypes. Called when the server stops.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        prototypes = new PrototypeCache(0, new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,24 @@
+package com.freemarket.server.trade;
+
+import com.freemarket.common.data.FreeMarketItem;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * A trade request after off-thread validation by the {@link TradeValidator}.
+ * Either carries the listing and its prototype stack as seen at {@code revision},
+ * or a rejection that is reported to the player without touching the server state.
+ */
+public record ValidatedTrade(TradeRequest request, long revision, FreeMarketItem item, ItemStack prototype, TradeOutcome rejection) {
+
+    public static ValidatedTrade accepted(TradeRequest request, long revision, FreeMarketItem item, ItemStack prototype) {
+        return new ValidatedTrade(request, revision, item, prototype, null);
+    }
+
+    public static ValidatedTrade rejected(TradeRequest request, long revision, String message) {
+        return new ValidatedTrade(request, revision, null, null, TradeOutcome.failure(message));
+    }
+
+    public boolean isRejected() {
+        return rejection != null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.freemarket.client.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FuzzyMatcherTest {
+
+    @Test
+    void transposedTermStillPassesTrigramBound() {
+        // Swapping "ia" to "ai" leaves only "ond" shared with "diamond"
+        String term = "dimaond";
+        String text = "diamond";
+        assertEquals(1, sharedTrigrams(term, text));
+        assertTrue(sharedTrigrams(term, text) >= FuzzyMatcher.minSharedTrigrams(term));
+        assertTrue(FuzzyMatcher.score(text, new String[]{term}) > 0);
+    }
+
+    @Test
+    void repeatedTrigramsAreCountedOnce() {
+        // "aaaaa" has three trigram positions but one distinct trigram
+        String term = "aaaaa";
+        assertTrue(sharedTrigrams(term, "aaaaa") >= FuzzyMatcher.minSharedTrigrams(term));
+        assertTrue(sharedTrigrams("banana", "banana") >= FuzzyMatcher.minSharedTrigrams("banana"));
+    }
+
+    @Test
+    void exactTermPassesTrigramBound() {
+        String term = "netherite";
+        assertTrue(sharedTrigrams(term, "netherite sword") >= FuzzyMatcher.minSharedTrigrams(term));
+    }
+
+    private static int sharedTrigrams(String term, String text) {
+        Set<String> termTrigrams = trigrams(term);
+        termTrigrams.retainAll(trigrams(text));
+        return termTrigrams.size();
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
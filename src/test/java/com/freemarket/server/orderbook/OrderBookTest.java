@@ -0,0 +1,72 @@
+package com.freemarket.server.orderbook;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderBookTest {
+
+    private static final int BENCHMARK_ORDERS = 100_000;
+
+    @Test
+    void matchesRandomOrdersAndReportsThroughput() {
+        // Random orders around a common price, matching after every order the way the live engine does
+        SplittableRandom random = new SplittableRandom(BENCHMARK_ORDERS);
+        OrderBook book = new OrderBook();
+        int[] fills = new int[1];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ORDERS; i++) {
+            OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+            long price = 90 + random.nextInt(21);
+            int quantity = 1 + random.nextInt(64);
+            // Each order has its own owner, so self-trade prevention never kicks in
+            book.add(new Order(i, new UUID(0, i), side, price, quantity, quantity, i));
+            book.match(Integer.MAX_VALUE, (buy, sell, filled, tradePrice) -> fills[0]++, order -> {});
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("Matched %d orders (%d fills) in %d ms: %d orders/second%n",
+            BENCHMARK_ORDERS, fills[0], nanos / 1_000_000, nanos > 0 ? BENCHMARK_ORDERS * 1_000_000_000L / nanos : BENCHMARK_ORDERS);
+        assertTrue(fills[0] > 0);
+        assertFalse(book.isCrossed());
+    }
+
+    @Test
+    void restingOrderSetsThePrice() {
+        OrderBook book = new OrderBook();
+        book.add(new Order(1, new UUID(0, 1), OrderSide.SELL, 100, 10, 10, 1));
+        book.add(new Order(2, new UUID(0, 2), OrderSide.BUY, 110, 4, 4, 2));
+
+        List<Long> prices = new ArrayList<>();
+        int fills = book.match(Integer.MAX_VALUE, (buy, sell, quantity, price) -> prices.add(price), order -> {});
+
+        assertEquals(1, fills);
+        assertEquals(List.of(100L), prices);
+        assertEquals(6, book.bestOrder(OrderSide.SELL).getRemaining());
+    }
+
+    @Test
+    void cancelsTheNewerOrderInsteadOfTradingWithTheSameOwner() {
+        UUID owner = new UUID(0, 1);
+        OrderBook book = new OrderBook();
+        book.add(new Order(1, owner, OrderSide.SELL, 100, 5, 5, 1));
+        book.add(new Order(2, owner, OrderSide.BUY, 100, 5, 5, 2));
+
+        List<Order> cancelled = new ArrayList<>();
+        int fills = book.match(Integer.MAX_VALUE, (buy, sell, quantity, price) -> {}, cancelled::add);
+
+        assertEquals(0, fills);
+        assertEquals(1, cancelled.size());
+        assertEquals(2, cancelled.get(0).getId());
+        assertEquals(1, book.getOrderCount());
+        assertEquals(1, book.bestOrder(OrderSide.SELL).getId());
+    }
+}